@@ -70,6 +70,7 @@ public class JavaRulingTest {
 
   private static final String INCREMENTAL_ANALYSIS_KEY = "sonar.java.skipUnchanged";
   private static final String SONAR_CACHING_ENABLED_KEY = "sonar.analysisCache.enabled";
+  private static final String JFR_PROPERTY = "sonar.java.performance.jfr";
 
   // by default all rules are enabled, if you want to enable just a subset of rules you can specify the list of
   // rule keys from the command line using "rules" property, i.e. mvn test -Drules=S100,S101
@@ -392,6 +393,11 @@ public class JavaRulingTest {
 
   private static void executeBuildWithCommonProperties(Build<?> build, String projectName, boolean buildQuietly) throws IOException {
     build.setProperty("sonar.scanner.skipJreProvisioning", "true");
+    if (Boolean.getBoolean(JFR_PROPERTY)) {
+      // low overhead profiling, one recording per project, summed by PerformanceStatistics
+      build.setProperty(JFR_PROPERTY, "true")
+        .setProperty("sonar.java.performance.jfr.path", "target/performance/" + projectName + ".jfr");
+    }
     build.setProperty("sonar.cpd.exclusions", "**/*")
       .setProperty("sonar.java.performance.measure", "true")
       .setProperty("sonar.java.performance.measure.path", "target/performance/sonar.java.performance.measure.json")
@@ -17,16 +17,25 @@
 package org.sonar.java.it;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.sonarsource.performance.measure.DurationMeasure;
 import org.sonarsource.performance.measure.DurationMeasureFiles;
 
 public class PerformanceStatistics {
 
+  private static final String EVENT_PREFIX = "org.sonar.java.";
+
   public static void main(String[] args) throws IOException {
     PerformanceStatistics.generate(Paths.get("target","performance"));
   }
@@ -46,6 +55,42 @@ public class PerformanceStatistics {
     measure.recursiveMergeOnUpperLevel("JavaWriteCache.write");
     Path performanceStatFile = performanceDirectory.resolve("sonar.java.performance.statistics.txt");
     DurationMeasureFiles.writeStatistics(performanceStatFile, measure, categoryNames, groupedMeasurePredicate);
+
+    generateFromRecordings(performanceDirectory);
+  }
+
+  /**
+   * Sums the events of the JFR recordings (sonar.java.performance.jfr) found in the directory: the time of each phase, and
+   * the time of each check over all the files.
+   */
+  public static void generateFromRecordings(Path performanceDirectory) throws IOException {
+    List<Path> recordings;
+    try (Stream<Path> files = Files.list(performanceDirectory)) {
+      recordings = files.filter(file -> file.toString().endsWith(".jfr")).sorted().toList();
+    }
+    if (recordings.isEmpty()) {
+      return;
+    }
+    Map<String, Long> nanosByName = new HashMap<>();
+    for (Path recording : recordings) {
+      for (RecordedEvent event : RecordingFile.readAllEvents(recording)) {
+        String type = event.getEventType().getName();
+        if (!type.startsWith(EVENT_PREFIX)) {
+          continue;
+        }
+        String name = type.substring(EVENT_PREFIX.length());
+        if (event.hasField("check")) {
+          name += " " + event.getString("check");
+        }
+        long nanos = event.hasField("time") ? event.getLong("time") : event.getDuration().toNanos();
+        nanosByName.merge(name, nanos, Long::sum);
+      }
+    }
+    List<String> lines = nanosByName.entrySet().stream()
+      .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+      .map(entry -> String.format("%10d ms %s", TimeUnit.NANOSECONDS.toMillis(entry.getValue()), entry.getKey()))
+      .toList();
+    Files.write(performanceDirectory.resolve("sonar.java.performance.jfr.statistics.txt"), lines, StandardCharsets.UTF_8);
   }
 
 }
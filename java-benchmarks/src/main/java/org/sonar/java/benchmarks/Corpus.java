@@ -0,0 +1,135 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.java.model.JParser;
+import org.sonar.java.model.JParserConfig;
+import org.sonar.java.test.classpath.TestClasspathUtils;
+import org.sonar.plugins.java.api.JavaVersion;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+/**
+ * Java sources used as input by the benchmarks, read from the offline projects of this repository:
+ * <ul>
+ *   <li>{@value #JAVA_CHECKS_TEST_SOURCES}: the main sources of {@code java-checks-test-sources/default}, resolved against its
+ *   test classpath when the module has been built</li>
+ *   <li>{@value #ITS_PLUGIN_PROJECTS}: the sources of the projects in {@code its/plugin/projects}, without classpath</li>
+ * </ul>
+ * Files are sorted by path, so that a given corpus and file count always designate the same sources.
+ */
+public final class Corpus {
+
+  public static final String JAVA_CHECKS_TEST_SOURCES = "java-checks-test-sources";
+  public static final String ITS_PLUGIN_PROJECTS = "its-plugin-projects";
+
+  private final List<InputFile> inputFiles;
+  private final List<File> classpath;
+
+  private Corpus(List<InputFile> inputFiles, List<File> classpath) {
+    this.inputFiles = inputFiles;
+    this.classpath = classpath;
+  }
+
+  public static Corpus load(String name, int maxFiles) {
+    TestClasspathUtils.Module module;
+    String sourceDirectory;
+    switch (name) {
+      case JAVA_CHECKS_TEST_SOURCES -> {
+        module = TestClasspathUtils.DEFAULT_MODULE;
+        sourceDirectory = "src/main/java";
+      }
+      case ITS_PLUGIN_PROJECTS -> {
+        module = new TestClasspathUtils.Module("its/plugin/projects");
+        sourceDirectory = ".";
+      }
+      default -> throw new IllegalArgumentException("Unknown corpus: " + name);
+    }
+    String modulePath = module.getPath();
+    if (modulePath == null) {
+      throw new IllegalStateException("Unable to find the sources of corpus '" + name + "', benchmarks have to be run from the sonar-java repository.");
+    }
+    Path baseDir = Path.of(modulePath);
+    List<InputFile> inputFiles = new ArrayList<>();
+    try (Stream<Path> files = Files.walk(baseDir.resolve(sourceDirectory))) {
+      for (Path file : files.filter(Corpus::isJavaSource).sorted().limit(maxFiles).toList()) {
+        inputFiles.add(inputFile(baseDir, file));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    List<File> classpath = JAVA_CHECKS_TEST_SOURCES.equals(name) ? module.getClassPath() : List.of();
+    return new Corpus(inputFiles, classpath);
+  }
+
+  private static boolean isJavaSource(Path file) {
+    return file.toString().endsWith(".java") && Files.isRegularFile(file) && !file.toString().contains(File.separator + "target" + File.separator);
+  }
+
+  private static InputFile inputFile(Path baseDir, Path file) throws IOException {
+    String contents = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    return TestInputFileBuilder.create("", baseDir.toFile(), file.toFile())
+      .setContents(contents)
+      .setCharset(StandardCharsets.UTF_8)
+      .setLanguage("java")
+      .build();
+  }
+
+  public List<InputFile> inputFiles() {
+    return inputFiles;
+  }
+
+  public List<File> classpath() {
+    return classpath;
+  }
+
+  public JavaVersion javaVersion() {
+    return JParserConfig.MAXIMUM_SUPPORTED_JAVA_VERSION;
+  }
+
+  /**
+   * Parses the sources of the corpus file by file. Files which cannot be parsed are left out.
+   * Each file gets its own parser, so that the classpath stays open for the semantic queries of the benchmarks using the trees.
+   */
+  public List<ParsedFile> parse() {
+    List<ParsedFile> parsedFiles = new ArrayList<>();
+    JParserConfig config = JParserConfig.Mode.FILE_BY_FILE.create(javaVersion(), classpath());
+    String version = javaVersion().effectiveJavaVersionAsString();
+    for (InputFile inputFile : inputFiles) {
+      try {
+        parsedFiles.add(new ParsedFile(inputFile, JParser.parse(config.astParser(), version, inputFile.filename(), inputFile.contents())));
+      } catch (Exception e) {
+        // syntax errors are expected in the sources used to test the checks
+      }
+    }
+    return parsedFiles;
+  }
+
+  public record ParsedFile(InputFile inputFile, CompilationUnitTree tree) {
+  }
+
+}
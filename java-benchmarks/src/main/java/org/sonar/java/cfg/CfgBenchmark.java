@@ -0,0 +1,87 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.cfg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.java.benchmarks.Corpus;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+/**
+ * Construction of the control flow graphs of all the methods of the corpus, and liveness analysis of these graphs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CfgBenchmark {
+
+  @Param({Corpus.JAVA_CHECKS_TEST_SOURCES, Corpus.ITS_PLUGIN_PROJECTS})
+  public String corpus;
+
+  @Param("100")
+  public int maxFiles;
+
+  private final List<MethodTree> methods = new ArrayList<>();
+  private final List<CFG> cfgs = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    BaseTreeVisitor methodCollector = new BaseTreeVisitor() {
+      @Override
+      public void visitMethod(MethodTree tree) {
+        if (tree.block() != null) {
+          methods.add(tree);
+        }
+        super.visitMethod(tree);
+      }
+    };
+    Corpus.load(corpus, maxFiles).parse().forEach(file -> file.tree().accept(methodCollector));
+    methods.forEach(method -> cfgs.add(CFG.build(method)));
+  }
+
+  @Benchmark
+  public void build(Blackhole blackhole) {
+    for (MethodTree method : methods) {
+      blackhole.consume(CFG.build(method));
+    }
+  }
+
+  @Benchmark
+  public void liveVariables(Blackhole blackhole) {
+    for (CFG cfg : cfgs) {
+      blackhole.consume(LiveVariables.analyze(cfg));
+    }
+  }
+
+}
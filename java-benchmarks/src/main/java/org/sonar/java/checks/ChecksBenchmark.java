@@ -0,0 +1,85 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.checks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.benchmarks.Corpus;
+import org.sonar.java.testing.VisitorsBridgeForTests;
+import org.sonar.plugins.java.api.JavaFileScanner;
+
+/**
+ * Execution of some of the most expensive checks on the corpus, one check at a time. Issues are collected in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChecksBenchmark {
+
+  @Param({Corpus.JAVA_CHECKS_TEST_SOURCES, Corpus.ITS_PLUGIN_PROJECTS})
+  public String corpus;
+
+  @Param("100")
+  public int maxFiles;
+
+  /**
+   * Name of the check class, relative to the {@code org.sonar.java.checks} package.
+   */
+  @Param({
+    "CognitiveComplexityMethodCheck",
+    "DeadStoreCheck",
+    "HardCodedSecretCheck",
+    "StringLiteralDuplicatedCheck",
+    "regex.RedosCheck",
+    "unused.UnusedPrivateMethodCheck"
+  })
+  public String check;
+
+  private List<Corpus.ParsedFile> files;
+  private VisitorsBridgeForTests visitorsBridge;
+
+  @Setup
+  public void setup() throws ReflectiveOperationException {
+    Corpus sources = Corpus.load(corpus, maxFiles);
+    files = sources.parse();
+    JavaFileScanner scanner = (JavaFileScanner) Class.forName("org.sonar.java.checks." + check).getConstructor().newInstance();
+    visitorsBridge = new VisitorsBridgeForTests(List.of(scanner), sources.classpath(), null, sources.javaVersion());
+  }
+
+  @Benchmark
+  public void scan() {
+    for (Corpus.ParsedFile file : files) {
+      visitorsBridge.setCurrentFile(file.inputFile());
+      visitorsBridge.visitFile(file.tree(), false);
+    }
+  }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.matcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.benchmarks.Corpus;
+import org.sonar.plugins.java.api.semantic.MethodMatchers;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+
+/**
+ * Matching of all the method invocations of the corpus against a set of matchers similar to the ones used by the checks:
+ * matching on exact types, on subtypes, on any type, with and without parameters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MethodMatchersBenchmark {
+
+  private static final MethodMatchers MATCHERS = MethodMatchers.or(
+    MethodMatchers.create().ofSubTypes("java.util.Collection").names("add", "remove", "contains").withAnyParameters().build(),
+    MethodMatchers.create().ofSubTypes("java.util.Map").names("get", "put", "containsKey").withAnyParameters().build(),
+    MethodMatchers.create().ofTypes("java.lang.String").names("equals").addParametersMatcher("java.lang.Object").build(),
+    MethodMatchers.create().ofTypes("java.lang.String").names("format").withAnyParameters().build(),
+    MethodMatchers.create().ofSubTypes("java.io.Closeable").names("close").addWithoutParametersMatcher().build(),
+    MethodMatchers.create().ofTypes("java.util.regex.Pattern").names("compile", "matches").withAnyParameters().build(),
+    MethodMatchers.create().ofAnyType().names("toString", "hashCode").addWithoutParametersMatcher().build());
+
+  @Param({Corpus.JAVA_CHECKS_TEST_SOURCES, Corpus.ITS_PLUGIN_PROJECTS})
+  public String corpus;
+
+  @Param("100")
+  public int maxFiles;
+
+  private final List<MethodInvocationTree> invocations = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    BaseTreeVisitor invocationCollector = new BaseTreeVisitor() {
+      @Override
+      public void visitMethodInvocation(MethodInvocationTree tree) {
+        invocations.add(tree);
+        super.visitMethodInvocation(tree);
+      }
+    };
+    Corpus.load(corpus, maxFiles).parse().forEach(file -> file.tree().accept(invocationCollector));
+  }
+
+  @Benchmark
+  public int matches() {
+    int matching = 0;
+    for (MethodInvocationTree invocation : invocations) {
+      if (MATCHERS.matches(invocation)) {
+        matching++;
+      }
+    }
+    return matching;
+  }
+
+}
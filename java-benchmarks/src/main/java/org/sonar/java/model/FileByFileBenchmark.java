@@ -0,0 +1,132 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.AnalysisProgress;
+import org.sonar.java.benchmarks.Corpus;
+
+/**
+ * Per-file latency of the file by file mode, on the classpath of the corpus extended with generated jars:
+ * {@link #parserPerFile} creates an {@link org.eclipse.jdt.core.dom.ASTParser} for each file, opening all the jars again,
+ * while {@link #sharedEnvironment} goes through {@link JParserConfig#parse}, which opens them once for all the files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileByFileBenchmark {
+
+  private static final int FILES = 50;
+  private static final int CLASSES_PER_JAR = 20;
+
+  @Param({"0", "500"})
+  public int generatedJars;
+
+  private Path jarsDirectory;
+  private List<File> classpath;
+  private List<InputFile> inputFiles;
+  private String version;
+
+  @Setup
+  public void setup() throws IOException {
+    Corpus sources = Corpus.load(Corpus.JAVA_CHECKS_TEST_SOURCES, FILES);
+    version = sources.javaVersion().effectiveJavaVersionAsString();
+    inputFiles = sources.inputFiles();
+    classpath = new ArrayList<>(sources.classpath());
+    jarsDirectory = Files.createTempDirectory("file-by-file-benchmark");
+    byte[] classFile = classFile();
+    for (int i = 0; i < generatedJars; i++) {
+      Path jar = jarsDirectory.resolve("generated-" + i + ".jar");
+      try (OutputStream out = Files.newOutputStream(jar); JarOutputStream jarOut = new JarOutputStream(out)) {
+        for (int j = 0; j < CLASSES_PER_JAR; j++) {
+          jarOut.putNextEntry(new JarEntry("generated/lib" + i + "/pkg" + (j % 4) + "/Type" + j + ".class"));
+          jarOut.write(classFile);
+          jarOut.closeEntry();
+        }
+      }
+      classpath.add(jar.toFile());
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    try (Stream<Path> files = Files.walk(jarsDirectory)) {
+      for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(file);
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FILES)
+  public void parserPerFile(Blackhole blackhole) throws IOException {
+    JParserConfig config = JParserConfig.Mode.FILE_BY_FILE.create(JParserConfig.MAXIMUM_SUPPORTED_JAVA_VERSION, classpath);
+    for (InputFile inputFile : inputFiles) {
+      try {
+        JavaTree.CompilationUnitTreeImpl tree = JParser.parse(config.astParser(), version, inputFile.filename(), inputFile.contents());
+        blackhole.consume(tree);
+        tree.sema.getEnvironmentCleaner().run();
+      } catch (RuntimeException e) {
+        blackhole.consume(e);
+      }
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(FILES)
+  public void sharedEnvironment(Blackhole blackhole) {
+    JParserConfig.Mode.FILE_BY_FILE.create(JParserConfig.MAXIMUM_SUPPORTED_JAVA_VERSION, classpath)
+      .parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()), (inputFile, result) -> blackhole.consume(result));
+  }
+
+  private static byte[] classFile() throws IOException {
+    try (InputStream in = FileByFileBenchmark.class.getResourceAsStream("FileByFileBenchmark.class")) {
+      return in.readAllBytes();
+    }
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.benchmarks.Corpus;
+
+/**
+ * Parsing of the corpus file by file: {@link JParser#parse} includes the ECJ parsing and binding resolution, while
+ * {@link JParser#convert} only measures the conversion of already parsed ECJ trees.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JParserBenchmark {
+
+  @Param({Corpus.JAVA_CHECKS_TEST_SOURCES, Corpus.ITS_PLUGIN_PROJECTS})
+  public String corpus;
+
+  @Param("100")
+  public int maxFiles;
+
+  private JParserConfig config;
+  private String version;
+  private List<InputFile> inputFiles;
+  private List<String> contents;
+  private List<CompilationUnit> ecjUnits;
+
+  @Setup
+  public void setup() throws Exception {
+    Corpus sources = Corpus.load(corpus, maxFiles);
+    config = JParserConfig.Mode.FILE_BY_FILE.create(sources.javaVersion(), sources.classpath());
+    version = sources.javaVersion().effectiveJavaVersionAsString();
+    inputFiles = sources.parse().stream().map(Corpus.ParsedFile::inputFile).toList();
+    contents = new ArrayList<>();
+    ecjUnits = new ArrayList<>();
+    for (InputFile inputFile : inputFiles) {
+      String source = inputFile.contents();
+      ASTParser astParser = config.astParser();
+      astParser.setUnitName(inputFile.filename());
+      astParser.setSource(source.toCharArray());
+      contents.add(source);
+      ecjUnits.add((CompilationUnit) astParser.createAST(null));
+    }
+  }
+
+  @Benchmark
+  public void parse(Blackhole blackhole) {
+    for (int i = 0; i < inputFiles.size(); i++) {
+      blackhole.consume(JParser.parse(config.astParser(), version, inputFiles.get(i).filename(), contents.get(i)));
+    }
+  }
+
+  @Benchmark
+  public void convert(Blackhole blackhole) {
+    for (int i = 0; i < inputFiles.size(); i++) {
+      blackhole.consume(JParser.convert(version, inputFiles.get(i).filename(), contents.get(i), ecjUnits.get(i)));
+    }
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.AnalysisProgress;
+import org.sonar.java.benchmarks.Corpus;
+
+/**
+ * Parsing of the whole corpus as a single batch, on one or several worker threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JParserConfigBenchmark {
+
+  @Param({Corpus.JAVA_CHECKS_TEST_SOURCES, Corpus.ITS_PLUGIN_PROJECTS})
+  public String corpus;
+
+  @Param("100")
+  public int maxFiles;
+
+  @Param({"1", "4"})
+  public int parallelism;
+
+  private JParserConfig config;
+  private List<InputFile> inputFiles;
+
+  @Setup
+  public void setup() {
+    Corpus sources = Corpus.load(corpus, maxFiles);
+    config = JParserConfig.createParallelBatch(sources.javaVersion(), sources.classpath(), false, parallelism);
+    inputFiles = sources.inputFiles();
+  }
+
+  @Benchmark
+  public void batch(Blackhole blackhole) {
+    config.parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()), (inputFile, result) -> blackhole.consume(result));
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.benchmarks.Corpus;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Dispatch of the tree nodes to subscription visitors which do nothing, so that the cost of the walk itself is measured.
+ * Besides the number of corpus traversals per second, the {@code nodes} counter reports the number of visited nodes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VisitorsBridgeBenchmark {
+
+  @Param({Corpus.JAVA_CHECKS_TEST_SOURCES, Corpus.ITS_PLUGIN_PROJECTS})
+  public String corpus;
+
+  @Param("100")
+  public int maxFiles;
+
+  @Param({"1", "20"})
+  public int visitors;
+
+  private List<Corpus.ParsedFile> files;
+  private long nodesPerCorpus;
+  private VisitorsBridge visitorsBridge;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class VisitedNodes {
+    public long nodes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      nodes = 0;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    Corpus sources = Corpus.load(corpus, maxFiles);
+    files = sources.parse();
+    nodesPerCorpus = files.stream().mapToLong(file -> countNodes(file.tree())).sum();
+    List<SubscriptionVisitor> noOpVisitors = new ArrayList<>();
+    for (int i = 0; i < visitors; i++) {
+      noOpVisitors.add(new NoOpVisitor());
+    }
+    visitorsBridge = new VisitorsBridge(noOpVisitors, sources.classpath(), null, sources.javaVersion());
+  }
+
+  @Benchmark
+  public void visitFile(VisitedNodes visitedNodes) {
+    for (Corpus.ParsedFile file : files) {
+      visitorsBridge.setCurrentFile(file.inputFile());
+      visitorsBridge.visitFile(file.tree(), false);
+    }
+    visitedNodes.nodes += nodesPerCorpus;
+  }
+
+  private static long countNodes(Tree tree) {
+    long count = 1;
+    JavaTree javaTree = (JavaTree) tree;
+    if (!javaTree.isLeaf()) {
+      for (Tree child : javaTree.getChildren()) {
+        if (child != null) {
+          count += countNodes(child);
+        }
+      }
+    }
+    return count;
+  }
+
+  private static class NoOpVisitor extends SubscriptionVisitor {
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return Arrays.asList(Tree.Kind.values());
+    }
+  }
+
+}
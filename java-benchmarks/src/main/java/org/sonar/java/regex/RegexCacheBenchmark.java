@@ -0,0 +1,101 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.java.benchmarks.Corpus;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonarsource.analyzer.commons.regex.ast.FlagSet;
+
+/**
+ * Parsing of the regular expressions passed as string literals to the usual regex methods of the corpus, with an empty
+ * cache (each regex is parsed) and with a filled cache (each regex is looked up).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RegexCacheBenchmark {
+
+  private static final Set<String> REGEX_METHODS = Set.of("compile", "matches", "replaceAll", "replaceFirst", "split");
+
+  @Param({Corpus.JAVA_CHECKS_TEST_SOURCES, Corpus.ITS_PLUGIN_PROJECTS})
+  public String corpus;
+
+  @Param("400")
+  public int maxFiles;
+
+  private final List<LiteralTree> regexes = new ArrayList<>();
+  private final FlagSet flags = new FlagSet();
+  private RegexCache filledCache;
+
+  @Setup
+  public void setup() {
+    BaseTreeVisitor regexCollector = new BaseTreeVisitor() {
+      @Override
+      public void visitMethodInvocation(MethodInvocationTree tree) {
+        if (REGEX_METHODS.contains(tree.methodSymbol().name()) && !tree.arguments().isEmpty()) {
+          ExpressionTree argument = tree.arguments().get(0);
+          if (argument.is(Tree.Kind.STRING_LITERAL, Tree.Kind.TEXT_BLOCK)) {
+            regexes.add((LiteralTree) argument);
+          }
+        }
+        super.visitMethodInvocation(tree);
+      }
+    };
+    Corpus.load(corpus, maxFiles).parse().forEach(file -> file.tree().accept(regexCollector));
+    filledCache = new RegexCache();
+    regexes.forEach(regex -> filledCache.getRegexForLiterals(flags, regex));
+  }
+
+  @Benchmark
+  public void emptyCache(Blackhole blackhole) {
+    RegexCache cache = new RegexCache();
+    for (LiteralTree regex : regexes) {
+      blackhole.consume(cache.getRegexForLiterals(flags, regex));
+    }
+  }
+
+  @Benchmark
+  public void filledCache(Blackhole blackhole) {
+    for (LiteralTree regex : regexes) {
+      blackhole.consume(filledCache.getRegexForLiterals(flags, regex));
+    }
+  }
+
+}
@@ -29,6 +29,7 @@ import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.java.model.ExpressionUtils;
+import org.sonar.java.model.UsageIndex;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.semantic.Type;
@@ -119,7 +120,7 @@ public class ExpressionsHelper {
   @CheckForNull
   public static ExpressionTree getSingleWriteUsage(Symbol symbol) {
     ExpressionTree initializerOrExpression = getInitializerOrExpression(symbol.declaration());
-    List<AssignmentExpressionTree> reassignments = getReassignments(symbol.owner().declaration(), symbol.usages());
+    List<AssignmentExpressionTree> reassignments = getReassignments(symbol);
     ExpressionTree singleWriteUsage = null;
     if (initializerOrExpression == null && reassignments.size() == 1) {
       singleWriteUsage = reassignments.get(0).expression();
@@ -215,7 +216,7 @@ public class ExpressionsHelper {
     if (declaration == null) {
       return Stream.empty();
     }
-    Stream<ExpressionTree> assignedExpressionStream = getReassignments(declaration, symbol.usages()).stream()
+    Stream<ExpressionTree> assignedExpressionStream = UsageIndex.of(symbol).assignments().stream()
       .map(AssignmentExpressionTree::expression);
     ExpressionTree initializer = getInitializerOrExpression(declaration);
     if (initializer == null) {
@@ -261,7 +262,7 @@ public class ExpressionsHelper {
     if(variable.initializer() != null) {
       assignments.add(variable.initializer());
     }
-    getReassignments(variable, symbol.usages()).stream()
+    UsageIndex.of(symbol).assignments().stream()
       .map(AssignmentExpressionTree::expression)
       .forEach(assignments::add);
     return assignments;
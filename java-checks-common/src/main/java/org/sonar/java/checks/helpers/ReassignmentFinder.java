@@ -17,18 +17,18 @@
 package org.sonar.java.checks.helpers;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
+import org.sonar.java.model.UsageIndex;
 import org.sonar.plugins.java.api.location.Position;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
 import org.sonar.plugins.java.api.tree.EnumConstantTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
-import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.VariableTree;
 
@@ -44,12 +44,9 @@ public final class ReassignmentFinder {
   @CheckForNull
   public static ExpressionTree getClosestReassignmentOrDeclarationExpression(Tree startingPoint, Symbol referenceSymbol) {
     Tree result = referenceSymbol.declaration();
-    List<IdentifierTree> usages = referenceSymbol.usages();
-    if (usages.size() != 1) {
-      List<AssignmentExpressionTree> reassignments = getReassignments(referenceSymbol.owner().declaration(), usages);
-
-      SyntaxToken startPointToken = startingPoint.firstToken();
-      Tree lastReassignment = getClosestReassignment(startPointToken, reassignments);
+    UsageIndex usageIndex = UsageIndex.of(referenceSymbol);
+    if (usageIndex.usages().size() != 1 && referenceSymbol.owner().declaration() != null) {
+      Tree lastReassignment = usageIndex.closestAssignmentBefore(Position.startOf(startingPoint));
       if (lastReassignment != null) {
         result = lastReassignment;
       }
@@ -79,6 +76,16 @@ public final class ReassignmentFinder {
     return null;
   }
 
+  /**
+   * @return the assignments of the symbol, sorted by position, or an empty list when its owner is not declared in the file
+   */
+  public static List<AssignmentExpressionTree> getReassignments(Symbol symbol) {
+    if (symbol.owner().declaration() != null) {
+      return UsageIndex.of(symbol).assignments();
+    }
+    return Collections.emptyList();
+  }
+
   public static List<AssignmentExpressionTree> getReassignments(@Nullable Tree ownerDeclaration, List<IdentifierTree> usages) {
     if (ownerDeclaration != null) {
       List<AssignmentExpressionTree> assignments = new ArrayList<>();
@@ -105,12 +112,4 @@ public final class ReassignmentFinder {
     return Optional.empty();
   }
 
-  @CheckForNull
-  private static Tree getClosestReassignment(SyntaxToken startToken, List<AssignmentExpressionTree> reassignments) {
-    return reassignments.stream()
-      .filter(a -> Position.startOf(a).isBefore(Position.startOf(startToken)))
-      .max(Comparator.comparing(Position::startOf))
-      .orElse(null);
-  }
-
 }
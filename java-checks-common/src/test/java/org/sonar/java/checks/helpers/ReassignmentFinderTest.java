@@ -237,6 +237,26 @@ class ReassignmentFinderTest extends JParserTestUtils {
     assertThatLastReassignmentsOfVariableIsEqualTo(searchedVariable, startingPoint, expectedVariableDeclaration);
   }
 
+  @Test
+  void reassignments_of_symbol() {
+    String code = newCode(
+      "int b;",
+      "int foo() {",
+      "  int a = 0;",
+      "  (a) += 1;",
+      "  b = a = 2;",
+      "  return a;",
+      "}");
+
+    ClassTree classTree = classTree(code);
+    List<StatementTree> statements = ((MethodTree) classTree.members().get(1)).block().body();
+    AssignmentExpressionTree compoundAssignment = (AssignmentExpressionTree) ((ExpressionStatementTree) statements.get(1)).expression();
+    AssignmentExpressionTree fieldAssignment = (AssignmentExpressionTree) ((ExpressionStatementTree) statements.get(2)).expression();
+    Symbol a = variableFromLastReturnStatement(statements).symbol();
+    assertThat(ReassignmentFinder.getReassignments(a)).containsExactly(compoundAssignment, (AssignmentExpressionTree) fieldAssignment.expression());
+    assertThat(ReassignmentFinder.getReassignments(a)).isEqualTo(ReassignmentFinder.getReassignments(a.owner().declaration(), a.usages()));
+  }
+
   private static void assertThatLastReassignmentsOfVariableIsEqualTo(Symbol searchedVariable, Tree startingPoint, Tree expectedVariableDeclaration) {
     assertThat(ReassignmentFinder.getClosestReassignmentOrDeclarationExpression(startingPoint, searchedVariable)).isEqualTo(expectedVariableDeclaration);
   }
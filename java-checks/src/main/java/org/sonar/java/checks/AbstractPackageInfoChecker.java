@@ -16,35 +16,32 @@
  */
 package org.sonar.java.checks;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Optional;
 import javax.annotation.Nullable;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.caching.FileIndex;
+import org.sonar.java.caching.ProjectIndexConsumer;
 import org.sonar.java.checks.helpers.ExpressionsHelper;
+import org.sonar.java.model.DefaultInputFileScannerContext;
 import org.sonar.plugins.java.api.InputFileScannerContext;
-import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.internal.EndOfAnalysis;
 import org.sonar.plugins.java.api.tree.PackageDeclarationTree;
 
-public abstract class AbstractPackageInfoChecker implements JavaFileScanner, EndOfAnalysis {
-  private static final Logger LOG = LoggerFactory.getLogger(AbstractPackageInfoChecker.class);
-  private static final String CACHE_KEY_PREFIX = "java:S1228;S4032:package:";
-
-  private static String cacheKey(InputFile inputFile) {
-    return CACHE_KEY_PREFIX + inputFile.key();
-  }
+public abstract class AbstractPackageInfoChecker implements ProjectIndexConsumer, EndOfAnalysis {
 
   protected abstract void processFile(InputFileScannerContext context, String packageName);
 
+  /**
+   * The package of an unchanged file is known from its entry in the project index, when it could be restored from the previous
+   * analysis.
+   */
   @Override
   public boolean scanWithoutParsing(InputFileScannerContext inputFileScannerContext) {
-    return getPackageFromCache(inputFileScannerContext).map(packageName -> {
-      processFileAndCacheIfApplicable(inputFileScannerContext, packageName);
-      return true;
-    }).orElse(false);
+    FileIndex fileIndex = ((DefaultInputFileScannerContext) inputFileScannerContext).projectIndex().file(inputFileScannerContext.getInputFile());
+    if (fileIndex == null) {
+      return false;
+    }
+    processFileIfNotInDefaultPackage(inputFileScannerContext, fileIndex.packageName());
+    return true;
   }
 
   @Override
@@ -52,14 +49,10 @@ public abstract class AbstractPackageInfoChecker implements JavaFileScanner, End
     PackageDeclarationTree packageDeclaration = context.getTree().packageDeclaration();
     String packageName = packageDeclaration == null ? null : ExpressionsHelper.concatenate(packageDeclaration.packageName());
 
-    processFileAndCacheIfApplicable(context, packageName);
+    processFileIfNotInDefaultPackage(context, packageName);
   }
 
-  private void processFileAndCacheIfApplicable(InputFileScannerContext context, @Nullable String packageName) {
-    if (context.getCacheContext().isCacheEnabled()) {
-      writePackageNameToCache(context, packageName == null ? "" : packageName);
-    }
-
+  private void processFileIfNotInDefaultPackage(InputFileScannerContext context, @Nullable String packageName) {
     if (packageName == null || packageName.isEmpty()) {
       // default package
       return;
@@ -67,19 +60,4 @@ public abstract class AbstractPackageInfoChecker implements JavaFileScanner, End
 
     processFile(context, packageName);
   }
-
-  protected static Optional<String> getPackageFromCache(InputFileScannerContext inputFileScannerContext) {
-    var cacheKey = cacheKey(inputFileScannerContext.getInputFile());
-    var bytes = inputFileScannerContext.getCacheContext().getReadCache().readBytes(cacheKey);
-    return bytes != null ? Optional.of(new String(bytes, StandardCharsets.UTF_8)) : Optional.empty();
-  }
-
-  protected static void writePackageNameToCache(InputFileScannerContext context, String packageName) {
-    var cacheKey = cacheKey(context.getInputFile());
-    try {
-      context.getCacheContext().getWriteCache().write(cacheKey, packageName.getBytes(StandardCharsets.UTF_8));
-    } catch (IllegalArgumentException e) {
-      LOG.trace("Could not store data to cache key '{}': {}", cacheKey, e.getMessage());
-    }
-  }
 }
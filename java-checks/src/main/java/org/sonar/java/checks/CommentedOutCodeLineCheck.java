@@ -28,6 +28,7 @@ import org.sonar.java.model.LineUtils;
 import org.sonar.java.reporting.AnalyzerMessage;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.location.Position;
 import org.sonar.plugins.java.api.location.Range;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
@@ -39,6 +40,7 @@ import org.sonarsource.analyzer.commons.recognizers.CodeRecognizer;
 
 @DeprecatedRuleKey(ruleKey = "CommentedOutCodeLine", repositoryKey = "squid")
 @Rule(key = "S125")
+@SyntaxOnly
 public class CommentedOutCodeLineCheck extends IssuableSubscriptionVisitor {
 
   private static final double THRESHOLD = 0.9;
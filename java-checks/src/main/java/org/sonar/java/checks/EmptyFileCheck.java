@@ -19,11 +19,13 @@ package org.sonar.java.checks;
 import org.sonar.check.Rule;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "EmptyFile", repositoryKey = "squid")
 @Rule(key = "S2309")
+@SyntaxOnly
 public final class EmptyFileCheck implements JavaFileScanner {
 
   @Override
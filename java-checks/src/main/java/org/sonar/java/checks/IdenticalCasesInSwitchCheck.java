@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.sonar.check.Rule;
+import org.sonar.java.model.JavaTree;
 import org.sonar.java.model.LineUtils;
 import org.sonar.java.model.SyntacticEquivalence;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
@@ -83,6 +84,8 @@ public class IdenticalCasesInSwitchCheck extends IssuableSubscriptionVisitor {
     int index = 0;
     List<CaseGroupTree> cases = node.cases();
     Set<CaseGroupTree> duplicates = new HashSet<>();
+    // only bodies with the same structural hash can be equivalent
+    int[] hashes = cases.stream().mapToInt(caseGroupTree -> SyntacticEquivalence.structuralHash(caseGroupTree.body())).toArray();
     for (CaseGroupTree caseGroupTree : cases) {
       index++;
       if (duplicates.contains(caseGroupTree)) {
@@ -90,7 +93,7 @@ public class IdenticalCasesInSwitchCheck extends IssuableSubscriptionVisitor {
       }
       for (int i = index; i < cases.size(); i++) {
         CaseGroupTree caseI = cases.get(i);
-        if (SyntacticEquivalence.areEquivalent(caseGroupTree.body(), caseI.body())) {
+        if (hashes[index - 1] == hashes[i] && SyntacticEquivalence.areEquivalent(caseGroupTree.body(), caseI.body())) {
           duplicates.add(caseI);
           identicalBranches.computeIfAbsent(caseGroupTree, k -> new HashSet<>()).add(caseI);
         }
@@ -124,6 +127,7 @@ public class IdenticalCasesInSwitchCheck extends IssuableSubscriptionVisitor {
   private static IfElseChain collectIdenticalBranches(List<StatementTree> allBranches) {
     IfElseChain ifElseChain = new IfElseChain();
     Set<StatementTree> duplicates = new HashSet<>();
+    int[] hashes = allBranches.stream().mapToInt(branch -> ((JavaTree) branch).structuralHash()).toArray();
     for (int i = 0; i < allBranches.size(); i++) {
       if (duplicates.contains(allBranches.get(i))) {
         continue;
@@ -131,7 +135,7 @@ public class IdenticalCasesInSwitchCheck extends IssuableSubscriptionVisitor {
       for (int j = i + 1; j < allBranches.size(); j++) {
         StatementTree statement1 = allBranches.get(i);
         StatementTree statement2 = allBranches.get(j);
-        if (SyntacticEquivalence.areEquivalentIncludingSameVariables(statement1, statement2)) {
+        if (hashes[i] == hashes[j] && SyntacticEquivalence.areEquivalentIncludingSameVariables(statement1, statement2)) {
           duplicates.add(statement2);
           ifElseChain.branches.computeIfAbsent(statement1, k -> new HashSet<>()).add(statement2);
         }
@@ -21,6 +21,8 @@ import java.util.Arrays;
 import java.util.List;
 import org.sonar.check.Rule;
 import org.sonar.java.cfg.CFG;
+import org.sonar.java.cfg.CFGCache;
+import org.sonar.java.cfg.CFGScannerContext;
 import org.sonar.java.model.ExpressionUtils;
 import org.sonar.java.model.LiteralUtils;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
@@ -138,7 +140,7 @@ public class LoopExecutingAtMostOnceCheck extends IssuableSubscriptionVisitor {
     return false;
   }
 
-  private static boolean executeUnconditionnally(Tree loopTree) {
+  private boolean executeUnconditionnally(Tree loopTree) {
     CFG cfg = getCFG(loopTree);
     CFG.Block loopBlock = getLoopBlock(cfg, loopTree);
     // we cannot find a path in the CFG that goes twice through this instruction.
@@ -215,7 +217,8 @@ public class LoopExecutingAtMostOnceCheck extends IssuableSubscriptionVisitor {
     }
   }
 
-  private static CFG getCFG(Tree loop) {
+  private CFG getCFG(Tree loop) {
+    CFGCache cfgCache = ((CFGScannerContext) context).getCFGCache();
     Tree currentTree = loop;
     do {
       currentTree = currentTree.parent();
@@ -224,11 +227,11 @@ public class LoopExecutingAtMostOnceCheck extends IssuableSubscriptionVisitor {
     switch(currentTree.kind()) {
       case METHOD,
         CONSTRUCTOR:
-        return (CFG) ((MethodTree) currentTree).cfg();
+        return cfgCache.cfg((MethodTree) currentTree);
       case LAMBDA_EXPRESSION:
-        return (CFG) ((LambdaExpressionTree) currentTree).cfg();
+        return cfgCache.cfg((LambdaExpressionTree) currentTree);
       default:
-        return CFG.buildCFG(((BlockTree) currentTree).body());
+        return cfgCache.cfgOfBody((BlockTree) currentTree);
     }
   }
 }
@@ -63,6 +63,12 @@ public class MethodIdenticalImplementationsCheck extends IssuableSubscriptionVis
       return;
     }
     Set<MethodTree> reported = new HashSet<>();
+    // only methods with the same structural hash can be syntactically equivalent
+    SyntacticEquivalence.groupByStructuralHash(methods, methodWithVariables -> methodWithVariables.method.block().body())
+      .forEach(candidates -> reportIdenticalImplementations(candidates, reported));
+  }
+
+  private void reportIdenticalImplementations(List<MethodWithUsedVariables> methods, Set<MethodTree> reported) {
     for (int i = 0; i < methods.size(); i++) {
       MethodWithUsedVariables methodWithVariables = methods.get(i);
       MethodTree method = methodWithVariables.method;
@@ -19,10 +19,12 @@ package org.sonar.java.checks;
 import org.sonar.check.Rule;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "S00113", repositoryKey = "squid")
 @Rule(key = "S113")
+@SyntaxOnly
 public class MissingNewLineAtEndOfFileCheck implements JavaFileScanner {
 
 
@@ -18,6 +18,8 @@ package org.sonar.java.checks;
 
 import org.sonar.check.Rule;
 import org.sonar.java.cfg.CFG;
+import org.sonar.java.cfg.CFGCache;
+import org.sonar.java.cfg.CFGScannerContext;
 import org.sonar.java.cfg.LiveVariables;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
@@ -33,7 +35,6 @@ import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.VariableTree;
 
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -59,8 +60,9 @@ public class ParameterReassignedToCheck extends BaseTreeVisitor implements JavaF
     if(block == null) {
       return;
     }
-    CFG cfg = (CFG) tree.cfg();
-    LiveVariables analyze = LiveVariables.analyze(cfg);
+    CFGCache cfgCache = ((CFGScannerContext) context).getCFGCache();
+    CFG cfg = cfgCache.cfg(tree);
+    LiveVariables analyze = cfgCache.liveVariables(cfg);
     Set<Symbol> live = analyze.getIn(cfg.entryBlock());
     for (VariableTree parameterTree : tree.parameters()) {
       if(!live.contains(parameterTree.symbol())) {
@@ -77,12 +79,12 @@ public class ParameterReassignedToCheck extends BaseTreeVisitor implements JavaF
 
   @Override
   public void visitCatch(CatchTree tree) {
-    CFG cfg = CFG.buildCFG(tree.block().body());
     Symbol variable = tree.parameter().symbol();
     boolean liveVar = true;
     if(variable.owner().isMethodSymbol()) {
-      cfg.setMethodSymbol((Symbol.MethodSymbol) variable.owner());
-      LiveVariables analyze = LiveVariables.analyze(cfg);
+      CFGCache cfgCache = ((CFGScannerContext) context).getCFGCache();
+      CFG cfg = cfgCache.cfgOfBody(tree.block(), (Symbol.MethodSymbol) variable.owner());
+      LiveVariables analyze = cfgCache.liveVariables(cfg);
       Set<Symbol> live = analyze.getIn(cfg.entryBlock());
       liveVar = live.contains(variable);
     }
@@ -97,12 +99,12 @@ public class ParameterReassignedToCheck extends BaseTreeVisitor implements JavaF
 
   @Override
   public void visitForEachStatement(ForEachStatement tree) {
-    CFG cfg = CFG.buildCFG(Collections.singletonList(tree));
     Symbol variable = tree.variable().symbol();
     boolean liveVar = true;
     if(variable.owner().isMethodSymbol()) {
-      cfg.setMethodSymbol((Symbol.MethodSymbol) variable.owner());
-      LiveVariables analyze = LiveVariables.analyze(cfg);
+      CFGCache cfgCache = ((CFGScannerContext) context).getCFGCache();
+      CFG cfg = cfgCache.cfg(tree, (Symbol.MethodSymbol) variable.owner());
+      LiveVariables analyze = cfgCache.liveVariables(cfg);
       Set<Symbol> live = analyze.getOut(cfg.reversedBlocks().get(1));
       liveVar = live.contains(variable);
     }
@@ -23,6 +23,8 @@ import java.util.Set;
 import javax.annotation.CheckForNull;
 import org.sonar.check.Rule;
 import org.sonar.java.cfg.CFG;
+import org.sonar.java.cfg.CFGCache;
+import org.sonar.java.cfg.CFGScannerContext;
 import org.sonar.java.cfg.LiveVariables;
 import org.sonar.java.checks.helpers.QuickFixHelper;
 import org.sonar.java.model.ExpressionUtils;
@@ -149,9 +151,10 @@ public class PrivateFieldUsedLocallyCheck extends IssuableSubscriptionVisitor {
       .toList();
   }
 
-  private static boolean isLiveInMethodEntry(Symbol privateFieldSymbol, MethodTree methodTree) {
-    CFG cfg = (CFG) methodTree.cfg();
-    LiveVariables liveVariables = LiveVariables.analyzeWithFields(cfg);
+  private boolean isLiveInMethodEntry(Symbol privateFieldSymbol, MethodTree methodTree) {
+    CFGCache cfgCache = ((CFGScannerContext) context).getCFGCache();
+    CFG cfg = cfgCache.cfg(methodTree);
+    LiveVariables liveVariables = cfgCache.liveVariablesWithFields(cfg);
     return liveVariables.getIn(cfg.entryBlock()).contains(privateFieldSymbol);
   }
 
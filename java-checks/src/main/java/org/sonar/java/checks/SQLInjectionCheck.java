@@ -134,7 +134,7 @@ public class SQLInjectionCheck extends IssuableSubscriptionVisitor {
           IdentifierTree identifierTree = (IdentifierTree) sqlArg;
           Symbol symbol = identifierTree.symbol();
           ExpressionTree initializerOrExpression = getInitializerOrExpression(symbol.declaration());
-          List<AssignmentExpressionTree> reassignments = getReassignments(symbol.owner().declaration(), symbol.usages());
+          List<AssignmentExpressionTree> reassignments = getReassignments(symbol);
 
           if ((initializerOrExpression != null && isDynamicConcatenation(initializerOrExpression)) ||
             reassignments.stream().anyMatch(SQLInjectionCheck::isDynamicPlusAssignment)) {
@@ -22,10 +22,12 @@ import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
 import org.sonar.java.metrics.MetricsScannerContext;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.tree.SwitchTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 @Rule(key = "S1151")
+@SyntaxOnly
 public class SwitchCaseTooBigCheck extends IssuableSubscriptionVisitor {
 
   private static final int DEFAULT_MAX = 5;
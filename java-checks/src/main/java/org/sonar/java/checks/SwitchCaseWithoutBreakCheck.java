@@ -30,6 +30,7 @@ import javax.annotation.Nullable;
 import org.sonar.check.Rule;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
 import org.sonar.java.cfg.CFG;
+import org.sonar.java.cfg.CFGScannerContext;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.tree.CaseGroupTree;
 import org.sonar.plugins.java.api.tree.SwitchStatementTree;
@@ -47,7 +48,7 @@ public class SwitchCaseWithoutBreakCheck extends IssuableSubscriptionVisitor {
   public void visitNode(Tree tree) {
     SwitchStatementTree switchStatementTree = (SwitchStatementTree) tree;
     Set<CaseGroupTree> caseGroupTrees = new HashSet<>(switchStatementTree.cases());
-    CFG cfg = CFG.buildCFG(Collections.singletonList(tree));
+    CFG cfg = ((CFGScannerContext) context).getCFGCache().cfg(tree);
     Set<CFG.Block> switchSuccessors = cfg.entryBlock().successors();
 
     Map<CFG.Block, CaseGroupTree> cfgBlockToCaseGroupMap = createMapping(switchSuccessors, caseGroupTrees);
@@ -18,6 +18,7 @@ package org.sonar.java.checks;
 
 import org.sonar.check.Rule;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 
@@ -25,6 +26,7 @@ import java.util.Collections;
 import java.util.List;
 
 @Rule(key = "S1135")
+@SyntaxOnly
 public class TodoTagPresenceCheck extends IssuableSubscriptionVisitor {
 
   private static final String PATTERN = "TODO";
@@ -21,6 +21,7 @@ import org.sonar.check.RuleProperty;
 import org.sonar.java.model.LineUtils;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.EmptyStatementTree;
 import org.sonar.plugins.java.api.tree.ImportClauseTree;
@@ -36,6 +37,7 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "S00103", repositoryKey = "squid")
 @Rule(key = "S103")
+@SyntaxOnly
 public class TooLongLineCheck extends IssuableSubscriptionVisitor {
 
   private static final int DEFAULT_MAXIMUM_LINE_LENGTH = 120;
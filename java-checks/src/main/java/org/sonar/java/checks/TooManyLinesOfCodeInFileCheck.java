@@ -20,6 +20,7 @@ import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
 import org.sonar.java.metrics.MetricsScannerContext;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.tree.Tree;
 
 import java.text.MessageFormat;
@@ -29,6 +30,7 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "S00104", repositoryKey = "squid")
 @Rule(key = "S104")
+@SyntaxOnly
 public class TooManyLinesOfCodeInFileCheck extends IssuableSubscriptionVisitor {
 
   private static final int DEFAULT_MAXIMUM = 750;
@@ -21,6 +21,7 @@ import java.util.Map;
 import org.sonar.check.Rule;
 import org.sonar.java.model.LineUtils;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.tree.AssertStatementTree;
 import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.BlockTree;
@@ -51,6 +52,7 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 @DeprecatedRuleKey(ruleKey = "S00122", repositoryKey = "squid")
 @Rule(key = "S122")
+@SyntaxOnly
 public class TooManyStatementsPerLineCheck extends IssuableSubscriptionVisitor {
 
   @Override
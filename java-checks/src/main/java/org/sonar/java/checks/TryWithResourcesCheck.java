@@ -18,12 +18,13 @@ package org.sonar.java.checks;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
 import org.sonar.check.Rule;
 import org.sonar.java.cfg.CFG;
+import org.sonar.java.cfg.CFGCache;
+import org.sonar.java.cfg.CFGScannerContext;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaVersion;
@@ -66,7 +67,7 @@ public class TryWithResourcesCheck extends IssuableSubscriptionVisitor implement
     } else if (isNewAutocloseableOrBuilder(tree, context)) {
       if (withinStandardTryWithFinally()) {
         toReport.peek().add(tree);
-      } else if (isFollowedByTryWithFinally(tree)) {
+      } else if (isFollowedByTryWithFinally(tree, ((CFGScannerContext) context).getCFGCache())) {
         if (toReport.isEmpty() || withinTry.size() == toReport.size()) {
           // This newClass will be reported with the following tryStatement
           toReport.push(new ArrayList<>());
@@ -81,14 +82,14 @@ public class TryWithResourcesCheck extends IssuableSubscriptionVisitor implement
       (context.getJavaVersion().isJava21Compatible() && tree instanceof MethodInvocationTree mit && AUTOCLOSEABLE_BUILDER_MATCHER.matches(mit));
   }
 
-  private static boolean isFollowedByTryWithFinally(Tree tree) {
+  private static boolean isFollowedByTryWithFinally(Tree tree, CFGCache cfgCache) {
     Tree blockParent = tree.parent();
     while (blockParent != null && !blockParent.is(Tree.Kind.BLOCK)) {
       blockParent = blockParent.parent();
     }
 
     if (blockParent != null) {
-      CFG cfg = CFG.buildCFG(Collections.singletonList(blockParent));
+      CFG cfg = cfgCache.cfg(blockParent);
       if (!cfg.blocks().isEmpty()) {
         return newFollowedByTryStatement(cfg.blocks().get(0));
       }
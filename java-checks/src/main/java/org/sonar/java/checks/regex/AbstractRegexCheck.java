@@ -24,6 +24,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.IntFunction;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
@@ -224,6 +225,15 @@ public abstract class AbstractRegexCheck extends IssuableSubscriptionVisitor imp
     return regexContext.regexForLiterals(flags, literals);
   }
 
+  /**
+   * Verdict of this check about a regex, computed once for all the files of the module.
+   *
+   * @param variant any other input of the verdict, which must only depend on the regex and on this variant
+   */
+  protected final <T> T regexVerdict(RegexParseResult regex, @Nullable Object variant, Supplier<T> verdict) {
+    return regexContext.regexVerdicts().computeIfAbsent(this, regex, variant, verdict);
+  }
+
   @VisibleForTesting
   protected static Optional<LiteralTree[]> getLiterals(ExpressionTree expr) {
     switch (expr.kind()) {
@@ -95,10 +95,10 @@ public class RedosCheck extends AbstractRegexCheckTrackingMatchType {
     return context.getJavaVersion().isNotSet() || context.getJavaVersion().asInt() >= 9;
   }
   
-  private Optional<String> message() {
-    boolean canBeOptimized = !regexContainsBackReference;
+  private Optional<String> message(Backtracking backtracking) {
+    boolean canBeOptimized = !backtracking.containsBackReference();
     boolean optimized = isJava9OrHigher() && canBeOptimized;
-    switch (foundBacktrackingType) {
+    switch (backtracking.type()) {
       case ALWAYS_EXPONENTIAL:
         return Optional.of(String.format(MESSAGE, EXP, ""));
       case QUADRATIC_WHEN_OPTIMIZED:
@@ -124,6 +124,14 @@ public class RedosCheck extends AbstractRegexCheckTrackingMatchType {
     if (regexForLiterals.getResult().getText().length() > MAX_REGEX_LENGTH) {
       return;
     }
+    // the backtracking only depends on the regex and on how it is matched, it is computed once for all the files
+    Backtracking backtracking = regexVerdict(regexForLiterals, matchType, () -> findBacktracking(regexForLiterals, matchType));
+    message(backtracking).ifPresent(message ->
+      reportIssue(methodOrAnnotationName(methodInvocationOrAnnotation), message, null, Collections.emptyList())
+    );
+  }
+
+  private Backtracking findBacktracking(RegexParseResult regexForLiterals, MatchType matchType) {
     regexContainsBackReference = false;
     foundBacktrackingType = BacktrackingType.NO_ISSUE;
     reachabilityChecker.clearCache();
@@ -132,9 +140,10 @@ public class RedosCheck extends AbstractRegexCheckTrackingMatchType {
     boolean isUsedForPartialMatch = matchType == MatchType.PARTIAL || matchType == MatchType.BOTH;
     RedosFinder visitor = new RedosFinder(regexForLiterals.getStartState(), regexForLiterals.getFinalState(), isUsedForFullMatch, isUsedForPartialMatch);
     visitor.visit(regexForLiterals);
-    message().ifPresent(message ->
-      reportIssue(methodOrAnnotationName(methodInvocationOrAnnotation), message, null, Collections.emptyList())
-    );
+    return new Backtracking(foundBacktrackingType, regexContainsBackReference);
+  }
+
+  private record Backtracking(BacktrackingType type, boolean containsBackReference) {
   }
 
   private void addBacktracking(BacktrackingType newBacktrackingType) {
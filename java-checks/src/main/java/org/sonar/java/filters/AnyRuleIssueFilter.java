@@ -16,12 +16,10 @@
  */
 package org.sonar.java.filters;
 
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.java.model.LineUtils;
 import org.sonar.plugins.java.api.JavaCheck;
@@ -34,7 +32,7 @@ import org.sonar.plugins.java.api.tree.Tree;
 public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements JavaIssueFilter {
 
   private String componentKey;
-  private final Set<Integer> excludedLines = new HashSet<>();
+  private final BitSet excludedLines = new BitSet();
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
@@ -45,7 +43,15 @@ public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements Java
 
   @Override
   public boolean accept(FilterableIssue issue) {
-    return !(issue.componentKey().equals(componentKey) && excludedLines.contains(issue.line()));
+    Integer line = issue.line();
+    return !(issue.componentKey().equals(componentKey) && line != null && excludedLines.get(line));
+  }
+
+  @Override
+  public void addExcludedLines(String componentKey, ExcludedLinesIndex index) {
+    if (componentKey.equals(this.componentKey)) {
+      index.excludeForAllRules(excludedLines);
+    }
   }
 
   @Override
@@ -54,10 +60,6 @@ public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements Java
   }
 
   public void excludeLines(Tree tree) {
-    excludedLines.addAll(filteredLines(tree));
-  }
-
-  private static Set<Integer> filteredLines(Tree tree) {
     SyntaxToken firstSyntaxToken = tree.firstToken();
     SyntaxToken lastSyntaxToken = tree.lastToken();
     if (firstSyntaxToken != null && lastSyntaxToken != null) {
@@ -70,8 +72,9 @@ public abstract class AnyRuleIssueFilter extends BaseTreeVisitor implements Java
         startLine = LineUtils.startLine(trivias.get(0));
       }
 
-      return IntStream.rangeClosed(startLine, endLine).boxed().collect(Collectors.toSet());
+      if (startLine <= endLine) {
+        excludedLines.set(startLine, endLine + 1);
+      }
     }
-    return new HashSet<>();
   }
 }
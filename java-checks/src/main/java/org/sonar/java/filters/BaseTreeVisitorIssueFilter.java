@@ -17,13 +17,10 @@
 package org.sonar.java.filters;
 
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import javax.annotation.Nullable;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.utils.AnnotationUtils;
@@ -38,7 +35,7 @@ import org.sonar.plugins.java.api.tree.Tree;
 public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor implements JavaIssueFilter {
 
   private String componentKey;
-  private final Map<String, Set<Integer>> excludedLinesByRule;
+  private final Map<String, BitSet> excludedLinesByRule;
   private final Map<Class<? extends JavaCheck>, String> rulesKeysByRulesClass;
 
   protected BaseTreeVisitorIssueFilter() {
@@ -70,15 +67,31 @@ public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor impleme
 
   @Override
   public boolean accept(FilterableIssue issue) {
-    return !(issue.componentKey().equals(componentKey) && excludedLinesByRule.getOrDefault(issue.ruleKey().rule(), new HashSet<>()).contains(issue.line()));
+    if (!issue.componentKey().equals(componentKey)) {
+      return true;
+    }
+    BitSet excludedLines = excludedLinesByRule.get(issue.ruleKey().rule());
+    Integer line = issue.line();
+    return excludedLines == null || line == null || !excludedLines.get(line);
+  }
+
+  @Override
+  public void addExcludedLines(String componentKey, ExcludedLinesIndex index) {
+    if (componentKey.equals(this.componentKey)) {
+      excludedLinesByRule.forEach((ruleKey, lines) -> {
+        if (ruleKey != null) {
+          index.exclude(ruleKey, lines);
+        }
+      });
+    }
   }
 
-  public Map<String, Set<Integer>> excludedLinesByRule() {
+  public Map<String, BitSet> excludedLinesByRule() {
     return excludedLinesByRule;
   }
 
-  final void excludeLines(Set<Integer> lines, String ruleKey) {
-    computeFilteredLinesForRule(lines, ruleKey, true);
+  final void excludeLines(int startLine, int endLine, String ruleKey) {
+    computeFilteredLinesForRule(startLine, endLine, ruleKey, true);
   }
 
   final void excludeLines(@Nullable Tree tree, Class<? extends JavaCheck> rule) {
@@ -110,18 +123,21 @@ public abstract class BaseTreeVisitorIssueFilter extends BaseTreeVisitor impleme
     SyntaxToken firstSyntaxToken = tree.firstToken();
     SyntaxToken lastSyntaxToken = tree.lastToken();
     if (firstSyntaxToken != null && lastSyntaxToken != null) {
-      Set<Integer> filteredLines = IntStream.rangeClosed(LineUtils.startLine(firstSyntaxToken), LineUtils.startLine(lastSyntaxToken))
-        .boxed()
-        .collect(Collectors.toSet());
-      computeFilteredLinesForRule(filteredLines, ruleKey, excludeLine);
+      computeFilteredLinesForRule(LineUtils.startLine(firstSyntaxToken), LineUtils.startLine(lastSyntaxToken), ruleKey, excludeLine);
     }
   }
 
-  private void computeFilteredLinesForRule(Set<Integer> lines, String ruleKey, boolean excludeLine) {
+  private void computeFilteredLinesForRule(int startLine, int endLine, String ruleKey, boolean excludeLine) {
+    if (endLine < startLine) {
+      return;
+    }
     if (excludeLine) {
-      excludedLinesByRule.computeIfAbsent(ruleKey, k -> new HashSet<>()).addAll(lines);
+      excludedLinesByRule.computeIfAbsent(ruleKey, k -> new BitSet()).set(startLine, endLine + 1);
     } else {
-      excludedLinesByRule.getOrDefault(ruleKey, Collections.emptySet()).removeAll(lines);
+      BitSet excludedLines = excludedLinesByRule.get(ruleKey);
+      if (excludedLines != null) {
+        excludedLines.clear(startLine, endLine + 1);
+      }
     }
   }
 }
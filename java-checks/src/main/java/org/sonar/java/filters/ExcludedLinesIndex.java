@@ -0,0 +1,84 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.filters;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.scan.issue.filter.FilterableIssue;
+
+/**
+ * Lines of a single component on which issues are excluded, indexed by rule so that every issue is answered by a constant
+ * number of lookups, whatever the number of filters which contributed to the index.
+ */
+public final class ExcludedLinesIndex {
+
+  private final BitSet allRules = new BitSet();
+  private final Map<String, BitSet> byRule = new HashMap<>();
+  private final Map<RuleKey, BitSet> byRuleKey = new HashMap<>();
+  private final Map<String, BitSet> allRulesBut = new HashMap<>();
+
+  void excludeForAllRules(BitSet lines) {
+    allRules.or(lines);
+  }
+
+  void excludeForAllRulesBut(String rule, BitSet lines) {
+    allRulesBut.computeIfAbsent(rule, k -> new BitSet()).or(lines);
+  }
+
+  /**
+   * @param rule the key of the rule, without repository
+   */
+  void exclude(String rule, BitSet lines) {
+    byRule.computeIfAbsent(rule, k -> new BitSet()).or(lines);
+  }
+
+  void exclude(RuleKey ruleKey, BitSet lines) {
+    byRuleKey.computeIfAbsent(ruleKey, k -> new BitSet()).or(lines);
+  }
+
+  void addAll(ExcludedLinesIndex other) {
+    excludeForAllRules(other.allRules);
+    other.byRule.forEach(this::exclude);
+    other.byRuleKey.forEach(this::exclude);
+    other.allRulesBut.forEach(this::excludeForAllRulesBut);
+  }
+
+  public boolean excludes(FilterableIssue issue) {
+    Integer line = issue.line();
+    if (line == null) {
+      return false;
+    }
+    RuleKey ruleKey = issue.ruleKey();
+    String rule = ruleKey.rule();
+    if (allRules.get(line) || isSet(byRule.get(rule), line) || isSet(byRuleKey.get(ruleKey), line)) {
+      return true;
+    }
+    for (Map.Entry<String, BitSet> entry : allRulesBut.entrySet()) {
+      if (!entry.getKey().equals(rule) && entry.getValue().get(line)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isSet(@Nullable BitSet lines, int line) {
+    return lines != null && lines.get(line);
+  }
+}
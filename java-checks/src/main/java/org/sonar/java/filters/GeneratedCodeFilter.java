@@ -16,16 +16,25 @@
  */
 package org.sonar.java.filters;
 
+import java.util.HashSet;
 import java.util.Set;
+import org.sonar.java.checks.helpers.ExpressionsHelper;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.semantic.Symbol;
-import org.sonar.plugins.java.api.semantic.SymbolMetadata.AnnotationInstance;
 import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.AnnotationTree;
 import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.ImportClauseTree;
+import org.sonar.plugins.java.api.tree.ImportTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.ModifiersTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TypeTree;
 
 public class GeneratedCodeFilter extends AnyRuleIssueFilter {
 
+  private static final String GENERATED = "Generated";
   private static final Set<String> GENERATED_ANNOTATIONS = Set.of(
     "javax.annotation.Generated",
     "javax.annotation.processing.Generated",
@@ -33,6 +42,8 @@ public class GeneratedCodeFilter extends AnyRuleIssueFilter {
     "jakarta.annotation.processing.Generated"
   );
 
+  private Set<String> generatedAnnotationNames = GENERATED_ANNOTATIONS;
+
   @Override
   public void scanFile(JavaFileScannerContext context) {
     if (context.getSemanticModel() == null) {
@@ -42,9 +53,15 @@ public class GeneratedCodeFilter extends AnyRuleIssueFilter {
     super.scanFile(context);
   }
 
+  @Override
+  public void visitCompilationUnit(CompilationUnitTree tree) {
+    generatedAnnotationNames = generatedAnnotationNames(tree);
+    super.visitCompilationUnit(tree);
+  }
+
   @Override
   public void visitClass(ClassTree tree) {
-    if (isGenerated(tree.symbol())) {
+    if (isGenerated(tree.modifiers())) {
       excludeLines(tree);
     }
     super.visitClass(tree);
@@ -52,17 +69,42 @@ public class GeneratedCodeFilter extends AnyRuleIssueFilter {
 
   @Override
   public void visitMethod(MethodTree tree) {
-    if (isGenerated(tree.symbol())) {
+    if (isGenerated(tree.modifiers())) {
       excludeLines(tree);
     }
     super.visitMethod(tree);
   }
 
-  private static boolean isGenerated(Symbol symbol) {
-    return symbol.metadata().annotations().stream()
-      .map(AnnotationInstance::symbol)
-      .map(Symbol::type)
-      .map(Type::fullyQualifiedName)
-      .anyMatch(GENERATED_ANNOTATIONS::contains);
+  private boolean isGenerated(ModifiersTree modifiers) {
+    return modifiers.annotations().stream()
+      .map(AnnotationTree::annotationType)
+      .anyMatch(this::isGeneratedType);
+  }
+
+  private boolean isGeneratedType(TypeTree annotationType) {
+    Type type = annotationType.symbolType();
+    if (!type.isUnknown()) {
+      return GENERATED_ANNOTATIONS.contains(type.fullyQualifiedName());
+    }
+    // Name based check in case of missing semantic, for instance when the file has been parsed without resolving its bindings
+    return annotationType.is(Tree.Kind.IDENTIFIER, Tree.Kind.MEMBER_SELECT)
+      && generatedAnnotationNames.contains(ExpressionsHelper.concatenate((ExpressionTree) annotationType));
+  }
+
+  /**
+   * @return the fully qualified names of the annotations marking generated code, and their simple name when one of them is imported
+   */
+  private static Set<String> generatedAnnotationNames(CompilationUnitTree tree) {
+    for (ImportClauseTree importClause : tree.imports()) {
+      if (importClause instanceof ImportTree importTree && !importTree.isStatic()) {
+        String imported = ExpressionsHelper.concatenate((ExpressionTree) importTree.qualifiedIdentifier());
+        if (GENERATED_ANNOTATIONS.contains(imported) || GENERATED_ANNOTATIONS.contains(imported.replace("*", GENERATED))) {
+          Set<String> names = new HashSet<>(GENERATED_ANNOTATIONS);
+          names.add(GENERATED);
+          return names;
+        }
+      }
+    }
+    return GENERATED_ANNOTATIONS;
   }
 }
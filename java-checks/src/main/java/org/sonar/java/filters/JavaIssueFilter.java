@@ -26,4 +26,9 @@ public interface JavaIssueFilter extends JavaFileScanner {
   boolean accept(FilterableIssue issue);
 
   Set<Class<? extends JavaCheck>> filteredRules();
+
+  /**
+   * Adds to the index the lines of the given component on which this filter does not accept issues.
+   */
+  void addExcludedLines(String componentKey, ExcludedLinesIndex index);
 }
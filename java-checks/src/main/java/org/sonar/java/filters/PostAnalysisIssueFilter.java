@@ -19,15 +19,26 @@ package org.sonar.java.filters;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.scan.issue.filter.IssueFilterChain;
 import org.sonar.java.annotations.VisibleForTesting;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.SyntaxOnly;
 
+/**
+ * Without semantics, the filters relying on {@code @SuppressWarnings} and {@code @Generated} recognize these annotations by their
+ * name, the other filters relying on types do not exclude anything.
+ */
+@SyntaxOnly
 public class PostAnalysisIssueFilter implements JavaFileScanner, SonarJavaIssueFilter {
 
   private List<JavaIssueFilter> issueFilters;
+  @Nullable
+  private ExcludedLinesIndex excludedLines;
+  @Nullable
+  private String excludedLinesComponentKey;
 
   @VisibleForTesting
   List<JavaIssueFilter> issueFilters() {
@@ -45,12 +56,27 @@ public class PostAnalysisIssueFilter implements JavaFileScanner, SonarJavaIssueF
 
   @Override
   public boolean accept(FilterableIssue issue, IssueFilterChain chain) {
-    return issueFilters().stream().allMatch(filter -> filter.accept(issue))
+    return !excludedLines(issue.componentKey()).excludes(issue)
       && chain.accept(issue);
   }
 
+  /**
+   * The exclusions of all the filters are merged into a single index, built on the first issue of a component and
+   * kept until the component changes or another file is scanned.
+   */
+  private ExcludedLinesIndex excludedLines(String componentKey) {
+    if (excludedLines == null || !componentKey.equals(excludedLinesComponentKey)) {
+      ExcludedLinesIndex index = new ExcludedLinesIndex();
+      issueFilters().forEach(filter -> filter.addExcludedLines(componentKey, index));
+      excludedLines = index;
+      excludedLinesComponentKey = componentKey;
+    }
+    return excludedLines;
+  }
+
   @Override
   public void scanFile(JavaFileScannerContext context) {
     issueFilters().forEach(filter -> filter.scanFile(context));
+    excludedLines = null;
   }
 }
@@ -17,23 +17,25 @@
 package org.sonar.java.filters;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.utils.AnnotationUtils;
 import org.sonar.check.Rule;
 import org.sonar.java.checks.SuppressWarningsCheck;
+import org.sonar.java.checks.helpers.ExpressionsHelper;
 import org.sonar.java.model.LineUtils;
 import org.sonarsource.analyzer.commons.collections.MapBuilder;
 import org.sonarsource.analyzer.commons.collections.SetUtils;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Type;
 import org.sonar.plugins.java.api.tree.AnnotationTree;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
@@ -41,6 +43,7 @@ import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.NewArrayTree;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TypeTree;
 import org.sonar.plugins.java.api.tree.VariableTree;
 
 public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
@@ -73,7 +76,10 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
         "java:S3985", "java:S2326", "java:S1144", "java:S1128", "java:S2583"))
       .build();
 
-  private final Map<String, Map<String, Set<Integer>>> excludedLinesByComponent = new HashMap<>();
+  private final Map<String, ExcludedLinesIndex> excludedLinesByComponent = new HashMap<>();
+
+  private static final String SUPPRESS_WARNINGS_ANNOTATION = "java.lang.SuppressWarnings";
+  private static final Set<String> SUPPRESS_WARNINGS_NAMES = Set.of("SuppressWarnings", SUPPRESS_WARNINGS_ANNOTATION);
 
   private static final String SUPPRESS_WARNING_RULE_KEY = getSuppressWarningRuleKey();
 
@@ -130,6 +136,9 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
     .put("S110", RuleKey.of(SQUID, "MaximumInheritanceDepth"))
     .build();
 
+  private static final Map<RuleKey, String> RULES_BY_DEPRECATED_RULE_KEY = DEPRECATED_RULE_KEYS.entrySet().stream()
+    .collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey));
+
   private static String getSuppressWarningRuleKey() {
     return AnnotationUtils.getAnnotation(SuppressWarningsCheck.class, Rule.class).key();
   }
@@ -142,33 +151,55 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
   @Override
   public void scanFile(JavaFileScannerContext context) {
     super.scanFile(context);
-    excludedLinesByComponent.put(getComponentKey(), new HashMap<>(excludedLinesByRule()));
+    ExcludedLinesIndex index = new ExcludedLinesIndex();
+    excludedLinesByRule().forEach((suppressedWarning, lines) -> addSuppressedWarning(index, suppressedWarning, lines));
+    excludedLinesByComponent.put(getComponentKey(), index);
   }
 
   @Override
   public boolean accept(FilterableIssue issue) {
-    return !issueShouldNotBeReported(issue, excludedLinesByComponent.getOrDefault(issue.componentKey(), Collections.emptyMap()));
+    ExcludedLinesIndex index = excludedLinesByComponent.get(issue.componentKey());
+    return index == null || !index.excludes(issue);
   }
 
-  private static boolean issueShouldNotBeReported(FilterableIssue issue, Map<String, Set<Integer>> excludedLineByRule) {
-    RuleKey issueRuleKey = issue.ruleKey();
-    return excludedLineByRule.entrySet().stream().anyMatch(excludedRule -> {
-      String suppressedWarning = excludedRule.getKey();
-      return ("all".equals(suppressedWarning) || isRuleKey(suppressedWarning, issueRuleKey))
-        && !isSuppressWarningRule(issueRuleKey)
-        && excludedRule.getValue().contains(issue.line());
-    });
+  @Override
+  public void addExcludedLines(String componentKey, ExcludedLinesIndex index) {
+    ExcludedLinesIndex componentIndex = excludedLinesByComponent.get(componentKey);
+    if (componentIndex != null) {
+      index.addAll(componentIndex);
+    }
   }
 
-  private static boolean isRuleKey(String rule, RuleKey ruleKey) {
+  /**
+   * Translates a suppressed warning into the rules it matches: "all", a rule key ("repo:key"), a "squid" rule key or a
+   * deprecated rule key. The SuppressWarnings rule itself is never excluded.
+   */
+  private static void addSuppressedWarning(ExcludedLinesIndex index, String suppressedWarning, BitSet lines) {
+    if ("all".equals(suppressedWarning)) {
+      index.excludeForAllRulesBut(SUPPRESS_WARNING_RULE_KEY, lines);
+      return;
+    }
+    RuleKey parsed;
     try {
       // format of the rules requires a repository: "repo:key"
-      RuleKey parsed = RuleKey.parse(rule);
-      RuleKey deprecatedRuleKey = DEPRECATED_RULE_KEYS.get(ruleKey.rule());
-      RuleKey squidRuleKey = RuleKey.of(SQUID, ruleKey.rule());
-      return ruleKey.equals(parsed) || squidRuleKey.equals(parsed) || parsed.equals(deprecatedRuleKey);
+      parsed = RuleKey.parse(suppressedWarning);
     } catch (IllegalArgumentException e) {
-      return false;
+      return;
+    }
+    if (SQUID.equals(parsed.repository())) {
+      excludeUnlessSuppressWarningRule(index, parsed.rule(), lines);
+      String rule = RULES_BY_DEPRECATED_RULE_KEY.get(parsed);
+      if (rule != null) {
+        excludeUnlessSuppressWarningRule(index, rule, lines);
+      }
+    } else if (!isSuppressWarningRule(parsed)) {
+      index.exclude(parsed, lines);
+    }
+  }
+
+  private static void excludeUnlessSuppressWarningRule(ExcludedLinesIndex index, String rule, BitSet lines) {
+    if (!SUPPRESS_WARNING_RULE_KEY.equals(rule)) {
+      index.exclude(rule, lines);
     }
   }
 
@@ -207,9 +238,8 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
 
     if (startLine != -1) {
       int endLine = LineUtils.startLine(tree.lastToken());
-      Set<Integer> filteredlines = IntStream.rangeClosed(startLine, endLine).boxed().collect(Collectors.toSet());
       for (String rule : rules) {
-        excludeLines(filteredlines, rule);
+        excludeLines(startLine, endLine, rule);
       }
     }
   }
@@ -224,7 +254,17 @@ public class SuppressWarningFilter extends BaseTreeVisitorIssueFilter {
   }
 
   private static boolean isSuppressWarningsAnnotation(AnnotationTree annotationTree) {
-    return annotationTree.annotationType().symbolType().is("java.lang.SuppressWarnings") && !annotationTree.arguments().isEmpty();
+    return isSuppressWarningsType(annotationTree.annotationType()) && !annotationTree.arguments().isEmpty();
+  }
+
+  private static boolean isSuppressWarningsType(TypeTree annotationType) {
+    Type type = annotationType.symbolType();
+    if (!type.isUnknown()) {
+      return type.is(SUPPRESS_WARNINGS_ANNOTATION);
+    }
+    // Token based check in case of missing semantic, for instance when the file has been parsed without resolving its bindings
+    return annotationType.is(Tree.Kind.IDENTIFIER, Tree.Kind.MEMBER_SELECT)
+      && SUPPRESS_WARNINGS_NAMES.contains(ExpressionsHelper.concatenate((ExpressionTree) annotationType));
   }
 
   private static List<String> getRules(AnnotationTree annotationTree) {
@@ -0,0 +1,34 @@
+package foo;
+
+import javax.annotation.processing.Generated;
+
+class GeneratedCodeFilterSyntaxOnly {
+
+  @Generated("value")
+  void simpleName() {
+    // TODO NoIssue
+  }
+
+  @javax.annotation.Generated("value")
+  void fullyQualifiedName() {
+    // TODO NoIssue
+  }
+
+  @unrelated.Generated
+  void unrelatedAnnotation() {
+    // TODO WithIssue
+  }
+
+  @Deprecated
+  void otherAnnotation() {
+    // TODO WithIssue
+  }
+}
+
+@Generated("value")
+class GeneratedClassSyntaxOnly {
+
+  void method() {
+    // TODO NoIssue
+  }
+}
@@ -0,0 +1,15 @@
+package foo;
+
+class GeneratedCodeFilterSyntaxOnlyWithoutImport {
+
+  // another annotation named Generated, declared in the same package
+  @Generated
+  void simpleName() {
+    // TODO WithIssue
+  }
+
+  @jakarta.annotation.Generated("value")
+  void fullyQualifiedName() {
+    // TODO NoIssue
+  }
+}
@@ -0,0 +1,19 @@
+package filters;
+
+class SuppressWarningFilterSyntaxOnly {
+
+  @SuppressWarnings("java:S1135")
+  void simpleName() {
+    // TODO NoIssue
+  }
+
+  @java.lang.SuppressWarnings("java:S1135")
+  void fullyQualifiedName() {
+    // TODO NoIssue
+  }
+
+  @Deprecated
+  void otherAnnotation() {
+    // TODO WithIssue
+  }
+}
@@ -28,7 +28,6 @@ import org.slf4j.event.Level;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.cache.ReadCache;
 import org.sonar.api.testfixtures.log.LogTesterJUnit5;
-import org.sonar.java.AnalysisException;
 import org.sonar.java.caching.FileHashingUtils;
 import org.sonar.java.checks.helpers.HashCacheTestHelper;
 import org.sonar.java.checks.verifier.CheckVerifier;
@@ -36,7 +35,6 @@ import org.sonar.java.checks.verifier.internal.InternalReadCache;
 import org.sonar.java.checks.verifier.internal.InternalWriteCache;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -123,7 +121,7 @@ class MissingPackageInfoCheckTest {
   }
 
   @Test
-  void cache_deserialization_throws_IOException() throws IOException, NoSuchAlgorithmException {
+  void unreadable_project_index_entry_is_rebuilt() throws IOException, NoSuchAlgorithmException {
     String filePath = mainCodeSourcesPath("checks/packageInfo/HelloWorld.java");
     InputFile cachedFile = HashCacheTestHelper.inputFileFromPath(filePath);
     byte[] cachedHash = FileHashingUtils.inputFileContentHash(cachedFile);
@@ -131,19 +129,23 @@ class MissingPackageInfoCheckTest {
     doThrow(new IOException()).when(inputStream).readAllBytes();
     var localReadCache = mock(ReadCache.class);
     InternalWriteCache localWriteCache = new InternalWriteCache().bind(localReadCache);
-    doReturn(inputStream).when(localReadCache).read("java:S1228;S4032:package:" + cachedFile.key());
+    doReturn(inputStream).when(localReadCache).read("java:projectIndex:" + cachedFile.key());
     doReturn(true).when(localReadCache).contains(any());
     doReturn(new ByteArrayInputStream(cachedHash))
-      .when(localReadCache).read("java:contentHash:MD5:" + cachedFile.key());
+      .when(localReadCache).read("java:contentHash:MURMUR3_128:" + cachedFile.key());
+
+    var check = spy(new MissingPackageInfoCheck());
 
     var localVerifier = CheckVerifier.newVerifier()
       .withCache(localReadCache, localWriteCache)
       .addFiles(InputFile.Status.SAME, filePath)
-      .withCheck(new MissingPackageInfoCheck());
+      .withCheck(check);
 
-    assertThatThrownBy(localVerifier::verifyNoIssues)
-      .isInstanceOf(AnalysisException.class)
-      .hasRootCauseInstanceOf(IOException.class);
+    localVerifier.verifyNoIssues();
+    // the file is parsed to index it again
+    verify(check).scanFile(any());
+    assertThat(logTester.logs(Level.DEBUG))
+      .anyMatch(msg -> msg.startsWith("Unable to read the index of " + filePath + " stored by the previous analysis"));
   }
 
   @Test
@@ -158,7 +160,7 @@ class MissingPackageInfoCheckTest {
     verifier.verifyNoIssues();
     verifier.verifyNoIssues();
     assertThat(logTester.logs(Level.TRACE))
-      .anyMatch(msg -> msg.matches("Could not store data to cache key '[^']+': .+"));
+      .anyMatch(msg -> msg.matches("Tried to write multiple times to cache key '[^']+'\\. Ignoring writes after the first\\."));
   }
 
   @Test
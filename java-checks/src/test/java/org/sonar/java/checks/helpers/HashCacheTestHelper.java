@@ -39,7 +39,7 @@ public class HashCacheTestHelper {
   }
 
   public static String contentHashKey(InputFile inputFile) {
-    return "java:contentHash:MD5:" + inputFile.key();
+    return "java:contentHash:MURMUR3_128:" + inputFile.key();
   }
 
   public static ReadCache internalReadCacheFromFile(String path) throws NoSuchAlgorithmException, IOException {
@@ -30,7 +30,6 @@ import org.slf4j.event.Level;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.cache.ReadCache;
 import org.sonar.api.testfixtures.log.LogTesterJUnit5;
-import org.sonar.java.AnalysisException;
 import org.sonar.java.caching.FileHashingUtils;
 import org.sonar.java.checks.helpers.HashCacheTestHelper;
 import org.sonar.java.checks.verifier.CheckVerifier;
@@ -38,7 +37,6 @@ import org.sonar.java.checks.verifier.internal.InternalReadCache;
 import org.sonar.java.checks.verifier.internal.InternalWriteCache;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -194,7 +192,7 @@ class SpringBeansShouldBeAccessibleCheckTest {
   }
 
   @Test
-  void cache_deserialization_throws_IOException() throws IOException, NoSuchAlgorithmException {
+  void unreadable_project_index_entry_is_rebuilt() throws IOException, NoSuchAlgorithmException {
     var inputStream = mock(InputStream.class);
     doThrow(new IOException()).when(inputStream).readAllBytes();
     var localReadCache = mock(ReadCache.class);
@@ -203,19 +201,23 @@ class SpringBeansShouldBeAccessibleCheckTest {
     InputFile cachedFile = HashCacheTestHelper.inputFileFromPath(filePath);
     byte[] cachedHash = FileHashingUtils.inputFileContentHash(cachedFile);
 
-    doReturn(inputStream).when(localReadCache).read("java:S4605:targeted:" + cachedFile.key());
+    doReturn(inputStream).when(localReadCache).read("java:projectIndex:" + cachedFile.key());
     doReturn(true).when(localReadCache).contains(any());
     doReturn(new ByteArrayInputStream(cachedHash))
-      .when(localReadCache).read("java:contentHash:MD5:" + cachedFile.key());
+      .when(localReadCache).read("java:contentHash:MURMUR3_128:" + cachedFile.key());
+
+    var check = spy(new SpringBeansShouldBeAccessibleCheck());
 
     var specificVerifier = CheckVerifier.newVerifier()
       .withCache(localReadCache, new InternalWriteCache().bind(localReadCache))
       .addFiles(InputFile.Status.SAME, filePath)
-      .withCheck(new SpringBeansShouldBeAccessibleCheck());
+      .withCheck(check);
 
-    assertThatThrownBy(specificVerifier::verifyNoIssues)
-      .isInstanceOf(AnalysisException.class)
-      .hasRootCauseInstanceOf(IOException.class);
+    specificVerifier.verifyNoIssues();
+    // the file is parsed to index it again
+    verify(check, times(2)).visitNode(any());
+    assertThat(logTester.logs(Level.DEBUG))
+      .anyMatch(msg -> msg.startsWith("Unable to read the index of " + filePath + " stored by the previous analysis"));
   }
 
   @Test
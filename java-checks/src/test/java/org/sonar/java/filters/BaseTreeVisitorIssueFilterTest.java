@@ -16,6 +16,7 @@
  */
 package org.sonar.java.filters;
 
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
@@ -93,12 +94,12 @@ class BaseTreeVisitorIssueFilterTest {
 
   @Test
   void excluded_lines_are_correct() {
-    Map<String, Set<Integer>> excludedLinesByRule = filter.excludedLinesByRule();
+    Map<String, BitSet> excludedLinesByRule = filter.excludedLinesByRule();
     assertThat(excludedLinesByRule)
       .isNotNull()
       .isNotEmpty()
       .containsOnlyKeys(RULE_KEY);
-    assertThat(excludedLinesByRule.get(RULE_KEY)).containsOnly(3, 4, 5, 6, 7, 8, 9, 10, 11, 15);
+    assertThat(excludedLinesByRule.get(RULE_KEY).stream()).containsOnly(3, 4, 5, 6, 7, 8, 9, 10, 11, 15);
   }
 
   @Test
@@ -113,7 +114,7 @@ class BaseTreeVisitorIssueFilterTest {
     // no component is set
     scanFile(filter);
 
-    Map<String, Set<Integer>> excludedLinesByRule = filter.excludedLinesByRule();
+    Map<String, BitSet> excludedLinesByRule = filter.excludedLinesByRule();
     assertThat(excludedLinesByRule)
       .isNotNull()
       .isEmpty();
@@ -0,0 +1,89 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.filters;
+
+import java.util.BitSet;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.scan.issue.filter.FilterableIssue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExcludedLinesIndexTest {
+
+  @Test
+  void lines_are_excluded_by_rule() {
+    ExcludedLinesIndex index = new ExcludedLinesIndex();
+    index.exclude("S1", lines(2, 4));
+    index.exclude(RuleKey.of("repo", "S2"), lines(6, 6));
+
+    assertThat(index.excludes(issue("java", "S1", 3))).isTrue();
+    assertThat(index.excludes(issue("java", "S1", 5))).isFalse();
+    assertThat(index.excludes(issue("java", "S2", 3))).isFalse();
+    assertThat(index.excludes(issue("repo", "S2", 6))).isTrue();
+    assertThat(index.excludes(issue("java", "S2", 6))).isFalse();
+    assertThat(index.excludes(issue("java", "S1", null))).isFalse();
+  }
+
+  @Test
+  void lines_are_excluded_for_all_rules() {
+    ExcludedLinesIndex index = new ExcludedLinesIndex();
+    index.excludeForAllRules(lines(1, 2));
+    index.excludeForAllRulesBut("S3", lines(5, 5));
+
+    assertThat(index.excludes(issue("java", "S1", 2))).isTrue();
+    assertThat(index.excludes(issue("java", "S3", 2))).isTrue();
+    assertThat(index.excludes(issue("java", "S1", 5))).isTrue();
+    assertThat(index.excludes(issue("java", "S3", 5))).isFalse();
+    assertThat(index.excludes(issue("java", "S1", 3))).isFalse();
+  }
+
+  @Test
+  void indexes_are_merged() {
+    ExcludedLinesIndex other = new ExcludedLinesIndex();
+    other.excludeForAllRules(lines(1, 1));
+    other.exclude("S1", lines(2, 2));
+    other.exclude(RuleKey.of("repo", "S2"), lines(3, 3));
+    other.excludeForAllRulesBut("S3", lines(4, 4));
+
+    ExcludedLinesIndex index = new ExcludedLinesIndex();
+    index.exclude("S1", lines(7, 7));
+    index.addAll(other);
+
+    assertThat(index.excludes(issue("java", "S9", 1))).isTrue();
+    assertThat(index.excludes(issue("java", "S1", 2))).isTrue();
+    assertThat(index.excludes(issue("java", "S1", 7))).isTrue();
+    assertThat(index.excludes(issue("repo", "S2", 3))).isTrue();
+    assertThat(index.excludes(issue("java", "S9", 4))).isTrue();
+    assertThat(index.excludes(issue("java", "S3", 4))).isFalse();
+  }
+
+  private static BitSet lines(int from, int to) {
+    BitSet lines = new BitSet();
+    lines.set(from, to + 1);
+    return lines;
+  }
+
+  private static FilterableIssue issue(String repository, String rule, Integer line) {
+    FilterableIssue issue = mock(FilterableIssue.class);
+    when(issue.ruleKey()).thenReturn(RuleKey.of(repository, rule));
+    when(issue.line()).thenReturn(line);
+    return issue;
+  }
+}
@@ -47,6 +47,7 @@ import org.sonar.java.reporting.AnalyzerMessage;
 import org.sonar.java.testing.JavaFileScannerContextForTests;
 import org.sonar.java.testing.VisitorsBridgeForTests;
 import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 
@@ -147,6 +148,7 @@ public class FilterVerifier {
     return rules;
   }
 
+  @SyntaxOnly
   private static class IssueCollector extends SubscriptionVisitor {
 
     private final Set<Integer> rejectedIssuesLines = new HashSet<>();
@@ -17,13 +17,23 @@
 package org.sonar.java.filters;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.event.Level;
+import org.sonar.api.testfixtures.log.LogTesterJUnit5;
 import org.sonar.java.checks.CommentRegularExpressionCheck;
+import org.sonar.java.checks.TodoTagPresenceCheck;
 import org.sonar.java.checks.naming.BadClassNameCheck;
 import org.sonar.java.checks.naming.BadLocalVariableNameCheck;
 import org.sonar.java.checks.naming.BadMethodNameCheck;
+import org.sonar.plugins.java.api.SyntaxOnly;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 class GeneratedCodeFilterTest {
 
+  @RegisterExtension
+  public final LogTesterJUnit5 logTester = new LogTesterJUnit5().setLevel(Level.DEBUG);
+
   @Test
   void test() {
     CommentRegularExpressionCheck commentRegularExpressionCheck = new CommentRegularExpressionCheck();
@@ -35,4 +45,23 @@ class GeneratedCodeFilterTest {
       new BadMethodNameCheck(),
       new BadLocalVariableNameCheck());
   }
+
+  @Test
+  void verify_without_semantics() {
+    // all the visitors being syntax only, the files are parsed without resolving their bindings
+    FilterVerifier.newInstance().verify("src/test/files/filters/GeneratedCodeFilter_syntaxOnly.java", new SyntaxOnlyGeneratedCodeFilter(),
+      // activated rules
+      new TodoTagPresenceCheck()
+    );
+    FilterVerifier.newInstance().verify("src/test/files/filters/GeneratedCodeFilter_syntaxOnlyWithoutImport.java",
+      new SyntaxOnlyGeneratedCodeFilter(),
+      // activated rules
+      new TodoTagPresenceCheck()
+    );
+    assertThat(logTester.logs(Level.INFO)).contains("No active rule requires semantics, the files are parsed without resolving their bindings.");
+  }
+
+  @SyntaxOnly
+  private static class SyntaxOnlyGeneratedCodeFilter extends GeneratedCodeFilter {
+  }
 }
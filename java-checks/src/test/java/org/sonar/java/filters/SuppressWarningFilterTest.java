@@ -17,6 +17,9 @@
 package org.sonar.java.filters;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.event.Level;
+import org.sonar.api.testfixtures.log.LogTesterJUnit5;
 import org.sonar.java.checks.BoxedBooleanExpressionsCheck;
 import org.sonar.java.checks.CallToDeprecatedCodeMarkedForRemovalCheck;
 import org.sonar.java.checks.CallToDeprecatedMethodCheck;
@@ -48,12 +51,18 @@ import org.sonar.java.checks.unused.UnusedPrivateClassCheck;
 import org.sonar.java.checks.unused.UnusedPrivateFieldCheck;
 import org.sonar.java.checks.unused.UnusedPrivateMethodCheck;
 import org.sonar.java.checks.unused.UnusedTypeParameterCheck;
+import org.sonar.plugins.java.api.SyntaxOnly;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 class SuppressWarningFilterTest {
   /**
    * Constant used in test for rule key.
    */
   public static final String CONSTANT_RULE_KEY = "java:S115";
+
+  @RegisterExtension
+  public final LogTesterJUnit5 logTester = new LogTesterJUnit5().setLevel(Level.DEBUG);
   @Test
   void verify() {
     FilterVerifier.newInstance().verify("src/test/files/filters/SuppressWarningFilter.java", new SuppressWarningFilter(),
@@ -107,6 +116,16 @@ class SuppressWarningFilterTest {
     );
   }
 
+  @Test
+  void verify_without_semantics() {
+    // all the visitors being syntax only, the file is parsed without resolving its bindings
+    FilterVerifier.newInstance().verify("src/test/files/filters/SuppressWarningFilter_syntaxOnly.java", new SyntaxOnlySuppressWarningFilter(),
+      // activated rules
+      new TodoTagPresenceCheck()
+    );
+    assertThat(logTester.logs(Level.INFO)).contains("No active rule requires semantics, the files are parsed without resolving their bindings.");
+  }
+
   @Test
   void verify_javadoc() {
     FilterVerifier.newInstance().verify("src/test/files/filters/SuppressWarningFilter_javadoc.java", new SuppressWarningFilter(),
@@ -115,4 +134,8 @@ class SuppressWarningFilterTest {
     );
   }
 
+  @SyntaxOnly
+  private static class SyntaxOnlySuppressWarningFilter extends SuppressWarningFilter {
+  }
+
 }
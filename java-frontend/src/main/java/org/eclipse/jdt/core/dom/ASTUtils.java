@@ -16,9 +16,15 @@
  */
 package org.eclipse.jdt.core.dom;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import javax.annotation.Nullable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.compiler.CharOperation;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem;
 import org.eclipse.jdt.internal.compiler.env.IBinaryAnnotation;
 import org.eclipse.jdt.internal.compiler.env.IBinaryType;
 import org.eclipse.jdt.internal.compiler.env.INameEnvironment;
@@ -28,6 +34,8 @@ import org.eclipse.jdt.internal.compiler.lookup.BinaryTypeBinding;
 import org.eclipse.jdt.internal.compiler.lookup.LookupEnvironment;
 import org.eclipse.jdt.internal.compiler.lookup.ReferenceBinding;
 import org.eclipse.jdt.internal.compiler.lookup.TypeConstants;
+import org.eclipse.jdt.internal.core.BasicCompilationUnit;
+import org.eclipse.jdt.internal.core.DefaultWorkingCopyOwner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,20 +45,55 @@ public final class ASTUtils {
 
   private static final IAnnotationBinding[] NO_ANNOTATIONS = new IAnnotationBinding[0];
 
+  private static final Runnable NO_ENVIRONMENT_CLEANER = () -> {
+  };
+
   private ASTUtils() {
   }
 
   public static void mayTolerateMissingType(AST ast) {
-    ast.getBindingResolver().lookupEnvironment().mayTolerateMissingType = true;
+    if (ast.hasResolvedBindings()) {
+      ast.getBindingResolver().lookupEnvironment().mayTolerateMissingType = true;
+    }
+  }
+
+  /**
+   * Equivalent of {@link ASTParser#createASTs(String[], String[], String[], FileASTRequestor, IProgressMonitor)} for a parser
+   * resolving and recovering bindings, but resolving against the given classpath entries instead of opening them again.
+   */
+  public static void createASTs(String[] sourceFilePaths, String[] encodings, Map<String, String> compilerOptions, List<FileSystem.Classpath> classpath,
+    FileASTRequestor requestor, IProgressMonitor monitor) {
+    CompilationUnitResolver.resolve(sourceFilePaths, encodings, new String[0], requestor, AST.getJLSLatest(), compilerOptions, classpath,
+      ICompilationUnit.ENABLE_BINDINGS_RECOVERY, monitor);
+  }
+
+  /**
+   * Equivalent of {@link ASTParser#createAST(IProgressMonitor)} for a parser resolving and recovering bindings of the given source,
+   * but resolving against the given classpath entries instead of opening them again.
+   */
+  public static CompilationUnit createAST(String unitName, char[] source, Map<String, String> compilerOptions, List<FileSystem.Classpath> classpath) {
+    BasicCompilationUnit sourceUnit = new BasicCompilationUnit(source, null, unitName, (IJavaElement) null);
+    return CompilationUnitResolver.getInstance().toCompilationUnit(sourceUnit, true, null, classpath, -1, AST.getJLSLatest(), compilerOptions,
+      DefaultWorkingCopyOwner.PRIMARY, DefaultWorkingCopyOwner.PRIMARY, ICompilationUnit.ENABLE_BINDINGS_RECOVERY, null);
   }
 
+  /**
+   * @return the cleaner of the name environment of the tree, doing nothing when its bindings have not been resolved
+   */
   public static Runnable getEnvironmentCleaner(AST ast) {
+    if (!ast.hasResolvedBindings()) {
+      return NO_ENVIRONMENT_CLEANER;
+    }
     return new EnvironmentCleaner(ast.getBindingResolver().lookupEnvironment().nameEnvironment);
   }
 
   @Nullable
   public static ITypeBinding resolveType(AST ast, String name) {
     try {
+      if (!ast.hasResolvedBindings()) {
+        // without name environment, every type is unknown
+        return null;
+      }
       BindingResolver bindingResolver = ast.getBindingResolver();
       ReferenceBinding referenceBinding = bindingResolver
         .lookupEnvironment()
@@ -64,6 +107,9 @@ public final class ASTUtils {
   }
 
   public static IAnnotationBinding[] resolvePackageAnnotations(AST ast, String packageName) {
+    if (!ast.hasResolvedBindings()) {
+      return NO_ANNOTATIONS;
+    }
     // See org.eclipse.jdt.core.dom.PackageBinding#getAnnotations()
     BindingResolver bindingResolver = ast.getBindingResolver();
     LookupEnvironment lookupEnvironment = bindingResolver.lookupEnvironment();
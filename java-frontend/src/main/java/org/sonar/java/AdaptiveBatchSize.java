@@ -0,0 +1,143 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.java.annotations.VisibleForTesting;
+
+/**
+ * Size of the batches adapted to the heap pressure observed while parsing the previous batch.
+ *
+ * During a batch, a collection usage threshold is set on the heap memory pools: the JVM then counts the garbage collections
+ * after which the live data of a pool still exceeds {@link #HIGH_OCCUPANCY} of its maximum size. When this happened, or when
+ * the occupancy measured after the last collection is high, the size of the next batch is halved. When the occupancy is low,
+ * it is doubled. The size never goes below the one needed to hold {@link #MIN_FILES_PER_BATCH} files of the average size
+ * observed so far, nor above the given maximum.
+ */
+class AdaptiveBatchSize {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AdaptiveBatchSize.class);
+
+  @VisibleForTesting
+  static final double HIGH_OCCUPANCY = 0.75;
+  @VisibleForTesting
+  static final double LOW_OCCUPANCY = 0.4;
+  @VisibleForTesting
+  static final int MIN_FILES_PER_BATCH = 10;
+
+  private final List<MemoryPoolMXBean> pools;
+  private final long[] previousThresholds;
+  private final long[] thresholdCounts;
+  private final long maxSizeInBytes;
+  private long sizeInBytes;
+  private long analyzedFiles = 0L;
+  private long analyzedBytes = 0L;
+  private boolean batchInProgress = false;
+
+  AdaptiveBatchSize(long initialSizeInBytes, long maxSizeInBytes) {
+    this(initialSizeInBytes, maxSizeInBytes, ManagementFactory.getMemoryPoolMXBeans());
+  }
+
+  @VisibleForTesting
+  AdaptiveBatchSize(long initialSizeInBytes, long maxSizeInBytes, List<MemoryPoolMXBean> memoryPools) {
+    this.maxSizeInBytes = Math.max(1L, maxSizeInBytes);
+    this.sizeInBytes = Math.max(1L, Math.min(initialSizeInBytes, this.maxSizeInBytes));
+    this.pools = memoryPools.stream()
+      .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid() && pool.isCollectionUsageThresholdSupported() && pool.getUsage().getMax() > 0L)
+      .toList();
+    this.previousThresholds = new long[pools.size()];
+    this.thresholdCounts = new long[pools.size()];
+    if (pools.isEmpty()) {
+      LOG.info("No heap memory pool can be monitored, the batch size will not be adapted.");
+    }
+  }
+
+  long sizeInBytes() {
+    return sizeInBytes;
+  }
+
+  void startBatch() {
+    for (int i = 0; i < pools.size(); i++) {
+      MemoryPoolMXBean pool = pools.get(i);
+      previousThresholds[i] = pool.getCollectionUsageThreshold();
+      pool.setCollectionUsageThreshold((long) (pool.getUsage().getMax() * HIGH_OCCUPANCY));
+      thresholdCounts[i] = pool.getCollectionUsageThresholdCount();
+    }
+    batchInProgress = true;
+  }
+
+  void endBatch(int fileCount, long batchSizeInBytes) {
+    boolean thresholdExceeded = false;
+    double occupancy = 0.0;
+    for (int i = 0; i < pools.size(); i++) {
+      MemoryPoolMXBean pool = pools.get(i);
+      thresholdExceeded |= pool.getCollectionUsageThresholdCount() > thresholdCounts[i];
+      occupancy = Math.max(occupancy, occupancyAfterLastCollection(pool));
+    }
+    restoreThresholds();
+    analyzedFiles += fileCount;
+    analyzedBytes += batchSizeInBytes;
+    if (pools.isEmpty()) {
+      return;
+    }
+    long averageFileSize = analyzedFiles == 0L ? 0L : (analyzedBytes / analyzedFiles);
+    long minSizeInBytes = Math.min(maxSizeInBytes, Math.max(1L, averageFileSize * MIN_FILES_PER_BATCH));
+    long nextSizeInBytes = sizeInBytes;
+    if (thresholdExceeded || occupancy >= HIGH_OCCUPANCY) {
+      nextSizeInBytes = sizeInBytes / 2;
+    } else if (occupancy < LOW_OCCUPANCY) {
+      nextSizeInBytes = sizeInBytes > maxSizeInBytes / 2 ? maxSizeInBytes : (sizeInBytes * 2);
+    }
+    sizeInBytes = Math.max(minSizeInBytes, Math.min(maxSizeInBytes, nextSizeInBytes));
+    LOG.info("Heap occupancy after a batch of {} files ({} KB, {} KB per file on average): {}%{}. Next batch size: {} KB.",
+      fileCount,
+      batchSizeInBytes / 1_000L,
+      averageFileSize / 1_000L,
+      Math.round(occupancy * 100),
+      thresholdExceeded ? ", collection usage threshold exceeded" : "",
+      sizeInBytes / 1_000L);
+  }
+
+  /**
+   * Restores the collection usage thresholds changed by {@link #startBatch()}, which are global to the JVM. This is done by
+   * {@link #endBatch(int, long)}, and has to be done as well when the batch does not complete, because it fails or is cancelled.
+   */
+  void restoreThresholds() {
+    if (!batchInProgress) {
+      return;
+    }
+    for (int i = 0; i < pools.size(); i++) {
+      pools.get(i).setCollectionUsageThreshold(previousThresholds[i]);
+    }
+    batchInProgress = false;
+  }
+
+  private static double occupancyAfterLastCollection(MemoryPoolMXBean pool) {
+    MemoryUsage usage = pool.getCollectionUsage();
+    if (usage == null || usage.getMax() <= 0L) {
+      return 0.0;
+    }
+    return ((double) usage.getUsed()) / usage.getMax();
+  }
+
+}
@@ -22,7 +22,7 @@ import java.util.List;
 import org.sonar.api.batch.fs.InputFile;
 
 class BatchGenerator {
-  public final long batchSizeInBytes;
+  private long batchSizeInBytes;
   private final Iterator<InputFile> source;
   private InputFile buffer = null;
 
@@ -31,6 +31,13 @@ class BatchGenerator {
     this.batchSizeInBytes = batchSizeInBytes;
   }
 
+  /**
+   * Changes the threshold used for the next batches, the files already buffered are kept.
+   */
+  public void setBatchSizeInBytes(long batchSizeInBytes) {
+    this.batchSizeInBytes = batchSizeInBytes;
+  }
+
   public boolean hasNext() {
     return buffer != null || source.hasNext();
   }
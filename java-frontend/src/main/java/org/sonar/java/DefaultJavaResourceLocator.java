@@ -28,12 +28,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.java.annotations.VisibleForTesting;
+import org.sonar.java.caching.AnalysisResult;
+import org.sonar.java.caching.AnalysisResultRecorder;
+import org.sonar.java.caching.ReplayableScanner;
 import org.sonar.java.classpath.ClasspathForMain;
 import org.sonar.java.classpath.ClasspathForTest;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaResourceLocator;
+import org.sonar.plugins.java.api.SyntaxOnly;
 
-public class DefaultJavaResourceLocator implements JavaResourceLocator {
+@SyntaxOnly
+public class DefaultJavaResourceLocator implements JavaResourceLocator, ReplayableScanner {
 
   private static final Logger LOG = LoggerFactory.getLogger(DefaultJavaResourceLocator.class);
 
@@ -104,5 +109,11 @@ public class DefaultJavaResourceLocator implements JavaResourceLocator {
     JavaFilesCache javaFilesCache = new JavaFilesCache();
     javaFilesCache.scanFile(context);
     javaFilesCache.getClassNames().forEach(className -> resourcesByClass.put(className, inputFile));
+    AnalysisResultRecorder.of(context).ifPresent(recorder -> recorder.recordClassNames(javaFilesCache.getClassNames()));
+  }
+
+  @Override
+  public void replay(InputFile inputFile, AnalysisResult result) {
+    result.classNames().forEach(className -> resourcesByClass.put(className, inputFile));
   }
 }
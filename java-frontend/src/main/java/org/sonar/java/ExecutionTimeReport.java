@@ -16,10 +16,10 @@
  */
 package org.sonar.java;
 
-import java.io.IOException;
+import java.io.File;
 import java.time.Clock;
 import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.PriorityQueue;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,8 +50,11 @@ public class ExecutionTimeReport {
     return compare != 0 ? compare : a.file.compareTo(b.file);
   };
 
-  private final LinkedList<ExecutionTime> recordedOrderedExecutionTime = new LinkedList<>();
-  private long minRecordedOrderedExecutionTime = MIN_REPORTED_ANALYSIS_TIME_MS;
+  /**
+   * The slowest files, the head of the queue is the fastest of them, which is the one to drop when a slower file comes.
+   */
+  private final PriorityQueue<ExecutionTime> recordedExecutionTime = new PriorityQueue<>(MAX_REPORTED_FILES + 1,
+    ORDER_BY_ANALYSIS_TIME_DESCENDING_AND_FILE_ASCENDING.reversed());
 
   private final Clock clock;
   private final long analysisStartTimeMS;
@@ -80,27 +83,28 @@ public class ExecutionTimeReport {
     } else if (currentAnalysisTime >= MIN_REPORTED_ANALYSIS_TIME_MS && LOG.isDebugEnabled()) {
       LOG.debug("Analysis time of {} ({}ms)", currentFile, currentAnalysisTime);
     }
-    if (currentAnalysisTime >= minRecordedOrderedExecutionTime) {
-      long currentFileLengthInBytes;
-      try {
-        currentFileLengthInBytes = currentFile.contents().length();
-      } catch (IOException ignored) {
-        // Ignore and use the default size
-        currentFileLengthInBytes = -1;
-      }
-      recordedOrderedExecutionTime.add(new ExecutionTime(currentFile.toString(), currentAnalysisTime, currentFileLengthInBytes));
-      recordedOrderedExecutionTime.sort(ORDER_BY_ANALYSIS_TIME_DESCENDING_AND_FILE_ASCENDING);
-      if (recordedOrderedExecutionTime.size() > MAX_REPORTED_FILES) {
-        recordedOrderedExecutionTime.removeLast();
-        minRecordedOrderedExecutionTime = recordedOrderedExecutionTime.stream()
-          .mapToLong(e -> e.analysisTime)
-          .min()
-          .orElse(MIN_REPORTED_ANALYSIS_TIME_MS);
+    if (currentAnalysisTime >= minRecordedExecutionTime()) {
+      // the size of the file is read from the file system, its contents are not read again
+      recordedExecutionTime.add(new ExecutionTime(currentFile.toString(), currentAnalysisTime, lengthInBytes(currentFile)));
+      if (recordedExecutionTime.size() > MAX_REPORTED_FILES) {
+        recordedExecutionTime.poll();
       }
     }
     this.currentFile = null;
   }
 
+  private long minRecordedExecutionTime() {
+    if (recordedExecutionTime.size() < MAX_REPORTED_FILES) {
+      return MIN_REPORTED_ANALYSIS_TIME_MS;
+    }
+    return recordedExecutionTime.peek().analysisTime;
+  }
+
+  private static long lengthInBytes(InputFile inputFile) {
+    File file = inputFile.file();
+    return file != null && file.exists() ? file.length() : -1;
+  }
+
   public void reportAsBatch() {
     report("Slowest analyzed files (batch mode enabled):");
   }
@@ -114,14 +118,15 @@ public class ExecutionTimeReport {
       end();
     }
     long analysisEndTimeMS = clock.millis() - analysisStartTimeMS;
-    if (LOG.isInfoEnabled() && analysisEndTimeMS >= MIN_TOTAL_ANALYSIS_TIME_TO_REPORT_MS && !recordedOrderedExecutionTime.isEmpty()) {
+    if (LOG.isInfoEnabled() && analysisEndTimeMS >= MIN_TOTAL_ANALYSIS_TIME_TO_REPORT_MS && !recordedExecutionTime.isEmpty()) {
       LOG.info("{}{}{}", message, System.lineSeparator(), this);
     }
   }
 
   @Override
   public String toString() {
-    return recordedOrderedExecutionTime.stream()
+    return recordedExecutionTime.stream()
+      .sorted(ORDER_BY_ANALYSIS_TIME_DESCENDING_AND_FILE_ASCENDING)
       .map(e -> "    " + e.file + " (" + e.analysisTime + "ms, " + e.lengthInBytes + "B)")
       .collect(Collectors.joining(System.lineSeparator()));
   }
@@ -21,10 +21,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -36,12 +35,15 @@ import org.sonar.java.annotations.VisibleForTesting;
 import org.sonar.java.ast.JavaAstScanner;
 import org.sonar.java.ast.visitors.FileLinesVisitor;
 import org.sonar.java.ast.visitors.SyntaxHighlighterVisitor;
+import org.sonar.java.caching.AnalysisResultCache;
 import org.sonar.java.caching.CacheContextImpl;
 import org.sonar.java.collections.CollectionUtils;
 import org.sonar.java.exceptions.ApiMismatchException;
 import org.sonar.java.filters.SonarJavaIssueFilter;
+import org.sonar.java.model.ClasspathIndex;
 import org.sonar.java.model.JParserConfig;
 import org.sonar.java.model.VisitorsBridge;
+import org.sonar.java.telemetry.AnalysisTelemetry;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaResourceLocator;
 import org.sonar.plugins.java.api.JavaVersion;
@@ -60,6 +62,7 @@ public class JavaFrontend {
   private final JavaAstScanner astScanner;
   private final JavaAstScanner astScannerForTests;
   private final JavaAstScanner astScannerForGeneratedFiles;
+  private final ClasspathIndex classpathIndex = new ClasspathIndex();
 
   public JavaFrontend(JavaVersion javaVersion, @Nullable SonarComponents sonarComponents, Measurer measurer,
                       JavaResourceLocator javaResourceLocator, @Nullable SonarJavaIssueFilter postAnalysisIssueFilter, JavaCheck... visitors) {
@@ -98,11 +101,14 @@ public class JavaFrontend {
 
     //AstScanner for main files
     astScanner = new JavaAstScanner(sonarComponents);
-    astScanner.setVisitorBridge(createVisitorBridge(codeVisitors, classpath, javaVersion, sonarComponents, inAndroidContext));
+    VisitorsBridge visitorsBridge = createVisitorBridge(codeVisitors, classpath, javaVersion, sonarComponents, inAndroidContext);
+    astScanner.setVisitorBridge(visitorsBridge);
 
-    //AstScanner for test files
+    //AstScanner for test files, whose analysis results also depend on the types declared by the main files
     astScannerForTests = new JavaAstScanner(sonarComponents);
-    astScannerForTests.setVisitorBridge(createVisitorBridge(testCodeVisitors, testClasspath, javaVersion, sonarComponents, inAndroidContext));
+    VisitorsBridge visitorsBridgeForTests = createVisitorBridge(testCodeVisitors, testClasspath, javaVersion, sonarComponents, inAndroidContext);
+    visitorsBridgeForTests.addDependencies(visitorsBridge);
+    astScannerForTests.setVisitorBridge(visitorsBridgeForTests);
 
     //AstScanner for generated files
     astScannerForGeneratedFiles = new JavaAstScanner(sonarComponents);
@@ -143,6 +149,19 @@ public class JavaFrontend {
         successfullyScanned,
         total
       );
+    } else if (canReplayAnalysisResults()) {
+      Map<Boolean, List<InputFile>> mainFilesReplayed = astScanner.replayAnalysisResults(sourceFiles);
+      sourceFiles = mainFilesReplayed.get(false);
+      Map<Boolean, List<InputFile>> testFilesReplayed = astScannerForTests.replayAnalysisResults(testFiles);
+      testFiles = testFilesReplayed.get(false);
+
+      long replayed = (long) mainFilesReplayed.get(true).size() + testFilesReplayed.get(true).size();
+      long total = replayed + mainFilesReplayed.get(false).size() + testFilesReplayed.get(false).size();
+      LOG.info(
+        "Server-side caching is enabled. The Java analyzer replayed the results of previous analyses for {} out of {} files. These files will not be parsed.",
+        replayed,
+        total
+      );
     } else if (isCacheEnabled()) {
       LOG.info("Server-side caching is enabled. The Java analyzer will not try to leverage data from a previous analysis.");
     } else {
@@ -156,12 +175,19 @@ public class JavaFrontend {
       scanAndMeasureTask(sourceFiles, astScanner::scan, "Main");
       scanAndMeasureTask(testFiles, astScannerForTests::scan, "Test");
       scanAndMeasureTask(generatedFiles, astScannerForGeneratedFiles::scan, "Generated");
-    } else if (isAutoScan()) {
-      scanAsBatch(new AutoScanBatchContext(), sourceFiles, testFiles);
     } else {
-      scanAsBatch(new DefaultBatchModeContext(astScanner, "Main"), sourceFiles);
-      scanAsBatch(new DefaultBatchModeContext(astScannerForTests, "Test"), testFiles);
-      scanAsBatch(new DefaultBatchModeContext(astScannerForGeneratedFiles, "Generated"), generatedFiles);
+      try {
+        if (isAutoScan()) {
+          scanAsBatch(new AutoScanBatchContext(), sourceFiles, testFiles);
+        } else {
+          scanAsBatch(new DefaultBatchModeContext(astScanner, "Main"), sourceFiles);
+          scanAsBatch(new DefaultBatchModeContext(astScannerForTests, "Test"), testFiles);
+          scanAsBatch(new DefaultBatchModeContext(astScannerForGeneratedFiles, "Generated"), generatedFiles);
+        }
+      } finally {
+        // Due to a bug in ECJ, JAR files remain locked after the analysis on Windows, we unlock them manually. See SONARJAVA-3609.
+        classpathIndex.close();
+      }
     }
   }
 
@@ -205,6 +231,10 @@ public class JavaFrontend {
   }
 
   private void scanInBatches(BatchModeContext context, List<InputFile> allInputFiles) {
+    if (!context.requiresSemantics()) {
+      scanSyntaxOnly(context, allInputFiles);
+      return;
+    }
     String logUsingBatch = String.format("Using ECJ batch to parse %d %s java source files", allInputFiles.size(), context.descriptor());
     AnalysisProgress analysisProgress = new AnalysisProgress(allInputFiles.size());
     long batchModeSizeInKB = getBatchModeSizeInKB();
@@ -213,34 +243,89 @@ public class JavaFrontend {
       scanBatch(context, allInputFiles, analysisProgress);
     } else {
       long batchSize = batchModeSizeInKB * 1_000L;
-      LOG.info("{} with batch size {} KB.", logUsingBatch, batchModeSizeInKB);
       BatchGenerator generator = new BatchGenerator(allInputFiles.iterator(), batchSize);
-      while (generator.hasNext()) {
-        List<InputFile> batch = generator.next();
+      if (isAdaptiveBatchModeSizeEnabled()) {
+        LOG.info("{} with an adaptive batch size, starting at {} KB.", logUsingBatch, batchModeSizeInKB);
+        scanInAdaptiveBatches(context, generator, new AdaptiveBatchSize(batchSize, sonarComponents.getMaxAdaptiveBatchModeSizeInKB() * 1_000L), analysisProgress);
+      } else {
+        LOG.info("{} with batch size {} KB.", logUsingBatch, batchModeSizeInKB);
+        while (generator.hasNext()) {
+          List<InputFile> batch = generator.next();
+          scanBatch(context, batch, analysisProgress);
+        }
+      }
+    }
+  }
+
+  /**
+   * Without bindings, the files do not share anything and are parsed one by one, there is no need to split them into batches.
+   */
+  private void scanSyntaxOnly(BatchModeContext context, List<InputFile> inputFiles) {
+    LOG.info("No active rule requires semantics, parsing {} {} java source files without resolving their bindings.", inputFiles.size(), context.descriptor());
+    JParserConfig.createSyntaxOnly(javaVersion)
+      .parse(inputFiles, this::analysisCancelled, new AnalysisProgress(inputFiles.size()), (input, result) -> scanAsBatchCallback(input, result, context));
+  }
+
+  private void scanInAdaptiveBatches(BatchModeContext context, BatchGenerator generator, AdaptiveBatchSize adaptiveBatchSize,
+    AnalysisProgress analysisProgress) {
+    while (generator.hasNext()) {
+      generator.setBatchSizeInBytes(adaptiveBatchSize.sizeInBytes());
+      List<InputFile> batch = generator.next();
+      adaptiveBatchSize.startBatch();
+      try {
         scanBatch(context, batch, analysisProgress);
+        adaptiveBatchSize.endBatch(batch.size(), batch.stream().mapToLong(inputFile -> inputFile.file().length()).sum());
+      } finally {
+        adaptiveBatchSize.restoreThresholds();
       }
     }
   }
 
   private <T extends InputFile> void scanBatch(BatchModeContext context, List<T> batchFiles, AnalysisProgress analysisProgress) {
     analysisProgress.startBatch(batchFiles.size());
-    Set<Runnable> environmentsCleaners = new HashSet<>();
     boolean shouldIgnoreUnnamedModuleForSplitPackage = sonarComponents!= null && sonarComponents.shouldIgnoreUnnamedModuleForSplitPackage();
-    JParserConfig.Mode.BATCH
-      .create(javaVersion, context.getClasspath(), shouldIgnoreUnnamedModuleForSplitPackage)
-      .parse(batchFiles, this::analysisCancelled, analysisProgress, (input, result) -> scanAsBatchCallback(input, result, context, environmentsCleaners));
-    // Due to a bug in ECJ, JAR files remain locked after the analysis on Windows, we unlock them manually, at the end of each batches. See SONARJAVA-3609.
-    environmentsCleaners.forEach(Runnable::run);
+    AnalysisTelemetry telemetry = sonarComponents == null ? null : sonarComponents.analysisTelemetry().orElse(null);
+    BatchParseTime batchParseTime = telemetry == null ? null : new BatchParseTime();
+    BiConsumer<InputFile, JParserConfig.Result> action = (input, result) -> scanAsBatchCallback(input, result, context);
+    // All the batches share the classpath entries of the index, which are released once at the end of the analysis
+    JParserConfig
+      .createParallelBatch(javaVersion, context.getClasspath(), shouldIgnoreUnnamedModuleForSplitPackage, getBatchModeParallelism(), classpathIndex)
+      .parse(batchFiles, this::analysisCancelled, analysisProgress, batchParseTime == null ? action : batchParseTime.excluding(action));
+    if (telemetry != null) {
+      telemetry.batch(batchParseTime.parseNanos());
+    }
     analysisProgress.endBatch();
   }
 
-  private static void scanAsBatchCallback(InputFile inputFile, JParserConfig.Result result, BatchModeContext context, Set<Runnable> environmentsCleaners) {
+  /**
+   * ECJ parses the files of a batch at once: the parse time of the batch is its duration, minus the time spent to convert and to
+   * analyze its files. When the batch is split between parallel parsers, it is the time the analysis waited for them.
+   */
+  private static class BatchParseTime {
+    private final long start = System.nanoTime();
+    private long convertAndAnalysisNanos = 0L;
+
+    private BiConsumer<InputFile, JParserConfig.Result> excluding(BiConsumer<InputFile, JParserConfig.Result> action) {
+      return (input, result) -> {
+        long analysisStart = System.nanoTime();
+        try {
+          action.accept(input, result);
+        } finally {
+          convertAndAnalysisNanos += System.nanoTime() - analysisStart + Math.max(0L, result.convertNanos());
+        }
+      };
+    }
+
+    private long parseNanos() {
+      return Math.max(0L, System.nanoTime() - start - convertAndAnalysisNanos);
+    }
+  }
+
+  private static void scanAsBatchCallback(InputFile inputFile, JParserConfig.Result result, BatchModeContext context) {
     JavaAstScanner scanner = context.selectScanner(inputFile);
     Duration duration = PerformanceMeasure.start(context.descriptor(inputFile));
-    scanner.simpleScan(inputFile, result, ast ->
-      // In batch mode, we delay the cleaning of the environment as it will be used in later processing.
-      environmentsCleaners.add(ast.sema.getEnvironmentCleaner())
-    );
+    // In batch mode, the environment is not cleaned after each file, its classpath entries are shared with the following files.
+    scanner.simpleScan(inputFile, result, ast -> {});
     duration.stop();
   }
 
@@ -253,6 +338,8 @@ public class JavaFrontend {
 
     JavaAstScanner selectScanner(InputFile input);
 
+    boolean requiresSemantics();
+
     void endOfAnalysis();
   }
 
@@ -278,6 +365,11 @@ public class JavaFrontend {
       return input.type() == InputFile.Type.TEST ? astScannerForTests : astScanner;
     }
 
+    @Override
+    public boolean requiresSemantics() {
+      return astScanner.requiresSemantics() || astScannerForTests.requiresSemantics();
+    }
+
     @Override
     public void endOfAnalysis() {
       astScanner.endOfAnalysis();
@@ -316,6 +408,11 @@ public class JavaFrontend {
       return scanner;
     }
 
+    @Override
+    public boolean requiresSemantics() {
+      return scanner.requiresSemantics();
+    }
+
     @Override
     public void endOfAnalysis() {
       scanner.endOfAnalysis();
@@ -338,10 +435,24 @@ public class JavaFrontend {
     return sonarComponents == null ? -1L : sonarComponents.getBatchModeSizeInKB();
   }
 
+  @VisibleForTesting
+  boolean isAdaptiveBatchModeSizeEnabled() {
+    return sonarComponents != null && sonarComponents.isAdaptiveBatchModeSizeEnabled();
+  }
+
+  @VisibleForTesting
+  int getBatchModeParallelism() {
+    return sonarComponents == null ? 1 : sonarComponents.getBatchModeParallelism();
+  }
+
   private boolean isCacheEnabled() {
     return sonarComponents != null && CacheContextImpl.of(sonarComponents).isCacheEnabled();
   }
 
+  private boolean canReplayAnalysisResults() {
+    return AnalysisResultCache.isReplayEnabled(sonarComponents);
+  }
+
   private boolean canOptimizeScanning() {
     try {
       return sonarComponents != null && sonarComponents.canSkipUnchangedFiles() && isCacheEnabled();
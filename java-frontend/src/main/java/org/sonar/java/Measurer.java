@@ -16,27 +16,39 @@
  */
 package org.sonar.java;
 
-import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
 import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.issue.NoSonarFilter;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.Metric;
-import org.sonar.java.ast.visitors.CognitiveComplexityVisitor;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.caching.AnalysisResult;
+import org.sonar.java.caching.AnalysisResultRecorder;
+import org.sonar.java.caching.ReplayableScanner;
 import org.sonar.java.metrics.MetricsScannerContext;
-import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.NewClassTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
-public class Measurer extends SubscriptionVisitor {
+@SyntaxOnly
+public class Measurer extends SubscriptionVisitor implements ReplayableScanner {
+
+  private static final Map<String, Metric<Integer>> METRICS = Stream.of(CoreMetrics.CLASSES, CoreMetrics.FUNCTIONS, CoreMetrics.COMPLEXITY,
+      CoreMetrics.COMMENT_LINES, CoreMetrics.STATEMENTS, CoreMetrics.NCLOC, CoreMetrics.COGNITIVE_COMPLEXITY)
+    .collect(Collectors.toMap(Metric::key, Function.identity()));
 
   private final SensorContext sensorContext;
   private final NoSonarFilter noSonarFilter;
@@ -44,18 +56,25 @@ public class Measurer extends SubscriptionVisitor {
   private int methods;
   private final Deque<ClassTree> classTrees = new LinkedList<>();
   private int classes;
+  @Nullable
+  private AnalysisResultRecorder recorder;
 
   public Measurer(SensorContext context, NoSonarFilter noSonarFilter) {
     this.sensorContext = context;
     this.noSonarFilter = noSonarFilter;
   }
 
-  public class TestFileMeasurer implements JavaFileScanner {
+  @SyntaxOnly
+  public class TestFileMeasurer implements ReplayableScanner {
     @Override
     public void scanFile(JavaFileScannerContext context) {
       sonarFile = context.getInputFile();
-      var metricsComputer = ((MetricsScannerContext)context).getMetricsComputer();
-      noSonarFilter.noSonarInFile(sonarFile, metricsComputer.getNoSonarLines(context.getTree()));
+      saveNoSonarLines(context);
+    }
+
+    @Override
+    public void replay(InputFile inputFile, AnalysisResult result) {
+      noSonarFilter.noSonarInFile(inputFile, result.noSonarLines());
     }
   }
 
@@ -68,20 +87,23 @@ public class Measurer extends SubscriptionVisitor {
 
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
+  public void setContext(JavaFileScannerContext context) {
+    super.setContext(context);
     sonarFile = context.getInputFile();
-    var metricsComputer = ((MetricsScannerContext)context).getMetricsComputer();
-    noSonarFilter.noSonarInFile(sonarFile, metricsComputer.getNoSonarLines(context.getTree()));
+    recorder = AnalysisResultRecorder.of(context).orElse(null);
+    saveNoSonarLines(context);
+    classTrees.clear();
+    methods = 0;
+    classes = 0;
+  }
+
+  @Override
+  public void leaveFile(JavaFileScannerContext context) {
     if(isSonarLintContext()) {
       // No need to compute metrics on SonarLint side, but the no sonar filter is still required
       return;
     }
-    classTrees.clear();
-    methods = 0;
-    classes = 0;
-    super.setContext(context);
-    scanTree(context.getTree());
-    //leave file.
+    var metricsComputer = ((MetricsScannerContext)context).getMetricsComputer();
     saveMetricOnFile(CoreMetrics.CLASSES, classes);
     saveMetricOnFile(CoreMetrics.FUNCTIONS, methods);
     saveMetricOnFile(CoreMetrics.COMPLEXITY, metricsComputer.getComplexityNodes(context.getTree()).size());
@@ -89,7 +111,28 @@ public class Measurer extends SubscriptionVisitor {
     saveMetricOnFile(CoreMetrics.STATEMENTS, metricsComputer.getNumberOfStatements(context.getTree()));
     saveMetricOnFile(CoreMetrics.NCLOC, metricsComputer.getLinesOfCode(context.getTree()));
 
-    saveMetricOnFile(CoreMetrics.COGNITIVE_COMPLEXITY, CognitiveComplexityVisitor.compilationUnitComplexity(context.getTree()));
+    saveMetricOnFile(CoreMetrics.COGNITIVE_COMPLEXITY, metricsComputer.getCompilationUnitComplexity(context.getTree()));
+  }
+
+  @Override
+  public void replay(InputFile inputFile, AnalysisResult result) {
+    noSonarFilter.noSonarInFile(inputFile, result.noSonarLines());
+    if (isSonarLintContext()) {
+      return;
+    }
+    result.measures().forEach((metricKey, value) -> {
+      Metric<Integer> metric = METRICS.get(metricKey);
+      if (metric != null) {
+        sensorContext.<Integer>newMeasure().forMetric(metric).on(inputFile).withValue(value).save();
+      }
+    });
+  }
+
+  private void saveNoSonarLines(JavaFileScannerContext context) {
+    var metricsComputer = ((MetricsScannerContext) context).getMetricsComputer();
+    Set<Integer> noSonarLines = metricsComputer.getNoSonarLines(context.getTree());
+    noSonarFilter.noSonarInFile(sonarFile, noSonarLines);
+    AnalysisResultRecorder.of(context).ifPresent(fileRecorder -> fileRecorder.recordNoSonarLines(noSonarLines));
   }
 
   private boolean isSonarLintContext() {
@@ -123,7 +166,10 @@ public class Measurer extends SubscriptionVisitor {
     return tree.is(Tree.Kind.CLASS, Tree.Kind.INTERFACE, Tree.Kind.ENUM, Tree.Kind.ANNOTATION_TYPE, Tree.Kind.RECORD);
   }
 
-  private <T extends Serializable> void saveMetricOnFile(Metric<T> metric, T value) {
-    sensorContext.<T>newMeasure().forMetric(metric).on(sonarFile).withValue(value).save();
+  private void saveMetricOnFile(Metric<Integer> metric, int value) {
+    sensorContext.<Integer>newMeasure().forMetric(metric).on(sonarFile).withValue(value).save();
+    if (recorder != null) {
+      recorder.recordMeasure(metric.key(), value);
+    }
   }
 }
@@ -59,15 +59,20 @@ import org.sonar.api.rule.RuleKey;
 import org.sonar.api.rule.RuleScope;
 import org.sonar.api.utils.Version;
 import org.sonar.java.annotations.VisibleForTesting;
+import org.sonar.java.caching.AnalysisResult.Location;
+import org.sonar.java.caching.AnalysisResultRecorder;
 import org.sonar.java.caching.ContentHashCache;
+import org.sonar.java.caching.ContentHashes;
 import org.sonar.java.classpath.ClasspathForMain;
 import org.sonar.java.classpath.ClasspathForTest;
 import org.sonar.java.exceptions.ApiMismatchException;
 import org.sonar.java.model.GeneratedFile;
 import org.sonar.java.model.JProblem;
 import org.sonar.java.model.LineUtils;
+import org.sonar.java.regex.RegexVerdictCache;
 import org.sonar.java.reporting.AnalyzerMessage;
 import org.sonar.java.reporting.JavaIssue;
+import org.sonar.java.telemetry.AnalysisTelemetry;
 import org.sonar.plugins.java.api.CheckRegistrar;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScanner;
@@ -89,12 +94,26 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
   public static final String SONAR_AUTOSCAN_CHECK_FILTERING = "sonar.internal.analysis.autoscan.filtering";
   public static final String SONAR_BATCH_SIZE_KEY = "sonar.java.experimental.batchModeSizeInKB";
   public static final String SONAR_FILE_BY_FILE = "sonar.java.fileByFile";
+  /**
+   * Number of worker threads used to parse the files of a batch. Checks are still executed on a single thread.
+   * By default, the property is not set and batches are parsed on a single thread.
+   */
+  public static final String SONAR_BATCH_PARALLELISM_KEY = "sonar.java.experimental.batchModeParallelism";
+  /**
+   * Activates the adaptation of the batch size to the heap pressure observed while parsing the previous batch, starting from the
+   * configured or computed batch size. By default, the property is not set and the batch size is constant.
+   */
+  public static final String SONAR_ADAPTIVE_BATCH_SIZE_KEY = "sonar.java.experimental.adaptiveBatchModeSize";
   /**
    * Describes if an optimized analysis of unchanged by skipping some rules is enabled.
    * By default, the property is not set (null), leaving SQ/SC to decide whether to enable this behavior.
    * Setting it to true or false, forces the behavior from the analyzer independently of the server.
    */
   public static final String SONAR_CAN_SKIP_UNCHANGED_FILES_KEY = "sonar.java.skipUnchanged";
+  /**
+   * Activates the collection of performance measures, including the time spent by each check.
+   */
+  public static final String PERFORMANCE_MEASURE_ACTIVATION_KEY = "sonar.java.performance.measure";
 
   /**
    * Describes whether input files should be parsed while ignoring unnamed split modules.
@@ -119,6 +138,7 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
   private final ProjectDefinition projectDefinition;
   @Nullable
   private final SonarLintCache sonarLintCache;
+  private final AnalysisWarningsWrapper analysisWarnings;
   private final FileSystem fs;
   private final List<JavaCheck> mainChecks;
   private final List<JavaCheck> testChecks;
@@ -129,11 +149,19 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
   private final Set<RuleKey> additionalAutoScanCompatibleRuleKeys;
 
   private boolean alreadyLoggedSkipStatus = false;
+  @Nullable
+  private AnalysisResultRecorder analysisResultRecorder;
+  @Nullable
+  private AnalysisTelemetry analysisTelemetry;
+  @Nullable
+  private TimeBudget timeBudget;
+  private final ContentHashes contentHashes = new ContentHashes();
+  private final RegexVerdictCache regexVerdicts = new RegexVerdictCache();
 
   public SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
     ClasspathForMain javaClasspath, ClasspathForTest javaTestClasspath,
     CheckFactory checkFactory, ActiveRules activeRules) {
-    this(fileLinesContextFactory, fs, javaClasspath, javaTestClasspath, checkFactory, activeRules, null, null, null);
+    this(fileLinesContextFactory, fs, javaClasspath, javaTestClasspath, checkFactory, activeRules, null, null, null, AnalysisWarningsWrapper.NOOP_ANALYSIS_WARNINGS);
   }
 
   /**
@@ -142,7 +170,7 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
   public SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
     ClasspathForMain javaClasspath, ClasspathForTest javaTestClasspath, CheckFactory checkFactory,
     ActiveRules activeRules, @Nullable CheckRegistrar[] checkRegistrars) {
-    this(fileLinesContextFactory, fs, javaClasspath, javaTestClasspath, checkFactory, activeRules, checkRegistrars, null, null);
+    this(fileLinesContextFactory, fs, javaClasspath, javaTestClasspath, checkFactory, activeRules, checkRegistrars, null, null, AnalysisWarningsWrapper.NOOP_ANALYSIS_WARNINGS);
   }
 
   /**
@@ -157,17 +185,17 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
   public SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
     ClasspathForMain javaClasspath, ClasspathForTest javaTestClasspath, CheckFactory checkFactory,
     ActiveRules activeRules, @Nullable CheckRegistrar[] checkRegistrars, SonarLintCache sonarLintCache) {
-    this(fileLinesContextFactory, fs, javaClasspath, javaTestClasspath, checkFactory, activeRules, checkRegistrars, null, sonarLintCache);
+    this(fileLinesContextFactory, fs, javaClasspath, javaTestClasspath, checkFactory, activeRules, checkRegistrars, null, sonarLintCache,
+      AnalysisWarningsWrapper.NOOP_ANALYSIS_WARNINGS);
   }
 
   /**
-   * Will be called in SonarScanner context when no custom rules are present.
    * May be called in some SonarLint contexts, but not others, since ProjectDefinition might not be available.
    */
   public SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
     ClasspathForMain javaClasspath, ClasspathForTest javaTestClasspath, CheckFactory checkFactory,
     ActiveRules activeRules, @Nullable ProjectDefinition projectDefinition) {
-    this(fileLinesContextFactory, fs, javaClasspath, javaTestClasspath, checkFactory, activeRules, null, projectDefinition, null);
+    this(fileLinesContextFactory, fs, javaClasspath, javaTestClasspath, checkFactory, activeRules, null, projectDefinition, null, AnalysisWarningsWrapper.NOOP_ANALYSIS_WARNINGS);
   }
 
   /**
@@ -186,15 +214,36 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
       activeRules,
       checkRegistrars,
       projectDefinition,
-      null
+      null,
+      AnalysisWarningsWrapper.NOOP_ANALYSIS_WARNINGS
     );
   }
 
 
   /**
-   * All other constructors delegate to this one.
+   * Will be called in SonarScanner context when no custom rules are present.
    * <p>
-   * It will also be called directly when constructing a SonarComponents instance for injection if all parameters are available.
+   * {@link AnalysisWarningsWrapper} is only available in SonarScanner context, the other constructors do not report analysis warnings.
+   */
+  public SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
+    ClasspathForMain javaClasspath, ClasspathForTest javaTestClasspath, CheckFactory checkFactory,
+    ActiveRules activeRules, @Nullable ProjectDefinition projectDefinition, AnalysisWarningsWrapper analysisWarnings) {
+    this(fileLinesContextFactory, fs, javaClasspath, javaTestClasspath, checkFactory, activeRules, null, projectDefinition, null, analysisWarnings);
+  }
+
+  /**
+   * Will be called in SonarScanner context when custom rules are present.
+   */
+  public SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
+    ClasspathForMain javaClasspath, ClasspathForTest javaTestClasspath, CheckFactory checkFactory,
+    ActiveRules activeRules, @Nullable CheckRegistrar[] checkRegistrars,
+    @Nullable ProjectDefinition projectDefinition, AnalysisWarningsWrapper analysisWarnings) {
+    this(fileLinesContextFactory, fs, javaClasspath, javaTestClasspath, checkFactory, activeRules, checkRegistrars, projectDefinition, null,
+      analysisWarnings);
+  }
+
+  /**
+   * Will be called directly when constructing a SonarComponents instance for injection if all parameters are available.
    * This is for example the case for SonarLint in IntelliJ when DBD is present
    * (because ProjectDefinition can be available in recent SonarLint versions, and DBD provides a CheckRegistrar.)
    */
@@ -202,6 +251,17 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
     ClasspathForMain javaClasspath, ClasspathForTest javaTestClasspath, CheckFactory checkFactory,
     ActiveRules activeRules, @Nullable CheckRegistrar[] checkRegistrars,
     @Nullable ProjectDefinition projectDefinition, @Nullable SonarLintCache sonarLintCache) {
+    this(fileLinesContextFactory, fs, javaClasspath, javaTestClasspath, checkFactory, activeRules, checkRegistrars, projectDefinition, sonarLintCache,
+      AnalysisWarningsWrapper.NOOP_ANALYSIS_WARNINGS);
+  }
+
+  /**
+   * All other constructors delegate to this one.
+   */
+  private SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
+    ClasspathForMain javaClasspath, ClasspathForTest javaTestClasspath, CheckFactory checkFactory,
+    ActiveRules activeRules, @Nullable CheckRegistrar[] checkRegistrars,
+    @Nullable ProjectDefinition projectDefinition, @Nullable SonarLintCache sonarLintCache, AnalysisWarningsWrapper analysisWarnings) {
     this.fileLinesContextFactory = fileLinesContextFactory;
     this.fs = fs;
     this.javaClasspath = javaClasspath;
@@ -210,6 +270,7 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
     this.activeRules = activeRules;
     this.projectDefinition = projectDefinition;
     this.sonarLintCache = sonarLintCache;
+    this.analysisWarnings = analysisWarnings;
     this.mainChecks = new ArrayList<>();
     this.testChecks = new ArrayList<>();
     this.jspChecks = new ArrayList<>();
@@ -231,16 +292,71 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
   }
 
   public FileLinesContext fileLinesContextFor(InputFile inputFile) {
-    return fileLinesContextFactory.createFor(inputFile);
+    FileLinesContext fileLinesContext = fileLinesContextFactory.createFor(inputFile);
+    return isRecorded(inputFile) ? analysisResultRecorder.record(fileLinesContext) : fileLinesContext;
   }
 
   public NewSymbolTable symbolizableFor(InputFile inputFile) {
-    return context.newSymbolTable().onFile(inputFile);
+    NewSymbolTable symbolTable = context.newSymbolTable().onFile(inputFile);
+    return isRecorded(inputFile) ? analysisResultRecorder.record(symbolTable) : symbolTable;
   }
 
   public NewHighlighting highlightableFor(InputFile inputFile) {
     Objects.requireNonNull(context);
-    return context.newHighlighting().onFile(inputFile);
+    NewHighlighting highlighting = context.newHighlighting().onFile(inputFile);
+    return isRecorded(inputFile) ? analysisResultRecorder.record(highlighting) : highlighting;
+  }
+
+  /**
+   * Records what is reported for the file being analyzed into the given recorder, until called again with {@code null}.
+   */
+  public void setAnalysisResultRecorder(@Nullable AnalysisResultRecorder analysisResultRecorder) {
+    this.analysisResultRecorder = analysisResultRecorder;
+  }
+
+  public Optional<AnalysisResultRecorder> analysisResultRecorder() {
+    return Optional.ofNullable(analysisResultRecorder);
+  }
+
+  public void setAnalysisTelemetry(@Nullable AnalysisTelemetry analysisTelemetry) {
+    this.analysisTelemetry = analysisTelemetry;
+  }
+
+  public Optional<AnalysisTelemetry> analysisTelemetry() {
+    return Optional.ofNullable(analysisTelemetry);
+  }
+
+  public void setTimeBudget(@Nullable TimeBudget timeBudget) {
+    this.timeBudget = timeBudget;
+  }
+
+  public Optional<TimeBudget> timeBudget() {
+    return Optional.ofNullable(timeBudget);
+  }
+
+  /**
+   * Reports a warning to the user, displayed once in the analysis report whatever the number of times it is added.
+   */
+  public void addAnalysisWarning(String text) {
+    analysisWarnings.addUnique(text);
+  }
+
+  /**
+   * @return the content hashes of the files of this analysis, shared by the caches relying on them
+   */
+  public ContentHashes contentHashes() {
+    return contentHashes;
+  }
+
+  /**
+   * @return the verdicts of the regex checks, shared by the files of this analysis
+   */
+  public RegexVerdictCache regexVerdicts() {
+    return regexVerdicts;
+  }
+
+  private boolean isRecorded(InputFile inputFile) {
+    return analysisResultRecorder != null && analysisResultRecorder.inputFile().equals(inputFile);
   }
 
   public List<File> getJavaClasspath() {
@@ -415,6 +531,13 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
       issue.addFlow((InputFile) analyzerMessage.getInputComponent(), analyzerMessage.flows);
     }
     issue.save();
+    if (analysisResultRecorder != null) {
+      List<List<Location>> flows = analyzerMessage.flows.stream()
+        .map(flow -> flow.stream().map(message -> Location.of(message.primaryLocation(), message.getMessage())).toList())
+        .toList();
+      analysisResultRecorder.recordIssue(analyzerMessage.getCheck(), key, fileOrProject, Location.of(textSpan, analyzerMessage.getMessage()),
+        cost, flows, false);
+    }
   }
 
   public boolean reportAnalysisError(RecognitionException re, InputFile inputFile) {
@@ -461,6 +584,10 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
     return context.config().getBoolean(FAIL_ON_EXCEPTION_KEY).orElse(false);
   }
 
+  public boolean isPerformanceMeasureActive() {
+    return context.config().get(PERFORMANCE_MEASURE_ACTIVATION_KEY).filter("true"::equals).isPresent();
+  }
+
   public boolean isFileByFileEnabled() {
     return context.config().getBoolean(SONAR_FILE_BY_FILE).orElse(false);
   }
@@ -488,6 +615,27 @@ public class SonarComponents extends CheckRegistrar.RegistrarContext {
     return config.getLong(SONAR_BATCH_SIZE_KEY).orElse(computeIdealBatchSize());
   }
 
+  /**
+   * Returns the number of threads used to parse a batch, as read from configuration, capped by the number of available processors.
+   *
+   * @return the batch mode parallelism or a default value of 1.
+   */
+  public int getBatchModeParallelism() {
+    int parallelism = context.config().getInt(SONAR_BATCH_PARALLELISM_KEY).orElse(1);
+    return Math.max(1, Math.min(parallelism, Runtime.getRuntime().availableProcessors()));
+  }
+
+  public boolean isAdaptiveBatchModeSizeEnabled() {
+    return context.config().getBoolean(SONAR_ADAPTIVE_BATCH_SIZE_KEY).orElse(false);
+  }
+
+  /**
+   * Returns the largest batch size that an adaptive batch mode can reach, as a fraction of the memory available though -Xmx.
+   */
+  public long getMaxAdaptiveBatchModeSizeInKB() {
+    return maxMemoryInBytesProvider.getAsLong() / 500L / 1000L;
+  }
+
   public boolean shouldIgnoreUnnamedModuleForSplitPackage() {
     return context.config().getBoolean(SONAR_IGNORE_UNNAMED_MODULE_FOR_SPLIT_PACKAGE).orElse(false);
   }
@@ -0,0 +1,214 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.CheckForNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.config.Configuration;
+import org.sonar.java.annotations.VisibleForTesting;
+
+/**
+ * Bounds the time spent by a check on a file, set by {@value #CHECK_TIMEOUT_KEY}, and the time spent by all the checks on a file,
+ * set by {@value #FILE_TIMEOUT_KEY}, in milliseconds.
+ * <p>
+ * The budget is enforced where the checks are dispatched, between two calls to a check, and in the middle of a call: a daemon
+ * watchdog thread periodically compares the deadlines of the running check to the clock and marks the budget as exceeded, then
+ * {@link #checkpoint()}, called by the tree traversals of {@link org.sonar.plugins.java.api.tree.BaseTreeVisitor}, throws a
+ * {@link TimeBudgetExceededException} on the analysis thread. As long as no budget is exceeded, a checkpoint only reads a single
+ * volatile field. A check catching the exception is stopped all the same: every following checkpoint throws it again until the
+ * check returns, and the check is reported as stopped whatever it did with the exception.
+ * <p>
+ * A check spending its time without walking a tree, in a single long computation, can only be reported once it returns.
+ */
+public final class TimeBudget {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TimeBudget.class);
+
+  public static final String CHECK_TIMEOUT_KEY = "sonar.java.checkTimeoutMs";
+  public static final String FILE_TIMEOUT_KEY = "sonar.java.fileTimeoutMs";
+
+  private static final long MIN_TICK_MILLIS = 10L;
+  private static final long MAX_TICK_MILLIS = 1_000L;
+
+  private static final ThreadLocal<TimeBudget> CURRENT = new ThreadLocal<>();
+  /**
+   * Number of budgets marked as exceeded by their watchdog in this JVM. A checkpoint only looks for the budget of the current thread
+   * when it is not zero.
+   */
+  private static final AtomicInteger EXCEEDED_BUDGETS = new AtomicInteger();
+
+  private final long checkTimeoutMillis;
+  private final long fileTimeoutMillis;
+  private final ScheduledExecutorService watchdog;
+  private final AtomicBoolean exceeded = new AtomicBoolean();
+  private volatile boolean checkRunning = false;
+  private volatile long checkDeadline = Long.MAX_VALUE;
+  private volatile long fileDeadline = Long.MAX_VALUE;
+  // only accessed by the analysis thread
+  private boolean checkStopped = false;
+
+  @VisibleForTesting
+  TimeBudget(long checkTimeoutMillis, long fileTimeoutMillis) {
+    this.checkTimeoutMillis = checkTimeoutMillis;
+    this.fileTimeoutMillis = fileTimeoutMillis;
+    long shortestTimeout = Math.min(enabledOrMax(checkTimeoutMillis), enabledOrMax(fileTimeoutMillis));
+    long tick = Math.max(MIN_TICK_MILLIS, Math.min(MAX_TICK_MILLIS, shortestTimeout / 10));
+    watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "Watchdog of the Java checks");
+      thread.setDaemon(true);
+      return thread;
+    });
+    watchdog.scheduleAtFixedRate(this::watch, tick, tick, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @return the started budget, or null when neither {@value #CHECK_TIMEOUT_KEY} nor {@value #FILE_TIMEOUT_KEY} is set to a positive value
+   */
+  @CheckForNull
+  public static TimeBudget start(Configuration config) {
+    long checkTimeout = config.getLong(CHECK_TIMEOUT_KEY).filter(timeout -> timeout > 0).orElse(0L);
+    long fileTimeout = config.getLong(FILE_TIMEOUT_KEY).filter(timeout -> timeout > 0).orElse(0L);
+    if (checkTimeout == 0L && fileTimeout == 0L) {
+      return null;
+    }
+    LOG.info("Time budget of the checks: {} per check and {} per file.", describe(checkTimeout), describe(fileTimeout));
+    return new TimeBudget(checkTimeout, fileTimeout);
+  }
+
+  /**
+   * Stops the running check when the budget of the current thread is exceeded.
+   *
+   * @throws TimeBudgetExceededException when the running check, or the current file, exceeded its time budget
+   */
+  public static void checkpoint() {
+    if (EXCEEDED_BUDGETS.get() > 0) {
+      TimeBudget budget = CURRENT.get();
+      if (budget != null) {
+        budget.stopIfExceeded();
+      }
+    }
+  }
+
+  public long checkTimeoutMillis() {
+    return checkTimeoutMillis;
+  }
+
+  public long fileTimeoutMillis() {
+    return fileTimeoutMillis;
+  }
+
+  /**
+   * Starts the budget of a file on the calling thread, which is the one running the checks.
+   */
+  public void startFile() {
+    CURRENT.set(this);
+    fileDeadline = deadline(System.nanoTime(), fileTimeoutMillis, 0L);
+  }
+
+  public void endFile() {
+    endCheck();
+    fileDeadline = Long.MAX_VALUE;
+    CURRENT.remove();
+  }
+
+  /**
+   * @param spentNanos time already spent by the check on the current file
+   */
+  public void startCheck(long spentNanos) {
+    acknowledge();
+    checkStopped = false;
+    checkDeadline = deadline(System.nanoTime(), checkTimeoutMillis, spentNanos);
+    checkRunning = true;
+  }
+
+  /**
+   * @return true when the check was stopped by a checkpoint, even if it caught the exception
+   */
+  public boolean endCheck() {
+    checkRunning = false;
+    checkDeadline = Long.MAX_VALUE;
+    acknowledge();
+    boolean stopped = checkStopped;
+    checkStopped = false;
+    return stopped;
+  }
+
+  /**
+   * @param spentNanos time spent by a check on the current file
+   * @return true when the time spent exceeds the budget of a check
+   */
+  public boolean isCheckExceeded(long spentNanos) {
+    return checkTimeoutMillis > 0 && spentNanos > TimeUnit.MILLISECONDS.toNanos(checkTimeoutMillis);
+  }
+
+  public boolean isFileExceeded() {
+    return System.nanoTime() > fileDeadline;
+  }
+
+  public void stop() {
+    watchdog.shutdownNow();
+    endCheck();
+  }
+
+  @VisibleForTesting
+  void watch() {
+    if (checkRunning && !exceeded.get()) {
+      long now = System.nanoTime();
+      if ((now > checkDeadline || now > fileDeadline) && exceeded.compareAndSet(false, true)) {
+        EXCEEDED_BUDGETS.incrementAndGet();
+      }
+    }
+  }
+
+  private void stopIfExceeded() {
+    if (!exceeded.get()) {
+      return;
+    }
+    long now = System.nanoTime();
+    if (checkRunning && (now > fileDeadline || now > checkDeadline)) {
+      // the budget stays marked as exceeded: a check catching the exception meets it again at its next checkpoint
+      checkStopped = true;
+      throw new TimeBudgetExceededException();
+    }
+    // marked while the previous check was ending
+    acknowledge();
+  }
+
+  private void acknowledge() {
+    if (exceeded.compareAndSet(true, false)) {
+      EXCEEDED_BUDGETS.decrementAndGet();
+    }
+  }
+
+  private static long deadline(long now, long timeoutMillis, long spentNanos) {
+    return timeoutMillis > 0 ? (now + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - spentNanos) : Long.MAX_VALUE;
+  }
+
+  private static long enabledOrMax(long timeoutMillis) {
+    return timeoutMillis > 0 ? timeoutMillis : Long.MAX_VALUE;
+  }
+
+  private static String describe(long timeoutMillis) {
+    return timeoutMillis > 0 ? (timeoutMillis + " ms") : "no limit";
+  }
+}
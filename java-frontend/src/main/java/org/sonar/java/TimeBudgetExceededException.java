@@ -14,24 +14,16 @@
  * You should have received a copy of the Sonar Source-Available License
  * along with this program; if not, see https://sonarsource.com/license/ssal/
  */
-package org.sonar.java.ast.visitors;
+package org.sonar.java;
 
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
-import org.sonar.plugins.java.api.tree.MethodTree;
-import org.sonar.plugins.java.api.tree.VariableTree;
-
-public class NumberOfAccessedVariablesVisitor extends BaseTreeVisitor {
-  private int numberOfAccessedVariables = 0;
-
-  @Override
-  public void visitVariable(VariableTree tree) {
-    numberOfAccessedVariables++;
-  }
+/**
+ * Thrown on the analysis thread by {@link TimeBudget#checkpoint()} to stop a check which exceeded its time budget, or the time
+ * budget of the current file.
+ */
+public class TimeBudgetExceededException extends RuntimeException {
 
-  public int getNumberOfAccessedVariables(MethodTree tree) {
-    numberOfAccessedVariables = 0;
-    scan(tree);
-    return numberOfAccessedVariables;
+  public TimeBudgetExceededException() {
+    // thrown to unwind the stack of the check, the stack trace is never reported
+    super("Time budget exceeded", null, false, false);
   }
-
 }
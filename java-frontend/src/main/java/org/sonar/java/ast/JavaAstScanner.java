@@ -41,6 +41,7 @@ import org.sonar.java.model.JParserConfig;
 import org.sonar.java.model.JProblem;
 import org.sonar.java.model.JavaTree;
 import org.sonar.java.model.VisitorsBridge;
+import org.sonar.java.telemetry.AnalysisTelemetry;
 import org.sonar.plugins.java.api.JavaVersion;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 
@@ -65,6 +66,10 @@ public class JavaAstScanner {
     return visitor.getClasspath();
   }
 
+  public boolean requiresSemantics() {
+    return visitor.requiresSemantics();
+  }
+
   /**
    * Attempt to scan files without parsing, using the raw input file and cached information.
    *
@@ -78,6 +83,18 @@ public class JavaAstScanner {
       .collect(Collectors.partitioningBy(visitor::scanWithoutParsing));
   }
 
+  /**
+   * Attempt to replay the results of the previous analysis of unchanged files, instead of scanning them.
+   *
+   * @param inputFiles The list of files to analyze
+   * @return A map with 2 lists of inputFiles. Under the {@code true} key, files whose analysis result has been replayed and,
+   * under the {@code false} key, files that need to be parsed for further analysis.
+   */
+  public Map<Boolean, List<InputFile>> replayAnalysisResults(Iterable<? extends InputFile> inputFiles) {
+    return StreamSupport.stream(inputFiles.spliterator(), false)
+      .collect(Collectors.partitioningBy(visitor::replayAnalysisResult));
+  }
+
   public void scan(Iterable<? extends InputFile> inputFiles) {
     scan(inputFiles, compilationUnitTree -> {});
   }
@@ -98,22 +115,29 @@ public class JavaAstScanner {
     List<? extends InputFile> filesNames = filterModuleInfo(inputFiles).toList();
     AnalysisProgress analysisProgress = new AnalysisProgress(filesNames.size());
     try {
-      boolean shouldIgnoreUnnamedModuleForSplitPacakge = sonarComponents != null &&
-        sonarComponents.shouldIgnoreUnnamedModuleForSplitPackage();
-      JParserConfig.Mode.FILE_BY_FILE
-        .create(visitor.getJavaVersion(), visitor.getClasspath(), shouldIgnoreUnnamedModuleForSplitPacakge)
+      parserConfig()
         .parse(filesNames,
           this::analysisCancelled,
           analysisProgress,
           (i, r) -> simpleScan(i, r,
-            // Due to a bug in ECJ, JAR files remain locked after the analysis on Windows, we unlock them manually. See SONARJAVA-3609.
-            JavaAstScanner::cleanUpAst,
+            // the classpath is shared by all the files, and released at the end of the parsing
+            ast -> {},
             modifyCompilationUnit));
     } finally {
       endOfAnalysis();
     }
   }
 
+  private JParserConfig parserConfig() {
+    if (!requiresSemantics()) {
+      LOG.info("No active rule requires semantics, the files are parsed without resolving their bindings.");
+      return JParserConfig.createSyntaxOnly(visitor.getJavaVersion());
+    }
+    boolean shouldIgnoreUnnamedModuleForSplitPacakge = sonarComponents != null &&
+      sonarComponents.shouldIgnoreUnnamedModuleForSplitPackage();
+    return JParserConfig.Mode.FILE_BY_FILE.create(visitor.getJavaVersion(), visitor.getClasspath(), shouldIgnoreUnnamedModuleForSplitPacakge);
+  }
+
   public <T extends InputFile> Stream<T> filterModuleInfo(Iterable<T> inputFiles) {
     JavaVersion javaVersion = visitor.getJavaVersion();
     return StreamSupport.stream(inputFiles.spliterator(), false)
@@ -150,6 +174,10 @@ public class JavaAstScanner {
   public void simpleScan(InputFile inputFile, JParserConfig.Result result, Consumer<JavaTree.CompilationUnitTreeImpl> cleanUp,
     Consumer<CompilationUnitTree> modifyCompilationUnit) {
     visitor.setCurrentFile(inputFile);
+    AnalysisTelemetry telemetry = sonarComponents == null ? null : sonarComponents.analysisTelemetry().orElse(null);
+    if (telemetry != null) {
+      telemetry.startFile(inputFile, result.parseNanos(), result.convertNanos());
+    }
     try {
       JavaTree.CompilationUnitTreeImpl ast = result.get();
       modifyCompilationUnit.accept(ast);
@@ -171,14 +199,13 @@ public class JavaAstScanner {
     } catch (StackOverflowError error) {
       LOG.error(String.format(LOG_ERROR_STACKOVERFLOW, inputFile), error);
       throw error;
+    } finally {
+      if (telemetry != null) {
+        telemetry.endFile();
+      }
     }
   }
 
-  private static void cleanUpAst(JavaTree.CompilationUnitTreeImpl ast) {
-    // release environment used for semantic resolution
-    ast.sema.getEnvironmentCleaner().run();
-  }
-
   private void collectUndefinedTypes(String path, Set<JProblem> undefinedTypes) {
     if (sonarComponents != null) {
       sonarComponents.collectUndefinedTypes(path, undefinedTypes);
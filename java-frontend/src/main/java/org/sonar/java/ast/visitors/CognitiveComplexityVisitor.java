@@ -23,6 +23,7 @@ import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
 import org.sonar.plugins.java.api.tree.BlockTree;
 import org.sonar.plugins.java.api.tree.BreakStatementTree;
+import org.sonar.plugins.java.api.tree.CatchTree;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.ConditionalExpressionTree;
@@ -42,7 +43,9 @@ import org.sonar.plugins.java.api.tree.WhileStatementTree;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -50,6 +53,11 @@ import static org.sonar.plugins.java.api.tree.Tree.Kind.CONDITIONAL_AND;
 import static org.sonar.plugins.java.api.tree.Tree.Kind.CONDITIONAL_OR;
 import static org.sonar.plugins.java.api.tree.Tree.Kind.IF_STATEMENT;
 
+/**
+ * Computes in a single walk the cognitive complexity of all the methods and initializers of a tree. A method or an initializer can be
+ * nested in another one, as a member of an anonymous or local class: its complexity also counts in the complexity of the enclosing
+ * one, so the complexities of all the enclosing methods and initializers are computed at once.
+ */
 public class CognitiveComplexityVisitor extends BaseTreeVisitor {
 
   /**
@@ -77,58 +85,106 @@ public class CognitiveComplexityVisitor extends BaseTreeVisitor {
     }
   }
 
-  private final List<JavaFileScannerContext.Location> locations;
-  private final Set<Tree> ignored;
-  private int complexity;
-  private int nesting;
-  private boolean ignoreNesting;
-
-  private CognitiveComplexityVisitor() {
-    complexity = 0;
-    nesting = 1;
-    ignoreNesting = false;
-    locations = new ArrayList<>();
-    ignored = new HashSet<>();
-  }
-
-  public static Result methodComplexity(MethodTree methodTree) {
-    if (shouldAnalyzeMethod(methodTree)) {
-      CognitiveComplexityVisitor visitor = new CognitiveComplexityVisitor();
-      methodTree.accept(visitor);
-      return new Result(visitor.complexity, visitor.locations);
+  /**
+   * Cognitive complexity of a method or of an initializer, being computed.
+   */
+  private static class Counter {
+    private final List<JavaFileScannerContext.Location> locations = new ArrayList<>();
+    private final Set<Tree> ignored = new HashSet<>();
+    private int complexity = 0;
+    private int nesting = 1;
+    private boolean ignoreNesting = false;
+
+    private void increaseComplexityByNesting(Tree tree) {
+      increaseComplexity(tree, nesting);
     }
 
-    return Result.empty();
-  }
-
-  public static int compilationUnitComplexity(CompilationUnitTree cut) {
-    // only visit methods and initializers
-    class CompilationUnitVisitor extends BaseTreeVisitor {
+    private void increaseComplexityByOne(Tree tree) {
+      increaseComplexity(tree, 1);
+    }
 
-      private int cutComplexity = 0;
+    private void increaseComplexity(Tree tree, int increase) {
+      complexity += increase;
+      if (ignoreNesting) {
+        locations.add(new JavaFileScannerContext.Location("+1", tree));
+        ignoreNesting = false;
+      } else if (!ignored.contains(tree)) {
+        String message = "+" + increase;
+        if (increase > 1) {
+          message += " (incl " + (increase - 1) + " for nesting)";
+        }
+        locations.add(new JavaFileScannerContext.Location(message, tree));
+      }
+    }
 
-      @Override
-      public void visitMethod(MethodTree tree) {
-        cutComplexity += methodComplexity(tree).complexity;
-        super.visitMethod(tree);
+    private void visitLogicalExpression(BinaryExpressionTree tree) {
+      if (ignored.contains(tree)) {
+        return;
       }
+      List<BinaryExpressionTree> flattenedLogicalExpressions = flattenLogicalExpression(tree).toList();
 
-      @Override
-      public void visitBlock(BlockTree tree) {
-        if (tree.is(Tree.Kind.INITIALIZER, Tree.Kind.STATIC_INITIALIZER)) {
-          CognitiveComplexityVisitor visitor = new CognitiveComplexityVisitor();
-          tree.accept(visitor);
-          cutComplexity += visitor.complexity;
+      BinaryExpressionTree previous = null;
+      for (BinaryExpressionTree current : flattenedLogicalExpressions) {
+        if (previous == null || !previous.is(current.kind())) {
+          increaseComplexityByOne(current.operatorToken());
         }
-        super.visitBlock(tree);
+        previous = current;
       }
     }
 
-    CompilationUnitVisitor compilationUnitVisitor = new CompilationUnitVisitor();
-    cut.accept(compilationUnitVisitor);
-    return compilationUnitVisitor.cutComplexity;
+    private Stream<BinaryExpressionTree> flattenLogicalExpression(ExpressionTree expression) {
+      if (expression.is(CONDITIONAL_AND, CONDITIONAL_OR)) {
+        ignored.add(expression);
+
+        BinaryExpressionTree binaryExpr = (BinaryExpressionTree) expression;
+        ExpressionTree left = ExpressionUtils.skipParentheses(binaryExpr.leftOperand());
+        ExpressionTree right = ExpressionUtils.skipParentheses(binaryExpr.rightOperand());
+
+        return Stream.concat(Stream.concat(flattenLogicalExpression(left), Stream.of(binaryExpr)), flattenLogicalExpression(right));
+      }
+      return Stream.empty();
+    }
+  }
+
+  /**
+   * Counters of the methods and initializers enclosing the visited tree.
+   */
+  private final List<Counter> counters = new ArrayList<>();
+  private final Map<MethodTree, Result> methodComplexities = new IdentityHashMap<>();
+  private int complexity = 0;
+
+  protected CognitiveComplexityVisitor() {
   }
 
+  public static Result methodComplexity(MethodTree methodTree) {
+    if (!shouldAnalyzeMethod(methodTree)) {
+      return Result.empty();
+    }
+    CognitiveComplexityVisitor visitor = new CognitiveComplexityVisitor();
+    methodTree.accept(visitor);
+    return visitor.methodComplexities.get(methodTree);
+  }
+
+  public static int compilationUnitComplexity(CompilationUnitTree cut) {
+    CognitiveComplexityVisitor visitor = new CognitiveComplexityVisitor();
+    cut.accept(visitor);
+    return visitor.complexity;
+  }
+
+  /**
+   * @return the cognitive complexity of the methods of the visited tree, except the methods of anonymous and local classes, which count
+   * in the complexity of their enclosing method
+   */
+  protected Map<MethodTree, Result> methodComplexities() {
+    return methodComplexities;
+  }
+
+  /**
+   * @return the sum of the cognitive complexities of the methods and initializers of the visited tree
+   */
+  protected int cognitiveComplexity() {
+    return complexity;
+  }
 
   private static boolean shouldAnalyzeMethod(MethodTree methodTree) {
     return methodTree.block() != null && !memberOfAnonymousClass(methodTree) && !isWithinLocalClass(methodTree);
@@ -143,47 +199,85 @@ public class CognitiveComplexityVisitor extends BaseTreeVisitor {
     return symbol != null && symbol.owner().owner().isMethodSymbol();
   }
 
+  private Counter startCounter() {
+    Counter counter = new Counter();
+    counters.add(counter);
+    return counter;
+  }
+
+  private void endCounter(Counter counter) {
+    counters.remove(counters.size() - 1);
+    complexity += counter.complexity;
+  }
+
+  private void increaseNesting() {
+    for (Counter counter : counters) {
+      counter.nesting++;
+    }
+  }
+
+  private void decreaseNesting() {
+    for (Counter counter : counters) {
+      counter.nesting--;
+    }
+  }
+
   private void increaseComplexityByNesting(Tree tree) {
-    increaseComplexity(tree, nesting);
+    for (Counter counter : counters) {
+      counter.increaseComplexityByNesting(tree);
+    }
   }
 
   private void increaseComplexityByOne(Tree tree) {
-    increaseComplexity(tree, 1);
+    for (Counter counter : counters) {
+      counter.increaseComplexityByOne(tree);
+    }
   }
 
-  private void increaseComplexity(Tree tree, int increase) {
-    complexity += increase;
-    if (ignoreNesting) {
-      locations.add(new JavaFileScannerContext.Location("+1", tree));
-      ignoreNesting = false;
-    } else if (!ignored.contains(tree)) {
-      String message = "+" + increase;
-      if (increase > 1) {
-        message += " (incl " + (increase - 1) + " for nesting)";
-      }
-      locations.add(new JavaFileScannerContext.Location(message, tree));
+  @Override
+  public void visitMethod(MethodTree tree) {
+    if (!shouldAnalyzeMethod(tree)) {
+      super.visitMethod(tree);
+      return;
     }
+    Counter counter = startCounter();
+    super.visitMethod(tree);
+    endCounter(counter);
+    methodComplexities.put(tree, new Result(counter.complexity, counter.locations));
+  }
+
+  @Override
+  public void visitBlock(BlockTree tree) {
+    if (!tree.is(Tree.Kind.INITIALIZER, Tree.Kind.STATIC_INITIALIZER)) {
+      super.visitBlock(tree);
+      return;
+    }
+    Counter counter = startCounter();
+    super.visitBlock(tree);
+    endCounter(counter);
   }
 
   @Override
   public void visitIfStatement(IfStatementTree tree) {
     increaseComplexityByNesting(tree.ifKeyword());
     scan(tree.condition());
-    nesting++;
+    increaseNesting();
     scan(tree.thenStatement());
-    nesting--;
+    decreaseNesting();
     boolean elseStatementNotIF = tree.elseStatement() != null && !tree.elseStatement().is(IF_STATEMENT);
     if (elseStatementNotIF) {
       increaseComplexityByOne(tree.elseKeyword());
-      nesting++;
+      increaseNesting();
     } else if (tree.elseStatement() != null) {
       // else statement is an if, visiting it will increase complexity by nesting so by one only.
-      ignoreNesting = true;
-      complexity -= nesting - 1;
+      for (Counter counter : counters) {
+        counter.ignoreNesting = true;
+        counter.complexity -= counter.nesting - 1;
+      }
     }
     scan(tree.elseStatement());
     if (elseStatementNotIF) {
-      nesting--;
+      decreaseNesting();
     }
   }
 
@@ -191,59 +285,61 @@ public class CognitiveComplexityVisitor extends BaseTreeVisitor {
   public void visitTryStatement(TryStatementTree tree) {
     scan(tree.resourceList());
     scan(tree.block());
-    tree.catches().forEach(c -> increaseComplexityByNesting(c.catchKeyword()));
-    nesting++;
+    for (CatchTree catchTree : tree.catches()) {
+      increaseComplexityByNesting(catchTree.catchKeyword());
+    }
+    increaseNesting();
     scan(tree.catches());
-    nesting--;
+    decreaseNesting();
     scan(tree.finallyBlock());
   }
 
   @Override
   public void visitForStatement(ForStatementTree tree) {
     increaseComplexityByNesting(tree.forKeyword());
-    nesting++;
+    increaseNesting();
     super.visitForStatement(tree);
-    nesting--;
+    decreaseNesting();
   }
 
   @Override
   public void visitForEachStatement(ForEachStatement tree) {
     increaseComplexityByNesting(tree.forKeyword());
-    nesting++;
+    increaseNesting();
     super.visitForEachStatement(tree);
-    nesting--;
+    decreaseNesting();
   }
 
   @Override
   public void visitWhileStatement(WhileStatementTree tree) {
     increaseComplexityByNesting(tree.whileKeyword());
-    nesting++;
+    increaseNesting();
     super.visitWhileStatement(tree);
-    nesting--;
+    decreaseNesting();
   }
 
   @Override
   public void visitDoWhileStatement(DoWhileStatementTree tree) {
     increaseComplexityByNesting(tree.doKeyword());
-    nesting++;
+    increaseNesting();
     super.visitDoWhileStatement(tree);
-    nesting--;
+    decreaseNesting();
   }
 
   @Override
   public void visitConditionalExpression(ConditionalExpressionTree tree) {
     increaseComplexityByNesting(tree.questionToken());
-    nesting++;
+    increaseNesting();
     super.visitConditionalExpression(tree);
-    nesting--;
+    decreaseNesting();
   }
 
   @Override
   public void visitSwitchStatement(SwitchStatementTree tree) {
     increaseComplexityByNesting(tree.switchKeyword());
-    nesting++;
+    increaseNesting();
     super.visitSwitchStatement(tree);
-    nesting--;
+    decreaseNesting();
   }
 
   @Override
@@ -264,45 +360,26 @@ public class CognitiveComplexityVisitor extends BaseTreeVisitor {
 
   @Override
   public void visitClass(ClassTree tree) {
-    nesting++;
+    increaseNesting();
     super.visitClass(tree);
-    nesting--;
+    decreaseNesting();
   }
 
   @Override
   public void visitLambdaExpression(LambdaExpressionTree lambdaExpressionTree) {
-    nesting++;
+    increaseNesting();
     super.visitLambdaExpression(lambdaExpressionTree);
-    nesting--;
+    decreaseNesting();
   }
 
   @Override
   public void visitBinaryExpression(BinaryExpressionTree tree) {
-    if (tree.is(CONDITIONAL_AND, CONDITIONAL_OR) && !ignored.contains(tree)) {
-      List<BinaryExpressionTree> flattenedLogicalExpressions = flattenLogicalExpression(tree).toList();
-
-      BinaryExpressionTree previous = null;
-      for (BinaryExpressionTree current : flattenedLogicalExpressions) {
-        if (previous == null || !previous.is(current.kind())) {
-          increaseComplexityByOne(current.operatorToken());
-        }
-        previous = current;
+    if (tree.is(CONDITIONAL_AND, CONDITIONAL_OR)) {
+      for (Counter counter : counters) {
+        counter.visitLogicalExpression(tree);
       }
     }
     super.visitBinaryExpression(tree);
   }
 
-  private Stream<BinaryExpressionTree> flattenLogicalExpression(ExpressionTree expression) {
-    if (expression.is(CONDITIONAL_AND, CONDITIONAL_OR)) {
-      ignored.add(expression);
-
-      BinaryExpressionTree binaryExpr = (BinaryExpressionTree) expression;
-      ExpressionTree left = ExpressionUtils.skipParentheses(binaryExpr.leftOperand());
-      ExpressionTree right = ExpressionUtils.skipParentheses(binaryExpr.rightOperand());
-
-      return Stream.concat(Stream.concat(flattenLogicalExpression(left), Stream.of(binaryExpr)), flattenLogicalExpression(right));
-    }
-    return Stream.empty();
-  }
-
 }
@@ -0,0 +1,248 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.ast.visitors;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.sonar.java.ast.api.JavaKeyword;
+import org.sonar.plugins.java.api.tree.AssertStatementTree;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.BreakStatementTree;
+import org.sonar.plugins.java.api.tree.CaseLabelTree;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ConditionalExpressionTree;
+import org.sonar.plugins.java.api.tree.ContinueStatementTree;
+import org.sonar.plugins.java.api.tree.DoWhileStatementTree;
+import org.sonar.plugins.java.api.tree.EmptyStatementTree;
+import org.sonar.plugins.java.api.tree.ExpressionStatementTree;
+import org.sonar.plugins.java.api.tree.ForEachStatement;
+import org.sonar.plugins.java.api.tree.ForStatementTree;
+import org.sonar.plugins.java.api.tree.IfStatementTree;
+import org.sonar.plugins.java.api.tree.LambdaExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.ReturnStatementTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
+import org.sonar.plugins.java.api.tree.SwitchStatementTree;
+import org.sonar.plugins.java.api.tree.SynchronizedStatementTree;
+import org.sonar.plugins.java.api.tree.ThrowStatementTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TryStatementTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+import org.sonar.plugins.java.api.tree.WhileStatementTree;
+
+/**
+ * Computes in a single walk of a compilation unit its complexity nodes, as given by {@link ComplexityVisitor}, its number of
+ * statements, as given by {@link StatementVisitor}, and the cognitive complexity of the compilation unit and of each of its methods.
+ */
+public class CompilationUnitMetricsVisitor extends CognitiveComplexityVisitor {
+
+  private static final String DEFAULT_KEYWORD = JavaKeyword.DEFAULT.getValue();
+
+  public record Result(List<Tree> complexityNodes, int numberOfStatements, int cognitiveComplexity,
+    Map<MethodTree, CognitiveComplexityVisitor.Result> methodComplexities) {
+
+    /**
+     * @return the cognitive complexity of a method, empty for the methods of anonymous and local classes
+     */
+    public CognitiveComplexityVisitor.Result methodComplexity(MethodTree tree) {
+      return methodComplexities.getOrDefault(tree, CognitiveComplexityVisitor.Result.empty());
+    }
+  }
+
+  private final List<Tree> complexityNodes = new ArrayList<>();
+  private final Set<Tree> variableTypes = new HashSet<>();
+  private int statements;
+
+  private CompilationUnitMetricsVisitor() {
+  }
+
+  public static Result analyze(CompilationUnitTree tree) {
+    CompilationUnitMetricsVisitor visitor = new CompilationUnitMetricsVisitor();
+    visitor.scan(tree);
+    return new Result(visitor.complexityNodes, visitor.statements + visitor.variableTypes.size(), visitor.cognitiveComplexity(),
+      visitor.methodComplexities());
+  }
+
+  @Override
+  public void visitMethod(MethodTree tree) {
+    if (tree.block() != null) {
+      complexityNodes.add(tree.simpleName().identifierToken());
+    }
+    super.visitMethod(tree);
+    for (VariableTree variableTree : tree.parameters()) {
+      variableTypes.remove(variableTree.type());
+    }
+  }
+
+  @Override
+  public void visitClass(ClassTree tree) {
+    super.visitClass(tree);
+    for (Tree member : tree.members()) {
+      if (member.is(Tree.Kind.VARIABLE)) {
+        variableTypes.remove(((VariableTree) member).type());
+      }
+    }
+  }
+
+  @Override
+  public void visitLambdaExpression(LambdaExpressionTree lambdaExpressionTree) {
+    complexityNodes.add(lambdaExpressionTree.arrowToken());
+    super.visitLambdaExpression(lambdaExpressionTree);
+  }
+
+  @Override
+  public void visitCaseLabel(CaseLabelTree tree) {
+    if (!DEFAULT_KEYWORD.equals(tree.caseOrDefaultKeyword().text())) {
+      // default keyword does not count in complexity
+      complexityNodes.add(tree.firstToken());
+    }
+    super.visitCaseLabel(tree);
+  }
+
+  @Override
+  public void visitForEachStatement(ForEachStatement tree) {
+    complexityNodes.add(tree.firstToken());
+    statements++;
+    super.visitForEachStatement(tree);
+  }
+
+  @Override
+  public void visitForStatement(ForStatementTree tree) {
+    complexityNodes.add(tree.firstToken());
+    statements++;
+    super.visitForStatement(tree);
+    removeVariable(tree.initializer());
+    removeVariable(tree.update());
+  }
+
+  private void removeVariable(List<StatementTree> statementTrees) {
+    for (StatementTree statementTree : statementTrees) {
+      if (statementTree.is(Tree.Kind.VARIABLE)) {
+        variableTypes.remove(((VariableTree) statementTree).type());
+      } else {
+        statements--;
+      }
+    }
+  }
+
+  @Override
+  public void visitWhileStatement(WhileStatementTree tree) {
+    complexityNodes.add(tree.firstToken());
+    statements++;
+    super.visitWhileStatement(tree);
+  }
+
+  @Override
+  public void visitDoWhileStatement(DoWhileStatementTree tree) {
+    complexityNodes.add(tree.firstToken());
+    statements++;
+    super.visitDoWhileStatement(tree);
+  }
+
+  @Override
+  public void visitIfStatement(IfStatementTree tree) {
+    complexityNodes.add(tree.firstToken());
+    statements++;
+    super.visitIfStatement(tree);
+  }
+
+  @Override
+  public void visitConditionalExpression(ConditionalExpressionTree tree) {
+    complexityNodes.add(tree.questionToken());
+    super.visitConditionalExpression(tree);
+  }
+
+  @Override
+  public void visitBinaryExpression(BinaryExpressionTree tree) {
+    if (tree.is(Tree.Kind.CONDITIONAL_AND, Tree.Kind.CONDITIONAL_OR)) {
+      complexityNodes.add(tree.operatorToken());
+    }
+    super.visitBinaryExpression(tree);
+  }
+
+  @Override
+  public void visitEmptyStatement(EmptyStatementTree tree) {
+    statements++;
+  }
+
+  @Override
+  public void visitAssertStatement(AssertStatementTree tree) {
+    statements++;
+    super.visitAssertStatement(tree);
+  }
+
+  @Override
+  public void visitSwitchStatement(SwitchStatementTree tree) {
+    statements++;
+    super.visitSwitchStatement(tree);
+  }
+
+  @Override
+  public void visitBreakStatement(BreakStatementTree tree) {
+    statements++;
+    super.visitBreakStatement(tree);
+  }
+
+  @Override
+  public void visitContinueStatement(ContinueStatementTree tree) {
+    statements++;
+    super.visitContinueStatement(tree);
+  }
+
+  @Override
+  public void visitReturnStatement(ReturnStatementTree tree) {
+    statements++;
+    super.visitReturnStatement(tree);
+  }
+
+  @Override
+  public void visitThrowStatement(ThrowStatementTree tree) {
+    statements++;
+    super.visitThrowStatement(tree);
+  }
+
+  @Override
+  public void visitSynchronizedStatement(SynchronizedStatementTree tree) {
+    statements++;
+    super.visitSynchronizedStatement(tree);
+  }
+
+  @Override
+  public void visitTryStatement(TryStatementTree tree) {
+    statements++;
+    statements -= tree.resourceList().size();
+    statements -= tree.catches().size();
+    super.visitTryStatement(tree);
+  }
+
+  @Override
+  public void visitVariable(VariableTree tree) {
+    variableTypes.add(tree.type());
+    super.visitVariable(tree);
+  }
+
+  @Override
+  public void visitExpressionStatement(ExpressionStatementTree tree) {
+    statements++;
+    super.visitExpressionStatement(tree);
+  }
+
+}
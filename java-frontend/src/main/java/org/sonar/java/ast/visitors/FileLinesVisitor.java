@@ -25,9 +25,12 @@ import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.measures.CoreMetrics;
 import org.sonar.api.measures.FileLinesContext;
 import org.sonar.java.SonarComponents;
+import org.sonar.java.caching.AnalysisResult;
+import org.sonar.java.caching.ReplayableScanner;
 import org.sonar.java.cfg.CFG;
 import org.sonar.java.model.ModifiersUtils;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.tree.BlockTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
 import org.sonar.plugins.java.api.tree.LambdaExpressionTree;
@@ -67,7 +70,8 @@ import static org.sonar.plugins.java.api.tree.Tree.Kind.WHILE_STATEMENT;
 /**
  * Saves information about lines directly into Sonar by using {@link FileLinesContext}.
  */
-public class FileLinesVisitor extends SubscriptionVisitor {
+@SyntaxOnly
+public class FileLinesVisitor extends SubscriptionVisitor implements ReplayableScanner {
 
   private final SonarComponents sonarComponents;
   private final Set<Integer> linesOfCode = new HashSet<>();
@@ -89,8 +93,7 @@ public class FileLinesVisitor extends SubscriptionVisitor {
   }
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
-    super.scanFile(context);
+  public void leaveFile(JavaFileScannerContext context) {
     InputFile currentFile = context.getInputFile();
     FileLinesContext fileLinesContext = sonarComponents.fileLinesContextFor(currentFile);
     for (int line = 1; line <= currentFile.lines(); line++) {
@@ -103,6 +106,11 @@ public class FileLinesVisitor extends SubscriptionVisitor {
     executableLines.clear();
   }
 
+  @Override
+  public void replay(InputFile inputFile, AnalysisResult result) {
+    result.replayLineValues(sonarComponents.fileLinesContextFor(inputFile));
+  }
+
   @Override
   public void visitNode(Tree tree) {
     List<? extends Tree> trees = Collections.emptyList();
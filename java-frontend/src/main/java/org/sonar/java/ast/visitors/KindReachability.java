@@ -0,0 +1,77 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.ast.visitors;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Kinds of the nodes which can appear beneath a node of a given kind. Only the kinds whose subtrees can not contain
+ * expressions, statements, declarations or annotations are listed: any other kind may contain nodes of every kind,
+ * for instance through an anonymous class. Trivia are attached to tokens, so they are reached through {@link Tree.Kind#TOKEN}.
+ */
+public final class KindReachability {
+
+  private static final Map<Tree.Kind, Set<Tree.Kind>> DESCENDANTS = new EnumMap<>(Tree.Kind.class);
+
+  static {
+    Set<Tree.Kind> token = EnumSet.of(Tree.Kind.TOKEN);
+    for (Tree.Kind literal : new Tree.Kind[] {Tree.Kind.INT_LITERAL, Tree.Kind.LONG_LITERAL, Tree.Kind.FLOAT_LITERAL,
+      Tree.Kind.DOUBLE_LITERAL, Tree.Kind.BOOLEAN_LITERAL, Tree.Kind.CHAR_LITERAL, Tree.Kind.STRING_LITERAL, Tree.Kind.TEXT_BLOCK,
+      Tree.Kind.NULL_LITERAL}) {
+      DESCENDANTS.put(literal, token);
+    }
+    DESCENDANTS.put(Tree.Kind.EMPTY_STATEMENT, token);
+    DESCENDANTS.put(Tree.Kind.VAR_TYPE, token);
+    // labels are never annotated
+    DESCENDANTS.put(Tree.Kind.BREAK_STATEMENT, EnumSet.of(Tree.Kind.TOKEN, Tree.Kind.IDENTIFIER));
+    DESCENDANTS.put(Tree.Kind.CONTINUE_STATEMENT, EnumSet.of(Tree.Kind.TOKEN, Tree.Kind.IDENTIFIER));
+    // imported names are never annotated, and the member selects they are made of only select identifiers
+    DESCENDANTS.put(Tree.Kind.IMPORT, EnumSet.of(Tree.Kind.TOKEN, Tree.Kind.IDENTIFIER, Tree.Kind.MEMBER_SELECT));
+    DESCENDANTS.put(Tree.Kind.INFERED_TYPE, EnumSet.noneOf(Tree.Kind.class));
+    DESCENDANTS.put(Tree.Kind.TOKEN, EnumSet.noneOf(Tree.Kind.class));
+  }
+
+  private KindReachability() {
+  }
+
+  /**
+   * @return true when a node of the given kind may have a descendant of the other kind
+   */
+  public static boolean canContain(Tree.Kind kind, Tree.Kind descendant) {
+    Set<Tree.Kind> descendants = DESCENDANTS.get(kind);
+    return descendants == null || descendants.contains(descendant == Tree.Kind.TRIVIA ? Tree.Kind.TOKEN : descendant);
+  }
+
+  /**
+   * The children of a node can be skipped when none of its descendants can be of a subscribed kind.
+   *
+   * @return for each {@link Tree.Kind#ordinal()}, true when the children of the nodes of this kind can be skipped
+   */
+  public static boolean[] skippableChildren(Collection<Tree.Kind> subscribedKinds) {
+    Tree.Kind[] kinds = Tree.Kind.values();
+    boolean[] skippable = new boolean[kinds.length];
+    for (Tree.Kind kind : kinds) {
+      skippable[kind.ordinal()] = subscribedKinds.stream().noneMatch(subscribed -> canContain(kind, subscribed));
+    }
+    return skippable;
+  }
+}
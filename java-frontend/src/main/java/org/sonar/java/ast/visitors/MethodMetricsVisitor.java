@@ -0,0 +1,257 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.ast.visitors;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.sonar.java.ast.api.JavaKeyword;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.CaseGroupTree;
+import org.sonar.plugins.java.api.tree.CaseLabelTree;
+import org.sonar.plugins.java.api.tree.CatchTree;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.ConditionalExpressionTree;
+import org.sonar.plugins.java.api.tree.DoWhileStatementTree;
+import org.sonar.plugins.java.api.tree.ForEachStatement;
+import org.sonar.plugins.java.api.tree.ForStatementTree;
+import org.sonar.plugins.java.api.tree.IfStatementTree;
+import org.sonar.plugins.java.api.tree.LambdaExpressionTree;
+import org.sonar.plugins.java.api.tree.ListTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
+import org.sonar.plugins.java.api.tree.SwitchStatementTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TryStatementTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+import org.sonar.plugins.java.api.tree.WhileStatementTree;
+
+/**
+ * Computes in a single walk of a method its complexity nodes, as given by {@link ComplexityVisitor} for this method, its maximum
+ * nesting level and its number of accessed variables.
+ * Each metric ignores its own parts of the method: nested classes and lambdas for the complexity, the trees which are not nesting
+ * statement bodies for the nesting level, and the content of variables for the accessed variables.
+ */
+public class MethodMetricsVisitor extends BaseTreeVisitor {
+
+  private static final String DEFAULT_KEYWORD = JavaKeyword.DEFAULT.getValue();
+
+  public record Result(List<Tree> complexityNodes, int nestingLevel, int numberOfAccessedVariables) {
+  }
+
+  private MethodTree root;
+  private List<Tree> complexityNodes;
+  private int numberOfAccessedVariables;
+  private int nestingLevel;
+  private int maxNestingLevel;
+
+  // depths of the enclosing trees ignored by each metric
+  private int outsideOfComplexity;
+  private int outsideOfNesting;
+  private int insideVariable;
+
+  public Result analyze(MethodTree tree) {
+    root = tree;
+    complexityNodes = new ArrayList<>();
+    numberOfAccessedVariables = 0;
+    nestingLevel = 0;
+    maxNestingLevel = 0;
+    outsideOfComplexity = 0;
+    outsideOfNesting = 0;
+    insideVariable = 0;
+    scan(tree);
+    root = null;
+    return new Result(complexityNodes, maxNestingLevel, numberOfAccessedVariables);
+  }
+
+  private void addComplexity(Tree tree) {
+    if (outsideOfComplexity == 0) {
+      complexityNodes.add(tree);
+    }
+  }
+
+  private void scanOutsideOfNesting(@Nullable Tree tree) {
+    outsideOfNesting++;
+    scan(tree);
+    outsideOfNesting--;
+  }
+
+  private void scanOutsideOfNesting(List<? extends Tree> trees) {
+    outsideOfNesting++;
+    scan(trees);
+    outsideOfNesting--;
+  }
+
+  private void scanOutsideOfNesting(@Nullable ListTree<? extends Tree> listTree) {
+    outsideOfNesting++;
+    scan(listTree);
+    outsideOfNesting--;
+  }
+
+  private void scanNested(@Nullable Tree tree) {
+    if (outsideOfNesting > 0 || tree == null) {
+      scan(tree);
+      return;
+    }
+    nestingLevel++;
+    maxNestingLevel = Math.max(maxNestingLevel, nestingLevel);
+    scan(tree);
+    nestingLevel--;
+  }
+
+  @Override
+  public void visitMethod(MethodTree tree) {
+    if (tree.block() != null) {
+      addComplexity(tree.simpleName().identifierToken());
+    }
+    scanOutsideOfNesting(tree.modifiers());
+    scanOutsideOfNesting(tree.typeParameters());
+    scanOutsideOfNesting(tree.returnType());
+    scanOutsideOfNesting(tree.simpleName());
+    scanOutsideOfNesting(tree.parameters());
+    scanOutsideOfNesting(tree.defaultValue());
+    scanOutsideOfNesting(tree.throwsClauses());
+    if (tree == root) {
+      scan(tree.block());
+    } else {
+      scanNested(tree.block());
+    }
+  }
+
+  @Override
+  public void visitClass(ClassTree tree) {
+    outsideOfComplexity++;
+    super.visitClass(tree);
+    outsideOfComplexity--;
+  }
+
+  @Override
+  public void visitLambdaExpression(LambdaExpressionTree lambdaExpressionTree) {
+    outsideOfComplexity++;
+    scanOutsideOfNesting(lambdaExpressionTree.parameters());
+    scanNested(lambdaExpressionTree.body());
+    outsideOfComplexity--;
+  }
+
+  @Override
+  public void visitVariable(VariableTree tree) {
+    if (insideVariable == 0) {
+      numberOfAccessedVariables++;
+    }
+    insideVariable++;
+    super.visitVariable(tree);
+    insideVariable--;
+  }
+
+  @Override
+  public void visitNewClass(NewClassTree tree) {
+    scanOutsideOfNesting(tree.enclosingExpression());
+    scanOutsideOfNesting(tree.identifier());
+    scanOutsideOfNesting(tree.typeArguments());
+    scanOutsideOfNesting(tree.arguments());
+    scanNested(tree.classBody());
+  }
+
+  @Override
+  public void visitIfStatement(IfStatementTree tree) {
+    addComplexity(tree.firstToken());
+    scanOutsideOfNesting(tree.condition());
+    scanNested(tree.thenStatement());
+    StatementTree elseStatement = tree.elseStatement();
+    if (elseStatement != null && elseStatement.is(Tree.Kind.IF_STATEMENT)) {
+      // "else if" stays at the nesting level of the first "if"
+      scan(elseStatement);
+    } else {
+      scanNested(elseStatement);
+    }
+  }
+
+  @Override
+  public void visitSwitchStatement(SwitchStatementTree tree) {
+    scanOutsideOfNesting(tree.expression());
+    for (CaseGroupTree caseGroup : tree.cases()) {
+      scanNested(caseGroup);
+    }
+  }
+
+  @Override
+  public void visitCaseLabel(CaseLabelTree tree) {
+    if (!DEFAULT_KEYWORD.equals(tree.caseOrDefaultKeyword().text())) {
+      // default keyword does not count in complexity
+      addComplexity(tree.firstToken());
+    }
+    super.visitCaseLabel(tree);
+  }
+
+  @Override
+  public void visitTryStatement(TryStatementTree tree) {
+    scanOutsideOfNesting(tree.resourceList());
+    scanNested(tree.block());
+    for (CatchTree catchTree : tree.catches()) {
+      scanNested(catchTree);
+    }
+    scanOutsideOfNesting(tree.finallyBlock());
+  }
+
+  @Override
+  public void visitForEachStatement(ForEachStatement tree) {
+    addComplexity(tree.firstToken());
+    scanOutsideOfNesting(tree.variable());
+    scanOutsideOfNesting(tree.expression());
+    scanNested(tree.statement());
+  }
+
+  @Override
+  public void visitForStatement(ForStatementTree tree) {
+    addComplexity(tree.firstToken());
+    scanOutsideOfNesting(tree.initializer());
+    scanOutsideOfNesting(tree.condition());
+    scanOutsideOfNesting(tree.update());
+    scanNested(tree.statement());
+  }
+
+  @Override
+  public void visitWhileStatement(WhileStatementTree tree) {
+    addComplexity(tree.firstToken());
+    scanOutsideOfNesting(tree.condition());
+    scanNested(tree.statement());
+  }
+
+  @Override
+  public void visitDoWhileStatement(DoWhileStatementTree tree) {
+    addComplexity(tree.firstToken());
+    scanNested(tree.statement());
+    scanOutsideOfNesting(tree.condition());
+  }
+
+  @Override
+  public void visitConditionalExpression(ConditionalExpressionTree tree) {
+    addComplexity(tree.questionToken());
+    super.visitConditionalExpression(tree);
+  }
+
+  @Override
+  public void visitBinaryExpression(BinaryExpressionTree tree) {
+    if (tree.is(Tree.Kind.CONDITIONAL_AND, Tree.Kind.CONDITIONAL_OR)) {
+      addComplexity(tree.operatorToken());
+    }
+    super.visitBinaryExpression(tree);
+  }
+
+}
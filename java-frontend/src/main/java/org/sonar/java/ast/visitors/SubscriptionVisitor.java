@@ -33,6 +33,7 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
   private EnumSet<Tree.Kind> nodesToVisit;
   private boolean visitToken;
   private boolean visitTrivia;
+  private boolean[] skippableChildren;
 
   public abstract List<Tree.Kind> nodesToVisit();
 
@@ -60,6 +61,12 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
     //default behaviour is to do nothing
   }
 
+  /**
+   * Visitors which do not override this method can share a single traversal of the tree with other subscription visitors,
+   * see {@link org.sonar.java.model.VisitorsBridge}. Per-file initialization and finalization should then be done in
+   * {@link #setContext(JavaFileScannerContext)} and {@link #leaveFile(JavaFileScannerContext)}. As for issuable visitors,
+   * {@link #leaveFile(JavaFileScannerContext)} is only called by the shared traversal, not by this method.
+   */
   @Override
   public void scanFile(JavaFileScannerContext context) {
     setContext(context);
@@ -74,6 +81,7 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
       } else {
         nodesToVisit = EnumSet.copyOf(kinds);
       }
+      skippableChildren = KindReachability.skippableChildren(nodesToVisit);
     }
     visitToken = isVisitingTokens();
     visitTrivia = isVisitingTrivia();
@@ -116,7 +124,7 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
 
   private void visitChildren(Tree tree) {
     JavaTree javaTree = (JavaTree) tree;
-    if (!javaTree.isLeaf()) {
+    if (!javaTree.isLeaf() && !skippableChildren[tree.kind().ordinal()]) {
       for (Tree next : javaTree.getChildren()) {
         if (next != null) {
           visit(next);
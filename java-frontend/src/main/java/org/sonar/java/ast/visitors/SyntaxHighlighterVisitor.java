@@ -25,14 +25,19 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
 import org.sonar.api.batch.sensor.highlighting.TypeOfText;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.ast.api.JavaKeyword;
 import org.sonar.java.ast.api.JavaRestrictedKeyword;
+import org.sonar.java.caching.AnalysisResult;
+import org.sonar.java.caching.ReplayableScanner;
+import org.sonar.java.model.LineUtils;
 import org.sonar.java.model.ModifiersUtils;
 import org.sonar.java.model.declaration.ClassTreeImpl;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.location.Position;
 import org.sonar.plugins.java.api.tree.AnnotationTree;
 import org.sonar.plugins.java.api.tree.ClassTree;
@@ -45,7 +50,8 @@ import org.sonar.plugins.java.api.tree.SyntaxTrivia.CommentKind;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.YieldStatementTree;
 
-public class SyntaxHighlighterVisitor extends SubscriptionVisitor {
+@SyntaxOnly
+public class SyntaxHighlighterVisitor extends SubscriptionVisitor implements ReplayableScanner {
 
   private final SonarComponents sonarComponents;
   private final Map<Tree.Kind, TypeOfText> typesByKind;
@@ -96,14 +102,21 @@ public class SyntaxHighlighterVisitor extends SubscriptionVisitor {
   }
 
   @Override
-  public void scanFile(JavaFileScannerContext context) {
+  public void setContext(JavaFileScannerContext context) {
+    super.setContext(context);
     highlighting = sonarComponents.highlightableFor(context.getInputFile());
+  }
 
-    super.scanFile(context);
-
+  @Override
+  public void leaveFile(JavaFileScannerContext context) {
     highlighting.save();
   }
 
+  @Override
+  public void replay(InputFile inputFile, AnalysisResult result) {
+    result.replayHighlighting(sonarComponents.highlightableFor(inputFile));
+  }
+
   @Override
   public void visitNode(Tree tree) {
     switch (tree.kind()) {
@@ -154,11 +167,11 @@ public class SyntaxHighlighterVisitor extends SubscriptionVisitor {
   }
 
   private void highlight(Tree from, Tree to, TypeOfText typeOfText) {
-    Position first = Position.startOf(from);
-    Position last = Position.endOf(to);
+    SyntaxToken first = from.firstToken();
+    SyntaxToken last = to.lastToken();
     highlighting.highlight(
-      first.line(), first.columnOffset(),
-      last.line(), last.columnOffset(),
+      LineUtils.startLine(first), LineUtils.startColumnOffset(first),
+      LineUtils.endLine(last), LineUtils.endColumnOffset(last),
       typeOfText);
   }
 
@@ -0,0 +1,314 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.batch.sensor.issue.NewIssueLocation;
+import org.sonar.api.batch.sensor.symbol.NewSymbol;
+import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
+import org.sonar.api.measures.FileLinesContext;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.java.reporting.AnalyzerMessage;
+
+/**
+ * What the analysis of a file reported: issues, highlighting, symbol table, data on lines, measures, NOSONAR lines and the names of
+ * the classes it declares. It is recorded by an {@link AnalysisResultRecorder} while the file is analyzed, and stored by the
+ * {@link AnalysisResultCache}, so that the analysis of the same file can later be replayed without parsing it.
+ */
+public final class AnalysisResult {
+
+  private static final int FORMAT_VERSION = 1;
+  private static final TypeOfText[] TYPES_OF_TEXT = TypeOfText.values();
+
+  final List<Issue> issues = new ArrayList<>();
+  /**
+   * 5 values per highlighted range: start line, start line offset, end line, end line offset and ordinal of the type of text.
+   */
+  final List<int[]> highlightings = new ArrayList<>();
+  /**
+   * 5 values per range: index of the symbol, start line, start line offset, end line and end line offset. The first range of a
+   * symbol is its declaration, the following ones are its references.
+   */
+  final List<int[]> symbols = new ArrayList<>();
+  final List<LineValue> lineValues = new ArrayList<>();
+  final Map<String, Integer> measures = new LinkedHashMap<>();
+  final Set<Integer> noSonarLines = new LinkedHashSet<>();
+  final List<String> classNames = new ArrayList<>();
+
+  public Map<String, Integer> measures() {
+    return Collections.unmodifiableMap(measures);
+  }
+
+  public Set<Integer> noSonarLines() {
+    return Collections.unmodifiableSet(noSonarLines);
+  }
+
+  public List<String> classNames() {
+    return Collections.unmodifiableList(classNames);
+  }
+
+  public int issueCount() {
+    return issues.size();
+  }
+
+  public void replayIssues(SensorContext context, InputFile inputFile) {
+    for (Issue issue : issues) {
+      NewIssue newIssue = context.newIssue()
+        .forRule(RuleKey.parse(issue.ruleKey()))
+        .gap(issue.gap());
+      newIssue.at(issue.primaryLocation().toNewIssueLocation(newIssue, inputFile));
+      for (List<Location> flow : issue.flows()) {
+        newIssue.addFlow(flow.stream()
+          .map(location -> location.toNewIssueLocation(newIssue, inputFile))
+          .toList());
+      }
+      if (issue.quickFixAvailable()) {
+        newIssue.setQuickFixAvailable(true);
+      }
+      newIssue.save();
+    }
+  }
+
+  public void replayHighlighting(NewHighlighting highlighting) {
+    for (int[] range : highlightings) {
+      highlighting.highlight(range[0], range[1], range[2], range[3], TYPES_OF_TEXT[range[4]]);
+    }
+    highlighting.save();
+  }
+
+  public void replaySymbolTable(NewSymbolTable symbolTable) {
+    List<NewSymbol> newSymbols = new ArrayList<>();
+    for (int[] range : symbols) {
+      if (range[0] == newSymbols.size()) {
+        newSymbols.add(symbolTable.newSymbol(range[1], range[2], range[3], range[4]));
+      } else {
+        newSymbols.get(range[0]).newReference(range[1], range[2], range[3], range[4]);
+      }
+    }
+    symbolTable.save();
+  }
+
+  public void replayLineValues(FileLinesContext fileLinesContext) {
+    for (LineValue lineValue : lineValues) {
+      if (lineValue.stringValue() != null) {
+        fileLinesContext.setStringValue(lineValue.metricKey(), lineValue.line(), lineValue.stringValue());
+      } else {
+        fileLinesContext.setIntValue(lineValue.metricKey(), lineValue.line(), lineValue.intValue());
+      }
+    }
+    fileLinesContext.save();
+  }
+
+  public byte[] toBytes() {
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new DataOutputStream(bytes)) {
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(issues.size());
+      for (Issue issue : issues) {
+        out.writeUTF(issue.ruleKey());
+        writeLocation(out, issue.primaryLocation());
+        out.writeBoolean(issue.gap() != null);
+        if (issue.gap() != null) {
+          out.writeDouble(issue.gap());
+        }
+        out.writeInt(issue.flows().size());
+        for (List<Location> flow : issue.flows()) {
+          out.writeInt(flow.size());
+          for (Location location : flow) {
+            writeLocation(out, location);
+          }
+        }
+        out.writeBoolean(issue.quickFixAvailable());
+      }
+      writeIntArrays(out, highlightings);
+      writeIntArrays(out, symbols);
+      out.writeInt(lineValues.size());
+      for (LineValue lineValue : lineValues) {
+        out.writeUTF(lineValue.metricKey());
+        out.writeInt(lineValue.line());
+        out.writeBoolean(lineValue.stringValue() != null);
+        if (lineValue.stringValue() != null) {
+          out.writeUTF(lineValue.stringValue());
+        } else {
+          out.writeInt(lineValue.intValue());
+        }
+      }
+      out.writeInt(measures.size());
+      for (Map.Entry<String, Integer> measure : measures.entrySet()) {
+        out.writeUTF(measure.getKey());
+        out.writeInt(measure.getValue());
+      }
+      out.writeInt(noSonarLines.size());
+      for (int line : noSonarLines) {
+        out.writeInt(line);
+      }
+      out.writeInt(classNames.size());
+      for (String className : classNames) {
+        out.writeUTF(className);
+      }
+    } catch (IOException e) {
+      // not expected when writing to memory
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  public static AnalysisResult fromBytes(byte[] data) throws IOException {
+    var result = new AnalysisResult();
+    try (var in = new DataInputStream(new ByteArrayInputStream(data))) {
+      int formatVersion = in.readInt();
+      if (formatVersion != FORMAT_VERSION) {
+        throw new IOException(String.format("Unsupported format version %d", formatVersion));
+      }
+      int issueCount = in.readInt();
+      for (int i = 0; i < issueCount; i++) {
+        String ruleKey = in.readUTF();
+        Location primaryLocation = readLocation(in);
+        Double gap = in.readBoolean() ? in.readDouble() : null;
+        int flowCount = in.readInt();
+        List<List<Location>> flows = new ArrayList<>(flowCount);
+        for (int j = 0; j < flowCount; j++) {
+          int locationCount = in.readInt();
+          List<Location> flow = new ArrayList<>(locationCount);
+          for (int k = 0; k < locationCount; k++) {
+            flow.add(readLocation(in));
+          }
+          flows.add(flow);
+        }
+        result.issues.add(new Issue(ruleKey, primaryLocation, gap, flows, in.readBoolean()));
+      }
+      result.highlightings.addAll(readIntArrays(in));
+      result.symbols.addAll(readIntArrays(in));
+      int lineValueCount = in.readInt();
+      for (int i = 0; i < lineValueCount; i++) {
+        String metricKey = in.readUTF();
+        int line = in.readInt();
+        if (in.readBoolean()) {
+          result.lineValues.add(new LineValue(metricKey, line, null, in.readUTF()));
+        } else {
+          result.lineValues.add(new LineValue(metricKey, line, in.readInt(), null));
+        }
+      }
+      int measureCount = in.readInt();
+      for (int i = 0; i < measureCount; i++) {
+        result.measures.put(in.readUTF(), in.readInt());
+      }
+      int noSonarLineCount = in.readInt();
+      for (int i = 0; i < noSonarLineCount; i++) {
+        result.noSonarLines.add(in.readInt());
+      }
+      int classNameCount = in.readInt();
+      for (int i = 0; i < classNameCount; i++) {
+        result.classNames.add(in.readUTF());
+      }
+    }
+    return result;
+  }
+
+  private static void writeLocation(DataOutputStream out, Location location) throws IOException {
+    out.writeInt(location.startLine());
+    out.writeInt(location.startLineOffset());
+    out.writeInt(location.endLine());
+    out.writeInt(location.endLineOffset());
+    out.writeUTF(location.message());
+  }
+
+  private static Location readLocation(DataInputStream in) throws IOException {
+    return new Location(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readUTF());
+  }
+
+  private static void writeIntArrays(DataOutputStream out, List<int[]> arrays) throws IOException {
+    out.writeInt(arrays.size());
+    for (int[] array : arrays) {
+      out.writeInt(array.length);
+      for (int value : array) {
+        out.writeInt(value);
+      }
+    }
+  }
+
+  private static List<int[]> readIntArrays(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    List<int[]> arrays = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int[] array = new int[in.readInt()];
+      for (int j = 0; j < array.length; j++) {
+        array[j] = in.readInt();
+      }
+      arrays.add(array);
+    }
+    return arrays;
+  }
+
+  record Issue(String ruleKey, Location primaryLocation, @Nullable Double gap, List<List<Location>> flows, boolean quickFixAvailable) {
+  }
+
+  record LineValue(String metricKey, int line, @Nullable Integer intValue, @Nullable String stringValue) {
+  }
+
+  /**
+   * Location of an issue: a whole file when the start line is {@code 0}, a whole line when the start line offset is {@code -1},
+   * and a range otherwise.
+   */
+  public record Location(int startLine, int startLineOffset, int endLine, int endLineOffset, String message) {
+
+    public static Location of(@Nullable AnalyzerMessage.TextSpan textSpan, String message) {
+      if (textSpan == null) {
+        return new Location(0, -1, 0, -1, message);
+      }
+      if (textSpan.onLine()) {
+        return new Location(textSpan.startLine, -1, textSpan.startLine, -1, message);
+      }
+      return new Location(textSpan.startLine, textSpan.startCharacter, textSpan.endLine, textSpan.endCharacter, message);
+    }
+
+    boolean onFile() {
+      return startLine == 0;
+    }
+
+    private NewIssueLocation toNewIssueLocation(NewIssue newIssue, InputFile inputFile) {
+      NewIssueLocation location = newIssue.newLocation()
+        .on(inputFile)
+        .message(message);
+      if (onFile()) {
+        return location;
+      }
+      if (startLineOffset == -1) {
+        return location.at(inputFile.selectLine(startLine));
+      }
+      return location.at(inputFile.newRange(startLine, startLineOffset, endLine, endLineOffset));
+    }
+  }
+}
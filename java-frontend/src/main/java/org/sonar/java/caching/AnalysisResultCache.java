@@ -0,0 +1,328 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.java.SonarComponents;
+import org.sonar.plugins.java.api.JavaVersion;
+import org.sonar.plugins.java.api.caching.JavaReadCache;
+import org.sonar.plugins.java.api.caching.JavaWriteCache;
+
+/**
+ * Stores the {@link AnalysisResult} of each analyzed file, to replay it when the file is analyzed again.
+ * <p>
+ * The result of the analysis of a file is stored under a key made of the content hash of the file and of a fingerprint of the
+ * analysis, which covers the version of the analyzer, the active rules and their parameters, the java version and the classpath.
+ * The result also depends on the types declared in the other files of the module: the files declaring the types the file depends
+ * on, see {@link FileDependencies}, are stored with the result along with their content hash, and the result is only replayed when
+ * none of them changed. A change to a file therefore only invalidates the results of the files depending on it.
+ * <p>
+ * The files declaring the types are looked up in the {@link ProjectIndex}, which is only complete once all the files are analyzed:
+ * the results are held until then, see {@link #writePendingResults(List)}. The types which are not declared by a file of the index
+ * come from the classpath, which is part of the fingerprint.
+ */
+public class AnalysisResultCache {
+
+  /**
+   * Can be set to {@code true} to replay the results of the analysis of unchanged files, as recorded by the previous analysis, instead
+   * of analyzing them again. Has no effect when the cache is disabled.
+   */
+  public static final String REPLAY_ANALYSIS_RESULTS_KEY = "sonar.java.caching.replayAnalysisResults";
+
+  private static final Logger LOG = LoggerFactory.getLogger(AnalysisResultCache.class);
+  private static final String CACHE_KEY_PREFIX = "java:analysisResult:";
+  private static final String FINGERPRINT_ALGORITHM = "MD5";
+
+  @Nullable
+  private final SonarComponents sonarComponents;
+  private final List<File> classpath;
+  private final JavaVersion javaVersion;
+  private final ContentHashes contentHashes;
+  private boolean enabled;
+  private JavaReadCache readCache;
+  private JavaWriteCache writeCache;
+  @Nullable
+  private String fingerprint;
+  private final List<PendingResult> pendingResults = new ArrayList<>();
+
+  public AnalysisResultCache(@Nullable SonarComponents sonarComponents, List<File> classpath, JavaVersion javaVersion) {
+    this.sonarComponents = sonarComponents;
+    this.classpath = classpath;
+    this.javaVersion = javaVersion;
+    this.contentHashes = ContentHashes.of(sonarComponents);
+    enabled = isReplayEnabled(sonarComponents);
+    if (enabled) {
+      CacheContextImpl cacheContext = CacheContextImpl.of(sonarComponents);
+      readCache = cacheContext.getReadCache();
+      writeCache = cacheContext.getWriteCache();
+    }
+  }
+
+  public static boolean isReplayEnabled(@Nullable SonarComponents sonarComponents) {
+    return sonarComponents != null
+      && sonarComponents.context() != null
+      && sonarComponents.context().config() != null
+      && sonarComponents.context().config().getBoolean(REPLAY_ANALYSIS_RESULTS_KEY).orElse(false)
+      && !sonarComponents.isSonarLintContext()
+      && CacheContextImpl.of(sonarComponents).isCacheEnabled();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @return the result of the previous analysis of the file, if neither its content, nor the fingerprint of the analysis, nor the
+   * content of the files it depends on changed since
+   */
+  public Optional<AnalysisResult> read(InputFile inputFile) {
+    if (!enabled || fingerprint() == null) {
+      return Optional.empty();
+    }
+    try {
+      byte[] data = readCache.readBytes(cacheKey(inputFile));
+      if (data == null) {
+        return Optional.empty();
+      }
+      var in = new DataInputStream(new ByteArrayInputStream(data));
+      int dependencyCount = in.readInt();
+      for (int i = 0; i < dependencyCount; i++) {
+        String uri = in.readUTF();
+        byte[] previousHash = new byte[in.readUnsignedByte()];
+        in.readFully(previousHash);
+        if (!isUnchanged(uri, previousHash)) {
+          LOG.trace("{} depends on {}, which changed since the previous analysis, its result cannot be replayed", inputFile, uri);
+          return Optional.empty();
+        }
+      }
+      return Optional.of(AnalysisResult.fromBytes(in.readAllBytes()));
+    } catch (IOException | IllegalArgumentException | CacheReadException e) {
+      LOG.debug("Unable to read the result of the previous analysis of {}: {}", inputFile, e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private boolean isUnchanged(String uri, byte[] previousHash) throws IOException {
+    FileSystem fs = sonarComponents.context().fileSystem();
+    InputFile dependency = fs.inputFile(fs.predicates().hasURI(URI.create(uri)));
+    return dependency != null && MessageDigest.isEqual(previousHash, contentHashes.hash(dependency));
+  }
+
+  /**
+   * The result is stored by {@link #writePendingResults(List)}, once the files declaring the types it depends on are known.
+   *
+   * @param dependencies fully qualified names of the top-level types the file depends on, as collected by {@link FileDependencies}
+   */
+  public void write(InputFile inputFile, AnalysisResult result, Set<String> dependencies) {
+    if (!enabled || fingerprint() == null) {
+      return;
+    }
+    // serialized right away, as it is more compact than the result itself
+    pendingResults.add(new PendingResult(inputFile, result.toBytes(), dependencies));
+  }
+
+  /**
+   * Stores the results of the analyzed files, along with the files declaring the types they depend on.
+   *
+   * @param indexes the declarations of all the files the results may depend on, complete at the end of the analysis
+   */
+  public void writePendingResults(List<ProjectIndex> indexes) {
+    if (pendingResults.isEmpty()) {
+      return;
+    }
+    Map<String, InputFile> declaringFiles = declaringFiles(indexes);
+    for (PendingResult pendingResult : pendingResults) {
+      write(pendingResult, declaringFiles);
+    }
+    pendingResults.clear();
+  }
+
+  private void write(PendingResult pendingResult, Map<String, InputFile> declaringFiles) {
+    InputFile inputFile = pendingResult.inputFile();
+    String cacheKey = null;
+    try {
+      cacheKey = cacheKey(inputFile);
+      Set<InputFile> dependencyFiles = new LinkedHashSet<>();
+      for (String dependency : pendingResult.dependencies()) {
+        InputFile dependencyFile = declaringFiles.get(dependency);
+        if (dependencyFile != null && !dependencyFile.equals(inputFile)) {
+          dependencyFiles.add(dependencyFile);
+        }
+      }
+      var data = new ByteArrayOutputStream();
+      try (var out = new DataOutputStream(data)) {
+        out.writeInt(dependencyFiles.size());
+        for (InputFile dependency : dependencyFiles) {
+          byte[] hash = contentHashes.hash(dependency);
+          out.writeUTF(dependency.uri().toString());
+          out.writeByte(hash.length);
+          out.write(hash);
+        }
+        out.write(pendingResult.result());
+      }
+      writeCache.write(cacheKey, data.toByteArray());
+    } catch (IllegalArgumentException e) {
+      LOG.trace("Tried to write multiple times to cache key {}. Ignoring writes after the first.", cacheKey);
+    } catch (IOException e) {
+      LOG.debug("Unable to store the result of the analysis of {}: {}", inputFile, e.getMessage());
+    }
+  }
+
+  /**
+   * Keeps the result of the previous analysis of an unchanged file for the next analysis.
+   */
+  public void keep(InputFile inputFile) {
+    if (!enabled || fingerprint() == null) {
+      return;
+    }
+    String cacheKey = null;
+    try {
+      cacheKey = cacheKey(inputFile);
+      if (readCache.contains(cacheKey)) {
+        writeCache.copyFromPrevious(cacheKey);
+      }
+    } catch (IllegalArgumentException e) {
+      LOG.trace("Tried to write multiple times to cache key {}. Ignoring writes after the first.", cacheKey);
+    } catch (IOException e) {
+      LOG.debug("Unable to keep the result of the previous analysis of {}: {}", inputFile, e.getMessage());
+    }
+  }
+
+  private String cacheKey(InputFile inputFile) throws IOException {
+    return CACHE_KEY_PREFIX + fingerprint + ":" + HexFormat.of().formatHex(contentHashes.hash(inputFile)) + ":" + inputFile.key();
+  }
+
+  /**
+   * @return the files declaring the types of the indexes, top-level and member types alike, by fully qualified name
+   */
+  private Map<String, InputFile> declaringFiles(List<ProjectIndex> indexes) {
+    FileSystem fs = sonarComponents.context().fileSystem();
+    Map<String, InputFile> javaFilesByKey = new HashMap<>();
+    fs.inputFiles(fs.predicates().hasLanguage("java")).forEach(file -> javaFilesByKey.put(file.key(), file));
+    Map<String, InputFile> declaringFiles = new HashMap<>();
+    for (ProjectIndex index : indexes) {
+      index.files().forEach((key, fileIndex) -> {
+        InputFile file = javaFilesByKey.get(key);
+        if (file != null) {
+          fileIndex.types().forEach(type -> declaringFiles.putIfAbsent(type.fullyQualifiedName(), file));
+        }
+      });
+    }
+    return declaringFiles;
+  }
+
+  @Nullable
+  private String fingerprint() {
+    if (enabled && fingerprint == null) {
+      try {
+        fingerprint = computeFingerprint();
+        LOG.debug("Fingerprint of the analysis, used to replay the results of previous analyses: {}", fingerprint);
+      } catch (IOException | UncheckedIOException | NoSuchAlgorithmException e) {
+        LOG.warn("Unable to compute the fingerprint of the analysis, the results of previous analyses will not be replayed: {}",
+          e.getMessage());
+        enabled = false;
+      }
+    }
+    return fingerprint;
+  }
+
+  private String computeFingerprint() throws IOException, NoSuchAlgorithmException {
+    SensorContext context = sonarComponents.context();
+    MessageDigest digest = MessageDigest.getInstance(FINGERPRINT_ALGORITHM);
+    update(digest, String.valueOf(AnalysisResultCache.class.getPackage().getImplementationVersion()));
+    update(digest, context.runtime().getApiVersion().toString());
+    update(digest, javaVersion.effectiveJavaVersionAsString());
+    update(digest, String.valueOf(javaVersion.arePreviewFeaturesEnabled()));
+
+    List<ActiveRule> activeRules = context.activeRules().findAll().stream()
+      .sorted(Comparator.comparing(activeRule -> activeRule.ruleKey().toString()))
+      .toList();
+    for (ActiveRule activeRule : activeRules) {
+      update(digest, activeRule.ruleKey().toString());
+      for (Map.Entry<String, String> param : new TreeMap<>(activeRule.params()).entrySet()) {
+        update(digest, param.getKey());
+        update(digest, String.valueOf(param.getValue()));
+      }
+    }
+
+    for (File element : classpath) {
+      updateWithClasspathElement(digest, element);
+    }
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Files of the classpath are identified by their path, size and modification date, as reading them entirely would be too costly.
+   */
+  private static void updateWithClasspathElement(MessageDigest digest, File element) throws IOException {
+    update(digest, element.getAbsolutePath());
+    if (element.isFile()) {
+      updateWithFile(digest, element.toPath(), element.getName());
+    } else if (element.isDirectory()) {
+      Path root = element.toPath();
+      List<Path> files;
+      try (Stream<Path> paths = Files.walk(root)) {
+        files = paths.filter(Files::isRegularFile).sorted().toList();
+      }
+      for (Path file : files) {
+        updateWithFile(digest, file, root.relativize(file).toString());
+      }
+    }
+  }
+
+  private static void updateWithFile(MessageDigest digest, Path file, String name) throws IOException {
+    update(digest, name + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis());
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  private record PendingResult(InputFile inputFile, byte[] result, Set<String> dependencies) {
+  }
+}
@@ -0,0 +1,310 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.TextRange;
+import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+import org.sonar.api.batch.sensor.symbol.NewSymbol;
+import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
+import org.sonar.api.measures.FileLinesContext;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.scan.issue.filter.FilterableIssue;
+import org.sonar.api.scan.issue.filter.IssueFilter;
+import org.sonar.java.caching.AnalysisResult.Issue;
+import org.sonar.java.caching.AnalysisResult.LineValue;
+import org.sonar.java.caching.AnalysisResult.Location;
+import org.sonar.java.model.DefaultInputFileScannerContext;
+import org.sonar.plugins.java.api.InputFileScannerContext;
+import org.sonar.plugins.java.api.JavaCheck;
+
+/**
+ * Records what is reported during the analysis of a file into an {@link AnalysisResult}.
+ * <p>
+ * Only the issues raised by the checks accepted by the given predicate are recorded: the other checks will have to run again on the
+ * file anyway. The recording is invalidated when it cannot be replayed faithfully, for instance when a check failed on the file.
+ */
+public class AnalysisResultRecorder {
+
+  private final InputFile inputFile;
+  private final Predicate<JavaCheck> replayableCheck;
+  private final AnalysisResult result = new AnalysisResult();
+  private boolean valid = true;
+  private int symbolCount = 0;
+
+  public AnalysisResultRecorder(InputFile inputFile, Predicate<JavaCheck> replayableCheck) {
+    this.inputFile = inputFile;
+    this.replayableCheck = replayableCheck;
+  }
+
+  /**
+   * @return the recorder of the file analyzed in the given context, when the result of its analysis is to be cached
+   */
+  public static Optional<AnalysisResultRecorder> of(InputFileScannerContext context) {
+    return context instanceof DefaultInputFileScannerContext defaultContext ? defaultContext.analysisResultRecorder() : Optional.empty();
+  }
+
+  public InputFile inputFile() {
+    return inputFile;
+  }
+
+  public void recordIssue(JavaCheck check, RuleKey ruleKey, InputComponent component, Location primaryLocation, @Nullable Double gap,
+    List<List<Location>> flows, boolean quickFixAvailable) {
+    if (!replayableCheck.test(check)) {
+      return;
+    }
+    if (!inputFile.equals(component)) {
+      // issues raised on other components would not be restored when replaying the analysis of the file
+      invalidate();
+      return;
+    }
+    result.issues.add(new Issue(ruleKey.toString(), primaryLocation, gap, flows, quickFixAvailable));
+  }
+
+  public void recordMeasure(String metricKey, int value) {
+    result.measures.put(metricKey, value);
+  }
+
+  public void recordNoSonarLines(Collection<Integer> lines) {
+    result.noSonarLines.addAll(lines);
+  }
+
+  public void recordClassNames(Collection<String> classNames) {
+    result.classNames.addAll(classNames);
+  }
+
+  public NewHighlighting record(NewHighlighting highlighting) {
+    return new RecordingHighlighting(highlighting);
+  }
+
+  public NewSymbolTable record(NewSymbolTable symbolTable) {
+    return new RecordingSymbolTable(symbolTable);
+  }
+
+  public FileLinesContext record(FileLinesContext fileLinesContext) {
+    return new RecordingFileLinesContext(fileLinesContext);
+  }
+
+  /**
+   * Drops the recorded issues rejected by the given filter. The filter is expected to have scanned the current file already, as the
+   * replayed issues can no longer be filtered based on the content of the file.
+   */
+  public void retainIssuesAcceptedBy(IssueFilter filter) {
+    result.issues.removeIf(issue -> !filter.accept(new RecordedIssue(issue), acceptedIssue -> true));
+  }
+
+  public void invalidate() {
+    valid = false;
+  }
+
+  public boolean isValid() {
+    return valid;
+  }
+
+  public AnalysisResult result() {
+    return result;
+  }
+
+  private static int[] range(TextRange textRange) {
+    return new int[] {textRange.start().line(), textRange.start().lineOffset(), textRange.end().line(), textRange.end().lineOffset()};
+  }
+
+  private class RecordingHighlighting implements NewHighlighting {
+    private final NewHighlighting delegate;
+
+    private RecordingHighlighting(NewHighlighting delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public NewHighlighting onFile(InputFile inputFile) {
+      delegate.onFile(inputFile);
+      return this;
+    }
+
+    @Override
+    public NewHighlighting highlight(TextRange range, TypeOfText typeOfText) {
+      delegate.highlight(range, typeOfText);
+      result.highlightings.add(new int[] {range.start().line(), range.start().lineOffset(), range.end().line(), range.end().lineOffset(),
+        typeOfText.ordinal()});
+      return this;
+    }
+
+    @Override
+    public NewHighlighting highlight(int startLine, int startLineOffset, int endLine, int endLineOffset, TypeOfText typeOfText) {
+      delegate.highlight(startLine, startLineOffset, endLine, endLineOffset, typeOfText);
+      result.highlightings.add(new int[] {startLine, startLineOffset, endLine, endLineOffset, typeOfText.ordinal()});
+      return this;
+    }
+
+    @Override
+    public void save() {
+      delegate.save();
+    }
+  }
+
+  private class RecordingSymbolTable implements NewSymbolTable {
+    private final NewSymbolTable delegate;
+
+    private RecordingSymbolTable(NewSymbolTable delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public NewSymbolTable onFile(InputFile inputFile) {
+      delegate.onFile(inputFile);
+      return this;
+    }
+
+    @Override
+    public NewSymbol newSymbol(TextRange range) {
+      return new RecordingSymbol(delegate.newSymbol(range), range(range));
+    }
+
+    @Override
+    public NewSymbol newSymbol(int startLine, int startLineOffset, int endLine, int endLineOffset) {
+      return new RecordingSymbol(delegate.newSymbol(startLine, startLineOffset, endLine, endLineOffset), startLine, startLineOffset, endLine, endLineOffset);
+    }
+
+    @Override
+    public void save() {
+      delegate.save();
+    }
+  }
+
+  private class RecordingSymbol implements NewSymbol {
+    private final NewSymbol delegate;
+    private final int symbolIndex;
+
+    private RecordingSymbol(NewSymbol delegate, int... declaration) {
+      this.delegate = delegate;
+      this.symbolIndex = symbolCount++;
+      addRange(declaration);
+    }
+
+    @Override
+    public NewSymbol newReference(TextRange range) {
+      delegate.newReference(range);
+      addRange(range(range));
+      return this;
+    }
+
+    @Override
+    public NewSymbol newReference(int startLine, int startLineOffset, int endLine, int endLineOffset) {
+      delegate.newReference(startLine, startLineOffset, endLine, endLineOffset);
+      addRange(startLine, startLineOffset, endLine, endLineOffset);
+      return this;
+    }
+
+    private void addRange(int... range) {
+      result.symbols.add(new int[] {symbolIndex, range[0], range[1], range[2], range[3]});
+    }
+  }
+
+  private class RecordingFileLinesContext implements FileLinesContext {
+    private final FileLinesContext delegate;
+
+    private RecordingFileLinesContext(FileLinesContext delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void setIntValue(String metricKey, int line, int value) {
+      delegate.setIntValue(metricKey, line, value);
+      result.lineValues.add(new LineValue(metricKey, line, value, null));
+    }
+
+    @Override
+    public void setStringValue(String metricKey, int line, String value) {
+      delegate.setStringValue(metricKey, line, value);
+      result.lineValues.add(new LineValue(metricKey, line, null, value));
+    }
+
+    @Override
+    public void save() {
+      delegate.save();
+    }
+  }
+
+  private class RecordedIssue implements FilterableIssue {
+    private final Issue issue;
+
+    private RecordedIssue(Issue issue) {
+      this.issue = issue;
+    }
+
+    @Override
+    public String componentKey() {
+      return inputFile.key();
+    }
+
+    @Override
+    public RuleKey ruleKey() {
+      return RuleKey.parse(issue.ruleKey());
+    }
+
+    @CheckForNull
+    @Override
+    public String severity() {
+      return null;
+    }
+
+    @Override
+    public String message() {
+      return issue.primaryLocation().message();
+    }
+
+    @CheckForNull
+    @Override
+    public Integer line() {
+      return issue.primaryLocation().onFile() ? null : issue.primaryLocation().startLine();
+    }
+
+    @CheckForNull
+    @Override
+    public TextRange textRange() {
+      Location location = issue.primaryLocation();
+      if (location.onFile()) {
+        return null;
+      }
+      if (location.startLineOffset() == -1) {
+        return inputFile.selectLine(location.startLine());
+      }
+      return inputFile.newRange(location.startLine(), location.startLineOffset(), location.endLine(), location.endLineOffset());
+    }
+
+    @CheckForNull
+    @Override
+    public Double gap() {
+      return issue.gap();
+    }
+
+    @CheckForNull
+    @Override
+    public String projectKey() {
+      return null;
+    }
+  }
+}
@@ -18,7 +18,6 @@ package org.sonar.java.caching;
 
 import java.io.IOException;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
@@ -35,10 +34,12 @@ public class ContentHashCache {
   private ReadCache readCache;
   private WriteCache writeCache;
   private final boolean enabled;
+  private final ContentHashes contentHashes;
 
   public ContentHashCache(SonarComponents sonarComponents) {
     CacheContextImpl cacheContext = CacheContextImpl.of(sonarComponents);
     enabled = cacheContext.isCacheEnabled();
+    contentHashes = ContentHashes.of(sonarComponents);
 
     var sensorContext = sonarComponents.context();
     if (enabled) {
@@ -60,7 +61,7 @@ public class ContentHashCache {
     try {
       LOG.trace("Reading cache for the file {}", inputFile.key());
       byte[] cachedHash = readCache.read(cacheKey).readAllBytes();
-      byte[] fileHash = FileHashingUtils.inputFileContentHash(inputFile);
+      byte[] fileHash = contentHashes.hash(inputFile);
       boolean isHashEqual = MessageDigest.isEqual(fileHash, cachedHash);
       if (isHashEqual) {
         copyFromPrevious(inputFile);
@@ -71,7 +72,7 @@ public class ContentHashCache {
     } catch (IllegalArgumentException e) {
       LOG.trace(String.format("Could not find key %s in the cache", cacheKey));
       writeToCache(inputFile);
-    } catch (IOException | NoSuchAlgorithmException e) {
+    } catch (IOException e) {
       LOG.warn(String.format(HASH_COMPUTE_FAIL_MSG, inputFile.key()));
     }
     return false;
@@ -93,11 +94,11 @@ public class ContentHashCache {
     LOG.trace("Writing to the cache for file {}", inputFile.key());
     String cacheKey = getCacheKey(inputFile);
     try {
-      writeCache.write(cacheKey, FileHashingUtils.inputFileContentHash(inputFile));
+      writeCache.write(cacheKey, contentHashes.hash(inputFile));
       return true;
     } catch (IllegalArgumentException e) {
       LOG.trace(String.format("Tried to write multiple times to cache key %s. Ignoring writes after the first.", cacheKey));
-    } catch (IOException | NoSuchAlgorithmException e) {
+    } catch (IOException e) {
       LOG.warn(String.format(HASH_COMPUTE_FAIL_MSG, inputFile.key()));
     }
     return false;
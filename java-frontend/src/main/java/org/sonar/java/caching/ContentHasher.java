@@ -0,0 +1,152 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streaming implementation of the 128-bit x64 variant of MurmurHash3, a fast non-cryptographic hash. Content hashes only need to
+ * detect changes to the files between two analyses, hence a cryptographic digest is not required.
+ * <p>
+ * Instances are not thread-safe: {@link #forCurrentThread()} provides one instance per thread, reused for all the files hashed by
+ * the thread.
+ */
+final class ContentHasher {
+
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+  private static final int BLOCK_SIZE = 16;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final ThreadLocal<ContentHasher> HASHERS = ThreadLocal.withInitial(ContentHasher::new);
+
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+  private long h1;
+  private long h2;
+  private long length;
+
+  private ContentHasher() {
+  }
+
+  static ContentHasher forCurrentThread() {
+    return HASHERS.get();
+  }
+
+  /**
+   * Hashes the raw bytes of the file, read through a {@link FileChannel} without decoding them.
+   */
+  byte[] hash(Path path) throws IOException {
+    reset();
+    buffer.clear();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      while (channel.read(buffer) != -1) {
+        buffer.flip();
+        processBlocks(buffer);
+        // the bytes of an incomplete block are moved to the beginning of the buffer, to be completed by the next read
+        buffer.compact();
+      }
+    }
+    buffer.flip();
+    return finish(buffer);
+  }
+
+  byte[] hash(byte[] bytes) {
+    reset();
+    ByteBuffer wrapped = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    processBlocks(wrapped);
+    return finish(wrapped);
+  }
+
+  private void reset() {
+    h1 = 0;
+    h2 = 0;
+    length = 0;
+  }
+
+  private void processBlocks(ByteBuffer bytes) {
+    while (bytes.remaining() >= BLOCK_SIZE) {
+      long k1 = bytes.getLong();
+      long k2 = bytes.getLong();
+      length += BLOCK_SIZE;
+
+      h1 ^= mixK1(k1);
+      h1 = Long.rotateLeft(h1, 27);
+      h1 += h2;
+      h1 = h1 * 5 + 0x52dce729;
+
+      h2 ^= mixK2(k2);
+      h2 = Long.rotateLeft(h2, 31);
+      h2 += h1;
+      h2 = h2 * 5 + 0x38495ab5;
+    }
+  }
+
+  private byte[] finish(ByteBuffer bytes) {
+    long k1 = 0;
+    long k2 = 0;
+    int tailLength = bytes.remaining();
+    for (int i = 0; i < tailLength; i++) {
+      long value = bytes.get() & 0xffL;
+      if (i < 8) {
+        k1 ^= value << (8 * i);
+      } else {
+        k2 ^= value << (8 * (i - 8));
+      }
+    }
+    length += tailLength;
+    h1 ^= mixK1(k1);
+    h2 ^= mixK2(k2);
+
+    h1 ^= length;
+    h2 ^= length;
+    h1 += h2;
+    h2 += h1;
+    h1 = fmix64(h1);
+    h2 = fmix64(h2);
+    h1 += h2;
+    h2 += h1;
+    return ByteBuffer.allocate(BLOCK_SIZE).order(ByteOrder.LITTLE_ENDIAN).putLong(h1).putLong(h2).array();
+  }
+
+  private static long mixK1(long k1) {
+    k1 *= C1;
+    k1 = Long.rotateLeft(k1, 31);
+    k1 *= C2;
+    return k1;
+  }
+
+  private static long mixK2(long k2) {
+    k2 *= C2;
+    k2 = Long.rotateLeft(k2, 33);
+    k2 *= C1;
+    return k2;
+  }
+
+  private static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.SonarComponents;
+
+/**
+ * Content hashes of the files of the current analysis. The content of a file is hashed once, whatever the number of caches comparing
+ * it with the content of the file during the previous analysis.
+ */
+public class ContentHashes {
+
+  private final Map<String, byte[]> hashes = new ConcurrentHashMap<>();
+
+  public static ContentHashes of(@Nullable SonarComponents sonarComponents) {
+    ContentHashes contentHashes = sonarComponents == null ? null : sonarComponents.contentHashes();
+    return contentHashes == null ? new ContentHashes() : contentHashes;
+  }
+
+  public byte[] hash(InputFile inputFile) throws IOException {
+    byte[] hash = hashes.get(inputFile.key());
+    if (hash == null) {
+      hash = FileHashingUtils.inputFileContentHash(inputFile);
+      hashes.putIfAbsent(inputFile.key(), hash);
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.BreakStatementTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ContinueStatementTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.ImportTree;
+import org.sonar.plugins.java.api.tree.LabeledStatementTree;
+import org.sonar.plugins.java.api.tree.PackageDeclarationTree;
+
+/**
+ * Collects the fully qualified names of the top-level types a file depends on: the types it refers to, the types declaring the
+ * members it uses, and all their supertypes, as a change to a supertype changes the members which are inherited.
+ * <p>
+ * The dependencies of a file referring to unknown symbols are unknown: such a symbol may be declared by a file added or fixed later on.
+ */
+public final class FileDependencies extends BaseTreeVisitor {
+
+  private final Set<String> topLevelTypes = new TreeSet<>();
+  private final Set<Symbol.TypeSymbol> visitedTypes = new HashSet<>();
+  private boolean unknownSymbols = false;
+
+  private FileDependencies() {
+  }
+
+  /**
+   * @return the fully qualified names of the top-level types the file depends on, including the types it declares itself, null when
+   * the file refers to unknown symbols
+   */
+  @CheckForNull
+  public static Set<String> of(CompilationUnitTree compilationUnit) {
+    FileDependencies dependencies = new FileDependencies();
+    compilationUnit.accept(dependencies);
+    return dependencies.unknownSymbols ? null : dependencies.topLevelTypes;
+  }
+
+  @Override
+  public void visitIdentifier(IdentifierTree tree) {
+    Symbol symbol = tree.symbol();
+    if (symbol.isUnknown() || (symbol.isVariableSymbol() && symbol.type().isUnknown())) {
+      unknownSymbols = true;
+    } else {
+      addType(symbol.enclosingClass());
+      addType(symbol.type());
+    }
+  }
+
+  // the names of packages, and the imports, which only matter through the symbols they bring in, are not dependencies
+
+  @Override
+  public void visitPackage(PackageDeclarationTree tree) {
+    scan(tree.annotations());
+  }
+
+  @Override
+  public void visitImport(ImportTree tree) {
+    // nothing to visit
+  }
+
+  // labels are not symbols
+
+  @Override
+  public void visitLabeledStatement(LabeledStatementTree tree) {
+    scan(tree.statement());
+  }
+
+  @Override
+  public void visitBreakStatement(BreakStatementTree tree) {
+    // nothing to visit
+  }
+
+  @Override
+  public void visitContinueStatement(ContinueStatementTree tree) {
+    // nothing to visit
+  }
+
+  private void addType(@Nullable Type type) {
+    if (type == null) {
+      return;
+    }
+    if (type.isArray()) {
+      addType(((Type.ArrayType) type).elementType());
+    } else if (type.isClass()) {
+      addType(type.symbol());
+    }
+  }
+
+  private void addType(@Nullable Symbol.TypeSymbol type) {
+    if (type == null || type.isUnknown() || !visitedTypes.add(type)) {
+      return;
+    }
+    Symbol topLevelType = type;
+    while (topLevelType.owner() != null && !topLevelType.owner().isPackageSymbol() && !topLevelType.owner().isUnknown()) {
+      topLevelType = topLevelType.owner();
+    }
+    if (topLevelType.isTypeSymbol()) {
+      topLevelTypes.add(topLevelType.type().fullyQualifiedName());
+    }
+    addType(type.superClass());
+    type.interfaces().forEach(this::addType);
+  }
+}
@@ -18,12 +18,9 @@ package org.sonar.java.caching;
 
 import org.sonar.api.batch.fs.InputFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.file.Path;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -32,19 +29,22 @@ public class FileHashingUtils {
   private FileHashingUtils() {
   }
 
-  public static final String HASH_ALGORITHM = "MD5";
-
-  public static byte[] inputFileContentHash(InputFile inputFile) throws IOException, NoSuchAlgorithmException {
-    byte[] contentBytes = inputFile.contents().getBytes(StandardCharsets.UTF_8);
-    MessageDigest messageDigest = MessageDigest.getInstance(HASH_ALGORITHM);
-    return messageDigest.digest(contentBytes);
+  /**
+   * Part of the cache keys of the content hashes, so that hashes computed by a different function are never compared.
+   */
+  public static final String HASH_ALGORITHM = "MURMUR3_128";
+
+  public static byte[] inputFileContentHash(InputFile inputFile) throws IOException {
+    Path path = inputFile.path();
+    if (path != null && Files.isRegularFile(path)) {
+      return ContentHasher.forCurrentThread().hash(path);
+    }
+    // the content of files which are not stored on disk is only available decoded
+    return ContentHasher.forCurrentThread().hash(inputFile.contents().getBytes(UTF_8));
   }
 
-  public static byte[] inputFileContentHash(String filepath) throws IOException, NoSuchAlgorithmException {
-    File file = new File(filepath);
-    String contents = new String(Files.readAllBytes(file.toPath()), UTF_8);
-    MessageDigest messageDigest = MessageDigest.getInstance(HASH_ALGORITHM);
-    return messageDigest.digest(contents.getBytes(UTF_8));
+  public static byte[] inputFileContentHash(String filepath) throws IOException {
+    return ContentHasher.forCurrentThread().hash(Path.of(filepath));
   }
 
 }
@@ -0,0 +1,323 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.java.model.PackageUtils;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.SymbolMetadata;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * What a file declares, as far as other files are concerned: its package, and its types with their supertypes, annotations and
+ * methods. Only types reachable by name, top-level and member types, are indexed, and only when their symbol is known.
+ * <p>
+ * Entries are serialized with a table of the distinct strings of the file, referenced by their index, so that the names repeated
+ * by the declarations of a file, like the names of annotations or of the types of parameters, are only stored once.
+ */
+public final class FileIndex {
+
+  private static final int FORMAT_VERSION = 1;
+
+  private final String packageName;
+  private final List<DeclaredType> types;
+
+  public FileIndex(String packageName, List<DeclaredType> types) {
+    this.packageName = packageName;
+    this.types = Collections.unmodifiableList(types);
+  }
+
+  /**
+   * @return the name of the package of the file, an empty string for the default package
+   */
+  public String packageName() {
+    return packageName;
+  }
+
+  public List<DeclaredType> types() {
+    return types;
+  }
+
+  /**
+   * @param fullyQualifiedName fully qualified name of the type, as given by {@link Type#fullyQualifiedName()}
+   * @param kind one of {@link Tree.Kind#CLASS}, {@link Tree.Kind#INTERFACE}, {@link Tree.Kind#ENUM}, {@link Tree.Kind#RECORD} or
+   * {@link Tree.Kind#ANNOTATION_TYPE}
+   * @param superClass fully qualified name of the super class, {@code java.lang.Object} for interfaces, null for
+   * {@code java.lang.Object} itself and when unknown
+   * @param methods signatures of the methods and constructors, as in {@link Symbol.MethodSymbol#signature()} without the owner
+   */
+  public record DeclaredType(String fullyQualifiedName, Tree.Kind kind, @Nullable String superClass, List<String> interfaces,
+    List<Annotation> annotations, List<String> methods) {
+
+    @CheckForNull
+    public Annotation annotation(String fullyQualifiedName) {
+      for (Annotation annotation : annotations) {
+        if (annotation.fullyQualifiedName().equals(fullyQualifiedName)) {
+          return annotation;
+        }
+      }
+      return null;
+    }
+
+    public boolean isAnnotatedWith(String fullyQualifiedName) {
+      return annotation(fullyQualifiedName) != null;
+    }
+  }
+
+  /**
+   * @param values the values of the properties of the annotation which are strings or arrays of strings, by name of property
+   */
+  public record Annotation(String fullyQualifiedName, Map<String, List<String>> values) {
+  }
+
+  public static FileIndex of(CompilationUnitTree compilationUnit) {
+    List<DeclaredType> types = new ArrayList<>();
+    for (Tree type : compilationUnit.types()) {
+      if (type instanceof ClassTree classTree) {
+        addTypes(classTree, types);
+      }
+    }
+    return new FileIndex(PackageUtils.packageName(compilationUnit.packageDeclaration(), "."), types);
+  }
+
+  private static void addTypes(ClassTree classTree, List<DeclaredType> types) {
+    Symbol.TypeSymbol symbol = classTree.symbol();
+    if (!symbol.isUnknown()) {
+      types.add(new DeclaredType(
+        symbol.type().fullyQualifiedName(),
+        classTree.kind(),
+        nameOf(symbol.superClass()),
+        symbol.interfaces().stream().map(FileIndex::nameOf).filter(Objects::nonNull).toList(),
+        annotations(symbol.metadata()),
+        methods(classTree)));
+    }
+    for (Tree member : classTree.members()) {
+      if (member instanceof ClassTree memberType) {
+        addTypes(memberType, types);
+      }
+    }
+  }
+
+  @CheckForNull
+  private static String nameOf(@Nullable Type type) {
+    return type == null || type.isUnknown() ? null : type.fullyQualifiedName();
+  }
+
+  private static List<Annotation> annotations(SymbolMetadata metadata) {
+    List<Annotation> annotations = new ArrayList<>();
+    for (SymbolMetadata.AnnotationInstance annotation : metadata.annotations()) {
+      String name = nameOf(annotation.symbol().type());
+      if (name == null) {
+        continue;
+      }
+      Map<String, List<String>> values = new LinkedHashMap<>();
+      for (SymbolMetadata.AnnotationValue value : annotation.values()) {
+        if (value.value() instanceof String string) {
+          values.put(value.name(), List.of(string));
+        } else if (value.value() instanceof Object[] array) {
+          values.put(value.name(), stringsOf(array));
+        }
+      }
+      annotations.add(new Annotation(name, values));
+    }
+    return annotations;
+  }
+
+  private static List<String> stringsOf(Object[] array) {
+    List<String> strings = new ArrayList<>();
+    for (Object element : array) {
+      if (element instanceof String string) {
+        strings.add(string);
+      }
+    }
+    return strings;
+  }
+
+  private static List<String> methods(ClassTree classTree) {
+    List<String> methods = new ArrayList<>();
+    for (Tree member : classTree.members()) {
+      if (member instanceof MethodTree methodTree && !methodTree.symbol().isUnknown()) {
+        String signature = methodTree.symbol().signature();
+        methods.add(signature.substring(signature.indexOf('#') + 1));
+      }
+    }
+    return methods;
+  }
+
+  public byte[] toBytes() {
+    var strings = new LinkedHashMap<String, Integer>();
+    var body = new ByteArrayOutputStream();
+    try (var out = new DataOutputStream(body)) {
+      writeString(out, strings, packageName);
+      writeVarInt(out, types.size());
+      for (DeclaredType type : types) {
+        writeString(out, strings, type.fullyQualifiedName());
+        writeString(out, strings, type.kind().name());
+        writeNullableString(out, strings, type.superClass());
+        writeStrings(out, strings, type.interfaces());
+        writeVarInt(out, type.annotations().size());
+        for (Annotation annotation : type.annotations()) {
+          writeString(out, strings, annotation.fullyQualifiedName());
+          writeVarInt(out, annotation.values().size());
+          for (Map.Entry<String, List<String>> value : annotation.values().entrySet()) {
+            writeString(out, strings, value.getKey());
+            writeStrings(out, strings, value.getValue());
+          }
+        }
+        writeStrings(out, strings, type.methods());
+      }
+    } catch (IOException e) {
+      // not expected when writing to memory
+      throw new UncheckedIOException(e);
+    }
+
+    var bytes = new ByteArrayOutputStream();
+    try (var out = new DataOutputStream(bytes)) {
+      out.writeInt(FORMAT_VERSION);
+      writeVarInt(out, strings.size());
+      for (String string : strings.keySet()) {
+        out.writeUTF(string);
+      }
+      body.writeTo(out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  public static FileIndex fromBytes(byte[] data) throws IOException {
+    try (var in = new DataInputStream(new ByteArrayInputStream(data))) {
+      int formatVersion = in.readInt();
+      if (formatVersion != FORMAT_VERSION) {
+        throw new IOException(String.format("Unsupported format version %d", formatVersion));
+      }
+      String[] strings = new String[readVarInt(in)];
+      for (int i = 0; i < strings.length; i++) {
+        strings[i] = in.readUTF();
+      }
+      String packageName = readString(in, strings);
+      int typeCount = readVarInt(in);
+      List<DeclaredType> types = new ArrayList<>(typeCount);
+      for (int i = 0; i < typeCount; i++) {
+        String fullyQualifiedName = readString(in, strings);
+        Tree.Kind kind = Tree.Kind.valueOf(readString(in, strings));
+        String superClass = readNullableString(in, strings);
+        List<String> interfaces = readStrings(in, strings);
+        int annotationCount = readVarInt(in);
+        List<Annotation> annotations = new ArrayList<>(annotationCount);
+        for (int j = 0; j < annotationCount; j++) {
+          String annotationName = readString(in, strings);
+          int valueCount = readVarInt(in);
+          Map<String, List<String>> values = new LinkedHashMap<>();
+          for (int k = 0; k < valueCount; k++) {
+            values.put(readString(in, strings), readStrings(in, strings));
+          }
+          annotations.add(new Annotation(annotationName, values));
+        }
+        types.add(new DeclaredType(fullyQualifiedName, kind, superClass, interfaces, annotations, readStrings(in, strings)));
+      }
+      return new FileIndex(packageName, types);
+    } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+      throw new IOException("Invalid entry", e);
+    }
+  }
+
+  private static void writeString(DataOutput out, Map<String, Integer> strings, String string) throws IOException {
+    writeVarInt(out, strings.computeIfAbsent(string, k -> strings.size()));
+  }
+
+  /**
+   * Null is written as 0, and the index of other strings is shifted by one.
+   */
+  private static void writeNullableString(DataOutput out, Map<String, Integer> strings, @Nullable String string) throws IOException {
+    writeVarInt(out, string == null ? 0 : (strings.computeIfAbsent(string, k -> strings.size()) + 1));
+  }
+
+  private static void writeStrings(DataOutput out, Map<String, Integer> strings, List<String> list) throws IOException {
+    writeVarInt(out, list.size());
+    for (String string : list) {
+      writeString(out, strings, string);
+    }
+  }
+
+  private static String readString(DataInput in, String[] strings) throws IOException {
+    return strings[readVarInt(in)];
+  }
+
+  @CheckForNull
+  private static String readNullableString(DataInput in, String[] strings) throws IOException {
+    int index = readVarInt(in);
+    return index == 0 ? null : strings[index - 1];
+  }
+
+  private static List<String> readStrings(DataInput in, String[] strings) throws IOException {
+    int size = readVarInt(in);
+    List<String> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(readString(in, strings));
+    }
+    return list;
+  }
+
+  /**
+   * Writes 7 bits per byte, the highest bit telling whether more bytes follow: most values, counts and indexes of strings, fit in a
+   * single byte.
+   */
+  private static void writeVarInt(DataOutput out, int value) throws IOException {
+    int remaining = value;
+    while ((remaining & ~0x7F) != 0) {
+      out.writeByte((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    out.writeByte(remaining);
+  }
+
+  private static int readVarInt(DataInput in) throws IOException {
+    int value = 0;
+    int shift = 0;
+    int b;
+    do {
+      if (shift > 28) {
+        throw new IOException("Malformed variable length integer");
+      }
+      b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * The declarations of all the files analyzed together, see {@link FileIndex}, for the checks relying on other files than the one
+ * they are scanning. It is queried at the end of the analysis, when the entries of all the files are known.
+ * <p>
+ * The entries of the parsed files are computed from their tree, while the entries of the unchanged files which are not parsed are
+ * restored from the previous analysis by the {@link ProjectIndexCache}: only the changed files are indexed again.
+ */
+public final class ProjectIndex {
+
+  private final Map<String, FileIndex> files = new LinkedHashMap<>();
+
+  public void put(InputFile inputFile, FileIndex fileIndex) {
+    files.put(inputFile.key(), fileIndex);
+  }
+
+  /**
+   * @return the entry of the file, null when the file has not been analyzed yet or its entry could not be restored
+   */
+  @CheckForNull
+  public FileIndex file(InputFile inputFile) {
+    return files.get(inputFile.key());
+  }
+
+  /**
+   * @return the entries of the files, by key of input file
+   */
+  public Map<String, FileIndex> files() {
+    return Collections.unmodifiableMap(files);
+  }
+
+  public Stream<FileIndex.DeclaredType> types() {
+    return files.values().stream().flatMap(file -> file.types().stream());
+  }
+
+  public Optional<FileIndex.DeclaredType> type(String fullyQualifiedName) {
+    return types().filter(type -> type.fullyQualifiedName().equals(fullyQualifiedName)).findFirst();
+  }
+
+  /**
+   * @return the types extending or implementing directly the given type
+   */
+  public List<FileIndex.DeclaredType> directSubtypes(String fullyQualifiedName) {
+    return types()
+      .filter(type -> fullyQualifiedName.equals(type.superClass()) || type.interfaces().contains(fullyQualifiedName))
+      .toList();
+  }
+
+  public List<FileIndex.DeclaredType> annotatedWith(String annotationFullyQualifiedName) {
+    return types().filter(type -> type.isAnnotatedWith(annotationFullyQualifiedName)).toList();
+  }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.io.IOException;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.plugins.java.api.caching.CacheContext;
+
+/**
+ * Stores the {@link FileIndex} of each analyzed file, so that the {@link ProjectIndex} of the next analysis only has to index the
+ * changed files. The entry of an unchanged file is valid as long as the file does not change, it is therefore carried over from an
+ * analysis to the next one.
+ */
+public class ProjectIndexCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ProjectIndexCache.class);
+  private static final String CACHE_KEY_PREFIX = "java:projectIndex:";
+
+  private final CacheContext cacheContext;
+
+  public ProjectIndexCache(CacheContext cacheContext) {
+    this.cacheContext = cacheContext;
+  }
+
+  /**
+   * @return the entry of the file stored by the previous analysis
+   */
+  public Optional<FileIndex> read(InputFile inputFile) {
+    if (!cacheContext.isCacheEnabled()) {
+      return Optional.empty();
+    }
+    String cacheKey = cacheKey(inputFile);
+    try {
+      byte[] data = cacheContext.getReadCache().readBytes(cacheKey);
+      return data == null ? Optional.empty() : Optional.of(FileIndex.fromBytes(data));
+    } catch (IOException | CacheReadException e) {
+      LOG.debug("Unable to read the index of {} stored by the previous analysis: {}", inputFile, e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  public void write(InputFile inputFile, FileIndex fileIndex) {
+    if (!cacheContext.isCacheEnabled()) {
+      return;
+    }
+    String cacheKey = cacheKey(inputFile);
+    try {
+      cacheContext.getWriteCache().write(cacheKey, fileIndex.toBytes());
+    } catch (IllegalArgumentException e) {
+      LOG.trace("Tried to write multiple times to cache key '{}'. Ignoring writes after the first.", cacheKey);
+    }
+  }
+
+  /**
+   * Keeps the entry of an unchanged file, read from the previous analysis, for the next analysis.
+   */
+  public void keep(InputFile inputFile) {
+    if (!cacheContext.isCacheEnabled()) {
+      return;
+    }
+    String cacheKey = cacheKey(inputFile);
+    if (!cacheContext.getReadCache().contains(cacheKey)) {
+      return;
+    }
+    try {
+      cacheContext.getWriteCache().copyFromPrevious(cacheKey);
+    } catch (IllegalArgumentException e) {
+      LOG.trace("Tried to write multiple times to cache key '{}'. Ignoring writes after the first.", cacheKey);
+    }
+  }
+
+  private static String cacheKey(InputFile inputFile) {
+    return CACHE_KEY_PREFIX + inputFile.key();
+  }
+
+}
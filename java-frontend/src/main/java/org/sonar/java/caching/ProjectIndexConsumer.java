@@ -0,0 +1,27 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import org.sonar.plugins.java.api.JavaFileScanner;
+
+/**
+ * A scanner which reads the declarations of the files of the project from the {@link ProjectIndex}. The files of the project are
+ * only indexed, and their entries only stored in the cache, when at least one of these scanners is active.
+ */
+public interface ProjectIndexConsumer extends JavaFileScanner {
+
+}
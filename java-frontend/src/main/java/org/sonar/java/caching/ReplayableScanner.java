@@ -0,0 +1,30 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.plugins.java.api.JavaFileScanner;
+
+/**
+ * A scanner which records everything it contributes to the analysis of a file through the {@link AnalysisResultRecorder}, and is
+ * therefore able to restore its contribution from the {@link AnalysisResult} of a previous analysis, without the file being parsed.
+ */
+public interface ReplayableScanner extends JavaFileScanner {
+
+  void replay(InputFile inputFile, AnalysisResult result);
+
+}
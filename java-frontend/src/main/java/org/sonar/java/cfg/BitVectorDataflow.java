@@ -0,0 +1,333 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.cfg;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Iterative solver for gen/kill dataflow problems on the blocks of a {@link CFG}, such as live variables (backward) or
+ * reaching definitions (forward). Facts are given dense integer ids through a {@link Domain}, sets of facts are bit vectors
+ * stored as {@code long[]}, and the sets of the predecessors (or successors for backward problems) are merged by union.
+ * <p>
+ * Blocks are identified by their {@link CFG.Block#id() id}, which is their index in {@link CFG#reversedBlocks()}.
+ * Exceptional edges ({@link CFG.Block#exceptions()}) are followed like normal ones.
+ */
+public final class BitVectorDataflow {
+
+  public enum Direction {
+    FORWARD,
+    BACKWARD
+  }
+
+  private final long[][] in;
+  private final long[][] out;
+
+  private BitVectorDataflow(long[][] in, long[][] out) {
+    this.in = in;
+    this.out = out;
+  }
+
+  /**
+   * Set of facts holding on entry of the block.
+   */
+  public long[] in(CFG.Block block) {
+    return in[block.id()];
+  }
+
+  /**
+   * Set of facts holding on exit of the block.
+   */
+  public long[] out(CFG.Block block) {
+    return out[block.id()];
+  }
+
+  /**
+   * Solves the system: for a forward problem, {@code in(b) = U out(p)} over predecessors {@code p} and
+   * {@code out(b) = gen(b) | (in(b) & ~kill(b))}; for a backward problem, the same with in/out and predecessors/successors swapped.
+   *
+   * @param gen  for each block id, the facts generated by the block, with {@link #words(int)} longs
+   * @param kill for each block id, the facts killed by the block, with the same length
+   */
+  public static BitVectorDataflow solve(CFG cfg, Direction direction, long[][] gen, long[][] kill) {
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    int blockCount = blocks.size();
+    int[][] successors = new int[blockCount][];
+    for (int i = 0; i < blockCount; i++) {
+      CFG.Block block = blocks.get(i);
+      if (block.id() != i) {
+        throw new IllegalStateException("Block ids are expected to be their index in the CFG, found B" + block.id() + " at " + i);
+      }
+      successors[i] = successorIds(block);
+    }
+    int[][] predecessors = invert(successors);
+    int words = blockCount == 0 ? 0 : gen[0].length;
+    long[][] in = newSets(blockCount, words);
+    long[][] out = newSets(blockCount, words);
+
+    boolean forward = direction == Direction.FORWARD;
+    // "input" sets are the merge of the "output" sets of the upstream blocks, in the direction of the analysis
+    long[][] input = forward ? in : out;
+    long[][] output = forward ? out : in;
+    int[][] upstream = forward ? predecessors : successors;
+    int[][] downstream = forward ? successors : predecessors;
+
+    int[] order = iterationOrder(cfg, successors, forward);
+    int[] rank = new int[blockCount];
+    for (int r = 0; r < order.length; r++) {
+      rank[order[r]] = r;
+    }
+    BitSet workList = new BitSet(blockCount);
+    workList.set(0, blockCount);
+    long[] newOutput = new long[words];
+    for (int r = workList.nextSetBit(0); r >= 0; r = workList.nextSetBit(0)) {
+      workList.clear(r);
+      int block = order[r];
+      long[] blockInput = input[block];
+      // sets only grow from the empty ones, so merging into the previous input gives the same result as recomputing it
+      for (int other : upstream[block]) {
+        or(blockInput, output[other]);
+      }
+      long[] blockGen = gen[block];
+      long[] blockKill = kill[block];
+      boolean changed = false;
+      long[] blockOutput = output[block];
+      for (int w = 0; w < words; w++) {
+        newOutput[w] = blockGen[w] | (blockInput[w] & ~blockKill[w]);
+        changed |= newOutput[w] != blockOutput[w];
+      }
+      if (changed) {
+        output[block] = newOutput;
+        newOutput = blockOutput;
+        for (int other : downstream[block]) {
+          workList.set(rank[other]);
+        }
+      }
+    }
+    return new BitVectorDataflow(in, out);
+  }
+
+  /**
+   * Number of longs needed to store a set of facts of a domain of the given size.
+   */
+  public static int words(int domainSize) {
+    return (domainSize + Long.SIZE - 1) / Long.SIZE;
+  }
+
+  public static boolean contains(long[] set, int id) {
+    int word = id >>> 6;
+    return word < set.length && (set[word] & (1L << id)) != 0;
+  }
+
+  private static void or(long[] target, long[] source) {
+    for (int w = 0; w < target.length; w++) {
+      target[w] |= source[w];
+    }
+  }
+
+  private static long[][] newSets(int count, int words) {
+    long[][] sets = new long[count][];
+    for (int i = 0; i < count; i++) {
+      sets[i] = new long[words];
+    }
+    return sets;
+  }
+
+  private static int[] successorIds(CFG.Block block) {
+    int[] ids = new int[block.successors().size() + block.exceptions().size()];
+    int i = 0;
+    for (CFG.Block successor : block.successors()) {
+      ids[i++] = successor.id();
+    }
+    for (CFG.Block exception : block.exceptions()) {
+      ids[i++] = exception.id();
+    }
+    return ids;
+  }
+
+  private static int[][] invert(int[][] edges) {
+    int[] counts = new int[edges.length];
+    for (int[] targets : edges) {
+      for (int target : targets) {
+        counts[target]++;
+      }
+    }
+    int[][] inverted = new int[edges.length][];
+    for (int i = 0; i < edges.length; i++) {
+      inverted[i] = new int[counts[i]];
+      counts[i] = 0;
+    }
+    for (int source = 0; source < edges.length; source++) {
+      for (int target : edges[source]) {
+        inverted[target][counts[target]++] = source;
+      }
+    }
+    return inverted;
+  }
+
+  /**
+   * Reverse postorder from the entry block for forward problems, postorder for backward ones, so that most blocks are
+   * visited after the blocks they depend on. Blocks not reachable from the entry block come last.
+   */
+  private static int[] iterationOrder(CFG cfg, int[][] successors, boolean forward) {
+    int blockCount = successors.length;
+    int[] postOrder = new int[blockCount];
+    int visitedCount = 0;
+    boolean[] visited = new boolean[blockCount];
+    if (blockCount > 0) {
+      // iterative depth-first search, as CFGs of generated code can be too deep for recursion
+      int[] stack = new int[blockCount];
+      int[] nextSuccessor = new int[blockCount];
+      int top = 0;
+      int entry = cfg.entryBlock().id();
+      stack[top++] = entry;
+      visited[entry] = true;
+      while (top > 0) {
+        int block = stack[top - 1];
+        if (nextSuccessor[block] < successors[block].length) {
+          int successor = successors[block][nextSuccessor[block]++];
+          if (!visited[successor]) {
+            visited[successor] = true;
+            stack[top++] = successor;
+          }
+        } else {
+          top--;
+          postOrder[visitedCount++] = block;
+        }
+      }
+    }
+    int[] order = new int[blockCount];
+    for (int i = 0; i < visitedCount; i++) {
+      order[i] = forward ? postOrder[visitedCount - 1 - i] : postOrder[i];
+    }
+    int next = visitedCount;
+    for (int block = 0; block < blockCount; block++) {
+      if (!visited[block]) {
+        order[next++] = block;
+      }
+    }
+    return order;
+  }
+
+  /**
+   * Assigns dense ids, in order of first registration, to the facts of a dataflow problem.
+   */
+  public static final class Domain<T> {
+
+    private final Map<T, Integer> ids = new HashMap<>();
+    private final List<T> elements = new ArrayList<>();
+
+    /**
+     * Id of the element, registering it if needed.
+     */
+    public int id(T element) {
+      return ids.computeIfAbsent(element, e -> {
+        elements.add(e);
+        return elements.size() - 1;
+      });
+    }
+
+    public int size() {
+      return elements.size();
+    }
+
+    public T get(int id) {
+      return elements.get(id);
+    }
+
+    /**
+     * Read-only view of a bit vector as a set of elements of this domain.
+     */
+    public Set<T> asSet(long[] set) {
+      return new BitVectorSet<>(this, set);
+    }
+  }
+
+  private static final class BitVectorSet<T> extends AbstractSet<T> {
+
+    private final Domain<T> domain;
+    private final long[] bits;
+
+    private BitVectorSet(Domain<T> domain, long[] bits) {
+      this.domain = domain;
+      this.bits = bits;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      Integer id = domain.ids.get(o);
+      return id != null && BitVectorDataflow.contains(bits, id);
+    }
+
+    @Override
+    public int size() {
+      int size = 0;
+      for (long word : bits) {
+        size += Long.bitCount(word);
+      }
+      return size;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return new Iterator<>() {
+        private int next = nextSetBit(0);
+
+        @Override
+        public boolean hasNext() {
+          return next >= 0;
+        }
+
+        @Override
+        public T next() {
+          if (next < 0) {
+            throw new NoSuchElementException();
+          }
+          T element = domain.get(next);
+          next = nextSetBit(next + 1);
+          return element;
+        }
+      };
+    }
+
+    private int nextSetBit(int from) {
+      int word = from >>> 6;
+      if (word >= bits.length) {
+        return -1;
+      }
+      long remaining = bits[word] & (-1L << from);
+      while (true) {
+        if (remaining != 0) {
+          return word * Long.SIZE + Long.numberOfTrailingZeros(remaining);
+        }
+        word++;
+        if (word == bits.length) {
+          return -1;
+        }
+        remaining = bits[word];
+      }
+    }
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.cfg;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.BlockTree;
+import org.sonar.plugins.java.api.tree.LambdaExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Memoizes, for the file being analyzed, the control flow graphs built by checks and the liveness results computed on them,
+ * so that checks working on the same tree share one CFG and one dataflow analysis instead of computing their own.
+ * Entries are keyed by identity and an instance must not outlive the analysis of its file.
+ */
+public class CFGCache {
+
+  private final Map<Tree, CFG> cfgs = new IdentityHashMap<>();
+  private final Map<BlockTree, CFG> bodyCfgs = new IdentityHashMap<>();
+  private final Map<CFG, LiveVariables> liveVariables = new IdentityHashMap<>();
+  private final Map<CFG, LiveVariables> liveVariablesWithFields = new IdentityHashMap<>();
+
+  /**
+   * CFG of the body of a method, the method is expected to have a body.
+   */
+  public CFG cfg(MethodTree methodTree) {
+    return (CFG) methodTree.cfg();
+  }
+
+  public CFG cfg(LambdaExpressionTree lambda) {
+    return (CFG) lambda.cfg();
+  }
+
+  /**
+   * CFG built on top of the given tree only, as {@link CFG#buildCFG(List)} with a singleton list would do.
+   */
+  public CFG cfg(Tree tree) {
+    return cfg(tree, null);
+  }
+
+  /**
+   * @param enclosingMethod method owning the variables declared in the tree, required for the liveness of these variables to be computed.
+   */
+  public CFG cfg(Tree tree, @Nullable Symbol.MethodSymbol enclosingMethod) {
+    return cached(cfgs, tree, enclosingMethod, t -> CFG.buildCFG(Collections.singletonList(t)));
+  }
+
+  /**
+   * CFG of the statements of a block, as for initializers or catch blocks.
+   */
+  public CFG cfgOfBody(BlockTree block) {
+    return cfgOfBody(block, null);
+  }
+
+  public CFG cfgOfBody(BlockTree block, @Nullable Symbol.MethodSymbol enclosingMethod) {
+    return cached(bodyCfgs, block, enclosingMethod, b -> CFG.buildCFG(b.body()));
+  }
+
+  public LiveVariables liveVariables(CFG cfg) {
+    return liveVariables.computeIfAbsent(cfg, LiveVariables::analyze);
+  }
+
+  public LiveVariables liveVariablesWithFields(CFG cfg) {
+    return liveVariablesWithFields.computeIfAbsent(cfg, LiveVariables::analyzeWithFields);
+  }
+
+  private static <T extends Tree> CFG cached(Map<T, CFG> cache, T tree, @Nullable Symbol.MethodSymbol enclosingMethod, Function<T, CFG> builder) {
+    CFG cfg = cache.get(tree);
+    if (cfg != null && (enclosingMethod == null || enclosingMethod.equals(cfg.methodSymbol()))) {
+      return cfg;
+    }
+    cfg = builder.apply(tree);
+    if (enclosingMethod != null) {
+      cfg.setMethodSymbol(enclosingMethod);
+    }
+    // a CFG already shared with other checks is never mutated, the one with the more precise method symbol replaces it
+    cache.put(tree, cfg);
+    return cfg;
+  }
+
+}
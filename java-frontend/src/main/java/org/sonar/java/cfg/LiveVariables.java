@@ -16,13 +16,11 @@
  */
 package org.sonar.java.cfg;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.Deque;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Map;
-import java.util.Objects;
+import java.util.List;
 import java.util.Set;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
@@ -38,14 +36,13 @@ import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
 import org.sonar.plugins.java.api.tree.VariableTree;
 import org.sonarsource.analyzer.commons.collections.ListUtils;
-import org.sonarsource.analyzer.commons.collections.SetUtils;
 
 public class LiveVariables {
 
   private final CFG cfg;
-  private final Map<CFG.Block, Set<Symbol>> out = new HashMap<>();
-  private final Map<CFG.Block, Set<Symbol>> in = new HashMap<>();
   private final boolean includeFields;
+  private final BitVectorDataflow.Domain<Symbol> symbols = new BitVectorDataflow.Domain<>();
+  private BitVectorDataflow dataflow;
 
   private LiveVariables(CFG cfg, boolean includeFields) {
     this.cfg = cfg;
@@ -53,11 +50,11 @@ public class LiveVariables {
   }
 
   public Set<Symbol> getOut(CFG.Block block) {
-    return out.get(block);
+    return symbols.asSet(dataflow.out(block));
   }
 
   public Set<Symbol> getIn(CFG.Block block) {
-    return in.get(block);
+    return symbols.asSet(dataflow.in(block));
   }
 
   /**
@@ -76,52 +73,31 @@ public class LiveVariables {
 
   private static LiveVariables analyze(CFG cfg, boolean includeFields) {
     LiveVariables liveVariables = new LiveVariables(cfg, includeFields);
-    // Generate kill/gen for each block in isolation
-    Map<CFG.Block, Set<Symbol>> kill = new HashMap<>();
-    Map<CFG.Block, Set<Symbol>> gen = new HashMap<>();
-    for (CFG.Block block : liveVariables.cfg.reversedBlocks()) {
-      Set<Symbol> blockKill = new HashSet<>();
-      Set<Symbol> blockGen = new HashSet<>();
+    // Generate kill/gen for each block in isolation, symbols get their ids on the way
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    BitSet[] kill = new BitSet[blocks.size()];
+    BitSet[] gen = new BitSet[blocks.size()];
+    for (CFG.Block block : blocks) {
+      BitSet blockKill = new BitSet();
+      BitSet blockGen = new BitSet();
       liveVariables.processBlockElements(block, blockKill, blockGen);
-      kill.put(block, blockKill);
-      gen.put(block, blockGen);
+      kill[block.id()] = blockKill;
+      gen[block.id()] = blockGen;
     }
-    liveVariables.analyzeCFG(liveVariables.in, kill, gen);
-    // out of exit block are empty by definition.
-    if (!liveVariables.out.get(liveVariables.cfg.reversedBlocks().get(0)).isEmpty()) {
-      throw new IllegalStateException("Out of exit block should be empty");
-    }
-
-    // Make things immutable.
-    for (Map.Entry<CFG.Block, Set<Symbol>> blockSetEntry : liveVariables.out.entrySet()) {
-      blockSetEntry.setValue(Collections.unmodifiableSet(blockSetEntry.getValue()));
-    }
-
+    int words = BitVectorDataflow.words(liveVariables.symbols.size());
+    liveVariables.dataflow = BitVectorDataflow.solve(cfg, BitVectorDataflow.Direction.BACKWARD, toBitVectors(gen, words), toBitVectors(kill, words));
     return liveVariables;
   }
 
-  private void analyzeCFG(Map<CFG.Block, Set<Symbol>> in, Map<CFG.Block, Set<Symbol>> kill, Map<CFG.Block, Set<Symbol>> gen) {
-    Deque<CFG.Block> workList = new LinkedList<>();
-    workList.addAll(cfg.reversedBlocks());
-    while (!workList.isEmpty()) {
-      CFG.Block block = workList.removeFirst();
-
-      Set<Symbol> blockOut = out.computeIfAbsent(block, k -> new HashSet<>());
-      block.successors().stream().map(in::get).filter(Objects::nonNull).forEach(blockOut::addAll);
-      block.exceptions().stream().map(in::get).filter(Objects::nonNull).forEach(blockOut::addAll);
-      // in = gen and (out - kill)
-      Set<Symbol> newIn = new HashSet<>(gen.get(block));
-      newIn.addAll(SetUtils.difference(blockOut, kill.get(block)));
-
-      if (newIn.equals(in.get(block))) {
-        continue;
-      }
-      in.put(block, newIn);
-      block.predecessors().forEach(workList::addLast);
+  private static long[][] toBitVectors(BitSet[] sets, int words) {
+    long[][] bitVectors = new long[sets.length][];
+    for (int i = 0; i < sets.length; i++) {
+      bitVectors[i] = Arrays.copyOf(sets[i].toLongArray(), words);
     }
+    return bitVectors;
   }
 
-  private void processBlockElements(CFG.Block block, Set<Symbol> blockKill, Set<Symbol> blockGen) {
+  private void processBlockElements(CFG.Block block, BitSet blockKill, BitSet blockGen) {
     // process elements from bottom to top
     Set<Tree> assignmentLHS = new HashSet<>();
     for (Tree element : ListUtils.reverse(block.elements())) {
@@ -136,17 +112,16 @@ public class LiveVariables {
           processMemberSelect((MemberSelectExpressionTree) element, assignmentLHS, blockGen);
           break;
         case VARIABLE:
-          blockKill.add(((VariableTree) element).symbol());
-          blockGen.remove(((VariableTree) element).symbol());
+          kill(((VariableTree) element).symbol(), blockKill, blockGen);
           break;
         case LAMBDA_EXPRESSION:
-          blockGen.addAll(getUsedVariables(((LambdaExpressionTree) element).body(), cfg.methodSymbol()));
+          addAll(blockGen, getUsedVariables(((LambdaExpressionTree) element).body(), cfg.methodSymbol()));
           break;
         case METHOD_REFERENCE:
-          blockGen.addAll(getUsedVariables(((MethodReferenceTree) element).expression(), cfg.methodSymbol()));
+          addAll(blockGen, getUsedVariables(((MethodReferenceTree) element).expression(), cfg.methodSymbol()));
           break;
         case NEW_CLASS:
-          blockGen.addAll(getUsedVariables(((NewClassTree) element).classBody(), cfg.methodSymbol()));
+          addAll(blockGen, getUsedVariables(((NewClassTree) element).classBody(), cfg.methodSymbol()));
           break;
         default:
           // Ignore other kind of elements, no change of gen/kill
@@ -154,24 +129,30 @@ public class LiveVariables {
     }
   }
 
-  private void processIdentifier(IdentifierTree element, Set<Symbol> blockGen, Set<Tree> assignmentLHS) {
+  private void addAll(BitSet blockGen, Set<Symbol> usedVariables) {
+    for (Symbol usedVariable : usedVariables) {
+      blockGen.set(symbols.id(usedVariable));
+    }
+  }
+
+  private void processIdentifier(IdentifierTree element, BitSet blockGen, Set<Tree> assignmentLHS) {
     Symbol symbol = element.symbol();
     if (!assignmentLHS.contains(element) && includeSymbol(symbol)) {
-      blockGen.add(symbol);
+      blockGen.set(symbols.id(symbol));
     }
   }
 
-  private void processMemberSelect(MemberSelectExpressionTree element, Set<Tree> assignmentLHS, Set<Symbol> blockGen) {
+  private void processMemberSelect(MemberSelectExpressionTree element, Set<Tree> assignmentLHS, BitSet blockGen) {
     Symbol symbol;
     if (!assignmentLHS.contains(element) && includeFields) {
       symbol = getField(element);
       if (symbol != null) {
-        blockGen.add(symbol);
+        blockGen.set(symbols.id(symbol));
       }
     }
   }
 
-  private void processAssignment(AssignmentExpressionTree element, Set<Symbol> blockKill, Set<Symbol> blockGen, Set<Tree> assignmentLHS) {
+  private void processAssignment(AssignmentExpressionTree element, BitSet blockKill, BitSet blockGen, Set<Tree> assignmentLHS) {
     Symbol symbol = null;
     ExpressionTree lhs = element.variable();
     if (lhs.is(Kind.IDENTIFIER)) {
@@ -183,11 +164,16 @@ public class LiveVariables {
 
     if (symbol != null && includeSymbol(symbol)) {
       assignmentLHS.add(lhs);
-      blockGen.remove(symbol);
-      blockKill.add(symbol);
+      kill(symbol, blockKill, blockGen);
     }
   }
 
+  private void kill(Symbol symbol, BitSet blockKill, BitSet blockGen) {
+    int id = symbols.id(symbol);
+    blockGen.clear(id);
+    blockKill.set(id);
+  }
+
   private boolean includeSymbol(Symbol symbol) {
     return symbol.isLocalVariable() || (includeFields && isField(symbol));
   }
@@ -19,6 +19,7 @@ package org.sonar.java.matcher;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import javax.annotation.CheckForNull;
@@ -47,16 +48,25 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
   @Nullable
   private final Predicate<List<Type>> parametersPredicate;
 
+  /**
+   * The only method names accepted by the name predicate, or null when they are unknown, see {@link MethodMatchersList}
+   */
+  @Nullable
+  private final Set<String> names;
+
   public MethodMatchersBuilder() {
     this.typePredicate = null;
     this.namePredicate = null;
     this.parametersPredicate = null;
+    this.names = null;
   }
 
-  private MethodMatchersBuilder(@Nullable Predicate<Type> typePredicate, @Nullable Predicate<String> namePredicate, @Nullable Predicate<List<Type>> parametersPredicate) {
+  private MethodMatchersBuilder(@Nullable Predicate<Type> typePredicate, @Nullable Predicate<String> namePredicate, @Nullable Predicate<List<Type>> parametersPredicate,
+    @Nullable Set<String> names) {
     this.typePredicate = typePredicate;
     this.namePredicate = namePredicate;
     this.parametersPredicate = parametersPredicate;
+    this.names = names;
   }
 
   private static <T> Predicate<T> substituteAny(Predicate<T> predicate, String... elements) {
@@ -108,15 +118,16 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public NameBuilder ofType(Predicate<Type> typePredicate) {
-    return new MethodMatchersBuilder(or(this.typePredicate, typePredicate), namePredicate, parametersPredicate);
+    return new MethodMatchersBuilder(or(this.typePredicate, typePredicate), namePredicate, parametersPredicate, names);
   }
 
   @Override
   public ParametersBuilder names(String... names) {
-    return name(substituteAnyAndCreateEfficientPredicate(
+    Predicate<String> predicate = substituteAnyAndCreateEfficientPredicate(
       names,
       name -> name::equals,
-      nameList -> nameList::contains));
+      nameList -> nameList::contains);
+    return name(predicate, Arrays.asList(names).contains(ANY) ? null : SetUtils.immutableSetOf(names));
   }
 
   @Override
@@ -131,7 +142,17 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public ParametersBuilder name(Predicate<String> namePredicate) {
-    return new MethodMatchersBuilder(typePredicate, or(this.namePredicate, namePredicate), parametersPredicate);
+    return name(namePredicate, null);
+  }
+
+  private ParametersBuilder name(Predicate<String> namePredicate, @Nullable Set<String> names) {
+    Set<String> acceptedNames = this.namePredicate == null ? names : null;
+    return new MethodMatchersBuilder(typePredicate, or(this.namePredicate, namePredicate), parametersPredicate, acceptedNames);
+  }
+
+  @CheckForNull
+  Set<String> names() {
+    return names;
   }
 
   @Override
@@ -160,7 +181,7 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
 
   @Override
   public ParametersBuilder addParametersMatcher(Predicate<List<Type>> parametersPredicate) {
-    return new MethodMatchersBuilder(typePredicate, namePredicate, or(this.parametersPredicate, parametersPredicate));
+    return new MethodMatchersBuilder(typePredicate, namePredicate, or(this.parametersPredicate, parametersPredicate), names);
   }
 
   private static boolean exactMatchesParameters(List<Predicate<Type>> expectedTypes, List<Type> actualTypes) {
@@ -251,7 +272,7 @@ public class MethodMatchersBuilder implements MethodMatchers.TypeBuilder, Method
       typePredicate.test(type);
   }
 
-  private static IdentifierTree getIdentifier(MethodInvocationTree mit) {
+  static IdentifierTree getIdentifier(MethodInvocationTree mit) {
     // methodSelect can only be Tree.Kind.IDENTIFIER or Tree.Kind.MEMBER_SELECT
     if (mit.methodSelect().is(Tree.Kind.IDENTIFIER)) {
       return (IdentifierTree) mit.methodSelect();
@@ -17,7 +17,11 @@
 package org.sonar.java.matcher;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 import org.sonar.plugins.java.api.semantic.MethodMatchers;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
@@ -25,37 +29,76 @@ import org.sonar.plugins.java.api.tree.MethodReferenceTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.NewClassTree;
 
+/**
+ * Matches when any of the given matchers matches. Matchers restricted to some method names are indexed by these names, so that
+ * they are only evaluated on methods having one of them. Other matchers are evaluated on every method.
+ */
 public class MethodMatchersList implements MethodMatchers {
 
-  private List<? extends MethodMatchers> matchers;
+  private final Map<String, List<MethodMatchers>> matchersByName = new HashMap<>();
+  private final List<MethodMatchers> matchersOfAnyName = new ArrayList<>();
 
   public MethodMatchersList(List<? extends MethodMatchers> matchers) {
-    this.matchers = new ArrayList<>(matchers);
+    matchers.forEach(this::add);
+  }
+
+  private void add(MethodMatchers matcher) {
+    if (matcher instanceof MethodMatchersList matchersList) {
+      matchersList.matchersByName.forEach((name, matchers) -> matchersByName.computeIfAbsent(name, k -> new ArrayList<>()).addAll(matchers));
+      matchersOfAnyName.addAll(matchersList.matchersOfAnyName);
+    } else if (matcher instanceof MethodMatchersBuilder builder && builder.names() != null) {
+      Set<String> names = builder.names();
+      names.forEach(name -> matchersByName.computeIfAbsent(name, k -> new ArrayList<>()).add(matcher));
+    } else if (!(matcher instanceof NoneMethodMatchers)) {
+      matchersOfAnyName.add(matcher);
+    }
   }
 
   @Override
   public boolean matches(NewClassTree newClassTree) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(newClassTree));
+    return anyMatch(newClassTree.methodSymbol(), matcher -> matcher.matches(newClassTree));
   }
 
   @Override
   public boolean matches(MethodInvocationTree mit) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(mit));
+    return anyMatch(MethodMatchersBuilder.getIdentifier(mit).symbol(), matcher -> matcher.matches(mit));
   }
 
   @Override
   public boolean matches(MethodTree methodTree) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(methodTree));
+    return anyMatch(methodTree.symbol(), matcher -> matcher.matches(methodTree));
   }
 
   @Override
   public boolean matches(MethodReferenceTree methodReferenceTree) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(methodReferenceTree));
+    return anyMatch(methodReferenceTree.method().symbol(), matcher -> matcher.matches(methodReferenceTree));
   }
 
   @Override
   public boolean matches(Symbol symbol) {
-    return matchers.stream().anyMatch(matcher -> matcher.matches(symbol));
+    return anyMatch(symbol, matcher -> matcher.matches(symbol));
+  }
+
+  /**
+   * @param symbol the symbol tested by the matchers, only the ones accepting its name can match it
+   */
+  private boolean anyMatch(Symbol symbol, Predicate<MethodMatchers> matches) {
+    if (symbol.isMethodSymbol()) {
+      List<MethodMatchers> matchersOfName = matchersByName.get(symbol.name());
+      if (matchersOfName != null && anyMatch(matchersOfName, matches)) {
+        return true;
+      }
+    }
+    return anyMatch(matchersOfAnyName, matches);
+  }
+
+  private static boolean anyMatch(List<MethodMatchers> matchers, Predicate<MethodMatchers> matches) {
+    for (MethodMatchers matcher : matchers) {
+      if (matches.test(matcher)) {
+        return true;
+      }
+    }
+    return false;
   }
 
 }
@@ -0,0 +1,134 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.metrics;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import org.sonar.java.ast.visitors.CommentLinesVisitor;
+import org.sonar.java.model.InternalSyntaxToken;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.model.LineUtils;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Metrics of a file computed in a single pass over its tokens: comment lines, NOSONAR lines, and the lines holding code,
+ * from which the lines of code of any tree of the file are counted in constant time.
+ */
+final class FileMetrics {
+
+  private final int commentLines;
+  private final Set<Integer> noSonarLines;
+  /**
+   * Number of lines of code up to each line, included.
+   */
+  private final int[] linesOfCodeUpTo;
+
+  private FileMetrics(int commentLines, Set<Integer> noSonarLines, int[] linesOfCodeUpTo) {
+    this.commentLines = commentLines;
+    this.noSonarLines = noSonarLines;
+    this.linesOfCodeUpTo = linesOfCodeUpTo;
+  }
+
+  static FileMetrics compute(CompilationUnitTree tree) {
+    TokenVisitor visitor = new TokenVisitor();
+    visitor.analyzeCommentLines(tree);
+    BitSet codeLines = visitor.codeLines;
+    int[] linesOfCodeUpTo = new int[codeLines.length() + 1];
+    for (int line = 1; line < linesOfCodeUpTo.length; line++) {
+      linesOfCodeUpTo[line] = linesOfCodeUpTo[line - 1] + (codeLines.get(line) ? 1 : 0);
+    }
+    return new FileMetrics(visitor.commentLinesMetric(), Set.copyOf(visitor.noSonarLines()), linesOfCodeUpTo);
+  }
+
+  int commentLines() {
+    return commentLines;
+  }
+
+  Set<Integer> noSonarLines() {
+    return noSonarLines;
+  }
+
+  /**
+   * Lines of code of a tree of the file, that is the lines between its first and last tokens which hold code. The tokens
+   * of a tree being contiguous in the file, these are the lines holding its own tokens. The tokens of variables declared
+   * together, which share their type, and of C-style array types ("int a[]"), are not contiguous: their lines of code are
+   * the union of the lines of their children.
+   */
+  int linesOfCode(Tree tree) {
+    if (!tree.is(Tree.Kind.VARIABLE, Tree.Kind.ARRAY_TYPE)) {
+      SyntaxToken firstToken = tree.firstToken();
+      SyntaxToken lastToken = tree.lastToken();
+      if (firstToken == null || lastToken == null) {
+        return 0;
+      }
+      return linesOfCodeUpTo(LineUtils.startLine(lastToken)) - linesOfCodeUpTo(LineUtils.startLine(firstToken) - 1);
+    }
+    List<int[]> lineRanges = new ArrayList<>();
+    addLineRanges(tree, lineRanges);
+    lineRanges.sort(Comparator.comparingInt(range -> range[0]));
+    int linesOfCode = 0;
+    int lastCountedLine = 0;
+    for (int[] range : lineRanges) {
+      int firstLine = Math.max(range[0], lastCountedLine + 1);
+      if (firstLine <= range[1]) {
+        linesOfCode += linesOfCodeUpTo(range[1]) - linesOfCodeUpTo(firstLine - 1);
+        lastCountedLine = range[1];
+      }
+    }
+    return linesOfCode;
+  }
+
+  /**
+   * Adds the ranges of lines of the contiguous parts of a tree, from its first to its last line.
+   */
+  private static void addLineRanges(Tree tree, List<int[]> lineRanges) {
+    if (tree.is(Tree.Kind.VARIABLE, Tree.Kind.ARRAY_TYPE)) {
+      for (Tree child : ((JavaTree) tree).getChildren()) {
+        addLineRanges(child, lineRanges);
+      }
+      return;
+    }
+    SyntaxToken firstToken = tree.firstToken();
+    SyntaxToken lastToken = tree.lastToken();
+    if (firstToken != null && lastToken != null) {
+      lineRanges.add(new int[] {LineUtils.startLine(firstToken), LineUtils.startLine(lastToken)});
+    }
+  }
+
+  private int linesOfCodeUpTo(int line) {
+    return linesOfCodeUpTo[Math.min(line, linesOfCodeUpTo.length - 1)];
+  }
+
+  private static class TokenVisitor extends CommentLinesVisitor {
+
+    private final BitSet codeLines = new BitSet();
+
+    @Override
+    public void visitToken(SyntaxToken syntaxToken) {
+      if (!((InternalSyntaxToken) syntaxToken).isEOF()) {
+        codeLines.set(LineUtils.startLine(syntaxToken));
+      }
+      super.visitToken(syntaxToken);
+    }
+  }
+
+}
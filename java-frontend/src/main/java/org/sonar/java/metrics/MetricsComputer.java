@@ -16,131 +16,151 @@
  */
 package org.sonar.java.metrics;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import javax.annotation.CheckForNull;
 import org.sonar.java.annotations.VisibleForTesting;
 import org.sonar.java.ast.visitors.CognitiveComplexityVisitor;
-import org.sonar.java.ast.visitors.CommentLinesVisitor;
+import org.sonar.java.ast.visitors.CompilationUnitMetricsVisitor;
 import org.sonar.java.ast.visitors.ComplexityVisitor;
 import org.sonar.java.ast.visitors.LinesOfCodeVisitor;
-import org.sonar.java.ast.visitors.MethodNestingLevelVisitor;
-import org.sonar.java.ast.visitors.NumberOfAccessedVariablesVisitor;
+import org.sonar.java.ast.visitors.MethodMetricsVisitor;
 import org.sonar.java.ast.visitors.StatementVisitor;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
+/**
+ * Metrics of the trees of a file, computed once and shared by the sensors and checks. Results are keyed by tree identity.
+ * The metrics of a compilation unit (complexity nodes, number of statements, cognitive complexity of the file and of each of
+ * its methods) are computed together by a single walk of the compilation unit, the metrics of a method (complexity nodes,
+ * nesting level, accessed variables) by a single walk of the method, and the line-based metrics of a file (lines of code of
+ * any of its trees, comment lines, NOSONAR lines) by a single pass over its tokens. The complexity and the number of statements
+ * of the other trees are computed by their own visitors, at most once per tree.
+ */
 public class MetricsComputer {
 
-  private final Map<Integer, List<Tree>> methodComplexityNodes = new HashMap<>();
-  private final Map<Integer, CognitiveComplexityVisitor.Result> methodComplexity = new HashMap<>();
-  private final Map<Integer, Integer> compilationUnityComplexity = new HashMap<>();
-  private final Map<Integer, Integer> methodNumberOfAccessedVariables = new HashMap<>();
-  private final Map<Integer, Integer> treeLinesOfCode = new HashMap<>();
-  private final Map<Integer, Integer> treeNumberOfStatements = new HashMap<>();
-  private final Map<Integer, Integer> treeNumberOfCommentedLines = new HashMap<>();
-  private final Map<Integer, Set<Integer>> treeNoSonarLines = new HashMap<>();
-  private final Map<Integer, Integer> methodNestingLevel = new HashMap<>();
+  private final Map<Tree, List<Tree>> complexityNodes = new IdentityHashMap<>();
+  private final Map<MethodTree, MethodMetricsVisitor.Result> methodMetrics = new IdentityHashMap<>();
+  private final Map<MethodTree, CognitiveComplexityVisitor.Result> methodComplexity = new IdentityHashMap<>();
+  private final Map<CompilationUnitTree, CompilationUnitMetricsVisitor.Result> compilationUnitMetrics = new IdentityHashMap<>();
+  private final Map<Tree, Integer> treeNumberOfStatements = new IdentityHashMap<>();
+  private final Map<CompilationUnitTree, FileMetrics> fileMetrics = new IdentityHashMap<>();
 
-  ComplexityVisitor complexityVisitor = new ComplexityVisitor();
+  private final ComplexityVisitor complexityVisitor = new ComplexityVisitor();
+  private final MethodMetricsVisitor methodMetricsVisitor = new MethodMetricsVisitor();
+  private final LinesOfCodeVisitor linesOfCodeVisitor = new LinesOfCodeVisitor();
+  private final StatementVisitor numberOfStatementsVisitor = new StatementVisitor();
 
   public List<Tree> getComplexityNodes(Tree tree) {
-    return methodComplexityNodes.computeIfAbsent(tree.hashCode(), k -> complexityVisitor.getNodes(tree));
+    if (tree.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR)) {
+      return getMethodMetrics((MethodTree) tree).complexityNodes();
+    }
+    if (tree instanceof CompilationUnitTree compilationUnit) {
+      return getCompilationUnitMetrics(compilationUnit).complexityNodes();
+    }
+    // the visitor reuses its result list from one tree to the next
+    return complexityNodes.computeIfAbsent(tree, k -> new ArrayList<>(complexityVisitor.getNodes(tree)));
   }
 
   public CognitiveComplexityVisitor.Result getMethodComplexity(MethodTree tree) {
-    return methodComplexity.computeIfAbsent(tree.hashCode(), k -> CognitiveComplexityVisitor.methodComplexity(tree));
+    return methodComplexity.computeIfAbsent(tree, k -> {
+      CompilationUnitTree compilationUnit = compilationUnit(tree);
+      if (compilationUnit == null) {
+        return CognitiveComplexityVisitor.methodComplexity(tree);
+      }
+      return getCompilationUnitMetrics(compilationUnit).methodComplexity(tree);
+    });
   }
 
-  NumberOfAccessedVariablesVisitor methodBodyVisitor = new NumberOfAccessedVariablesVisitor();
-
   public int getNumberOfAccessedVariables(MethodTree tree) {
-    return methodNumberOfAccessedVariables.computeIfAbsent(tree.hashCode(), k -> methodBodyVisitor.getNumberOfAccessedVariables(tree));
+    return getMethodMetrics(tree).numberOfAccessedVariables();
   }
 
-  LinesOfCodeVisitor linesOfCodeVisitor = new LinesOfCodeVisitor();
+  public int getMethodNestingLevel(MethodTree tree) {
+    return getMethodMetrics(tree).nestingLevel();
+  }
 
-  public int getLinesOfCode(Tree tree) {
-    return treeLinesOfCode.computeIfAbsent(tree.hashCode(), k -> linesOfCodeVisitor.linesOfCode(tree));
+  private MethodMetricsVisitor.Result getMethodMetrics(MethodTree tree) {
+    return methodMetrics.computeIfAbsent(tree, methodMetricsVisitor::analyze);
   }
 
-  StatementVisitor numberOfStatementsVisitor = new StatementVisitor();
+  public int getLinesOfCode(Tree tree) {
+    CompilationUnitTree compilationUnit = compilationUnit(tree);
+    if (compilationUnit == null) {
+      // the lines of a tree outside of a file are only known from its own tokens
+      return linesOfCodeVisitor.linesOfCode(tree);
+    }
+    return getFileMetrics(compilationUnit).linesOfCode(tree);
+  }
 
   public int getNumberOfStatements(Tree tree) {
-    return treeNumberOfStatements.computeIfAbsent(tree.hashCode(), k -> numberOfStatementsVisitor.numberOfStatements(tree));
+    if (tree instanceof CompilationUnitTree compilationUnit) {
+      return getCompilationUnitMetrics(compilationUnit).numberOfStatements();
+    }
+    return treeNumberOfStatements.computeIfAbsent(tree, numberOfStatementsVisitor::numberOfStatements);
   }
 
-  CommentLinesVisitor commentedLineVisitor = new CommentLinesVisitor();
-
   public Integer getNumberOfCommentedLines(CompilationUnitTree tree) {
-    return treeNumberOfCommentedLines.computeIfAbsent(tree.hashCode(), k -> {
-      commentedLineVisitor.analyzeCommentLines(tree);
-      return commentedLineVisitor.commentLinesMetric();
-    });
+    return getFileMetrics(tree).commentLines();
   }
 
   public Set<Integer> getNoSonarLines(CompilationUnitTree tree) {
-    return treeNoSonarLines.computeIfAbsent(tree.hashCode(), k -> {
-      commentedLineVisitor.analyzeCommentLines(tree);
-      return commentedLineVisitor.noSonarLines();
-    });
+    return getFileMetrics(tree).noSonarLines();
   }
 
   public int getCompilationUnitComplexity(CompilationUnitTree tree) {
-    return compilationUnityComplexity.computeIfAbsent(tree.hashCode(), k -> CognitiveComplexityVisitor.compilationUnitComplexity(tree));
+    return getCompilationUnitMetrics(tree).cognitiveComplexity();
   }
 
-  MethodNestingLevelVisitor methodNestingVisitor = new MethodNestingLevelVisitor();
-
-  public int getMethodNestingLevel(MethodTree tree) {
-    return methodNestingLevel.computeIfAbsent(tree.hashCode(), k -> methodNestingVisitor.getMaxNestingLevel(tree));
+  private CompilationUnitMetricsVisitor.Result getCompilationUnitMetrics(CompilationUnitTree tree) {
+    return compilationUnitMetrics.computeIfAbsent(tree, CompilationUnitMetricsVisitor::analyze);
   }
 
-  @VisibleForTesting
-  Map<Integer, List<Tree>> getMethodComplexityNodes() {
-    return methodComplexityNodes;
+  private FileMetrics getFileMetrics(CompilationUnitTree tree) {
+    return fileMetrics.computeIfAbsent(tree, FileMetrics::compute);
   }
 
-  @VisibleForTesting
-  Map<Integer, CognitiveComplexityVisitor.Result> getMethodComplexity() {
-    return methodComplexity;
+  @CheckForNull
+  private static CompilationUnitTree compilationUnit(Tree tree) {
+    Tree current = tree;
+    while (current.parent() != null) {
+      current = current.parent();
+    }
+    return current instanceof CompilationUnitTree compilationUnit ? compilationUnit : null;
   }
 
   @VisibleForTesting
-  Map<Integer, Integer> getCompilationUnityComplexity() {
-    return compilationUnityComplexity;
+  Map<Tree, List<Tree>> getComplexityNodes() {
+    return complexityNodes;
   }
 
   @VisibleForTesting
-  Map<Integer, Integer> getMethodNumberOfAccessedVariables() {
-    return methodNumberOfAccessedVariables;
+  Map<MethodTree, MethodMetricsVisitor.Result> getMethodMetrics() {
+    return methodMetrics;
   }
 
   @VisibleForTesting
-  Map<Integer, Integer> getTreeLinesOfCode() {
-    return treeLinesOfCode;
-  }
-
-  @VisibleForTesting
-  Map<Integer, Integer> getTreeNumberOfStatements() {
-    return treeNumberOfStatements;
+  Map<MethodTree, CognitiveComplexityVisitor.Result> getMethodComplexity() {
+    return methodComplexity;
   }
 
   @VisibleForTesting
-  Map<Integer, Integer> getTreeNumberOfCommentedLines() {
-    return treeNumberOfCommentedLines;
+  Map<CompilationUnitTree, CompilationUnitMetricsVisitor.Result> getCompilationUnitMetrics() {
+    return compilationUnitMetrics;
   }
 
   @VisibleForTesting
-  Map<Integer, Set<Integer>> getTreeNoSonarLines() {
-    return treeNoSonarLines;
+  Map<Tree, Integer> getTreeNumberOfStatements() {
+    return treeNumberOfStatements;
   }
 
   @VisibleForTesting
-  Map<Integer, Integer> getMethodNestingLevel() {
-    return methodNestingLevel;
+  Map<CompilationUnitTree, FileMetrics> getFileMetrics() {
+    return fileMetrics;
   }
 
 }
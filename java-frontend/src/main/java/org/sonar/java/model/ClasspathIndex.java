@@ -0,0 +1,154 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.jdt.internal.compiler.batch.ClasspathDirectory;
+import org.eclipse.jdt.internal.compiler.batch.ClasspathJar;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem;
+import org.eclipse.jdt.internal.compiler.batch.Main;
+import org.eclipse.jdt.internal.compiler.util.Util;
+import org.sonar.java.annotations.VisibleForTesting;
+
+/**
+ * Classpath entries shared by all the ECJ name environments of an analysis.
+ *
+ * ECJ opens every jar of the classpath again for each parser, and computes lazily the set of packages it contains. Keeping
+ * the entries here, each jar and class directory of the main, test and generated classpaths is opened and indexed once,
+ * whatever the number of batches and of parallel parsers. Other kinds of entries, like the runtime image of the running VM, are
+ * not shared: ECJ mutates them when initializing a name environment, they are created for each name environment and have to be
+ * {@link #release(List) released} once it is no longer used, as ECJ would do when cleaning up the environment.
+ * <p>
+ * Shared entries are read concurrently by the name environments of parallel parsers. Jars are fully initialized under the lock
+ * of the index before being handed out: reading a class then only goes through the {@link java.util.zip.ZipFile} of the jar,
+ * which is thread-safe, and through its package cache, which is no longer modified. Class directories keep their caches in
+ * concurrent maps.
+ * <p>
+ * Closing the index releases the jars, which otherwise remain locked on Windows (SONARJAVA-3609). It is the responsibility of
+ * whoever creates the index. It can still be used after being closed, the entries are then loaded again.
+ */
+public final class ClasspathIndex implements AutoCloseable {
+
+  private final Map<String, List<FileSystem.Classpath>> sharedEntriesByPath = new HashMap<>();
+  private final Set<FileSystem.Classpath> sharedEntries = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  /**
+   * Returns the entries of the given classpath, in the order ECJ would have created them for
+   * {@link org.eclipse.jdt.core.dom.ASTParser#setEnvironment(String[], String[], String[], boolean)}.
+   *
+   * @throws IllegalStateException if a classpath element is invalid, like ECJ does
+   */
+  public synchronized List<FileSystem.Classpath> entries(List<File> classpath, boolean includeRunningVMBootclasspath) {
+    List<FileSystem.Classpath> entries = new ArrayList<>();
+    if (includeRunningVMBootclasspath) {
+      Util.collectRunningVMBootclasspath(entries);
+    }
+    for (File file : classpath) {
+      entries.addAll(entries(file.getAbsolutePath()));
+    }
+    return entries;
+  }
+
+  private List<FileSystem.Classpath> entries(String path) {
+    List<FileSystem.Classpath> entriesOfPath = sharedEntriesByPath.get(path);
+    if (entriesOfPath != null) {
+      return entriesOfPath;
+    }
+    List<FileSystem.Classpath> loadedEntries = load(path);
+    if (!loadedEntries.stream().allMatch(ClasspathIndex::isShareable)) {
+      return loadedEntries;
+    }
+    entriesOfPath = initialize(loadedEntries);
+    sharedEntriesByPath.put(path, entriesOfPath);
+    sharedEntries.addAll(entriesOfPath);
+    return entriesOfPath;
+  }
+
+  /**
+   * Releases the entries, returned by {@link #entries(List, boolean)}, which are not shared. Shared entries are left untouched,
+   * they are only released when closing the index.
+   */
+  public synchronized void release(List<FileSystem.Classpath> entries) {
+    for (FileSystem.Classpath entry : entries) {
+      if (!sharedEntries.contains(entry)) {
+        entry.reset();
+      }
+    }
+  }
+
+  @VisibleForTesting
+  synchronized int sharedEntriesCount() {
+    return sharedEntriesByPath.values().stream().mapToInt(List::size).sum();
+  }
+
+  @Override
+  public synchronized void close() {
+    sharedEntriesByPath.values().forEach(entries -> entries.forEach(FileSystem.Classpath::reset));
+    sharedEntriesByPath.clear();
+    sharedEntries.clear();
+  }
+
+  private static List<FileSystem.Classpath> load(String path) {
+    // Same processing as org.eclipse.jdt.core.dom.ASTParser#getClasspath(), for a single element
+    Main main = new Main(new PrintWriter(System.out), new PrintWriter(System.err), false, null, null);
+    ArrayList<FileSystem.Classpath> entries = new ArrayList<>();
+    main.processPathEntries(Main.DEFAULT_SIZE_CLASSPATH, entries, path, null, false, false);
+    if (main.pendingErrors != null && !main.pendingErrors.isEmpty()) {
+      throw new IllegalStateException("invalid environment settings");
+    }
+    return entries;
+  }
+
+  private static boolean isShareable(FileSystem.Classpath entry) {
+    // subclasses, like multi-release jars or jmod files, keep more state
+    return entry.getClass() == ClasspathJar.class || entry.getClass() == ClasspathDirectory.class;
+  }
+
+  private static List<FileSystem.Classpath> initialize(List<FileSystem.Classpath> entries) {
+    List<FileSystem.Classpath> initialized = new ArrayList<>(entries.size());
+    for (FileSystem.Classpath entry : entries) {
+      if (tryInitialize(entry)) {
+        initialized.add(entry);
+      }
+    }
+    return initialized;
+  }
+
+  private static boolean tryInitialize(FileSystem.Classpath entry) {
+    try {
+      entry.initialize();
+    } catch (IOException e) {
+      // such entries are ignored by ECJ as well, see org.eclipse.jdt.internal.compiler.batch.FileSystem
+      return false;
+    }
+    if (entry instanceof ClasspathJar jar) {
+      // computes the package cache of the jar, which is otherwise lazily computed by the first lookup
+      jar.getModulesDeclaringPackage("", null);
+    }
+    return true;
+  }
+
+}
@@ -16,9 +16,11 @@
  */
 package org.sonar.java.model;
 
+import java.util.Optional;
 import javax.annotation.Nullable;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.java.SonarComponents;
+import org.sonar.java.caching.AnalysisResultRecorder;
 import org.sonar.plugins.java.api.InputFileScannerContext;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaVersion;
@@ -53,4 +55,8 @@ public class DefaultInputFileScannerContext extends DefaultModuleScannerContext
     return inputFile;
   }
 
+  public Optional<AnalysisResultRecorder> analysisResultRecorder() {
+    return sonarComponents == null ? Optional.empty() : sonarComponents.analysisResultRecorder();
+  }
+
 }
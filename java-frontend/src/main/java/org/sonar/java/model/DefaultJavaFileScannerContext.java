@@ -26,11 +26,14 @@ import org.sonar.api.batch.fs.InputComponent;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.ast.visitors.ComplexityVisitor;
+import org.sonar.java.cfg.CFGCache;
+import org.sonar.java.cfg.CFGScannerContext;
 import org.sonar.java.metrics.MetricsComputer;
 import org.sonar.java.metrics.MetricsScannerContext;
 import org.sonar.java.regex.RegexCache;
 import org.sonar.java.regex.RegexCheck;
 import org.sonar.java.regex.RegexScannerContext;
+import org.sonar.java.regex.RegexVerdictCache;
 import org.sonar.java.reporting.AnalyzerMessage;
 import org.sonar.java.reporting.FluentReporting;
 import org.sonar.java.reporting.InternalJavaIssueBuilder;
@@ -48,12 +51,15 @@ import org.sonarsource.analyzer.commons.regex.RegexParseResult;
 import org.sonarsource.analyzer.commons.regex.ast.FlagSet;
 import org.sonarsource.analyzer.commons.regex.ast.RegexSyntaxElement;
 
-public class DefaultJavaFileScannerContext extends DefaultInputFileScannerContext implements JavaFileScannerContext, RegexScannerContext, FluentReporting, MetricsScannerContext {
+public class DefaultJavaFileScannerContext extends DefaultInputFileScannerContext implements JavaFileScannerContext, RegexScannerContext, FluentReporting, MetricsScannerContext, CFGScannerContext {
   private final JavaTree.CompilationUnitTreeImpl tree;
   private final boolean semanticEnabled;
   private final ComplexityVisitor complexityVisitor;
   private final RegexCache regexCache;
+  @Nullable
+  private RegexVerdictCache regexVerdicts;
   private final MetricsComputer metricsComputer;
+  private final CFGCache cfgCache;
   private final boolean fileParsed;
 
   private List<String> lines = null;
@@ -68,6 +74,7 @@ public class DefaultJavaFileScannerContext extends DefaultInputFileScannerContex
     this.complexityVisitor = new ComplexityVisitor();
     this.regexCache = new RegexCache();
     this.metricsComputer = new MetricsComputer();
+    this.cfgCache = new CFGCache();
     this.fileParsed = fileParsed;
   }
 
@@ -140,6 +147,18 @@ public class DefaultJavaFileScannerContext extends DefaultInputFileScannerContex
     return regexCache.getRegexForLiterals(initialFlags, stringLiterals);
   }
 
+  @Override
+  public RegexVerdictCache regexVerdicts() {
+    if (sonarComponents != null) {
+      return sonarComponents.regexVerdicts();
+    }
+    if (regexVerdicts == null) {
+      // without analysis, the verdicts are only shared by the checks of this file
+      regexVerdicts = new RegexVerdictCache();
+    }
+    return regexVerdicts;
+  }
+
   @Override
   public void reportIssue(JavaCheck javaCheck, Tree syntaxNode, String message, List<Location> secondary, @Nullable Integer cost) {
     List<List<Location>> flows = secondary.stream().map(Collections::singletonList).toList();
@@ -240,4 +259,9 @@ public class DefaultJavaFileScannerContext extends DefaultInputFileScannerContex
   public MetricsComputer getMetricsComputer() {
     return metricsComputer;
   }
+
+  @Override
+  public CFGCache getCFGCache() {
+    return cfgCache;
+  }
 }
@@ -24,6 +24,7 @@ import org.sonar.api.batch.fs.InputComponent;
 import org.sonar.api.config.Configuration;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.caching.CacheContextImpl;
+import org.sonar.java.caching.ProjectIndex;
 import org.sonar.java.reporting.AnalyzerMessage;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaVersion;
@@ -35,6 +36,7 @@ public class DefaultModuleScannerContext implements ModuleScannerContext {
   protected final JavaVersion javaVersion;
   protected final boolean inAndroidContext;
   protected final CacheContext cacheContext;
+  private ProjectIndex projectIndex = new ProjectIndex();
 
   public DefaultModuleScannerContext(@Nullable SonarComponents sonarComponents, JavaVersion javaVersion, boolean inAndroidContext,
     @Nullable CacheContext cacheContext) {
@@ -73,6 +75,17 @@ public class DefaultModuleScannerContext implements ModuleScannerContext {
     return cacheContext;
   }
 
+  /**
+   * @return the declarations of the files analyzed so far, complete at the end of the analysis
+   */
+  public ProjectIndex projectIndex() {
+    return projectIndex;
+  }
+
+  public void setProjectIndex(ProjectIndex projectIndex) {
+    this.projectIndex = projectIndex;
+  }
+
   public void reportIssue(AnalyzerMessage message) {
     sonarComponents.reportIssue(message);
   }
@@ -18,38 +18,52 @@ package org.sonar.java.model;
 
 import java.util.List;
 import org.sonar.java.model.location.InternalPosition;
+import org.sonar.plugins.java.api.location.Position;
 import org.sonar.plugins.java.api.location.Range;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.TreeVisitor;
 
+/**
+ * Tokens are the most numerous nodes of the syntax trees, so they only keep their start as two ints, and their range is computed
+ * when requested. Their text is shared with the other tokens of the same text, see {@link TokenStore#text(int)}.
+ */
 public class InternalSyntaxToken extends JavaTree implements SyntaxToken {
 
   private final List<SyntaxTrivia> trivias;
-  private final Range range;
   private final String value;
+  private final int line;
+  private final int columnOffset;
   private final boolean isEOF;
 
   protected InternalSyntaxToken(InternalSyntaxToken internalSyntaxToken) {
     this.value = internalSyntaxToken.value;
-    this.range = internalSyntaxToken.range;
+    this.line = internalSyntaxToken.line;
+    this.columnOffset = internalSyntaxToken.columnOffset;
     this.trivias = internalSyntaxToken.trivias;
     this.isEOF = internalSyntaxToken.isEOF;
   }
 
   public InternalSyntaxToken(int line, int columnOffset, String value, List<SyntaxTrivia> trivias, boolean isEOF) {
     this.value = value;
+    this.line = line;
+    this.columnOffset = columnOffset;
     this.trivias = trivias;
     this.isEOF = isEOF;
-    range = value.startsWith("\"\"\"")
-      ? Range.at(InternalPosition.atOffset(line, columnOffset), value)
-      : Range.at(InternalPosition.atOffset(line, columnOffset), value.length());
   }
 
   @Override
   public Range range() {
-    return range;
+    Position start = InternalPosition.atOffset(line, columnOffset);
+    return isTextBlock() ? Range.at(start, value) : Range.at(start, value.length());
+  }
+
+  /**
+   * Text blocks are the only tokens which can span several lines.
+   */
+  boolean isTextBlock() {
+    return value.startsWith("\"\"\"");
   }
 
   @Override
@@ -79,17 +93,17 @@ public class InternalSyntaxToken extends JavaTree implements SyntaxToken {
 
   @Override
   public int getLine() {
-    return range.start().line();
+    return line;
   }
 
   @Override
   public int line() {
-    return range.start().line();
+    return line;
   }
 
   @Override
   public int column() {
-    return range.start().columnOffset();
+    return columnOffset;
   }
 
   @Override
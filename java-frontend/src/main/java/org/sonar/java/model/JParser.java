@@ -29,11 +29,11 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.eclipse.jdt.core.compiler.IProblem;
-import org.eclipse.jdt.core.compiler.InvalidInputException;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
@@ -149,12 +149,7 @@ import org.eclipse.jdt.core.dom.VariableDeclarationStatement;
 import org.eclipse.jdt.core.dom.WhileStatement;
 import org.eclipse.jdt.core.dom.WildcardType;
 import org.eclipse.jdt.core.dom.YieldStatement;
-import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
-import org.eclipse.jdt.internal.compiler.parser.Scanner;
 import org.eclipse.jdt.internal.compiler.parser.TerminalToken;
-import org.eclipse.jdt.internal.formatter.DefaultCodeFormatterOptions;
-import org.eclipse.jdt.internal.formatter.Token;
-import org.eclipse.jdt.internal.formatter.TokenManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.java.annotations.VisibleForTesting;
@@ -227,6 +222,7 @@ import org.sonar.java.model.statement.ThrowStatementTreeImpl;
 import org.sonar.java.model.statement.TryStatementTreeImpl;
 import org.sonar.java.model.statement.WhileStatementTreeImpl;
 import org.sonar.java.model.statement.YieldStatementTreeImpl;
+import org.sonar.java.telemetry.AnalysisEvents;
 import org.sonar.plugins.java.api.tree.AnnotationTree;
 import org.sonar.plugins.java.api.tree.ArrayDimensionTree;
 import org.sonar.plugins.java.api.tree.ArrayTypeTree;
@@ -276,21 +272,66 @@ public class JParser {
    * @throws RecognitionException in case of syntax errors
    */
   public static JavaTree.CompilationUnitTreeImpl parse(ASTParser astParser, String version, String unitName, String source) {
+    return convert(version, unitName, source, createAST(astParser, unitName, source));
+  }
+
+  /**
+   * @param ecjParser creates the ECJ tree of the source, with resolved bindings
+   * @throws RecognitionException in case of syntax errors
+   */
+  static JavaTree.CompilationUnitTreeImpl parse(Supplier<CompilationUnit> ecjParser, String version, String unitName, String source) {
+    return convert(version, unitName, source, createAST(ecjParser, unitName));
+  }
+
+  static CompilationUnit createAST(ASTParser astParser, String unitName, String source) {
     astParser.setUnitName(unitName);
     astParser.setSource(source.toCharArray());
+    return createAST(() -> (CompilationUnit) astParser.createAST(null), unitName);
+  }
 
-    CompilationUnit astNode;
+  /**
+   * @param ecjParser creates the ECJ tree of the source, with resolved bindings
+   * @return the ECJ tree, which still has to be converted
+   */
+  static CompilationUnit createAST(Supplier<CompilationUnit> ecjParser, String unitName) {
+    AnalysisEvents.Parse parseEvent = new AnalysisEvents.Parse();
+    parseEvent.begin();
     try {
-      astNode = (CompilationUnit) astParser.createAST(null);
+      return ecjParser.get();
     } catch (Exception e) {
       LOG.error("ECJ: Unable to parse file", e);
       throw new RecognitionException(-1, "ECJ: Unable to parse file.", e);
+    } finally {
+      if (parseEvent.shouldCommit()) {
+        parseEvent.file = unitName;
+        parseEvent.files = 1;
+        parseEvent.commit();
+      }
     }
-
-    return convert(version, unitName, source, astNode);
   }
 
   static JavaTree.CompilationUnitTreeImpl convert(String version, String unitName, String source, CompilationUnit astNode) {
+    return convert(version, unitName, source, astNode, new SubtypeCache());
+  }
+
+  /**
+   * @param subtypeCache shared by the compilation units resolved by the same name environment
+   */
+  static JavaTree.CompilationUnitTreeImpl convert(String version, String unitName, String source, CompilationUnit astNode, SubtypeCache subtypeCache) {
+    AnalysisEvents.Convert convertEvent = new AnalysisEvents.Convert();
+    convertEvent.begin();
+    try {
+      return convertCompilationUnit(version, unitName, source, astNode, subtypeCache);
+    } finally {
+      if (convertEvent.shouldCommit()) {
+        convertEvent.file = unitName;
+        convertEvent.commit();
+      }
+    }
+  }
+
+  private static JavaTree.CompilationUnitTreeImpl convertCompilationUnit(String version, String unitName, String source, CompilationUnit astNode,
+    SubtypeCache subtypeCache) {
     List<IProblem> errors = Stream.of(astNode.getProblems()).filter(IProblem::isError).toList();
     Optional<IProblem> possibleSyntaxError = errors.stream().filter(IS_SYNTAX_ERROR).findFirst();
     LineColumnConverter lineColumnConverter = new LineColumnConverter(source);
@@ -310,10 +351,10 @@ public class JParser {
       .collect(Collectors.toSet());
 
     JParser converter = new JParser();
-    converter.sema = new JSema(astNode.getAST());
+    converter.sema = new JSema(astNode.getAST(), subtypeCache);
     converter.sema.undefinedTypes.addAll(undefinedTypes);
     converter.compilationUnit = astNode;
-    converter.tokenManager = createTokenManager(version, unitName, source);
+    converter.tokens = TokenStore.lex(version, unitName, source);
     converter.lineColumnConverter = lineColumnConverter;
 
     JavaTree.CompilationUnitTreeImpl tree = converter.convertCompilationUnit(astNode);
@@ -326,11 +367,6 @@ public class JParser {
     return tree;
   }
 
-  @VisibleForTesting
-  static TokenManager createTokenManager(String version, String unitName, String source) {
-    return new TokenManager(lex(version, unitName, source.toCharArray()), source, new DefaultCodeFormatterOptions(new HashMap<>()));
-  }
-
   private static void setParents(Tree node) {
     Iterator<Tree> childrenIterator = iteratorFor(node);
     while (childrenIterator.hasNext()) {
@@ -348,38 +384,9 @@ public class JParser {
     return ((JavaTree) node).getChildren().iterator();
   }
 
-  @VisibleForTesting
-  static List<Token> lex(String version, String unitName, char[] sourceChars) {
-    List<Token> tokens = new ArrayList<>();
-    Scanner scanner = new Scanner(
-      true,
-      false,
-      false,
-      CompilerOptions.versionToJdkLevel(version),
-      null,
-      null,
-      false
-    );
-    scanner.fakeInModule = "module-info.java".equals(unitName);
-    scanner.setSource(sourceChars);
-    while (true) {
-      try {
-        TerminalToken tokenType = scanner.getNextToken();
-        Token token = Token.fromCurrent(scanner, tokenType);
-        tokens.add(token);
-        if (tokenType == TerminalToken.TokenNameEOF) {
-          break;
-        }
-      } catch (InvalidInputException e) {
-        throw new IllegalStateException(e);
-      }
-    }
-    return tokens;
-  }
-
   private CompilationUnit compilationUnit;
 
-  private TokenManager tokenManager;
+  private TokenStore tokens;
   private LineColumnConverter lineColumnConverter;
 
   private JSema sema;
@@ -415,8 +422,8 @@ public class JParser {
   }
 
   private int firstTokenIndexAfter(ASTNode e) {
-    int index = tokenManager.firstIndexAfter(e, ANY_TOKEN);
-    while (isComment(tokenManager.get(index))) {
+    int index = tokens.firstIndexAfter(e, ANY_TOKEN);
+    while (tokens.isComment(index)) {
       index++;
     }
     return index;
@@ -429,7 +436,7 @@ public class JParser {
     assert tokenType != ANY_TOKEN;
     do {
       tokenIndex += 1;
-    } while (tokenManager.get(tokenIndex).tokenType != tokenType);
+    } while (tokens.type(tokenIndex) != tokenType);
     return tokenIndex;
   }
 
@@ -437,21 +444,21 @@ public class JParser {
    * @param tokenType {@link TerminalToken}
    */
   private InternalSyntaxToken firstTokenBefore(ASTNode e, TerminalToken tokenType) {
-    return createSyntaxToken(tokenManager.firstIndexBefore(e, tokenType));
+    return createSyntaxToken(tokens.firstIndexBefore(e, tokenType));
   }
 
   /**
    * @param tokenType {@link TerminalToken}
    */
   private InternalSyntaxToken firstTokenAfter(ASTNode e, TerminalToken tokenType) {
-    return createSyntaxToken(tokenManager.firstIndexAfter(e, tokenType));
+    return createSyntaxToken(tokens.firstIndexAfter(e, tokenType));
   }
 
   /**
    * @param tokenType {@link TerminalToken}
    */
   private InternalSyntaxToken firstTokenIn(ASTNode e, TerminalToken tokenType) {
-    return createSyntaxToken(tokenManager.firstIndexIn(e, tokenType));
+    return createSyntaxToken(tokens.firstIndexIn(e, tokenType));
   }
 
   /**
@@ -460,12 +467,12 @@ public class JParser {
    * @return {@link TerminalToken}
    */
   @VisibleForTesting
-  static int firstIndexIn(TokenManager tokenManager, ASTNode e, TerminalToken tokenTypeCandidateA, TerminalToken tokenTypeCandidateB) {
-    int first = tokenManager.firstIndexIn(e, ANY_TOKEN);
-    int last = tokenManager.lastIndexIn(e, ANY_TOKEN);
+  static int firstIndexIn(TokenStore tokens, ASTNode e, TerminalToken tokenTypeCandidateA, TerminalToken tokenTypeCandidateB) {
+    int first = tokens.firstIndexIn(e, ANY_TOKEN);
+    int last = tokens.lastIndexIn(e, ANY_TOKEN);
     for (int tokenIndex = first; tokenIndex <= last; tokenIndex++) {
-      Token token = tokenManager.get(tokenIndex);
-      if (token.tokenType == tokenTypeCandidateA || token.tokenType == tokenTypeCandidateB) {
+      TerminalToken tokenType = tokens.type(tokenIndex);
+      if (tokenType == tokenTypeCandidateA || tokenType == tokenTypeCandidateB) {
         return tokenIndex;
       }
     }
@@ -477,44 +484,45 @@ public class JParser {
    * @param tokenType {@link TerminalToken}
    */
   private InternalSyntaxToken lastTokenIn(ASTNode e, TerminalToken tokenType) {
-    return createSyntaxToken(tokenManager.lastIndexIn(e, tokenType));
+    return createSyntaxToken(tokens.lastIndexIn(e, tokenType));
   }
 
   private InternalSyntaxToken createSyntaxToken(int tokenIndex) {
-    Token t = tokenManager.get(tokenIndex);
     String value;
     boolean isEOF;
-    if (t.tokenType == TerminalToken.TokenNameEOF) {
+    if (tokens.type(tokenIndex) == TerminalToken.TokenNameEOF) {
       isEOF = true;
       value = "";
     } else {
       isEOF = false;
-      value = t.toString(tokenManager.getSource());
+      value = tokens.text(tokenIndex);
     }
-    LineColumnConverter.Pos pos = lineColumnConverter.toPos(t.originalStart);
+    LineColumnConverter.Pos pos = lineColumnConverter.toPos(tokens.start(tokenIndex));
     return new InternalSyntaxToken(pos.line(), pos.columnOffset(), value, collectComments(tokenIndex), isEOF);
   }
 
   private InternalSyntaxToken createSpecialToken(int tokenIndex) {
-    Token t = tokenManager.get(tokenIndex);
-    List<SyntaxTrivia> comments = t.tokenType == TerminalToken.TokenNameGREATER
+    List<SyntaxTrivia> comments = tokens.type(tokenIndex) == TerminalToken.TokenNameGREATER
       ? collectComments(tokenIndex)
       : Collections.emptyList();
-    LineColumnConverter.Pos pos = lineColumnConverter.toPos(t.originalEnd);
+    LineColumnConverter.Pos pos = lineColumnConverter.toPos(tokens.end(tokenIndex));
     return new InternalSyntaxToken(pos.line(), pos.columnOffset(), ">", comments, false);
   }
 
   private List<SyntaxTrivia> collectComments(int tokenIndex) {
     int commentIndex = tokenIndex;
-    while (commentIndex > 0 && isComment(tokenManager.get(commentIndex - 1))) {
+    while (commentIndex > 0 && tokens.isComment(commentIndex - 1)) {
       commentIndex--;
     }
-    List<SyntaxTrivia> comments = new ArrayList<>();
+    if (commentIndex == tokenIndex) {
+      // most tokens have no comments, they share the same empty list
+      return Collections.emptyList();
+    }
+    List<SyntaxTrivia> comments = new ArrayList<>(tokenIndex - commentIndex);
     for (int i = commentIndex; i < tokenIndex; i++) {
-      Token t = tokenManager.get(i);
-      LineColumnConverter.Pos pos = lineColumnConverter.toPos(t.originalStart);
-      comments.add(new InternalSyntaxTrivia(convertTokenTypeToCommentKind(t),
-        t.toString(tokenManager.getSource()),
+      LineColumnConverter.Pos pos = lineColumnConverter.toPos(tokens.start(i));
+      comments.add(new InternalSyntaxTrivia(convertTokenTypeToCommentKind(tokens.type(i)),
+        tokens.text(i),
         pos.line(),
         pos.columnOffset()
       ));
@@ -523,37 +531,23 @@ public class JParser {
   }
 
   @VisibleForTesting
-  static CommentKind convertTokenTypeToCommentKind(Token token) {
-    return switch (token.tokenType) {
+  static CommentKind convertTokenTypeToCommentKind(TerminalToken tokenType) {
+    return switch (tokenType) {
       case TokenNameCOMMENT_BLOCK -> CommentKind.BLOCK;
       case TokenNameCOMMENT_JAVADOC -> CommentKind.JAVADOC;
       case TokenNameCOMMENT_LINE -> CommentKind.LINE;
       case TokenNameCOMMENT_MARKDOWN -> CommentKind.MARKDOWN;
-      default -> throw new IllegalStateException("Unexpected value: " + token.tokenType);
-    };
-  }
-
-  /**
-   * {@link Token#isComment()} has an issue https://github.com/eclipse-jdt/eclipse.jdt.core/issues/3914
-   * it does not support Markdown comments. This method has to be used instead.
-   */
-  @VisibleForTesting
-  static boolean isComment(Token token) {
-    return switch (token.tokenType) {
-      case TokenNameCOMMENT_BLOCK, TokenNameCOMMENT_JAVADOC, TokenNameCOMMENT_LINE, TokenNameCOMMENT_MARKDOWN -> true;
-      default -> false;
+      default -> throw new IllegalStateException("Unexpected value: " + tokenType);
     };
   }
 
   private void addEmptyStatementsToList(int tokenIndex, List list) {
     while (true) {
-      Token token;
       do {
         tokenIndex++;
-        token = tokenManager.get(tokenIndex);
-      } while (isComment(token));
+      } while (tokens.isComment(tokenIndex));
 
-      if (token.tokenType != TerminalToken.TokenNameSEMICOLON) {
+      if (tokens.type(tokenIndex) != TerminalToken.TokenNameSEMICOLON) {
         break;
       }
       list.add(new EmptyStatementTreeImpl(createSyntaxToken(tokenIndex)));
@@ -591,7 +585,7 @@ public class JParser {
       t.binding = e2.resolveBinding();
       imports.add(t);
 
-      int tokenIndex = tokenManager.lastIndexIn(e2, TerminalToken.TokenNameSEMICOLON);
+      int tokenIndex = tokens.lastIndexIn(e2, TerminalToken.TokenNameSEMICOLON);
       addEmptyStatementsToList(tokenIndex, imports);
     }
 
@@ -878,12 +872,12 @@ public class JParser {
     if (e.getNodeType() == ASTNode.ENUM_DECLARATION) {
       EnumDeclaration enumDeclaration = (EnumDeclaration) e;
       if (!enumDeclaration.enumConstants().isEmpty()) {
-        return tokenManager.firstIndexBefore((ASTNode) enumDeclaration.enumConstants().get(0), TerminalToken.TokenNameLBRACE);
+        return tokens.firstIndexBefore((ASTNode) enumDeclaration.enumConstants().get(0), TerminalToken.TokenNameLBRACE);
       }
       if (!enumDeclaration.bodyDeclarations().isEmpty()) {
-        return tokenManager.firstIndexBefore((ASTNode) e.bodyDeclarations().get(0), TerminalToken.TokenNameLBRACE);
+        return tokens.firstIndexBefore((ASTNode) e.bodyDeclarations().get(0), TerminalToken.TokenNameLBRACE);
       }
-      return tokenManager.lastIndexIn(e, TerminalToken.TokenNameLBRACE);
+      return tokens.lastIndexIn(e, TerminalToken.TokenNameLBRACE);
     }
     if (!e.bodyDeclarations().isEmpty()) {
       // for records, bodyDeclarations may not be in the order encountered in file, for classes they are
@@ -895,9 +889,9 @@ public class JParser {
           firstDeclaration = declaration;
         }
       }
-      return tokenManager.firstIndexBefore(firstDeclaration, TerminalToken.TokenNameLBRACE);
+      return tokens.firstIndexBefore(firstDeclaration, TerminalToken.TokenNameLBRACE);
     }
-    return tokenManager.lastIndexIn(e, TerminalToken.TokenNameLBRACE);
+    return tokens.lastIndexIn(e, TerminalToken.TokenNameLBRACE);
   }
 
   private void completeSuperInterfaces(AbstractTypeDeclaration e, ClassTreeImpl t) {
@@ -942,7 +936,7 @@ public class JParser {
     final int openParTokenIndex = firstTokenIndexAfter(e.getName());
     final InternalSyntaxToken openParToken;
     final InternalSyntaxToken closeParToken;
-    if (tokenManager.get(openParTokenIndex).tokenType == TerminalToken.TokenNameLPAREN) {
+    if (tokens.type(openParTokenIndex) == TerminalToken.TokenNameLPAREN) {
       openParToken = createSyntaxToken(openParTokenIndex);
       closeParToken = e.arguments().isEmpty()
         ? firstTokenAfter(e.getName(), TerminalToken.TokenNameRPAREN)
@@ -971,7 +965,7 @@ public class JParser {
 
     final int separatorTokenIndex = firstTokenIndexAfter(e);
     final InternalSyntaxToken separatorToken;
-    switch (tokenManager.get(separatorTokenIndex).tokenType) {
+    switch (tokens.type(separatorTokenIndex)) {
       case TokenNameCOMMA,
         TokenNameSEMICOLON:
         separatorToken = createSyntaxToken(separatorTokenIndex);
@@ -1033,7 +1027,7 @@ public class JParser {
 
   private int processTypeDeclaration(AbstractTypeDeclaration node, List<Tree> members) {
     members.add(convertTypeDeclaration(node));
-    return tokenManager.lastIndexIn(node, TerminalToken.TokenNameRBRACE);
+    return tokens.lastIndexIn(node, TerminalToken.TokenNameRBRACE);
   }
 
   private int processAnnotationTypeMemberDeclaration(AnnotationTypeMemberDeclaration e, List<Tree> members) {
@@ -1053,7 +1047,7 @@ public class JParser {
     declaration(t.methodBinding, t);
 
     members.add(t);
-    return tokenManager.lastIndexIn(e, TerminalToken.TokenNameSEMICOLON);
+    return tokens.lastIndexIn(e, TerminalToken.TokenNameSEMICOLON);
   }
 
   private int processInitializerDeclaration(Initializer e, List<Tree> members) {
@@ -1071,7 +1065,7 @@ public class JParser {
         blockTree.body(),
         (InternalSyntaxToken) blockTree.closeBraceToken()));
     }
-    return tokenManager.lastIndexIn(e, TerminalToken.TokenNameRBRACE);
+    return tokens.lastIndexIn(e, TerminalToken.TokenNameRBRACE);
   }
 
   private int processMethodDeclaration(MethodDeclaration e, List<Tree> members) {
@@ -1120,7 +1114,7 @@ public class JParser {
     declaration(t.methodBinding, t);
 
     members.add(t);
-    return tokenManager.lastIndexIn(e, body == null ? TerminalToken.TokenNameSEMICOLON : TerminalToken.TokenNameRBRACE);
+    return tokens.lastIndexIn(e, body == null ? TerminalToken.TokenNameSEMICOLON : TerminalToken.TokenNameRBRACE);
   }
 
   private int processFieldDeclaration(FieldDeclaration fieldDeclaration, List<Tree> members) {
@@ -1142,7 +1136,7 @@ public class JParser {
 
       members.add(t);
     }
-    return tokenManager.lastIndexIn(fieldDeclaration, TerminalToken.TokenNameSEMICOLON);
+    return tokens.lastIndexIn(fieldDeclaration, TerminalToken.TokenNameSEMICOLON);
   }
 
   private ArgumentListTreeImpl convertArguments(@Nullable InternalSyntaxToken openParen, List<?> list, @Nullable InternalSyntaxToken closeParen) {
@@ -1163,8 +1157,8 @@ public class JParser {
       return null;
     }
     ASTNode last = (ASTNode) list.get(list.size() - 1);
-    int tokenIndex = tokenManager.firstIndexAfter(last, ANY_TOKEN);
-    while (isComment(tokenManager.get(tokenIndex))) {
+    int tokenIndex = tokens.firstIndexAfter(last, ANY_TOKEN);
+    while (tokens.isComment(tokenIndex)) {
       tokenIndex++;
     }
     return convertTypeArguments(
@@ -1192,8 +1186,8 @@ public class JParser {
       return new TypeParameterListTreeImpl();
     }
     ASTNode last = (ASTNode) list.get(list.size() - 1);
-    int tokenIndex = tokenManager.firstIndexAfter(last, ANY_TOKEN);
-    while (isComment(tokenManager.get(tokenIndex))) {
+    int tokenIndex = tokens.firstIndexAfter(last, ANY_TOKEN);
+    while (tokens.isComment(tokenIndex)) {
       tokenIndex++;
     }
     TypeParameterListTreeImpl t = new TypeParameterListTreeImpl(
@@ -1351,9 +1345,8 @@ public class JParser {
   }
 
   private IdentifierTreeImpl createSimpleName(SimpleName e) {
-    int tokenIndex = firstIndexIn(tokenManager, e, TerminalToken.TokenNameIdentifier, TerminalToken.TokenNameUNDERSCORE);
-    Token token = tokenManager.get(tokenIndex);
-    boolean isUnnamedVariable = token.tokenType == TerminalToken.TokenNameUNDERSCORE;
+    int tokenIndex = firstIndexIn(tokens, e, TerminalToken.TokenNameIdentifier, TerminalToken.TokenNameUNDERSCORE);
+    boolean isUnnamedVariable = tokens.type(tokenIndex) == TerminalToken.TokenNameUNDERSCORE;
     IdentifierTreeImpl t = new IdentifierTreeImpl(createSyntaxToken(tokenIndex), isUnnamedVariable);
     t.typeBinding = e.resolveTypeBinding();
     t.binding = e.resolveBinding();
@@ -1485,12 +1478,12 @@ public class JParser {
     }
 
     final int firstSemicolonTokenIndex = e.initializers().isEmpty()
-      ? tokenManager.firstIndexIn(e, TerminalToken.TokenNameSEMICOLON)
-      : tokenManager.firstIndexAfter((ASTNode) e.initializers().get(e.initializers().size() - 1), TerminalToken.TokenNameSEMICOLON);
+      ? tokens.firstIndexIn(e, TerminalToken.TokenNameSEMICOLON)
+      : tokens.firstIndexAfter((ASTNode) e.initializers().get(e.initializers().size() - 1), TerminalToken.TokenNameSEMICOLON);
     Expression expression = e.getExpression();
     final int secondSemicolonTokenIndex = expression == null
       ? nextTokenIndex(firstSemicolonTokenIndex, TerminalToken.TokenNameSEMICOLON)
-      : tokenManager.firstIndexAfter(expression, TerminalToken.TokenNameSEMICOLON);
+      : tokens.firstIndexAfter(expression, TerminalToken.TokenNameSEMICOLON);
 
     return new ForStatementTreeImpl(
       firstTokenIn(e, TerminalToken.TokenNamefor),
@@ -1766,15 +1759,13 @@ public class JParser {
     if (isLast) {
       separators.add(firstTokenAfter(resource, TerminalToken.TokenNameSEMICOLON));
     } else {
-      int tokenIndex = tokenManager.firstIndexBefore(tryStatement.getBody(), TerminalToken.TokenNameRPAREN);
+      int tokenIndex = tokens.firstIndexBefore(tryStatement.getBody(), TerminalToken.TokenNameRPAREN);
       while (true) {
-        Token token;
         do {
           tokenIndex--;
-          token = tokenManager.get(tokenIndex);
-        } while (isComment(token));
+        } while (tokens.isComment(tokenIndex));
 
-        if (token.tokenType != TerminalToken.TokenNameSEMICOLON) {
+        if (tokens.type(tokenIndex) != TerminalToken.TokenNameSEMICOLON) {
           break;
         }
         separators.add(createSyntaxToken(tokenIndex));
@@ -2100,7 +2091,7 @@ public class JParser {
       Expression o = (Expression) e.expressions().get(i);
       initializers.add(convertExpression(o));
       final int commaTokenIndex = firstTokenIndexAfter(o);
-      if (tokenManager.get(commaTokenIndex).tokenType == TerminalToken.TokenNameCOMMA) {
+      if (tokens.type(commaTokenIndex) == TerminalToken.TokenNameCOMMA) {
         initializers.separators().add(firstTokenAfter(o, TerminalToken.TokenNameCOMMA));
       }
     }
@@ -2276,7 +2267,7 @@ public class JParser {
         rhs
       );
     } else {
-      final int firstDotTokenIndex = tokenManager.firstIndexAfter(e.getQualifier(), TerminalToken.TokenNameDOT);
+      final int firstDotTokenIndex = tokens.firstIndexAfter(e.getQualifier(), TerminalToken.TokenNameDOT);
       AbstractTypedTree qualifier = (AbstractTypedTree) convertExpression(e.getQualifier());
       KeywordSuper keywordSuper = new KeywordSuper(firstTokenAfter(e.getQualifier(), TerminalToken.TokenNamesuper), null);
       MemberSelectExpressionTreeImpl qualifiedSuper = new MemberSelectExpressionTreeImpl(
@@ -2452,12 +2443,12 @@ public class JParser {
   }
 
   private ExpressionTree convertLiteral(NumberLiteral e) {
-    int tokenIndex = tokenManager.findIndex(e.getStartPosition(), ANY_TOKEN, true);
-    TerminalToken tokenType = tokenManager.get(tokenIndex).tokenType;
+    int tokenIndex = tokens.findIndex(e.getStartPosition(), ANY_TOKEN, true);
+    TerminalToken tokenType = tokens.type(tokenIndex);
     boolean unaryMinus = tokenType == TerminalToken.TokenNameMINUS;
     if (unaryMinus) {
       tokenIndex++;
-      tokenType = tokenManager.get(tokenIndex).tokenType;
+      tokenType = tokens.type(tokenIndex);
     }
     ExpressionTree result;
     switch (tokenType) {
@@ -2635,7 +2626,7 @@ public class JParser {
   private TypeTree convertArrayType(ArrayType e) {
     @Nullable ITypeBinding elementTypeBinding = e.getElementType().resolveBinding();
     TypeTree t = convertType(e.getElementType());
-    int tokenIndex = tokenManager.firstIndexAfter(e.getElementType(), TerminalToken.TokenNameLBRACKET);
+    int tokenIndex = tokens.firstIndexAfter(e.getElementType(), TerminalToken.TokenNameLBRACKET);
     for (int i = 0; i < e.dimensions().size(); i++) {
       if (i > 0) {
         tokenIndex = nextTokenIndex(tokenIndex, TerminalToken.TokenNameLBRACKET);
@@ -2815,7 +2806,7 @@ public class JParser {
     }
   }
 
-  private static final TerminalToken ANY_TOKEN = TerminalToken.TokenNameInvalid;
+  private static final TerminalToken ANY_TOKEN = TokenStore.ANY_TOKEN;
 
   private static final Map<Object, Op> operators = new HashMap<>();
 
@@ -19,22 +19,37 @@ package org.sonar.java.model;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.BooleanSupplier;
 import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTUtils;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.dom.FileASTRequestor;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.fs.InputFile;
@@ -43,6 +58,7 @@ import org.sonar.java.AnalysisProgress;
 import org.sonar.java.ExecutionTimeReport;
 import org.sonar.java.ProgressMonitor;
 import org.sonar.java.annotations.VisibleForTesting;
+import org.sonar.java.telemetry.AnalysisEvents;
 import org.sonar.plugins.java.api.JavaVersion;
 import org.sonarsource.analyzer.commons.ProgressReport;
 import org.sonarsource.performance.measure.PerformanceMeasure;
@@ -59,18 +75,27 @@ public abstract class JParserConfig {
   final JavaVersion javaVersion;
   final List<File> classpath;
   final boolean shouldIgnoreUnnamedModuleForSplitPackage;
-
-  private JParserConfig(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage) {
+  final ClasspathIndex classpathIndex;
+  /**
+   * True when the index has been created for this configuration, which then closes it at the end of {@link #parse}.
+   */
+  private final boolean ownsClasspathIndex;
+
+  private JParserConfig(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage, ClasspathIndex classpathIndex,
+    boolean ownsClasspathIndex) {
     this.javaVersion = javaVersion;
     this.classpath = classpath;
     this.shouldIgnoreUnnamedModuleForSplitPackage = shouldIgnoreUnnamedModuleForSplitPackage;
+    this.classpathIndex = classpathIndex;
+    this.ownsClasspathIndex = ownsClasspathIndex;
   }
 
   public abstract void parse(Iterable<? extends InputFile> inputFiles, BooleanSupplier isCanceled,
     AnalysisProgress analysisProgress, BiConsumer<InputFile, Result> action);
 
   public enum Mode {
-    BATCH(Batch::new),
+    BATCH((javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage) ->
+      new Batch(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage, new ClasspathIndex(), true)),
     FILE_BY_FILE(FileByFile::new);
 
     private final ParserConfigConstructor supplier;
@@ -91,9 +116,49 @@ public abstract class JParserConfig {
     }
   }
 
+  /**
+   * Creates a batch configuration parsing the files on {@code parallelism} worker threads, see {@link ParallelBatch}.
+   * A parallelism lower or equal to 1 falls back to the regular batch mode. The classpath entries are released at the end of
+   * {@link #parse}.
+   */
+  public static JParserConfig createParallelBatch(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage,
+    int parallelism) {
+    return createParallelBatch(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage, parallelism, new ClasspathIndex(), true);
+  }
+
+  /**
+   * Same as {@link #createParallelBatch(JavaVersion, List, boolean, int)}, resolving bindings against the entries of the given
+   * index, which can be shared by successive batches. Closing the index is the responsibility of the caller.
+   */
+  public static JParserConfig createParallelBatch(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage,
+    int parallelism, ClasspathIndex classpathIndex) {
+    return createParallelBatch(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage, parallelism, classpathIndex, false);
+  }
+
+  private static JParserConfig createParallelBatch(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage,
+    int parallelism, ClasspathIndex classpathIndex, boolean ownsClasspathIndex) {
+    if (shouldIgnoreUnnamedModuleForSplitPackage) {
+      LOG.info("The Java analyzer will ignore the unnamed module for split packages.");
+    }
+    if (parallelism <= 1) {
+      return new Batch(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage, classpathIndex, ownsClasspathIndex);
+    }
+    return new ParallelBatch(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage, parallelism, classpathIndex, ownsClasspathIndex);
+  }
+
+  /**
+   * Creates a configuration parsing the files one by one without resolving their bindings, for the files whose checks are all
+   * {@link org.sonar.plugins.java.api.SyntaxOnly}. The classpath is never read and the semantic model of the trees reports every type as unknown.
+   */
+  public static JParserConfig createSyntaxOnly(JavaVersion javaVersion) {
+    return new SyntaxOnly(javaVersion);
+  }
+
   public static class Result {
     private final Exception e;
     private final JavaTree.CompilationUnitTreeImpl t;
+    private long parseNanos = -1L;
+    private long convertNanos = -1L;
 
     private Result(Exception e) {
       this.e = e;
@@ -111,10 +176,47 @@ public abstract class JParserConfig {
       }
       return t;
     }
+
+    /**
+     * @return the time spent by ECJ to parse the file and resolve its bindings, -1 when unknown
+     */
+    public long parseNanos() {
+      return parseNanos;
+    }
+
+    /**
+     * @return the time spent to convert the ECJ tree of the file, -1 when unknown
+     */
+    public long convertNanos() {
+      return convertNanos;
+    }
+
+    void setTimes(long parseNanos, long convertNanos) {
+      this.parseNanos = parseNanos;
+      this.convertNanos = convertNanos;
+    }
+
+    void cleanEnvironment() {
+      if (t != null) {
+        t.sema.getEnvironmentCleaner().run();
+      }
+    }
   }
 
   public ASTParser astParser() {
     ASTParser astParser = ASTParser.newParser(AST.getJLSLatest());
+    astParser.setCompilerOptions(compilerOptions());
+    astParser.setEnvironment(classpath.stream()
+      .map(File::getAbsolutePath)
+      .toArray(String[]::new), new String[] {}, new String[] {}, includeRunningVMBootclasspath());
+
+    astParser.setResolveBindings(true);
+    astParser.setBindingsRecovery(true);
+
+    return astParser;
+  }
+
+  Map<String, String> compilerOptions() {
     Map<String, String> options = new HashMap<>(JavaCore.getOptions());
     JavaCore.setComplianceOptions(javaVersion.effectiveJavaVersionAsString(), options);
     options.put(JavaCore.COMPILER_PB_MAX_PER_UNIT, MAXIMUM_ECJ_WARNINGS);
@@ -127,33 +229,59 @@ public abstract class JParserConfig {
     // enabling all supported compiler warnings
     JProblem.Type.compilerOptions()
       .forEach(option -> options.put(option, "warning"));
+    return options;
+  }
 
-    astParser.setCompilerOptions(options);
-
-    boolean includeRunningVMBootclasspath = classpath.stream()
+  boolean includeRunningVMBootclasspath() {
+    return classpath.stream()
       .noneMatch(f -> JRE_JARS.contains(f.getName()));
+  }
 
-    astParser.setEnvironment(classpath.stream()
-      .map(File::getAbsolutePath)
-      .toArray(String[]::new), new String[] {}, new String[] {}, includeRunningVMBootclasspath);
-
-    astParser.setResolveBindings(true);
-    astParser.setBindingsRecovery(true);
+  /**
+   * Parses the given files with a fresh name environment, built on the entries of the classpath index. The entries which are not
+   * shared are released once all the files have been accepted by the requestor.
+   */
+  void createASTs(String[] sourceFilePaths, String[] encodings, FileASTRequestor requestor, IProgressMonitor monitor) {
+    List<FileSystem.Classpath> entries = classpathIndex.entries(classpath, includeRunningVMBootclasspath());
+    try {
+      ASTUtils.createASTs(sourceFilePaths, encodings, compilerOptions(), entries, requestor, monitor);
+    } finally {
+      classpathIndex.release(entries);
+    }
+  }
 
-    return astParser;
+  /**
+   * Due to a bug in ECJ, JAR files remain locked after the analysis on Windows, the index releases them. See SONARJAVA-3609.
+   */
+  void closeClasspathIndexIfOwned() {
+    if (ownsClasspathIndex) {
+      classpathIndex.close();
+    }
   }
 
   @VisibleForTesting
   static class Batch extends JParserConfig {
 
-    Batch(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage) {
-      super(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage);
+    Batch(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage, ClasspathIndex classpathIndex) {
+      this(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage, classpathIndex, false);
+    }
+
+    Batch(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage, ClasspathIndex classpathIndex,
+      boolean ownsClasspathIndex) {
+      super(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage, classpathIndex, ownsClasspathIndex);
     }
 
     @Override
     public void parse(Iterable<? extends InputFile> inputFiles, BooleanSupplier isCanceled,
       AnalysisProgress analysisProgress, BiConsumer<InputFile, Result> action) {
+      try {
+        parse(inputFiles, isCanceled, new ProgressMonitor(isCanceled, analysisProgress), action);
+      } finally {
+        closeClasspathIndexIfOwned();
+      }
+    }
 
+    void parse(Iterable<? extends InputFile> inputFiles, BooleanSupplier isCanceled, IProgressMonitor monitor, BiConsumer<InputFile, Result> action) {
       List<String> sourceFilePaths = new ArrayList<>();
       Set<InputFile> notYetAnalyzedFiles = new LinkedHashSet<>();
       List<String> encodings = new ArrayList<>();
@@ -167,21 +295,28 @@ public abstract class JParserConfig {
       }
 
       ExecutionTimeReport executionTimeReport = new ExecutionTimeReport();
-      ProgressMonitor monitor = new ProgressMonitor(isCanceled, analysisProgress);
+      // the files of the batch share their bindings, and then the results of subtype checks
+      SubtypeCache subtypeCache = new SubtypeCache();
       PerformanceMeasure.Duration batchPerformance = PerformanceMeasure.start("ParseAsBatch");
+      // ECJ parses and resolves the whole batch at once, the convert events of its files are nested in its parse event
+      AnalysisEvents.Parse parseEvent = new AnalysisEvents.Parse();
+      parseEvent.begin();
       try {
-        astParser().createASTs(sourceFilePaths.toArray(new String[0]), encodings.toArray(new String[0]), new String[0], new FileASTRequestor() {
+        createASTs(sourceFilePaths.toArray(new String[0]), encodings.toArray(new String[0]), new FileASTRequestor() {
           @Override
           public void acceptAST(String sourceFilePath, CompilationUnit ast) {
             PerformanceMeasure.Duration convertDuration = PerformanceMeasure.start("Convert");
             InputFile inputFile = inputs.get(new File(sourceFilePath));
             executionTimeReport.start(inputFile);
+            long convertStart = System.nanoTime();
             Result result;
             try {
-              result = new Result(JParser.convert(javaVersion.effectiveJavaVersionAsString(), inputFile.filename(), inputFile.contents(), ast));
+              result = new Result(JParser.convert(javaVersion.effectiveJavaVersionAsString(), inputFile.filename(), inputFile.contents(), ast, subtypeCache));
             } catch (Exception e) {
               result = new Result(e);
             }
+            // the parsing time of a single file is unknown, ECJ parses the whole batch at once
+            result.setTimes(-1L, System.nanoTime() - convertStart);
             convertDuration.stop();
             PerformanceMeasure.Duration analyzeDuration = PerformanceMeasure.start("Analyze");
             action.accept(inputFile, result);
@@ -204,6 +339,10 @@ public abstract class JParserConfig {
         }
       } finally {
         batchPerformance.stop();
+        if (parseEvent.shouldCommit()) {
+          parseEvent.files = sourceFilePaths.size();
+          parseEvent.commit();
+        }
         // ExecutionTimeReport will not include the parsing time by file when using batch mode.
         executionTimeReport.reportAsBatch();
         monitor.done();
@@ -216,16 +355,256 @@ public abstract class JParserConfig {
         if (isCanceled.getAsBoolean()) {
           break;
         }
-        FileByFile.parse(astParser(), inputFile, javaVersion, action);
+        // Unlike the entries of the classpath index, the environment of each fallback parser is released after use. See SONARJAVA-3609.
+        FileByFile.parse(astParser(), inputFile, javaVersion, action.andThen((file, result) -> result.cleanEnvironment()));
       }
     }
 
   }
 
-  private static class FileByFile extends JParserConfig {
+  /**
+   * Splits the input files into contiguous slices that are parsed concurrently, each slice by a dedicated worker thread owning
+   * its own ECJ name environment, built on the entries of the shared {@link ClasspathIndex}. Parsing, binding resolution and conversion happen on the worker threads,
+   * but the action is always executed on the calling thread: checks are stateful and not thread-safe. Results are handed over
+   * slice by slice in a round-robin order, which keeps the order in which files are analyzed deterministic for a given input.
+   * A worker waits until its file has been analyzed before moving on, because checks may still query its environment.
+   */
+  @VisibleForTesting
+  static class ParallelBatch extends JParserConfig {
+
+    private static final String WORKER_THREAD_NAME = "Java AST parser worker %d";
+
+    private final int parallelism;
+
+    ParallelBatch(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage, int parallelism,
+      ClasspathIndex classpathIndex) {
+      this(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage, parallelism, classpathIndex, false);
+    }
+
+    ParallelBatch(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage, int parallelism,
+      ClasspathIndex classpathIndex, boolean ownsClasspathIndex) {
+      super(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage, classpathIndex, ownsClasspathIndex);
+      this.parallelism = parallelism;
+    }
+
+    @Override
+    public void parse(Iterable<? extends InputFile> inputFiles, BooleanSupplier isCanceled,
+      AnalysisProgress analysisProgress, BiConsumer<InputFile, Result> action) {
+      try {
+        parseSlices(inputFiles, isCanceled, analysisProgress, action);
+      } finally {
+        // the workers are done with the index: they have all notified the end of their work, or have been drained
+        closeClasspathIndexIfOwned();
+      }
+    }
+
+    private void parseSlices(Iterable<? extends InputFile> inputFiles, BooleanSupplier isCanceled,
+      AnalysisProgress analysisProgress, BiConsumer<InputFile, Result> action) {
+      List<List<InputFile>> slices = split(inputFiles, parallelism);
+      if (slices.size() <= 1) {
+        new Batch(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage, classpathIndex).parse(inputFiles, isCanceled, analysisProgress, action);
+        return;
+      }
+      LOG.info("Parsing {} slices of files in parallel.", slices.size());
+      AtomicBoolean aborted = new AtomicBoolean(false);
+      BooleanSupplier isCanceledOrAborted = () -> aborted.get() || isCanceled.getAsBoolean();
+      List<Worker> workers = new ArrayList<>(slices.size());
+      ExecutorService executor = Executors.newFixedThreadPool(slices.size(), new WorkerThreadFactory());
+      try {
+        for (int i = 0; i < slices.size(); i++) {
+          // Only the first worker reports progress, the slices having roughly the same size
+          IProgressMonitor monitor = i == 0 ? new ProgressMonitor(isCanceledOrAborted, analysisProgress) : new CancellableMonitor(isCanceledOrAborted);
+          Worker worker = new Worker(slices.get(i), isCanceledOrAborted, monitor);
+          workers.add(worker);
+          executor.execute(worker);
+        }
+        dispatch(workers, action);
+      } catch (RuntimeException | Error e) {
+        aborted.set(true);
+        workers.forEach(Worker::drain);
+        throw e;
+      } finally {
+        executor.shutdown();
+      }
+    }
+
+    private static void dispatch(List<Worker> workers, BiConsumer<InputFile, Result> action) {
+      List<Worker> running = new ArrayList<>(workers);
+      Throwable failure = null;
+      while (!running.isEmpty()) {
+        Iterator<Worker> iterator = running.iterator();
+        while (iterator.hasNext()) {
+          Worker worker = iterator.next();
+          Handoff handoff = worker.take();
+          if (worker.ended) {
+            iterator.remove();
+            if (failure == null) {
+              failure = handoff.failure;
+            }
+          } else {
+            try {
+              action.accept(handoff.inputFile, handoff.result);
+            } finally {
+              handoff.analyzed.countDown();
+            }
+          }
+        }
+      }
+      if (failure instanceof Error error) {
+        throw error;
+      }
+      if (failure != null) {
+        throw (RuntimeException) failure;
+      }
+    }
+
+    /**
+     * Splits the files into at most {@code sliceCount} contiguous slices of comparable size in bytes.
+     */
+    @VisibleForTesting
+    static List<List<InputFile>> split(Iterable<? extends InputFile> inputFiles, int sliceCount) {
+      List<InputFile> files = new ArrayList<>();
+      long totalSize = 0L;
+      for (InputFile inputFile : inputFiles) {
+        files.add(inputFile);
+        totalSize += inputFile.file().length();
+      }
+      int effectiveSliceCount = Math.max(1, Math.min(sliceCount, files.size()));
+      long sliceSize = (totalSize + effectiveSliceCount - 1) / effectiveSliceCount;
+      List<List<InputFile>> slices = new ArrayList<>(effectiveSliceCount);
+      List<InputFile> slice = new ArrayList<>();
+      long currentSize = 0L;
+      for (int i = 0; i < files.size(); i++) {
+        InputFile inputFile = files.get(i);
+        slice.add(inputFile);
+        currentSize += inputFile.file().length();
+        int remainingFiles = files.size() - i - 1;
+        int remainingSlices = effectiveSliceCount - slices.size() - 1;
+        boolean isFull = currentSize >= sliceSize || remainingFiles <= remainingSlices;
+        if (isFull && remainingSlices > 0 && remainingFiles > 0) {
+          slices.add(slice);
+          slice = new ArrayList<>();
+          currentSize = 0L;
+        }
+      }
+      if (!slice.isEmpty()) {
+        slices.add(slice);
+      }
+      return slices;
+    }
+
+    private static class Handoff {
+      /**
+       * Null to notify the end of the work of a worker.
+       */
+      @Nullable
+      private final InputFile inputFile;
+      @Nullable
+      private final Result result;
+      @Nullable
+      private final Throwable failure;
+      private final CountDownLatch analyzed = new CountDownLatch(1);
+
+      private Handoff(@Nullable InputFile inputFile, @Nullable Result result, @Nullable Throwable failure) {
+        this.inputFile = inputFile;
+        this.result = result;
+        this.failure = failure;
+      }
+    }
+
+    private class Worker implements Runnable {
+      private final List<InputFile> slice;
+      private final BooleanSupplier isCanceled;
+      private final IProgressMonitor monitor;
+      private final BlockingQueue<Handoff> handoffs = new LinkedBlockingQueue<>();
+      // only accessed by the dispatching thread
+      private boolean ended = false;
+
+      private Worker(List<InputFile> slice, BooleanSupplier isCanceled, IProgressMonitor monitor) {
+        this.slice = slice;
+        this.isCanceled = isCanceled;
+        this.monitor = monitor;
+      }
+
+      @Override
+      public void run() {
+        Throwable failure = null;
+        try {
+          new Batch(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage, classpathIndex).parse(slice, isCanceled, monitor, this::handOver);
+        } catch (RuntimeException | Error e) {
+          failure = e;
+        } finally {
+          handoffs.add(new Handoff(null, null, failure));
+        }
+      }
+
+      private void handOver(InputFile inputFile, Result result) {
+        Handoff handoff = new Handoff(inputFile, result, null);
+        handoffs.add(handoff);
+        try {
+          handoff.analyzed.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new OperationCanceledException();
+        }
+      }
+
+      private Handoff take() {
+        try {
+          Handoff handoff = handoffs.take();
+          ended = handoff.inputFile == null;
+          return handoff;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new OperationCanceledException();
+        }
+      }
+
+      /**
+       * Releases the worker without analyzing its pending files, until it notifies the end of its work.
+       */
+      private void drain() {
+        while (!ended) {
+          take().analyzed.countDown();
+        }
+      }
+    }
+
+    private static class CancellableMonitor extends NullProgressMonitor {
+      private final BooleanSupplier isCanceled;
+
+      private CancellableMonitor(BooleanSupplier isCanceled) {
+        this.isCanceled = isCanceled;
+      }
+
+      @Override
+      public boolean isCanceled() {
+        return isCanceled.getAsBoolean();
+      }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+      private final AtomicInteger count = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, String.format(WORKER_THREAD_NAME, count.incrementAndGet()));
+        thread.setDaemon(true);
+        return thread;
+      }
+    }
+  }
+
+  @VisibleForTesting
+  static class FileByFile extends JParserConfig {
 
     private FileByFile(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage) {
-      super(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage);
+      this(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage, new ClasspathIndex(), true);
+    }
+
+    FileByFile(JavaVersion javaVersion, List<File> classpath, boolean shouldIgnoreUnnamedModuleForSplitPackage, ClasspathIndex classpathIndex,
+      boolean ownsClasspathIndex) {
+      super(javaVersion, classpath, shouldIgnoreUnnamedModuleForSplitPackage, classpathIndex, ownsClasspathIndex);
     }
 
     @Override
@@ -240,6 +619,7 @@ public abstract class JParserConfig {
         .map(InputFile::toString)
         .toList();
       progressReport.start(filesNames);
+      UnitParser unitParser = unitParser();
       try {
         for (InputFile inputFile : inputFiles) {
           if (isCanceled.getAsBoolean()) {
@@ -247,7 +627,11 @@ public abstract class JParserConfig {
             break;
           }
           executionTimeReport.start(inputFile);
-          parse(astParser(), inputFile, javaVersion, action);
+          try {
+            parse(unitParser, inputFile, javaVersion, action);
+          } finally {
+            unitParser.release();
+          }
           executionTimeReport.end();
           progressReport.nextFile();
         }
@@ -259,14 +643,52 @@ public abstract class JParserConfig {
           progressReport.cancel();
         }
         executionTimeReport.report();
+        closeClasspathIndexIfOwned();
       }
     }
 
+    /**
+     * Compiler options are prepared once for all the files, and the shared classpath entries are loaded once by the index. Only
+     * the name environment resolving the bindings of a file, and the entries which are not shared, are specific to it.
+     */
+    UnitParser unitParser() {
+      Map<String, String> compilerOptions = compilerOptions();
+      boolean includeRunningVMBootclasspath = includeRunningVMBootclasspath();
+      return new UnitParser() {
+        private List<FileSystem.Classpath> entries = Collections.emptyList();
+
+        @Override
+        public CompilationUnit parse(String unitName, String source) {
+          // an invalid classpath makes every file fail to be parsed, as with an ASTParser created for it
+          return JParser.createAST(() -> {
+            entries = classpathIndex.entries(classpath, includeRunningVMBootclasspath);
+            return ASTUtils.createAST(unitName, source.toCharArray(), compilerOptions, entries);
+          }, unitName);
+        }
+
+        @Override
+        public void release() {
+          classpathIndex.release(entries);
+          entries = Collections.emptyList();
+        }
+      };
+    }
+
     private static void parse(ASTParser astParser, InputFile inputFile, JavaVersion javaVersion, BiConsumer<InputFile, Result> action) {
+      parse((unitName, source) -> JParser.createAST(astParser, unitName, source), inputFile, javaVersion, action);
+    }
+
+    private static void parse(UnitParser unitParser, InputFile inputFile, JavaVersion javaVersion, BiConsumer<InputFile, Result> action) {
       Result result;
       PerformanceMeasure.Duration parseDuration = PerformanceMeasure.start("JParser");
       try {
-        result = new Result(JParser.parse(astParser, javaVersion.effectiveJavaVersionAsString(), inputFile.filename(), inputFile.contents()));
+        String unitName = inputFile.filename();
+        String source = inputFile.contents();
+        long parseStart = System.nanoTime();
+        CompilationUnit ast = unitParser.parse(unitName, source);
+        long convertStart = System.nanoTime();
+        result = new Result(JParser.convert(javaVersion.effectiveJavaVersionAsString(), unitName, source, ast));
+        result.setTimes(convertStart - parseStart, System.nanoTime() - convertStart);
       } catch (Exception e) {
         result = new Result(e);
       } finally {
@@ -276,6 +698,50 @@ public abstract class JParserConfig {
     }
   }
 
+  /**
+   * Only parses the files: without name environment, ECJ neither loads the classpath nor resolves bindings.
+   */
+  private static class SyntaxOnly extends FileByFile {
+
+    private SyntaxOnly(JavaVersion javaVersion) {
+      super(javaVersion, Collections.emptyList(), false);
+    }
+
+    @Override
+    public ASTParser astParser() {
+      return syntaxOnlyParser(compilerOptions());
+    }
+
+    @Override
+    UnitParser unitParser() {
+      Map<String, String> compilerOptions = compilerOptions();
+      // ECJ resets the options of a parser once it has created a tree, so each file gets its own parser
+      return (unitName, source) -> JParser.createAST(syntaxOnlyParser(compilerOptions), unitName, source);
+    }
+
+    private static ASTParser syntaxOnlyParser(Map<String, String> compilerOptions) {
+      ASTParser astParser = ASTParser.newParser(AST.getJLSLatest());
+      astParser.setCompilerOptions(compilerOptions);
+      astParser.setResolveBindings(false);
+      return astParser;
+    }
+  }
+
+  @FunctionalInterface
+  private interface UnitParser {
+    /**
+     * @return the ECJ tree of the source, with resolved bindings unless the configuration is syntax only
+     */
+    CompilationUnit parse(String unitName, String source);
+
+    /**
+     * Releases the environment of the last parsed file, once its tree has been analyzed.
+     */
+    default void release() {
+      // nothing to release by default
+    }
+  }
+
   @VisibleForTesting
   static boolean shouldEnablePreviewFlag(JavaVersion currentVersion) {
     return currentVersion.arePreviewFeaturesEnabled();
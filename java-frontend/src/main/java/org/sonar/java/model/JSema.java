@@ -44,15 +44,22 @@ public final class JSema implements Sema {
   final Set<JProblem> undefinedTypes = new HashSet<>();
   final Map<IBinding, Tree> declarations = new HashMap<>();
   final Map<IBinding, List<IdentifierTree>> usages = new HashMap<>();
+  private final Map<IBinding, UsageIndex> usageIndexes = new HashMap<>();
   private final Map<ITypeBinding, JType> types = new HashMap<>();
   private final Map<IBinding, JSymbol> symbols = new HashMap<>();
   private final Map<Symbol.TypeSymbol, JInitializerBlockSymbol> initializerBlockSymbols = new HashMap<>();
   private final Map<Symbol.TypeSymbol, JInitializerBlockSymbol> staticInitializerBlockSymbols = new HashMap<>();
   private final Map<IAnnotationBinding, JSymbolMetadata.JAnnotationInstance> annotations = new HashMap<>();
   private final Map<String, Type> nameToTypeCache = new HashMap<>();
+  private final SubtypeCache subtypeCache;
 
   JSema(AST ast) {
+    this(ast, new SubtypeCache());
+  }
+
+  JSema(AST ast, SubtypeCache subtypeCache) {
     this.ast = ast;
+    this.subtypeCache = subtypeCache;
   }
 
   public JType type(ITypeBinding typeBinding) {
@@ -102,6 +109,10 @@ public final class JSema implements Sema {
     return annotations.computeIfAbsent(annotationBinding, k -> new JSymbolMetadata.JAnnotationInstance(this, k));
   }
 
+  UsageIndex usageIndex(IBinding binding) {
+    return usageIndexes.computeIfAbsent(declarationBinding(binding), k -> new UsageIndex(usages.getOrDefault(k, Collections.emptyList())));
+  }
+
   static IBinding declarationBinding(IBinding binding) {
     switch (binding.getKind()) {
       case IBinding.TYPE:
@@ -123,6 +134,10 @@ public final class JSema implements Sema {
     });
   }
 
+  boolean isSubtypeOf(JType type, String fullyQualifiedName) {
+    return subtypeCache.isSubtypeOf(type.typeBinding, fullyQualifiedName, name -> type.isSubtypeOf(getClassType(name)));
+  }
+
   @Nullable
   ITypeBinding resolveType(String name) {
     int dimensions = 0;
@@ -147,6 +162,13 @@ public final class JSema implements Sema {
     return ASTUtils.resolvePackageAnnotations(ast, packageName);
   }
 
+  /**
+   * @return false when the tree has been parsed without resolving its bindings, every type is then unknown
+   */
+  public boolean hasBindings() {
+    return ast.hasResolvedBindings();
+  }
+
   public Runnable getEnvironmentCleaner() {
     return ASTUtils.getEnvironmentCleaner(ast);
   }
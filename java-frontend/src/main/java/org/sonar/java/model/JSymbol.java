@@ -482,6 +482,10 @@ abstract class JSymbol implements Symbol {
     return usages != null ? usages : Collections.emptyList();
   }
 
+  final UsageIndex usageIndex() {
+    return sema.usageIndex(binding);
+  }
+
   @Nullable
   @Override
   public Tree declaration() {
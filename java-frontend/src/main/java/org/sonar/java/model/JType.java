@@ -69,7 +69,7 @@ final class JType implements Type, Type.ArrayType {
 
   @Override
   public boolean isSubtypeOf(String fullyQualifiedName) {
-    return isSubtypeOf(sema.getClassType(fullyQualifiedName));
+    return sema.isSubtypeOf(this, fullyQualifiedName);
   }
 
   @Override
@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.EnumMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -143,19 +144,68 @@ public abstract class JavaTree implements Tree {
    */
   protected abstract List<Tree> children();
 
+  /**
+   * Children are kept in an immutable list backed by an array of the exact size, or without any array for one or two children.
+   */
   public List<Tree> getChildren() {
     if(children == null) {
-      children = children().stream()
-        .filter(Objects::nonNull)
-        .toList();
+      children = nonNullChildren(children());
     }
     return children;
   }
 
+  private static List<Tree> nonNullChildren(List<Tree> children) {
+    int size = 0;
+    for (Tree child : children) {
+      if (child != null) {
+        size++;
+      }
+    }
+    Tree[] nonNullChildren = new Tree[size];
+    int index = 0;
+    for (Tree child : children) {
+      if (child != null) {
+        nonNullChildren[index] = child;
+        index++;
+      }
+    }
+    return List.of(nonNullChildren);
+  }
+
   public boolean isLeaf() {
     return false;
   }
 
+  /**
+   * Hash of the syntax of this tree, computed from the hashes of its children.
+   * Trees which are equivalent according to {@link SyntacticEquivalence#areEquivalent(Tree, Tree)} have the same hash, so that
+   * candidates for equivalence can be grouped by hash before being compared.
+   * Hashes of inner nodes are cached by the compilation unit, rather than in a field, to keep the trees compact.
+   */
+  public int structuralHash() {
+    if (isLeaf() || root == null) {
+      return computeStructuralHash();
+    }
+    Integer hash = root.structuralHashes.get(this);
+    if (hash == null) {
+      hash = computeStructuralHash();
+      root.structuralHashes.put(this, hash);
+    }
+    return hash;
+  }
+
+  private int computeStructuralHash() {
+    int hash = kind().ordinal();
+    if (this instanceof SyntaxToken syntaxToken) {
+      hash = 31 * hash + syntaxToken.text().hashCode();
+    } else if (!isLeaf()) {
+      for (Tree child : getChildren()) {
+        hash = 31 * hash + ((JavaTree) child).structuralHash();
+      }
+    }
+    return hash;
+  }
+
   public static class CompilationUnitTreeImpl extends JavaTree implements CompilationUnitTree {
     @Nullable
     private final PackageDeclarationTree packageDeclaration;
@@ -168,6 +218,8 @@ public abstract class JavaTree implements Tree {
 
     private final Map<JProblem.Type, Set<JWarning>> warnings = new EnumMap<>(JProblem.Type.class);
 
+    private final Map<Tree, Integer> structuralHashes = new IdentityHashMap<>();
+
     public CompilationUnitTreeImpl(@Nullable PackageDeclarationTree packageDeclaration, List<ImportClauseTree> imports, List<Tree> types,
       @Nullable ModuleDeclarationTree moduleDeclaration, SyntaxToken eofToken) {
       this.root = this;
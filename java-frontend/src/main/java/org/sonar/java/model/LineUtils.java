@@ -42,13 +42,40 @@ public final class LineUtils {
   }
 
   public static int startLine(SyntaxToken token) {
+    if (token instanceof InternalSyntaxToken internalToken) {
+      // the range of a token is computed on each call, its start line is kept as is
+      return internalToken.getLine();
+    }
     return Position.startOf(token).line();
   }
 
   public static int endLine(SyntaxToken token) {
+    if (token instanceof InternalSyntaxToken internalToken && !internalToken.isTextBlock()) {
+      return internalToken.getLine();
+    }
     return Position.endOf(token).line();
   }
 
+  /**
+   * @return the column offset of the start of the token, starting at 0
+   */
+  public static int startColumnOffset(SyntaxToken token) {
+    if (token instanceof InternalSyntaxToken internalToken) {
+      return internalToken.column();
+    }
+    return Position.startOf(token).columnOffset();
+  }
+
+  /**
+   * @return the column offset of the end of the token, starting at 0
+   */
+  public static int endColumnOffset(SyntaxToken token) {
+    if (token instanceof InternalSyntaxToken internalToken && !internalToken.isTextBlock()) {
+      return internalToken.column() + internalToken.text().length();
+    }
+    return Position.endOf(token).columnOffset();
+  }
+
   public static int startLine(SyntaxTrivia trivia) {
     return Position.startOf(trivia).line();
   }
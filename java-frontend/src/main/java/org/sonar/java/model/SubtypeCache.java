@@ -0,0 +1,46 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+
+/**
+ * Results of {@link JType#isSubtypeOf(String)}, by type binding and by name of the supertype.
+ *
+ * Each check resolves the supertype from its name, then asks ECJ for the compatibility of both bindings. Method matchers being
+ * evaluated by many checks on every method invocation, the same pairs are checked over and over. In batch mode, all the files
+ * of a batch share the same bindings, and then the same cache. The cache is safe for concurrent use, as files parsed by the
+ * workers of a parallel batch are analyzed on another thread.
+ */
+final class SubtypeCache {
+
+  private final Map<ITypeBinding, Map<String, Boolean>> results = new ConcurrentHashMap<>();
+
+  boolean isSubtypeOf(ITypeBinding typeBinding, String fullyQualifiedName, Predicate<String> isSubtypeOf) {
+    return results
+      .computeIfAbsent(typeBinding, k -> new ConcurrentHashMap<>())
+      .computeIfAbsent(fullyQualifiedName, isSubtypeOf::test);
+  }
+
+  int size() {
+    return results.values().stream().mapToInt(Map::size).sum();
+  }
+
+}
@@ -16,10 +16,14 @@
  */
 package org.sonar.java.model;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.BiPredicate;
+import java.util.function.Function;
 import javax.annotation.Nullable;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.semantic.Type;
@@ -136,6 +140,33 @@ public final class SyntacticEquivalence {
     }
   }
 
+  /**
+   * @return a hash of the list, equal for equivalent lists according to {@link #areEquivalent(List, List)}
+   */
+  public static int structuralHash(List<? extends Tree> trees) {
+    int hash = 1;
+    for (Tree tree : trees) {
+      hash = 31 * hash + (tree == null ? 0 : ((JavaTree) tree).structuralHash());
+    }
+    return hash;
+  }
+
+  /**
+   * Groups elements whose trees have the same {@link #structuralHash(List)}. Only elements of the same group can have equivalent trees,
+   * so that quadratic comparisons can be restricted to each group.
+   *
+   * @return the groups of at least two elements, ordered by their first element, each group keeping the order of the given elements
+   */
+  public static <T> List<List<T>> groupByStructuralHash(List<T> elements, Function<? super T, List<? extends Tree>> trees) {
+    Map<Integer, List<T>> groups = new LinkedHashMap<>();
+    for (T element : elements) {
+      groups.computeIfAbsent(structuralHash(trees.apply(element)), k -> new ArrayList<>()).add(element);
+    }
+    return groups.values().stream()
+      .filter(group -> group.size() > 1)
+      .toList();
+  }
+
   private static boolean areDifferentVariables(JavaTree leftNode, JavaTree rightNode) {
     if (!leftNode.is(Tree.Kind.IDENTIFIER) || !rightNode.is(Tree.Kind.IDENTIFIER)) {
       return false;
@@ -0,0 +1,283 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+import org.eclipse.jdt.core.dom.ASTNode;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.parser.Scanner;
+import org.eclipse.jdt.internal.compiler.parser.TerminalToken;
+
+/**
+ * Tokens of a compilation unit, stored as parallel arrays of start offsets, end offsets and token types,
+ * to avoid allocating one object per token while converting the ECJ AST.
+ * Lookups follow the semantics of {@code org.eclipse.jdt.internal.formatter.TokenManager}, which was previously used.
+ */
+final class TokenStore {
+
+  /**
+   * Matches any token type when looking for a token.
+   */
+  static final TerminalToken ANY_TOKEN = TerminalToken.TokenNameInvalid;
+
+  private static final int MIN_CAPACITY = 16;
+
+  /**
+   * Text of the keywords, operators and separators, indexed by token type and shared by all the compilation units. The text of a
+   * token is still compared with the shared one, as unicode escapes can spell the same token differently.
+   */
+  private static final AtomicReferenceArray<String> FIXED_TEXTS = new AtomicReferenceArray<>(TerminalToken.values().length);
+
+  private final String source;
+  private int size = 0;
+  private int[] starts;
+  /**
+   * Inclusive end offsets
+   */
+  private int[] ends;
+  private TerminalToken[] types;
+  /**
+   * Texts of the identifiers and literals of the compilation unit, in an open addressing table whose size is a power of 2,
+   * so that all the tokens of the same text share a single string.
+   */
+  private String[] texts = new String[MIN_CAPACITY];
+  private int textCount = 0;
+
+  private TokenStore(String source) {
+    this.source = source;
+    // on average, a token and the white spaces around it are longer than 4 characters
+    int capacity = Math.max(MIN_CAPACITY, source.length() / 4);
+    starts = new int[capacity];
+    ends = new int[capacity];
+    types = new TerminalToken[capacity];
+  }
+
+  static TokenStore lex(String version, String unitName, String source) {
+    TokenStore tokens = new TokenStore(source);
+    char[] sourceChars = source.toCharArray();
+    Scanner scanner = new Scanner(
+      true,
+      false,
+      false,
+      CompilerOptions.versionToJdkLevel(version),
+      null,
+      null,
+      false
+    );
+    scanner.fakeInModule = "module-info.java".equals(unitName);
+    scanner.setSource(sourceChars);
+    while (true) {
+      TerminalToken tokenType;
+      try {
+        tokenType = scanner.getNextToken();
+      } catch (InvalidInputException e) {
+        throw new IllegalStateException(e);
+      }
+      int start = scanner.getCurrentTokenStartPosition();
+      int end = scanner.getCurrentTokenEndPosition();
+      if (tokenType == TerminalToken.TokenNameCOMMENT_LINE || tokenType == TerminalToken.TokenNameCOMMENT_MARKDOWN) {
+        // line separators are not part of the comment
+        while (end > start && (sourceChars[end] == '\r' || sourceChars[end] == '\n')) {
+          end--;
+        }
+      }
+      tokens.add(start, end, tokenType);
+      if (tokenType == TerminalToken.TokenNameEOF) {
+        return tokens;
+      }
+    }
+  }
+
+  private void add(int start, int end, TerminalToken type) {
+    if (size == starts.length) {
+      int capacity = size + (size >> 1);
+      starts = Arrays.copyOf(starts, capacity);
+      ends = Arrays.copyOf(ends, capacity);
+      types = Arrays.copyOf(types, capacity);
+    }
+    starts[size] = start;
+    ends[size] = end;
+    types[size] = type;
+    size++;
+  }
+
+  int size() {
+    return size;
+  }
+
+  TerminalToken type(int index) {
+    checkIndex(index);
+    return types[index];
+  }
+
+  int start(int index) {
+    checkIndex(index);
+    return starts[index];
+  }
+
+  /**
+   * @return the offset of the last character of the token
+   */
+  int end(int index) {
+    checkIndex(index);
+    return ends[index];
+  }
+
+  /**
+   * @return the text of the token, shared with the other tokens of the same text, except for comments which are rarely repeated
+   */
+  String text(int index) {
+    int start = start(index);
+    int end = end(index) + 1;
+    return switch (types[index]) {
+      case TokenNameCOMMENT_BLOCK, TokenNameCOMMENT_JAVADOC, TokenNameCOMMENT_LINE, TokenNameCOMMENT_MARKDOWN, TokenNameEOF ->
+        source.substring(start, end);
+      case TokenNameIdentifier, TokenNameIntegerLiteral, TokenNameLongLiteral, TokenNameFloatingPointLiteral, TokenNameDoubleLiteral,
+        TokenNameCharacterLiteral, TokenNameStringLiteral, TokenNameTextBlock -> sharedText(start, end);
+      default -> fixedText(types[index], start, end);
+    };
+  }
+
+  private String fixedText(TerminalToken type, int start, int end) {
+    String text = FIXED_TEXTS.get(type.ordinal());
+    if (text == null || !matches(text, start, end)) {
+      text = source.substring(start, end);
+      FIXED_TEXTS.set(type.ordinal(), text);
+    }
+    return text;
+  }
+
+  private String sharedText(int start, int end) {
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + source.charAt(i);
+    }
+    int mask = texts.length - 1;
+    int slot = (hash ^ (hash >>> 16)) & mask;
+    String text = texts[slot];
+    while (text != null) {
+      if (matches(text, start, end)) {
+        return text;
+      }
+      slot = (slot + 1) & mask;
+      text = texts[slot];
+    }
+    text = source.substring(start, end);
+    texts[slot] = text;
+    textCount++;
+    if (textCount * 2 > texts.length) {
+      rehash();
+    }
+    return text;
+  }
+
+  private boolean matches(String text, int start, int end) {
+    return text.length() == end - start && source.regionMatches(start, text, 0, text.length());
+  }
+
+  private void rehash() {
+    String[] previous = texts;
+    texts = new String[previous.length * 2];
+    int mask = texts.length - 1;
+    for (String text : previous) {
+      if (text != null) {
+        int hash = text.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (texts[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        texts[slot] = text;
+      }
+    }
+  }
+
+  /**
+   * {@code Token#isComment()} has an issue https://github.com/eclipse-jdt/eclipse.jdt.core/issues/3914
+   * it does not support Markdown comments. This method has to be used instead.
+   */
+  boolean isComment(int index) {
+    return switch (type(index)) {
+      case TokenNameCOMMENT_BLOCK, TokenNameCOMMENT_JAVADOC, TokenNameCOMMENT_LINE, TokenNameCOMMENT_MARKDOWN -> true;
+      default -> false;
+    };
+  }
+
+  int firstIndexIn(ASTNode node, TerminalToken tokenType) {
+    return findIndex(node.getStartPosition(), tokenType, true);
+  }
+
+  int lastIndexIn(ASTNode node, TerminalToken tokenType) {
+    return findIndex(node.getStartPosition() + node.getLength() - 1, tokenType, false);
+  }
+
+  int firstIndexAfter(ASTNode node, TerminalToken tokenType) {
+    return findIndex(node.getStartPosition() + node.getLength(), tokenType, true);
+  }
+
+  int firstIndexBefore(ASTNode node, TerminalToken tokenType) {
+    return findIndex(node.getStartPosition() - 1, tokenType, false);
+  }
+
+  /**
+   * @return the index of the first token of the given type (or of any type when {@link #ANY_TOKEN} is used),
+   * starting from the token at the given position in the source, and searching forward or backward.
+   */
+  int findIndex(int position, TerminalToken tokenType, boolean forward) {
+    int left = 0;
+    int right = size - 1;
+    while (left < right) {
+      int middle = (left + right) >>> 1;
+      if (starts[middle] <= position && position <= ends[middle]) {
+        left = middle;
+        break;
+      }
+      if (ends[middle] < position) {
+        left = middle + 1;
+      } else {
+        right = middle - 1;
+      }
+    }
+    int index = left;
+    if (!forward && starts[index] > position) {
+      index--;
+    }
+    if (forward && ends[index] < position) {
+      index++;
+    }
+    while (tokenType != ANY_TOKEN && type(index) != tokenType && !matchesContextualKeyword(index, tokenType)) {
+      index += forward ? 1 : -1;
+    }
+    return index;
+  }
+
+  private boolean matchesContextualKeyword(int index, TerminalToken tokenType) {
+    TerminalToken actualType = types[index];
+    if (actualType == TerminalToken.TokenNameIdentifier && TerminalToken.isRestrictedKeyword(tokenType)) {
+      return TerminalToken.getRestrictedKeyword(text(index)) == tokenType;
+    }
+    return actualType == TerminalToken.TokenNameUNDERSCORE && tokenType == TerminalToken.TokenNameIdentifier;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+    }
+  }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import org.sonar.plugins.java.api.location.Position;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Usages of a symbol, sorted by position in the file, with the assignments of the symbol found once for all.
+ *
+ * {@link Symbol#usages()} are in the order in which the parser met them, and helpers looking for the last assignment before a
+ * given tree used to filter and sort all of them on every call. Positions are packed as {@code (line << 32) | columnOffset}
+ * so that lookups are binary searches over arrays of longs. The index of a symbol from the semantic of a file is computed
+ * lazily and kept by {@link JSema}, usages being complete once the file is parsed.
+ */
+public final class UsageIndex {
+
+  private static final UsageIndex EMPTY = new UsageIndex(Collections.emptyList());
+
+  private final List<IdentifierTree> usages;
+  private final long[] usagePositions;
+  private final List<AssignmentExpressionTree> assignments;
+  private final long[] assignmentPositions;
+
+  UsageIndex(List<IdentifierTree> unsortedUsages) {
+    List<IdentifierTree> sorted = new ArrayList<>(unsortedUsages);
+    sorted.sort(Comparator.comparingLong(usage -> position(usage.identifierToken())));
+    usages = Collections.unmodifiableList(sorted);
+    usagePositions = new long[sorted.size()];
+    List<AssignmentExpressionTree> assigned = new ArrayList<>();
+    for (int i = 0; i < usagePositions.length; i++) {
+      IdentifierTree usage = sorted.get(i);
+      usagePositions[i] = position(usage.identifierToken());
+      AssignmentExpressionTree assignment = assignmentOf(usage);
+      if (assignment != null) {
+        assigned.add(assignment);
+      }
+    }
+    // the assigned variable starts the assignment: assignments are already sorted, and their starts are distinct
+    assignments = Collections.unmodifiableList(assigned);
+    assignmentPositions = new long[assigned.size()];
+    for (int i = 0; i < assignmentPositions.length; i++) {
+      assignmentPositions[i] = position(assigned.get(i).firstToken());
+    }
+  }
+
+  public static UsageIndex of(Symbol symbol) {
+    if (symbol instanceof JSymbol jSymbol) {
+      return jSymbol.usageIndex();
+    }
+    List<IdentifierTree> usages = symbol.usages();
+    return usages.isEmpty() ? EMPTY : new UsageIndex(usages);
+  }
+
+  /**
+   * @return the usages of the symbol, sorted by position
+   */
+  public List<IdentifierTree> usages() {
+    return usages;
+  }
+
+  /**
+   * @return the assignments of any kind (including compound assignments) whose variable is a usage of the symbol, possibly
+   * parenthesized, sorted by position
+   */
+  public List<AssignmentExpressionTree> assignments() {
+    return assignments;
+  }
+
+  /**
+   * @return the last assignment of the symbol starting strictly before the given position, null if there is none
+   */
+  @CheckForNull
+  public AssignmentExpressionTree closestAssignmentBefore(Position position) {
+    int index = lowerBound(assignmentPositions, pack(position.line(), position.columnOffset())) - 1;
+    return index >= 0 ? assignments.get(index) : null;
+  }
+
+  /**
+   * @return the usages of the symbol located in the given tree, sorted by position
+   */
+  public List<IdentifierTree> usagesWithin(Tree tree) {
+    SyntaxToken firstToken = tree.firstToken();
+    SyntaxToken lastToken = tree.lastToken();
+    if (firstToken == null || lastToken == null) {
+      return Collections.emptyList();
+    }
+    int from = lowerBound(usagePositions, position(firstToken));
+    int to = lowerBound(usagePositions, position(lastToken) + 1);
+    return usages.subList(from, to);
+  }
+
+  @CheckForNull
+  private static AssignmentExpressionTree assignmentOf(IdentifierTree usage) {
+    Tree previousTree = usage;
+    Tree nonParenthesisParent = previousTree.parent();
+    while (nonParenthesisParent != null && nonParenthesisParent.is(Tree.Kind.PARENTHESIZED_EXPRESSION)) {
+      previousTree = nonParenthesisParent;
+      nonParenthesisParent = previousTree.parent();
+    }
+    if (nonParenthesisParent instanceof AssignmentExpressionTree assignment && assignment.variable().equals(previousTree)) {
+      return assignment;
+    }
+    return null;
+  }
+
+  /**
+   * @return the index of the first element of the array which is greater or equal to the key, the length of the array if
+   * there is none
+   */
+  private static int lowerBound(long[] sortedPositions, long key) {
+    // positions are distinct, as two usages or two assignments never start at the same token
+    int index = Arrays.binarySearch(sortedPositions, key);
+    return index < 0 ? (-index - 1) : index;
+  }
+
+  private static long position(SyntaxToken token) {
+    return pack(token.line(), token.column());
+  }
+
+  private static long pack(int line, int columnOffset) {
+    return ((long) line << 32) | columnOffset;
+  }
+
+}
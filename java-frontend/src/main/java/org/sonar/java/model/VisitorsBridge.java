@@ -20,10 +20,13 @@ import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.io.InterruptedIOException;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -39,13 +42,30 @@ import org.sonar.java.CheckFailureException;
 import org.sonar.java.ExceptionHandler;
 import org.sonar.java.IllegalRuleParameterException;
 import org.sonar.java.SonarComponents;
+import org.sonar.java.TimeBudget;
+import org.sonar.java.TimeBudgetExceededException;
 import org.sonar.java.annotations.VisibleForTesting;
+import org.sonar.java.ast.visitors.KindReachability;
 import org.sonar.java.ast.visitors.SonarSymbolTableVisitor;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.caching.AnalysisResult;
+import org.sonar.java.caching.AnalysisResultCache;
+import org.sonar.java.caching.AnalysisResultRecorder;
 import org.sonar.java.caching.CacheContextImpl;
+import org.sonar.java.caching.ContentHashCache;
+import org.sonar.java.caching.FileDependencies;
+import org.sonar.java.caching.FileIndex;
+import org.sonar.java.caching.ProjectIndex;
+import org.sonar.java.caching.ProjectIndexCache;
+import org.sonar.java.caching.ProjectIndexConsumer;
+import org.sonar.java.caching.ReplayableScanner;
 import org.sonar.java.classpath.DependencyVersionInference;
 import org.sonar.java.exceptions.ApiMismatchException;
 import org.sonar.java.exceptions.ThrowableUtils;
+import org.sonar.java.filters.SonarJavaIssueFilter;
+import org.sonar.java.metrics.MetricsScannerContext;
+import org.sonar.java.telemetry.AnalysisEvents;
+import org.sonar.java.telemetry.AnalysisTelemetry;
 import org.sonar.plugins.java.api.DependencyVersionAware;
 import org.sonar.plugins.java.api.InputFileScannerContext;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
@@ -55,22 +75,34 @@ import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaVersion;
 import org.sonar.plugins.java.api.JavaVersionAwareVisitor;
 import org.sonar.plugins.java.api.ModuleScannerContext;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.caching.CacheContext;
 import org.sonar.plugins.java.api.internal.EndOfAnalysis;
 import org.sonar.plugins.java.api.semantic.Sema;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
-import org.sonar.plugins.java.api.tree.Tree.Kind;
 import org.sonarsource.performance.measure.PerformanceMeasure;
 
 public class VisitorsBridge {
 
   private static final Logger LOG = LoggerFactory.getLogger(VisitorsBridge.class);
 
+  /**
+   * Only the checks, implementing a rule, are bound by the {@link TimeBudget}: the other scanners, like the issue filters, always run.
+   */
+  private static final ClassValue<Boolean> IS_CHECK = new ClassValue<>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      return AnnotationUtils.getAnnotation(type, Rule.class) != null;
+    }
+  };
+
   private final Iterable<? extends JavaCheck> visitors;
   private final List<JavaFileScanner> allScanners;
   private final List<JavaFileScanner> scannersThatCannotBeSkipped;
+  private final List<SonarJavaIssueFilter> issueFilters;
   private final SonarComponents sonarComponents;
   protected InputFile currentFile;
   protected final JavaVersion javaVersion;
@@ -81,6 +113,14 @@ public class VisitorsBridge {
   @VisibleForTesting
   CacheContext cacheContext;
   private final DependencyVersionInference dependencyService;
+  private final AnalysisResultCache analysisResultCache;
+  private final ProjectIndex projectIndex = new ProjectIndex();
+  private final List<ProjectIndex> dependencyIndexes = new ArrayList<>(List.of(projectIndex));
+  private boolean projectIndexConsumed = false;
+  private boolean unskippableVisitorsAreReplayable = false;
+  @Nullable
+  private AnalysisResultRecorder analysisResultRecorder;
+  private boolean fileBudgetExceeded = false;
 
   @VisibleForTesting
   public VisitorsBridge(JavaFileScanner visitor) {
@@ -96,24 +136,64 @@ public class VisitorsBridge {
     this.visitors = visitors;
     this.allScanners = new ArrayList<>();
     this.scannersThatCannotBeSkipped = new ArrayList<>();
+    this.issueFilters = new ArrayList<>();
     this.classpath = projectClasspath;
     this.sonarComponents = sonarComponents;
     this.cacheContext = CacheContextImpl.of(sonarComponents);
 
     this.javaVersion = javaVersion;
     dependencyService = new DependencyVersionInference();
+    analysisResultCache = new AnalysisResultCache(sonarComponents, projectClasspath, javaVersion);
     updateScanners();
   }
 
   private void updateScanners() {
     allScanners.clear();
     scannersThatCannotBeSkipped.clear();
+    issueFilters.clear();
 
     allScanners.addAll(filterVisitors(visitors, v ->
       isVisitorJavaVersionCompatible(v) && isVisitorDependencyVersionCompatible(v)));
-    if (canSkipScanningOfUnchangedFiles()) {
+    if (canSkipScanningOfUnchangedFiles() || analysisResultCache.isEnabled()) {
       scannersThatCannotBeSkipped.addAll(filterVisitors(visitors, this::isUnskippableVisitor));
     }
+    StreamSupport.stream(visitors.spliterator(), false)
+      .filter(SonarJavaIssueFilter.class::isInstance)
+      .map(SonarJavaIssueFilter.class::cast)
+      .forEach(issueFilters::add);
+    projectIndexConsumed = StreamSupport.stream(visitors.spliterator(), false)
+      .filter(ProjectIndexConsumer.class::isInstance)
+      .anyMatch(visitor -> isVisitorJavaVersionCompatible(visitor) && isVisitorDependencyVersionCompatible(visitor));
+    unskippableVisitorsAreReplayable = analysisResultCache.isEnabled() && StreamSupport.stream(visitors.spliterator(), false)
+      .filter(this::isUnskippableVisitor)
+      .allMatch(visitor -> visitor instanceof ReplayableScanner || visitor instanceof SonarJavaIssueFilter);
+    logTreeTraversals();
+  }
+
+  private void logTreeTraversals() {
+    if (!LOG.isDebugEnabled()) {
+      return;
+    }
+    int sharedTraversal = 0;
+    List<String> privateTraversals = new ArrayList<>();
+    for (JavaFileScanner scanner : allScanners) {
+      if (scanner instanceof SubscriptionVisitorsRunner runner) {
+        sharedTraversal = runner.subscriptionVisitors.size();
+      } else {
+        privateTraversals.add(scanner.getClass().getName());
+      }
+    }
+    LOG.debug("{} subscription visitors share a single tree traversal, {} scanners walk the tree on their own: {}",
+      sharedTraversal, privateTraversals.size(), privateTraversals);
+  }
+
+  /**
+   * @return false when all the visitors run on the files are {@link SyntaxOnly}, the files can then be parsed without resolving their bindings
+   */
+  public boolean requiresSemantics() {
+    return StreamSupport.stream(visitors.spliterator(), false)
+      .filter(v -> v != null && isVisitorJavaVersionCompatible(v) && isVisitorDependencyVersionCompatible(v))
+      .anyMatch(v -> !v.getClass().isAnnotationPresent(SyntaxOnly.class));
   }
 
   private boolean isVisitorDependencyVersionCompatible(Object v) {
@@ -126,13 +206,13 @@ public class VisitorsBridge {
 
   private List<JavaFileScanner> filterVisitors(Iterable<? extends JavaCheck> visitors, Predicate<Object> predicate) {
     List<JavaFileScanner> scanners = new ArrayList<>();
-    final IssuableSubscriptionVisitorsRunner runner = new IssuableSubscriptionVisitorsRunner();
+    final SubscriptionVisitorsRunner runner = new SubscriptionVisitorsRunner();
 
     StreamSupport.stream(visitors.spliterator(), false)
       .filter(predicate)
       .forEach(visitor -> {
-        if (visitor instanceof IssuableSubscriptionVisitor issuableSubscriptionVisitor) {
-          runner.add(issuableSubscriptionVisitor);
+        if (visitor instanceof SubscriptionVisitor subscriptionVisitor && canShareTreeTraversal(subscriptionVisitor)) {
+          runner.add(subscriptionVisitor);
         } else if (visitor instanceof JavaFileScanner javaFileScanner) {
           scanners.add(javaFileScanner);
         }
@@ -144,6 +224,22 @@ public class VisitorsBridge {
     return scanners;
   }
 
+  /**
+   * Subscription visitors relying on the default {@link SubscriptionVisitor#scanFile(JavaFileScannerContext)} only react to
+   * the nodes they subscribed to, and can therefore be notified during a traversal of the tree shared with other visitors.
+   */
+  @VisibleForTesting
+  static boolean canShareTreeTraversal(SubscriptionVisitor visitor) {
+    if (visitor instanceof IssuableSubscriptionVisitor) {
+      return true;
+    }
+    try {
+      return visitor.getClass().getMethod("scanFile", JavaFileScannerContext.class).getDeclaringClass() == SubscriptionVisitor.class;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
   boolean canSkipScanningOfUnchangedFiles() {
     try {
       return sonarComponents != null && sonarComponents.canSkipUnchangedFiles();
@@ -195,7 +291,9 @@ public class VisitorsBridge {
       List<JavaFileScanner> scannersRequiringParsing = new ArrayList<>();
       List<JavaFileScanner> scannersNotRequiringParsing = new ArrayList<>();
 
-      var fileScannerContext = createScannerContext(sonarComponents, inputFile, javaVersion, inAndroidContext, cacheContext);
+      // the entry of the unchanged file in the project index is restored first, for the scanners relying on it
+      restoreFileIndex(inputFile);
+      var fileScannerContext = withProjectIndex(createScannerContext(sonarComponents, inputFile, javaVersion, inAndroidContext, cacheContext));
       for (var scanner : scannersThatCannotBeSkipped) {
         boolean exceptionIsBlownUp = false;
         PerformanceMeasure.Duration scannerDuration = PerformanceMeasure.start(scanner);
@@ -233,46 +331,258 @@ public class VisitorsBridge {
       LOG.trace("Scanners that do not require parsing of {}: {}", inputFile, scannersNotRequiringParsing);
       LOG.debug("Scanners that require parsing of {}: {}", inputFile, scannersRequiringParsing);
 
+      if (allScansSucceeded) {
+        analysisResultCache.keep(inputFile);
+        keepFileIndex(inputFile);
+      }
       return allScansSucceeded;
     } else {
       return false;
     }
   }
 
+  /**
+   * When the result of the previous analysis of an unchanged file is cached, and all the scanners which cannot be skipped are able to
+   * replay their contribution to the analysis, replay the result instead of scanning the file.
+   *
+   * @param inputFile The file to scan
+   * @return True if the result of the previous analysis has been replayed and the file does not need to be parsed. False otherwise.
+   */
+  public boolean replayAnalysisResult(InputFile inputFile) {
+    if (!unskippableVisitorsAreReplayable || inputFile instanceof GeneratedFile) {
+      return false;
+    }
+    Optional<AnalysisResult> result = analysisResultCache.read(inputFile);
+    if (result.isEmpty()) {
+      return false;
+    }
+    PerformanceMeasure.Duration duration = PerformanceMeasure.start("ReplayAnalysisResult");
+    try {
+      result.get().replayIssues(sonarComponents.context(), inputFile);
+      result.get().replaySymbolTable(sonarComponents.symbolizableFor(inputFile));
+      StreamSupport.stream(visitors.spliterator(), false)
+        .filter(this::isUnskippableVisitor)
+        .filter(ReplayableScanner.class::isInstance)
+        .forEach(visitor -> ((ReplayableScanner) visitor).replay(inputFile, result.get()));
+      new ContentHashCache(sonarComponents).writeToCache(inputFile);
+      analysisResultCache.keep(inputFile);
+      restoreFileIndex(inputFile);
+      keepFileIndex(inputFile);
+    } finally {
+      duration.stop();
+    }
+    skippedFileCount++;
+    return true;
+  }
+
   public void visitFile(@Nullable Tree parsedTree, boolean fileCanBeSkipped) {
-    if (fileCanBeSkipped) {
+    boolean fileParsed = parsedTree != null;
+    boolean cacheAnalysisResult = !fileCanBeSkipped && fileParsed && analysisResultCache.isEnabled() && !(currentFile instanceof GeneratedFile);
+    AnalysisResult cachedResult = cacheAnalysisResult ? analysisResultCache.read(currentFile).orElse(null) : null;
+    boolean resultReplayed = cachedResult != null;
+    if (fileCanBeSkipped || resultReplayed) {
       skippedFileCount++;
     } else {
       fullyScannedFileCount++;
     }
 
-    PerformanceMeasure.Duration compilationUnitDuration = PerformanceMeasure.start("CompilationUnit");
-    JavaTree.CompilationUnitTreeImpl tree = new JavaTree.CompilationUnitTreeImpl(null, new ArrayList<>(), new ArrayList<>(), null, null);
-    compilationUnitDuration.stop();
-
-    PerformanceMeasure.Duration symbolTableDuration = PerformanceMeasure.start("SymbolTable");
-    boolean fileParsed = parsedTree != null;
-    if (fileParsed && parsedTree.is(Tree.Kind.COMPILATION_UNIT)) {
-      tree = (JavaTree.CompilationUnitTreeImpl) parsedTree;
-      createSonarSymbolTable(tree);
+    if (fileCanBeSkipped) {
+      analysisResultCache.keep(currentFile);
+    } else if (resultReplayed) {
+      // the issues of the skippable checks are replayed, the other scanners still need the tree
+      cachedResult.replayIssues(sonarComponents.context(), currentFile);
+      analysisResultCache.keep(currentFile);
+    } else if (cacheAnalysisResult) {
+      analysisResultRecorder = new AnalysisResultRecorder(currentFile, VisitorsBridge::canVisitorBeSkippedOnUnchangedFiles);
+      sonarComponents.setAnalysisResultRecorder(analysisResultRecorder);
     }
-    symbolTableDuration.stop();
 
-    JavaFileScannerContext javaFileScannerContext = createScannerContext(tree, tree.sema, sonarComponents, fileParsed);
-    var scanners = getScanners(fileCanBeSkipped);
+    try {
+      PerformanceMeasure.Duration compilationUnitDuration = PerformanceMeasure.start("CompilationUnit");
+      JavaTree.CompilationUnitTreeImpl tree = new JavaTree.CompilationUnitTreeImpl(null, new ArrayList<>(), new ArrayList<>(), null, null);
+      compilationUnitDuration.stop();
 
-    PerformanceMeasure.Duration scannersDuration = PerformanceMeasure.start("Scanners");
-    for (JavaFileScanner scanner : scanners) {
-      PerformanceMeasure.Duration scannerDuration = PerformanceMeasure.start(scanner);
-      try {
-        runScanner(javaFileScannerContext, scanner);
-      } catch (CheckFailureException e) {
-        interruptIfFailFast(e);
-      } finally {
-        scannerDuration.stop();
+      AnalysisTelemetry telemetry = analysisTelemetry();
+      PerformanceMeasure.Duration symbolTableDuration = PerformanceMeasure.start("SymbolTable");
+      AnalysisEvents.SymbolTable symbolTableEvent = new AnalysisEvents.SymbolTable();
+      symbolTableEvent.begin();
+      long symbolTableStart = System.nanoTime();
+      if (fileParsed && parsedTree.is(Tree.Kind.COMPILATION_UNIT)) {
+        tree = (JavaTree.CompilationUnitTreeImpl) parsedTree;
+        createSonarSymbolTable(tree);
+      }
+      symbolTableDuration.stop();
+      if (telemetry != null) {
+        telemetry.symbolTable(System.nanoTime() - symbolTableStart);
+      }
+      if (symbolTableEvent.shouldCommit()) {
+        symbolTableEvent.file = String.valueOf(currentFile);
+        symbolTableEvent.commit();
+      }
+      if (fileParsed && parsedTree.is(Tree.Kind.COMPILATION_UNIT)) {
+        index(tree);
+      }
+
+      JavaFileScannerContext javaFileScannerContext = withProjectIndex(createScannerContext(tree, tree.sema, sonarComponents, fileParsed));
+      var scanners = getScanners(fileCanBeSkipped || resultReplayed);
+
+      PerformanceMeasure.Duration scannersDuration = PerformanceMeasure.start("Scanners");
+      boolean profileChecks = isProfilingChecks();
+      TimeBudget budget = timeBudget();
+      fileBudgetExceeded = false;
+      if (budget != null) {
+        budget.startFile();
+      }
+      long scannersStart = System.nanoTime();
+      for (JavaFileScanner scanner : scanners) {
+        // the subscription visitors are bound one by one by their runner, which always runs for the visitors which are not checks
+        boolean budgeted = budget != null && IS_CHECK.get(scanner.getClass());
+        if (budgeted && isFileBudgetExceeded(budget)) {
+          continue;
+        }
+        PerformanceMeasure.Duration scannerDuration = PerformanceMeasure.start(scanner);
+        boolean timed = profileChecks || budgeted;
+        long start = timed ? System.nanoTime() : 0L;
+        if (budgeted) {
+          budget.startCheck(0L);
+        }
+        try {
+          runScanner(javaFileScannerContext, scanner);
+        } catch (TimeBudgetExceededException e) {
+          // stopped in the middle of the file, reported below
+        } catch (CheckFailureException e) {
+          interruptIfFailFast(e);
+        } finally {
+          scannerDuration.stop();
+          long elapsed = timed ? (System.nanoTime() - start) : 0L;
+          if (budgeted) {
+            reportIfExceeded(scanner, budget, elapsed, budget.endCheck());
+          }
+          // the subscription visitors are profiled one by one by their runner
+          if (profileChecks && !(scanner instanceof SubscriptionVisitorsRunner)) {
+            profileCheck(scanner, elapsed, 1);
+          }
+        }
+      }
+      scannersDuration.stop();
+      if (telemetry != null) {
+        telemetry.checks(System.nanoTime() - scannersStart);
+        if (fileParsed && javaFileScannerContext instanceof MetricsScannerContext metricsScannerContext) {
+          // computed once per file, the measurer has already computed it when it is active
+          telemetry.linesOfCode(metricsScannerContext.getMetricsComputer().getLinesOfCode(tree));
+        }
+      }
+
+      if (analysisResultRecorder != null) {
+        saveAnalysisResult(analysisResultRecorder, tree);
+      }
+    } finally {
+      TimeBudget budget = timeBudget();
+      if (budget != null) {
+        budget.endFile();
       }
+      if (analysisResultRecorder != null) {
+        sonarComponents.setAnalysisResultRecorder(null);
+        analysisResultRecorder = null;
+      }
+    }
+  }
+
+  @Nullable
+  private AnalysisTelemetry analysisTelemetry() {
+    return sonarComponents == null ? null : sonarComponents.analysisTelemetry().orElse(null);
+  }
+
+  /**
+   * @return true when the time spent by each check on the current file is collected, by a JFR recording or by the telemetry
+   */
+  private boolean isProfilingChecks() {
+    return AnalysisEvents.checksEnabled() || analysisTelemetry() != null;
+  }
+
+  private void profileCheck(Object check, long nanos, int calls) {
+    AnalysisEvents.Check.commit(String.valueOf(currentFile), check, nanos, calls);
+    AnalysisTelemetry telemetry = analysisTelemetry();
+    if (telemetry != null) {
+      telemetry.check(check, nanos);
+    }
+  }
+
+  @Nullable
+  private TimeBudget timeBudget() {
+    return sonarComponents == null ? null : sonarComponents.timeBudget().orElse(null);
+  }
+
+  private boolean isFileBudgetExceeded(TimeBudget budget) {
+    if (!fileBudgetExceeded && budget.isFileExceeded()) {
+      fileTimedOut(budget);
+    }
+    return fileBudgetExceeded;
+  }
+
+  /**
+   * @param stopped true when the check was stopped by a checkpoint of the budget, because of its own deadline or of the deadline of the file
+   */
+  private void reportIfExceeded(Object check, TimeBudget budget, long spentNanos, boolean stopped) {
+    if (budget.isCheckExceeded(spentNanos)) {
+      checkTimedOut(check, budget);
+    } else if (stopped) {
+      isFileBudgetExceeded(budget);
+    }
+  }
+
+  private void checkTimedOut(Object check, TimeBudget budget) {
+    LOG.warn("Check {} exceeded its time budget of {} ms on file '{}'.", check.getClass().getName(), budget.checkTimeoutMillis(), currentFile);
+    sonarComponents.addAnalysisWarning(String.format("Some checks exceeded the time budget set by '%s' on some files and were stopped " +
+      "when possible, their issues on these files may be missing. See the analysis logs for details.", TimeBudget.CHECK_TIMEOUT_KEY));
+    AnalysisTelemetry telemetry = analysisTelemetry();
+    if (telemetry != null) {
+      telemetry.checkTimedOut(check);
+    }
+    invalidateAnalysisResult();
+  }
+
+  private void fileTimedOut(TimeBudget budget) {
+    if (fileBudgetExceeded) {
+      return;
+    }
+    fileBudgetExceeded = true;
+    LOG.warn("Analysis of file '{}' exceeded its time budget of {} ms, the remaining checks are skipped on this file.",
+      currentFile, budget.fileTimeoutMillis());
+    sonarComponents.addAnalysisWarning(String.format("The analysis of some files exceeded the time budget set by '%s', " +
+      "some checks were skipped on these files. See the analysis logs for details.", TimeBudget.FILE_TIMEOUT_KEY));
+    AnalysisTelemetry telemetry = analysisTelemetry();
+    if (telemetry != null) {
+      telemetry.fileTimedOut();
+    }
+    invalidateAnalysisResult();
+  }
+
+  private void invalidateAnalysisResult() {
+    if (analysisResultRecorder != null) {
+      // the result of the analysis is incomplete
+      analysisResultRecorder.invalidate();
+    }
+  }
+
+  private void saveAnalysisResult(AnalysisResultRecorder recorder, JavaTree.CompilationUnitTreeImpl tree) {
+    if (!recorder.isValid()) {
+      LOG.debug("The result of the analysis of {} cannot be replayed, it is not cached.", currentFile);
+      return;
+    }
+    if (tree.sema == null || !tree.sema.hasBindings()) {
+      // the files the result depends on are only known from the semantic of the file
+      LOG.debug("The result of the analysis of {} cannot be replayed, its dependencies are unknown.", currentFile);
+      return;
+    }
+    Set<String> dependencies = FileDependencies.of(tree);
+    if (dependencies == null) {
+      LOG.debug("The result of the analysis of {} cannot be replayed, it refers to unknown symbols.", currentFile);
+      return;
     }
-    scannersDuration.stop();
+    // issue filters already scanned the file: their decision is applied once and for all to the recorded issues
+    issueFilters.forEach(recorder::retainIssuesAcceptedBy);
+    analysisResultCache.write(currentFile, recorder.result(), dependencies);
   }
 
   private void interruptIfFailFast(CheckFailureException e) {
@@ -288,27 +598,38 @@ public class VisitorsBridge {
   private void runScanner(Runnable action, JavaFileScanner scanner) throws CheckFailureException {
     try {
       action.run();
+    } catch (AnalysisException | TimeBudgetExceededException e) {
+      // failure of a subscription visitor, already logged by the SubscriptionVisitorsRunner, or check stopped by its time budget
+      throw e;
     } catch (IllegalRuleParameterException e) {
       // bad configuration of a rule parameter, we want to fail analysis fast.
       throw new AnalysisException("Bad configuration of rule parameter", e);
     } catch (Exception e) {
-      Throwable rootCause = ThrowableUtils.getRootCause(e);
-      if (rootCause instanceof InterruptedIOException
-        || rootCause instanceof InterruptedException
-        || rootCause instanceof CancellationException
-        || analysisCancelled()) {
+      if (isInterruption(e)) {
         throw e;
       }
+      throw checkFailure(e, scanner);
+    }
+  }
 
-      String message = String.format(
-        "Unable to run check %s - %s on file '%s', To help improve the SonarSource Java Analyzer, please report this problem to SonarSource: see https://community.sonarsource" +
-          ".com/",
-        scanner.getClass(), ruleKey(scanner), currentFile);
+  private boolean isInterruption(Exception e) {
+    Throwable rootCause = ThrowableUtils.getRootCause(e);
+    return rootCause instanceof InterruptedIOException
+      || rootCause instanceof InterruptedException
+      || rootCause instanceof CancellationException
+      || analysisCancelled();
+  }
 
-      LOG.error(message, e);
+  private CheckFailureException checkFailure(Exception e, JavaFileScanner scanner) {
+    String message = String.format(
+      "Unable to run check %s - %s on file '%s', To help improve the SonarSource Java Analyzer, please report this problem to SonarSource: see https://community.sonarsource" +
+        ".com/",
+      scanner.getClass(), ruleKey(scanner), currentFile);
 
-      throw new CheckFailureException(message, e);
-    }
+    LOG.error(message, e);
+    invalidateAnalysisResult();
+
+    return new CheckFailureException(message, e);
   }
 
   private boolean analysisCancelled() {
@@ -354,16 +675,73 @@ public class VisitorsBridge {
     return new DefaultModuleScannerContext(sonarComponents, javaVersion, inAndroidContext, cacheContext);
   }
 
-  private void createSonarSymbolTable(CompilationUnitTree tree) {
+  private void createSonarSymbolTable(JavaTree.CompilationUnitTreeImpl tree) {
     if (sonarComponents != null
       && !sonarComponents.isSonarLintContext()
       // don't provide semantic data (symbol highlighting) to SQ for generated files (jsp)
-      && !(currentFile instanceof GeneratedFile)) {
+      && !(currentFile instanceof GeneratedFile)
+      // without bindings, declarations have no usages to highlight
+      && tree.sema.hasBindings()) {
       SonarSymbolTableVisitor symVisitor = new SonarSymbolTableVisitor(sonarComponents.symbolizableFor(currentFile));
       symVisitor.visitCompilationUnit(tree);
     }
   }
 
+  /**
+   * The project is indexed for the scanners consuming the index, and to resolve the dependencies of the cached analysis results.
+   */
+  private boolean isProjectIndexed() {
+    return projectIndexConsumed || analysisResultCache.isEnabled();
+  }
+
+  /**
+   * The results of the analysis of the files of this bridge also depend on the types declared by the files of the given bridge, like
+   * the test files on the main files.
+   */
+  public void addDependencies(VisitorsBridge visitorsBridge) {
+    dependencyIndexes.add(visitorsBridge.projectIndex);
+  }
+
+  private void index(JavaTree.CompilationUnitTreeImpl tree) {
+    if (!isProjectIndexed() || currentFile instanceof GeneratedFile) {
+      // generated files are not part of the sources of the project
+      return;
+    }
+    PerformanceMeasure.Duration duration = PerformanceMeasure.start("ProjectIndex");
+    try {
+      FileIndex fileIndex = FileIndex.of(tree);
+      projectIndex.put(currentFile, fileIndex);
+      if (cacheContext.isCacheEnabled() && tree.sema.hasBindings()) {
+        // without bindings, the types of the file are not indexed: such an incomplete entry cannot stand for the file later on
+        new ProjectIndexCache(cacheContext).write(currentFile, fileIndex);
+      }
+    } finally {
+      duration.stop();
+    }
+  }
+
+  /**
+   * Restores the entry of an unchanged file in the project index from the previous analysis.
+   */
+  private void restoreFileIndex(InputFile inputFile) {
+    if (isProjectIndexed()) {
+      new ProjectIndexCache(cacheContext).read(inputFile).ifPresent(fileIndex -> projectIndex.put(inputFile, fileIndex));
+    }
+  }
+
+  private void keepFileIndex(InputFile inputFile) {
+    if (isProjectIndexed()) {
+      new ProjectIndexCache(cacheContext).keep(inputFile);
+    }
+  }
+
+  private <T extends ModuleScannerContext> T withProjectIndex(T context) {
+    if (context instanceof DefaultModuleScannerContext defaultContext) {
+      defaultContext.setProjectIndex(projectIndex);
+    }
+    return context;
+  }
+
   private List<JavaFileScanner> getScanners(boolean supportedScannersCanBeSkippedForThisFile) {
     return supportedScannersCanBeSkippedForThisFile ? scannersThatCannotBeSkipped : allScanners;
   }
@@ -387,28 +765,109 @@ public class VisitorsBridge {
     } else if (fullyScannedFileCount > 0) {
       LOG.info("Did not optimize analysis for any files, performed a full analysis for all {} files.", fullyScannedFileCount);
     }
+    analysisResultCache.writePendingResults(dependencyIndexes);
 
-    var moduleContext = createScannerContext(sonarComponents, javaVersion, inAndroidContext, cacheContext);
+    var moduleContext = withProjectIndex(createScannerContext(sonarComponents, javaVersion, inAndroidContext, cacheContext));
 
     allScanners.stream()
       .filter(EndOfAnalysis.class::isInstance)
       .map(EndOfAnalysis.class::cast)
-      .forEach(check -> check.endOfAnalysis(moduleContext));
+      .forEach(check -> endOfAnalysis(check, moduleContext));
   }
 
-  private class IssuableSubscriptionVisitorsRunner implements JavaFileScanner, EndOfAnalysis {
-    private EnumMap<Tree.Kind, List<SubscriptionVisitor>> checks;
-    private List<SubscriptionVisitor> subscriptionVisitors;
+  private static void endOfAnalysis(EndOfAnalysis check, ModuleScannerContext moduleContext) {
+    AnalysisEvents.EndOfAnalysis event = new AnalysisEvents.EndOfAnalysis();
+    event.begin();
+    try {
+      check.endOfAnalysis(moduleContext);
+    } finally {
+      if (event.shouldCommit()) {
+        event.check = check.getClass().getSimpleName();
+        event.commit();
+      }
+    }
+  }
+
+  /**
+   * Notifies all the subscription visitors during a single traversal of the tree. A failure of an {@link IssuableSubscriptionVisitor}
+   * stops all the issuable visitors on the current file, while any other subscription visitor is only stopped by its own failures.
+   * <p>
+   * The visitors are dispatched through a table indexed by {@link Tree.Kind#ordinal()}, and callbacks are invoked directly,
+   * so that walking a node does not allocate. The time spent by each visitor is only measured when performance measures are active,
+   * when the time of each check is profiled, aggregated per visitor and reported once per file, or when the checks are bound by a
+   * {@link TimeBudget}: a check exceeding its budget is stopped on the current file, in the middle of a callback when possible, and
+   * all the checks are skipped once the file exceeds its budget, while the traversal goes on for the visitors which are not checks.
+   * <p>
+   * The children of a node are not walked when none of them can be of a subscribed kind, see {@link KindReachability}. The number of
+   * skipped subtrees is reported by the telemetry of the analysis.
+   */
+  private class SubscriptionVisitorsRunner implements JavaFileScanner, EndOfAnalysis {
+    private static final SubscriptionVisitor[] NO_VISITORS = new SubscriptionVisitor[0];
+    private static final int TOKEN = Tree.Kind.TOKEN.ordinal();
+
+    private final EnumMap<Tree.Kind, List<SubscriptionVisitor>> checks;
+    private final List<SubscriptionVisitor> subscriptionVisitors;
+    private final Set<SubscriptionVisitor> failedVisitors;
+    @Nullable
+    private SubscriptionVisitor[][] visitorsByKind;
+    private SubscriptionVisitor[] triviaVisitors = NO_VISITORS;
+    private int[][] visitorIndexesByKind = new int[0][];
+    private int[] triviaVisitorIndexes = new int[0];
+    private boolean[] skippableChildren = new boolean[0];
+    private int skippedSubtrees = 0;
+    private boolean measureVisitors = false;
+    private boolean profileVisitors = false;
+    private boolean timeVisitors = false;
+    @Nullable
+    private TimeBudget budget;
+    private boolean[] budgetedVisitors = new boolean[0];
+    private long[] visitorTimes = new long[0];
+    private int[] visitorCalls = new int[0];
 
-    IssuableSubscriptionVisitorsRunner() {
+    SubscriptionVisitorsRunner() {
       checks = new EnumMap<>(Tree.Kind.class);
       this.subscriptionVisitors = new ArrayList<>();
+      this.failedVisitors = Collections.newSetFromMap(new IdentityHashMap<>());
     }
 
     private void add(SubscriptionVisitor subscriptionVisitor) {
       this.subscriptionVisitors.add(subscriptionVisitor);
       subscriptionVisitor.nodesToVisit()
         .forEach(k -> checks.computeIfAbsent(k, key -> new ArrayList<>()).add(subscriptionVisitor));
+      visitorsByKind = null;
+    }
+
+    private SubscriptionVisitor[][] visitorsByKind() {
+      if (visitorsByKind == null) {
+        Tree.Kind[] kinds = Tree.Kind.values();
+        SubscriptionVisitor[][] table = new SubscriptionVisitor[kinds.length][];
+        int[][] indexes = new int[kinds.length][];
+        for (Tree.Kind kind : kinds) {
+          SubscriptionVisitor[] subscribed = checks.getOrDefault(kind, Collections.emptyList()).toArray(NO_VISITORS);
+          table[kind.ordinal()] = subscribed;
+          indexes[kind.ordinal()] = indexesOf(subscribed);
+        }
+        triviaVisitors = table[Tree.Kind.TRIVIA.ordinal()];
+        triviaVisitorIndexes = indexes[Tree.Kind.TRIVIA.ordinal()];
+        visitorIndexesByKind = indexes;
+        skippableChildren = KindReachability.skippableChildren(checks.keySet());
+        visitorTimes = new long[subscriptionVisitors.size()];
+        visitorCalls = new int[subscriptionVisitors.size()];
+        budgetedVisitors = new boolean[subscriptionVisitors.size()];
+        for (int i = 0; i < budgetedVisitors.length; i++) {
+          budgetedVisitors[i] = IS_CHECK.get(subscriptionVisitors.get(i).getClass());
+        }
+        visitorsByKind = table;
+      }
+      return visitorsByKind;
+    }
+
+    private int[] indexesOf(SubscriptionVisitor[] visitors) {
+      int[] indexes = new int[visitors.length];
+      for (int i = 0; i < visitors.length; i++) {
+        indexes[i] = subscriptionVisitors.indexOf(visitors[i]);
+      }
+      return indexes;
     }
 
     @Override
@@ -437,63 +896,233 @@ public class VisitorsBridge {
     @Override
     public void scanFile(JavaFileScannerContext javaFileScannerContext) {
       PerformanceMeasure.Duration issuableSubscriptionVisitorsDuration = PerformanceMeasure.start("IssuableSubscriptionVisitors");
+      failedVisitors.clear();
+      measureVisitors = sonarComponents != null && sonarComponents.isPerformanceMeasureActive();
+      profileVisitors = isProfilingChecks();
+      budget = timeBudget();
+      timeVisitors = profileVisitors || budget != null;
+      skippedSubtrees = 0;
+      SubscriptionVisitor[][] table = visitorsByKind();
       try {
-        forEach(subscriptionVisitors, s -> s.setContext(javaFileScannerContext));
-        visit(javaFileScannerContext.getTree());
-        forEach(subscriptionVisitors, s -> s.leaveFile(javaFileScannerContext));
-      } catch (CheckFailureException e) {
-        interruptIfFailFast(e);
+        forEach(s -> s.setContext(javaFileScannerContext));
+        visit(table, javaFileScannerContext.getTree());
+        forEach(s -> s.leaveFile(javaFileScannerContext));
       } finally {
+        failedVisitors.clear();
         issuableSubscriptionVisitorsDuration.stop();
+        AnalysisTelemetry telemetry = analysisTelemetry();
+        if (telemetry != null) {
+          telemetry.skippedSubtrees(skippedSubtrees);
+        }
+        if (profileVisitors) {
+          reportVisitorTimes();
+        } else if (timeVisitors) {
+          Arrays.fill(visitorTimes, 0L);
+          Arrays.fill(visitorCalls, 0);
+        }
       }
     }
 
+    private void reportVisitorTimes() {
+      for (int i = 0; i < visitorCalls.length; i++) {
+        if (visitorCalls[i] > 0) {
+          profileCheck(subscriptionVisitors.get(i), visitorTimes[i], visitorCalls[i]);
+        }
+      }
+      Arrays.fill(visitorTimes, 0L);
+      Arrays.fill(visitorCalls, 0);
+    }
+
     @Override
     public void endOfAnalysis(ModuleScannerContext cachedContext) {
       subscriptionVisitors.stream()
         .filter(EndOfAnalysis.class::isInstance)
         .map(EndOfAnalysis.class::cast)
-        .forEach(check -> check.endOfAnalysis(cachedContext));
+        .forEach(check -> VisitorsBridge.endOfAnalysis(check, cachedContext));
     }
 
-    private void visitChildren(Tree tree) throws CheckFailureException {
+    private void visit(SubscriptionVisitor[][] table, Tree tree) {
+      int kind = tree.kind().ordinal();
+      SubscriptionVisitor[] subscribed = table[kind];
+      int[] indexes = visitorIndexesByKind[kind];
+      if (kind == TOKEN) {
+        SyntaxToken token = (SyntaxToken) tree;
+        notify(subscribed, indexes, Callback.VISIT_TOKEN, token);
+        if (triviaVisitors.length > 0) {
+          notify(triviaVisitors, triviaVisitorIndexes, Callback.VISIT_TRIVIA, token);
+        }
+        return;
+      }
+      notify(subscribed, indexes, Callback.VISIT_NODE, tree);
       JavaTree javaTree = (JavaTree) tree;
       if (!javaTree.isLeaf()) {
-        for (Tree next : javaTree.getChildren()) {
-          if (next != null) {
-            visit(next);
+        if (skippableChildren[kind]) {
+          skippedSubtrees++;
+        } else {
+          visitChildren(table, javaTree.getChildren());
+        }
+      }
+      notify(subscribed, indexes, Callback.LEAVE_NODE, tree);
+    }
+
+    private void visitChildren(SubscriptionVisitor[][] table, List<Tree> children) {
+      for (int i = 0; i < children.size(); i++) {
+        Tree child = children.get(i);
+        if (child != null) {
+          visit(table, child);
+        }
+      }
+    }
+
+    private void notify(SubscriptionVisitor[] visitors, int[] indexes, Callback callback, Tree tree) {
+      for (int i = 0; i < visitors.length; i++) {
+        SubscriptionVisitor visitor = visitors[i];
+        if (!failedVisitors.isEmpty() && failedVisitors.contains(visitor)) {
+          continue;
+        }
+        int index = indexes[i];
+        boolean budgeted = budget != null && budgetedVisitors[index];
+        if (budgeted && skipIfFileExceeded(visitor)) {
+          continue;
+        }
+        PerformanceMeasure.Duration visitorDuration = measureVisitors ? PerformanceMeasure.start(visitor) : null;
+        long start = timeVisitors ? System.nanoTime() : 0L;
+        if (budgeted) {
+          budget.startCheck(visitorTimes[index]);
+        }
+        try {
+          callback.invoke(visitor, tree);
+        } catch (TimeBudgetExceededException e) {
+          // stopped in the middle of the callback, reported below
+        } catch (RuntimeException e) {
+          onFailure(visitor, e);
+        } finally {
+          if (visitorDuration != null) {
+            visitorDuration.stop();
+          }
+          if (timeVisitors) {
+            visitorTimes[index] += System.nanoTime() - start;
+            visitorCalls[index]++;
           }
         }
+        if (budgeted) {
+          stopIfExceeded(visitor, index, budget.endCheck());
+        }
       }
     }
 
-    private void visit(Tree tree) throws CheckFailureException {
-      Kind kind = tree.kind();
-      List<SubscriptionVisitor> subscribed = checks.getOrDefault(kind, Collections.emptyList());
-      Consumer<SubscriptionVisitor> callback;
-      boolean isToken = (kind == Tree.Kind.TOKEN);
-      if (isToken) {
-        callback = s -> s.visitToken((SyntaxToken) tree);
-      } else {
-        callback = s -> s.visitNode(tree);
+    private void forEach(Consumer<SubscriptionVisitor> callback) {
+      for (int i = 0; i < subscriptionVisitors.size(); i++) {
+        SubscriptionVisitor visitor = subscriptionVisitors.get(i);
+        if (failedVisitors.contains(visitor)) {
+          continue;
+        }
+        boolean budgeted = budget != null && budgetedVisitors[i];
+        if (budgeted && skipIfFileExceeded(visitor)) {
+          continue;
+        }
+        PerformanceMeasure.Duration visitorDuration = PerformanceMeasure.start(visitor);
+        long start = timeVisitors ? System.nanoTime() : 0L;
+        if (budgeted) {
+          budget.startCheck(visitorTimes[i]);
+        }
+        try {
+          runScanner(() -> callback.accept(visitor), visitor);
+        } catch (TimeBudgetExceededException e) {
+          // stopped in the middle of the callback, reported below
+        } catch (CheckFailureException e) {
+          stopFailedVisitor(visitor);
+          interruptIfFailFast(e);
+        } finally {
+          visitorDuration.stop();
+          if (timeVisitors) {
+            visitorTimes[i] += System.nanoTime() - start;
+            visitorCalls[i]++;
+          }
+        }
+        if (budgeted) {
+          stopIfExceeded(visitor, i, budget.endCheck());
+        }
       }
-      forEach(subscribed, callback);
-      if (isToken) {
-        forEach(checks.getOrDefault(Tree.Kind.TRIVIA, Collections.emptyList()), s -> ((SyntaxToken) tree).trivias().forEach(s::visitTrivia));
-      } else {
-        visitChildren(tree);
+    }
+
+    /**
+     * Once the file exceeded its budget, the checks are not called anymore on the file, while the traversal goes on for the other
+     * visitors, like the ones saving the metrics and the highlighting of the file.
+     */
+    private boolean skipIfFileExceeded(SubscriptionVisitor visitor) {
+      if (isFileBudgetExceeded(budget)) {
+        failedVisitors.add(visitor);
+        return true;
       }
-      if (!isToken) {
-        forEach(subscribed, s -> s.leaveNode(tree));
+      return false;
+    }
+
+    /**
+     * A visitor exceeding its budget, in a single callback or through many short ones, is not called anymore on the current file.
+     */
+    private void stopIfExceeded(SubscriptionVisitor visitor, int index, boolean stopped) {
+      if ((stopped || budget.isCheckExceeded(visitorTimes[index])) && failedVisitors.add(visitor)) {
+        reportIfExceeded(visitor, budget, visitorTimes[index], stopped);
       }
     }
 
-    private final void forEach(Collection<SubscriptionVisitor> visitors, Consumer<SubscriptionVisitor> callback) throws CheckFailureException {
-      for (SubscriptionVisitor visitor : visitors) {
-        PerformanceMeasure.Duration visitorDuration = PerformanceMeasure.start(visitor);
-        runScanner(() -> callback.accept(visitor), visitor);
-        visitorDuration.stop();
+    private void onFailure(SubscriptionVisitor visitor, RuntimeException e) {
+      if (e instanceof AnalysisException) {
+        throw e;
+      }
+      if (e instanceof IllegalRuleParameterException) {
+        // bad configuration of a rule parameter, we want to fail analysis fast.
+        throw new AnalysisException("Bad configuration of rule parameter", e);
+      }
+      if (isInterruption(e)) {
+        throw e;
       }
+      CheckFailureException failure = checkFailure(e, visitor);
+      stopFailedVisitor(visitor);
+      interruptIfFailFast(failure);
     }
+
+    private void stopFailedVisitor(SubscriptionVisitor visitor) {
+      if (visitor instanceof IssuableSubscriptionVisitor) {
+        subscriptionVisitors.stream()
+          .filter(IssuableSubscriptionVisitor.class::isInstance)
+          .forEach(failedVisitors::add);
+      } else {
+        failedVisitors.add(visitor);
+      }
+    }
+  }
+
+  private enum Callback {
+    VISIT_NODE {
+      @Override
+      void invoke(SubscriptionVisitor visitor, Tree tree) {
+        visitor.visitNode(tree);
+      }
+    },
+    LEAVE_NODE {
+      @Override
+      void invoke(SubscriptionVisitor visitor, Tree tree) {
+        visitor.leaveNode(tree);
+      }
+    },
+    VISIT_TOKEN {
+      @Override
+      void invoke(SubscriptionVisitor visitor, Tree tree) {
+        visitor.visitToken((SyntaxToken) tree);
+      }
+    },
+    VISIT_TRIVIA {
+      @Override
+      void invoke(SubscriptionVisitor visitor, Tree tree) {
+        List<SyntaxTrivia> trivias = ((SyntaxToken) tree).trivias();
+        for (int i = 0; i < trivias.size(); i++) {
+          visitor.visitTrivia(trivias.get(i));
+        }
+      }
+    };
+
+    abstract void invoke(SubscriptionVisitor visitor, Tree tree);
   }
 }
@@ -26,18 +26,25 @@ import org.sonarsource.analyzer.commons.regex.RegexParser;
 import org.sonarsource.analyzer.commons.regex.ast.FlagSet;
 import org.sonarsource.performance.measure.PerformanceMeasure;
 
+/**
+ * Regexes parsed while analyzing a file, keyed by the identity of their string literals and by their initial flags. The parse results
+ * locate issues in the literals of the file, hence they are not shared with other files, see {@link RegexVerdictCache}.
+ */
 public final class RegexCache {
-  private final Map<List<LiteralTree>, RegexParseResult> cache = new HashMap<>();
+  private final Map<Key, RegexParseResult> cache = new HashMap<>();
 
   public RegexParseResult getRegexForLiterals(FlagSet initialFlags, LiteralTree... stringLiterals) {
     return cache.computeIfAbsent(
-      Arrays.asList(stringLiterals),
+      new Key(Arrays.asList(stringLiterals), initialFlags.getMask()),
       k -> {
         PerformanceMeasure.Duration regexForLiteralsDuration = PerformanceMeasure.start("RegexParser");
-        RegexParseResult result = new RegexParser(new JavaAnalyzerRegexSource(k), initialFlags).parse();
+        RegexParseResult result = new RegexParser(new JavaAnalyzerRegexSource(k.literals()), initialFlags).parse();
         regexForLiteralsDuration.stop();
         return result;
       });
   }
 
+  private record Key(List<LiteralTree> literals, int flags) {
+  }
+
 }
@@ -32,4 +32,9 @@ public interface RegexScannerContext {
 
   RegexParseResult regexForLiterals(FlagSet initialFlags, LiteralTree... stringLiterals);
 
+  /**
+   * @return the verdicts of the regex checks, shared by all the files of the module
+   */
+  RegexVerdictCache regexVerdicts();
+
 }
@@ -0,0 +1,90 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.regex;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.sonar.java.annotations.VisibleForTesting;
+import org.sonarsource.analyzer.commons.regex.RegexParseResult;
+import org.sonarsource.performance.measure.PerformanceMeasure;
+
+/**
+ * Verdicts of regex checks which only depend on the text of a regex and its initial flags, shared by all the files of a module,
+ * so that a regex copied across many files is analyzed once.
+ * <p>
+ * A {@link RegexParseResult} itself can not be shared across files, because its syntax elements locate issues in the string
+ * literals of the file being analyzed: only the verdicts derived from it, like the backtracking analysis of the automaton of the
+ * regex, are cached. The cache is bounded, the least recently used verdicts are evicted first, and can be used by several threads.
+ */
+public final class RegexVerdictCache {
+
+  public static final int DEFAULT_CAPACITY = 10_000;
+
+  private final Map<Key, Object> verdicts;
+
+  public RegexVerdictCache() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  @VisibleForTesting
+  RegexVerdictCache(int capacity) {
+    verdicts = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /**
+   * @param check the check computing the verdict, each check has its own verdicts
+   * @param regex the regex the verdict is about, identified by its text and initial flags
+   * @param variant any other input of the verdict, like the match type of the regex, {@code null} if none
+   * @param verdict computes the verdict when it is not cached yet, it must only depend on the regex and the variant
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T computeIfAbsent(RegexCheck check, RegexParseResult regex, @Nullable Object variant, Supplier<T> verdict) {
+    Key key = new Key(check.getClass(), regex.getResult().getSource().getSourceText(), regex.getInitialFlags().getMask(), variant);
+    Object cached;
+    synchronized (verdicts) {
+      cached = verdicts.get(key);
+    }
+    if (cached != null) {
+      return (T) cached;
+    }
+    // computed outside the lock, two threads may compute the same verdict concurrently
+    PerformanceMeasure.Duration duration = PerformanceMeasure.start("RegexVerdict");
+    T computed = verdict.get();
+    duration.stop();
+    synchronized (verdicts) {
+      verdicts.put(key, computed);
+    }
+    return computed;
+  }
+
+  @VisibleForTesting
+  int size() {
+    synchronized (verdicts) {
+      return verdicts.size();
+    }
+  }
+
+  private record Key(Class<?> check, String regex, int flags, @Nullable Object variant) {
+  }
+}
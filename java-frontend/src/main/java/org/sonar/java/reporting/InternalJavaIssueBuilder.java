@@ -33,6 +33,7 @@ import org.sonar.api.batch.sensor.issue.fix.NewQuickFix;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.java.Preconditions;
 import org.sonar.java.SonarComponents;
+import org.sonar.java.caching.AnalysisResult.Location;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.Tree;
@@ -227,27 +228,45 @@ public class InternalJavaIssueBuilder implements JavaIssueBuilderExtended {
       }
     }
 
-    handleQuickFixes(ruleKeyVal, newIssue);
+    boolean quickFixAvailable = handleQuickFixes(ruleKeyVal, newIssue);
 
     newIssue.save();
     reported = true;
+
+    sonarComponents.analysisResultRecorder().ifPresent(recorder -> recorder.recordIssue(rule, ruleKeyVal, inputFile,
+      Location.of(textSpan, message), cost == null ? 0.0 : cost.doubleValue(), recordedFlows(), quickFixAvailable));
   }
 
-  private void handleQuickFixes(RuleKey ruleKey, NewIssue newIssue) {
+  private List<List<Location>> recordedFlows() {
+    if (flows == null) {
+      return Collections.emptyList();
+    }
+    return flows.stream()
+      .map(flow -> flow.stream()
+        .map(location -> Location.of(AnalyzerMessage.textSpanFor(location.syntaxNode), location.msg))
+        .toList())
+      .toList();
+  }
+
+  /**
+   * @return true when the issue is only flagged as having quick fixes available
+   */
+  private boolean handleQuickFixes(RuleKey ruleKey, NewIssue newIssue) {
     if (quickFixes.isEmpty() || (!isQuickFixCompatible && !isSetQuickFixAvailableCompatible)) {
-      return;
+      return false;
     }
     final List<JavaQuickFix> flatQuickFixes = quickFixes.stream()
       .flatMap(s -> s.get().stream())
       .toList();
     if (flatQuickFixes.isEmpty()) {
-      return;
+      return false;
     }
     if (isQuickFixCompatible) {
       addQuickFixes(inputFile, ruleKey, flatQuickFixes, newIssue);
-    } else {
-      newIssue.setQuickFixAvailable(true);
+      return false;
     }
+    newIssue.setQuickFixAvailable(true);
+    return true;
   }
 
   private static void addQuickFixes(InputFile inputFile, RuleKey ruleKey, Iterable<JavaQuickFix> quickFixes, NewIssue sonarLintIssue) {
@@ -0,0 +1,118 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.telemetry;
+
+import java.util.List;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder events emitted by the analysis. They are always emitted, but cost close to nothing unless a recording
+ * enables them, see {@link AnalysisRecording}.
+ * <p>
+ * Phases are timed by the events themselves ({@link Event#begin()} / {@link Event#commit()}). The time spent by a check
+ * on a file is aggregated over all its callbacks and committed once per file, with its own {@link Check#time} field.
+ */
+public final class AnalysisEvents {
+
+  private static final String CATEGORY = "SonarJava";
+
+  static final List<Class<? extends Event>> ALL = List.of(Parse.class, Convert.class, SymbolTable.class, Check.class, EndOfAnalysis.class);
+
+  private AnalysisEvents() {
+  }
+
+  /**
+   * @return true when a recording collects the time spent by checks, which is only then measured
+   */
+  public static boolean checksEnabled() {
+    return new Check().isEnabled();
+  }
+
+  @Name("org.sonar.java.Parse")
+  @Label("Parse")
+  @Description("Parsing and semantic resolution by ECJ, of a single file or of a whole batch of files")
+  @Category(CATEGORY)
+  @StackTrace(false)
+  public static final class Parse extends Event {
+    @Label("File")
+    public String file;
+    @Label("Files")
+    public int files;
+  }
+
+  @Name("org.sonar.java.Convert")
+  @Label("Convert")
+  @Description("Conversion of the ECJ tree of a file into the SonarJava tree")
+  @Category(CATEGORY)
+  @StackTrace(false)
+  public static final class Convert extends Event {
+    @Label("File")
+    public String file;
+  }
+
+  @Name("org.sonar.java.SymbolTable")
+  @Label("Symbol Table")
+  @Category(CATEGORY)
+  @StackTrace(false)
+  public static final class SymbolTable extends Event {
+    @Label("File")
+    public String file;
+  }
+
+  @Name("org.sonar.java.Check")
+  @Label("Check")
+  @Description("Time spent by a check on a file, aggregated over all its callbacks")
+  @Category(CATEGORY)
+  @StackTrace(false)
+  public static final class Check extends Event {
+    @Label("File")
+    public String file;
+    @Label("Check")
+    public String check;
+    @Label("Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long time;
+    @Label("Calls")
+    public int calls;
+
+    public static void commit(String file, Object check, long time, int calls) {
+      Check event = new Check();
+      if (event.shouldCommit()) {
+        event.file = file;
+        event.check = check.getClass().getSimpleName();
+        event.time = time;
+        event.calls = calls;
+        event.commit();
+      }
+    }
+  }
+
+  @Name("org.sonar.java.EndOfAnalysis")
+  @Label("End Of Analysis")
+  @Category(CATEGORY)
+  @StackTrace(false)
+  public static final class EndOfAnalysis extends Event {
+    @Label("Check")
+    public String check;
+  }
+}
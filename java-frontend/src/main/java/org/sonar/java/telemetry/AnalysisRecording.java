@@ -0,0 +1,89 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.config.Configuration;
+
+/**
+ * JDK Flight Recorder recording of the {@link AnalysisEvents}, activated by {@value #ACTIVATION_KEY} and written when the
+ * analysis ends, by default as {@value #DESTINATION_FILE} in the work directory.
+ */
+public final class AnalysisRecording {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AnalysisRecording.class);
+
+  public static final String ACTIVATION_KEY = "sonar.java.performance.jfr";
+  public static final String FILE_PATH_KEY = "sonar.java.performance.jfr.path";
+  public static final String DESTINATION_FILE = "sonar.java.performance.jfr";
+
+  private final Recording recording;
+  private final Path destination;
+
+  private AnalysisRecording(Recording recording, Path destination) {
+    this.recording = recording;
+    this.destination = destination;
+  }
+
+  /**
+   * @return the started recording, or null when it is not activated or when there is nowhere to write it
+   */
+  @CheckForNull
+  public static AnalysisRecording start(Configuration config, @Nullable File workDir) {
+    if (!config.getBoolean(ACTIVATION_KEY).orElse(false)) {
+      return null;
+    }
+    Optional<Path> destination = config.get(FILE_PATH_KEY)
+      .filter(path -> !path.isEmpty())
+      .map(Path::of)
+      .or(() -> Optional.ofNullable(workDir).filter(File::exists).map(dir -> dir.toPath().resolve(DESTINATION_FILE)));
+    if (destination.isEmpty()) {
+      LOG.warn("No destination for the JFR recording of the analysis, set '{}' to activate it.", FILE_PATH_KEY);
+      return null;
+    }
+    Recording recording = new Recording();
+    recording.setName("SonarJava");
+    AnalysisEvents.ALL.forEach(event -> recording.enable(event).withoutThreshold());
+    recording.start();
+    return new AnalysisRecording(recording, destination.get());
+  }
+
+  public void stop() {
+    try {
+      recording.stop();
+      Path directory = destination.toAbsolutePath().getParent();
+      if (directory != null) {
+        Files.createDirectories(directory);
+      }
+      recording.dump(destination);
+      LOG.info("JFR recording of the analysis written to {}", destination);
+    } catch (IOException | IllegalStateException e) {
+      LOG.warn("Unable to write the JFR recording of the analysis to {}: {}", destination, e.getMessage());
+    } finally {
+      recording.close();
+    }
+  }
+}
@@ -0,0 +1,350 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.telemetry;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.config.Configuration;
+
+/**
+ * Time spent on each analyzed file, by phase, activated by {@value #ACTIVATION_KEY} and written as JSON, by default as
+ * {@value #DESTINATION_FILE} in the work directory.
+ * <p>
+ * The record of a file is written as soon as the file is analyzed, and the whole analysis is summarized by histograms of
+ * fixed size: the cost of a file does not depend on the number of files already analyzed. ECJ parses a batch of files at once,
+ * the parse time of these files is then only known for the whole batch and summarized by the {@code batchParse} histogram.
+ */
+public final class AnalysisTelemetry {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AnalysisTelemetry.class);
+
+  public static final String ACTIVATION_KEY = "sonar.java.performance.telemetry";
+  public static final String FILE_PATH_KEY = "sonar.java.performance.telemetry.path";
+  public static final String DESTINATION_FILE = "sonar.java.performance.telemetry.json";
+
+  static final int TOP_CHECKS = 5;
+  private static final double[] PERCENTILES = {50, 90, 99};
+
+  private final Path destination;
+  @Nullable
+  private Writer writer;
+  private boolean firstFile = true;
+  private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+  private final Histogram totalTimes = histogram("total");
+  private final Histogram parseTimes = histogram("parse");
+  private final Histogram convertTimes = histogram("convert");
+  private final Histogram symbolTableTimes = histogram("symbolTable");
+  private final Histogram checksTimes = histogram("checks");
+  private final Histogram batchParseTimes = histogram("batchParse");
+
+  @Nullable
+  private InputFile currentFile;
+  private long fileStart;
+  private long parseNanos;
+  private long convertNanos;
+  private long symbolTableNanos;
+  private long checksNanos;
+  private int linesOfCode;
+  private final String[] topChecks = new String[TOP_CHECKS];
+  private final long[] topChecksNanos = new long[TOP_CHECKS];
+  private int topChecksCount;
+  private final List<String> timedOutChecks = new ArrayList<>();
+  private boolean fileBudgetExceeded;
+  private long skippedSubtrees;
+  private long totalSkippedSubtrees;
+
+  AnalysisTelemetry(Path destination, Writer writer) {
+    this.destination = destination;
+    this.writer = writer;
+  }
+
+  /**
+   * @return the started telemetry, or null when it is not activated or when its destination can not be written
+   */
+  @CheckForNull
+  public static AnalysisTelemetry start(Configuration config, @Nullable File workDir) {
+    if (!config.getBoolean(ACTIVATION_KEY).orElse(false)) {
+      return null;
+    }
+    Optional<Path> destination = config.get(FILE_PATH_KEY)
+      .filter(path -> !path.isEmpty())
+      .map(Path::of)
+      .or(() -> Optional.ofNullable(workDir).filter(File::exists).map(dir -> dir.toPath().resolve(DESTINATION_FILE)));
+    if (destination.isEmpty()) {
+      LOG.warn("No destination for the telemetry of the analysis, set '{}' to activate it.", FILE_PATH_KEY);
+      return null;
+    }
+    try {
+      Path directory = destination.get().toAbsolutePath().getParent();
+      if (directory != null) {
+        Files.createDirectories(directory);
+      }
+      BufferedWriter writer = Files.newBufferedWriter(destination.get(), StandardCharsets.UTF_8);
+      writer.write("{\"files\":[");
+      return new AnalysisTelemetry(destination.get(), writer);
+    } catch (IOException e) {
+      LOG.warn("Unable to write the telemetry of the analysis to {}: {}", destination.get(), e.getMessage());
+      return null;
+    }
+  }
+
+  private Histogram histogram(String phase) {
+    Histogram histogram = new Histogram();
+    histograms.put(phase, histogram);
+    return histogram;
+  }
+
+  /**
+   * @param parseNanos time spent by ECJ on the file, -1 when it is unknown, because the file was parsed as part of a batch: the
+   *                   time is then left out of the record of the file and reported by {@link #batch(long)}
+   * @param convertNanos time spent to convert the ECJ tree, -1 when unknown
+   */
+  public void startFile(InputFile inputFile, long parseNanos, long convertNanos) {
+    currentFile = inputFile;
+    fileStart = System.nanoTime();
+    this.parseNanos = parseNanos;
+    this.convertNanos = convertNanos;
+    symbolTableNanos = 0L;
+    checksNanos = 0L;
+    linesOfCode = -1;
+    topChecksCount = 0;
+    timedOutChecks.clear();
+    fileBudgetExceeded = false;
+    skippedSubtrees = 0L;
+  }
+
+  public void symbolTable(long nanos) {
+    symbolTableNanos += nanos;
+  }
+
+  /**
+   * Lines of code of the current file, as computed for its measures, unknown when the file could not be parsed.
+   */
+  public void linesOfCode(int linesOfCode) {
+    this.linesOfCode = linesOfCode;
+  }
+
+  /**
+   * Time spent by ECJ to parse a whole batch of files, which is not known file by file.
+   */
+  public void batch(long parseNanos) {
+    batchParseTimes.record(micros(parseNanos));
+  }
+
+  /**
+   * Time spent by all the checks, as a whole, on the current file.
+   */
+  public void checks(long nanos) {
+    checksNanos += nanos;
+  }
+
+  /**
+   * Time spent by a single check on the current file, only the slowest checks of the file are kept.
+   */
+  public void check(Object check, long nanos) {
+    if (currentFile == null) {
+      return;
+    }
+    int position = topChecksCount;
+    while (position > 0 && topChecksNanos[position - 1] < nanos) {
+      position--;
+    }
+    if (position == TOP_CHECKS) {
+      return;
+    }
+    int last = Math.min(topChecksCount, TOP_CHECKS - 1);
+    System.arraycopy(topChecks, position, topChecks, position + 1, last - position);
+    System.arraycopy(topChecksNanos, position, topChecksNanos, position + 1, last - position);
+    topChecks[position] = check.getClass().getSimpleName();
+    topChecksNanos[position] = nanos;
+    topChecksCount = Math.min(topChecksCount + 1, TOP_CHECKS);
+  }
+
+  /**
+   * A check aborted on the current file, because it exceeded its time budget.
+   */
+  public void checkTimedOut(Object check) {
+    if (currentFile != null) {
+      timedOutChecks.add(check.getClass().getSimpleName());
+    }
+  }
+
+  /**
+   * The checks of the current file were aborted or skipped, because the file exceeded its time budget.
+   */
+  public void fileTimedOut() {
+    fileBudgetExceeded = true;
+  }
+
+  /**
+   * Subtrees of the current file which were not walked, because none of their nodes could be of a kind visited by the checks.
+   */
+  public void skippedSubtrees(long count) {
+    skippedSubtrees += count;
+  }
+
+  public void endFile() {
+    InputFile file = currentFile;
+    if (file == null) {
+      return;
+    }
+    currentFile = null;
+    long totalNanos = Math.max(0L, parseNanos) + Math.max(0L, convertNanos) + System.nanoTime() - fileStart;
+    totalTimes.record(micros(totalNanos));
+    parseTimes.record(micros(parseNanos));
+    convertTimes.record(micros(convertNanos));
+    symbolTableTimes.record(micros(symbolTableNanos));
+    checksTimes.record(micros(checksNanos));
+    totalSkippedSubtrees += skippedSubtrees;
+
+    StringBuilder json = new StringBuilder(256);
+    json.append(firstFile ? "\n" : ",\n");
+    firstFile = false;
+    json.append("{\"file\":");
+    appendString(json, file.toString());
+    json.append(",\"bytes\":").append(file.file().length())
+      .append(",\"totalMicros\":").append(micros(totalNanos));
+    if (linesOfCode >= 0) {
+      json.append(",\"ncloc\":").append(linesOfCode);
+    }
+    appendTime(json, "parseMicros", parseNanos);
+    appendTime(json, "convertMicros", convertNanos);
+    appendTime(json, "symbolTableMicros", symbolTableNanos);
+    appendTime(json, "checksMicros", checksNanos);
+    json.append(",\"slowestChecks\":[");
+    for (int i = 0; i < topChecksCount; i++) {
+      json.append(i == 0 ? "{\"check\":" : ",{\"check\":");
+      appendString(json, topChecks[i]);
+      json.append(",\"micros\":").append(micros(topChecksNanos[i])).append('}');
+    }
+    json.append(']');
+    json.append(",\"skippedSubtrees\":").append(skippedSubtrees);
+    if (!timedOutChecks.isEmpty()) {
+      json.append(",\"timedOutChecks\":[");
+      for (int i = 0; i < timedOutChecks.size(); i++) {
+        if (i > 0) {
+          json.append(',');
+        }
+        appendString(json, timedOutChecks.get(i));
+      }
+      json.append(']');
+    }
+    if (fileBudgetExceeded) {
+      json.append(",\"fileTimedOut\":true");
+    }
+    json.append('}');
+    write(json);
+  }
+
+  /**
+   * Writes the histograms of the analysis and closes the report.
+   */
+  public void stop() {
+    endFile();
+    StringBuilder json = new StringBuilder(1024);
+    json.append("\n],\"histograms\":{");
+    boolean first = true;
+    for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+      Histogram histogram = entry.getValue();
+      json.append(first ? "\n" : ",\n");
+      first = false;
+      appendString(json, entry.getKey());
+      json.append(":{\"count\":").append(histogram.count())
+        .append(",\"sumMicros\":").append(histogram.sum());
+      for (double percentile : PERCENTILES) {
+        json.append(",\"p").append((int) percentile).append("Micros\":").append(histogram.percentile(percentile));
+      }
+      json.append(",\"maxMicros\":").append(histogram.max()).append('}');
+    }
+    json.append("\n},\"skippedSubtrees\":").append(totalSkippedSubtrees).append("}\n");
+    write(json);
+    if (writer != null) {
+      try {
+        writer.close();
+        LOG.info("Telemetry of the analysis written to {}", destination);
+      } catch (IOException e) {
+        LOG.warn("Unable to write the telemetry of the analysis to {}: {}", destination, e.getMessage());
+      }
+      writer = null;
+    }
+  }
+
+  private void write(CharSequence json) {
+    if (writer == null) {
+      return;
+    }
+    try {
+      writer.append(json);
+    } catch (IOException e) {
+      LOG.warn("Unable to write the telemetry of the analysis to {}: {}", destination, e.getMessage());
+      closeQuietly();
+    }
+  }
+
+  private void closeQuietly() {
+    try {
+      if (writer != null) {
+        writer.close();
+      }
+    } catch (IOException e) {
+      // already reported
+    } finally {
+      writer = null;
+    }
+  }
+
+  private static void appendTime(StringBuilder json, String key, long nanos) {
+    if (nanos >= 0) {
+      json.append(",\"").append(key).append("\":").append(micros(nanos));
+    }
+  }
+
+  private static long micros(long nanos) {
+    return nanos < 0 ? -1L : TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+
+  private static void appendString(StringBuilder json, String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"' || c == '\\') {
+        json.append('\\').append(c);
+      } else if (c < 0x20) {
+        json.append(String.format("\\u%04x", (int) c));
+      } else {
+        json.append(c);
+      }
+    }
+    json.append('"');
+  }
+}
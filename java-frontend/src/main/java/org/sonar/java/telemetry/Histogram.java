@@ -0,0 +1,95 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.telemetry;
+
+/**
+ * Histogram of non-negative values with a bounded relative error: values below 16 have their own bucket, and every power
+ * of two above is split into 8 buckets. Recording a value is constant time and the memory is fixed, whatever the number of
+ * recorded values.
+ */
+final class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_BUCKETS = 2 * SUB_BUCKETS;
+  private static final int FIRST_EXPONENT = SUB_BUCKET_BITS + 1;
+
+  private final long[] counts = new long[LINEAR_BUCKETS + (Long.SIZE - FIRST_EXPONENT) * SUB_BUCKETS];
+  private long count = 0L;
+  private long sum = 0L;
+  private long max = 0L;
+
+  void record(long value) {
+    if (value < 0) {
+      return;
+    }
+    counts[index(value)]++;
+    count++;
+    sum += value;
+    max = Math.max(max, value);
+  }
+
+  long count() {
+    return count;
+  }
+
+  long sum() {
+    return sum;
+  }
+
+  long max() {
+    return max;
+  }
+
+  /**
+   * @param percentile between 0 and 100
+   * @return an upper bound of the value at the given percentile, 0 when nothing is recorded
+   */
+  long percentile(double percentile) {
+    if (count == 0) {
+      return 0L;
+    }
+    long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+    long cumulated = 0L;
+    for (int i = 0; i < counts.length; i++) {
+      cumulated += counts[i];
+      if (cumulated >= rank) {
+        return Math.min(upperBound(i), max);
+      }
+    }
+    return max;
+  }
+
+  static int index(long value) {
+    if (value < LINEAR_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return LINEAR_BUCKETS + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+  }
+
+  static long upperBound(int index) {
+    if (index < LINEAR_BUCKETS) {
+      return index;
+    }
+    int exponent = (index - LINEAR_BUCKETS) / SUB_BUCKETS + FIRST_EXPONENT;
+    long subBucket = (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+    long subBucketWidth = 1L << (exponent - SUB_BUCKET_BITS);
+    return (1L << exponent) + (subBucket + 1) * subBucketWidth - 1;
+  }
+}
@@ -16,6 +16,7 @@
  */
 package org.sonar.plugins.java.api.tree;
 
+import org.sonar.java.TimeBudget;
 import org.sonar.java.annotations.Beta;
 import java.util.List;
 import javax.annotation.Nullable;
@@ -34,6 +35,7 @@ public class BaseTreeVisitor implements TreeVisitor {
 
   protected void scan(@Nullable Tree tree) {
     if (tree != null) {
+      TimeBudget.checkpoint();
       tree.accept(this);
     }
   }
@@ -0,0 +1,155 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.event.Level;
+import org.sonar.java.testing.ThreadLocalLogTester;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdaptiveBatchSizeTest {
+
+  private static final long MAX_HEAP = 1_000_000_000L;
+
+  @RegisterExtension
+  public ThreadLocalLogTester logTester = new ThreadLocalLogTester().setLevel(Level.INFO);
+
+  @Test
+  void size_grows_when_heap_occupancy_is_low() {
+    MemoryPoolMXBean pool = pool(MemoryType.HEAP, true);
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(100_000L, 250_000L, List.of(pool));
+    assertThat(batchSize.sizeInBytes()).isEqualTo(100_000L);
+
+    runBatch(batchSize, pool, 0.1, false, 10, 100_000L);
+    assertThat(batchSize.sizeInBytes()).isEqualTo(200_000L);
+    assertThat(logTester.logs()).containsExactly(
+      "Heap occupancy after a batch of 10 files (100 KB, 10 KB per file on average): 10%. Next batch size: 200 KB.");
+
+    // capped by the maximum size
+    runBatch(batchSize, pool, 0.1, false, 10, 200_000L);
+    assertThat(batchSize.sizeInBytes()).isEqualTo(250_000L);
+  }
+
+  @Test
+  void size_is_kept_when_heap_occupancy_is_moderate() {
+    MemoryPoolMXBean pool = pool(MemoryType.HEAP, true);
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(100_000L, 1_000_000L, List.of(pool));
+
+    runBatch(batchSize, pool, 0.5, false, 10, 100_000L);
+    assertThat(batchSize.sizeInBytes()).isEqualTo(100_000L);
+  }
+
+  @Test
+  void size_shrinks_when_heap_occupancy_is_high() {
+    MemoryPoolMXBean pool = pool(MemoryType.HEAP, true);
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(1_000_000L, 1_000_000L, List.of(pool));
+
+    runBatch(batchSize, pool, 0.8, false, 100, 1_000_000L);
+    assertThat(batchSize.sizeInBytes()).isEqualTo(500_000L);
+  }
+
+  @Test
+  void size_shrinks_when_collection_usage_threshold_is_exceeded_during_the_batch() {
+    MemoryPoolMXBean pool = pool(MemoryType.HEAP, true);
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(1_000_000L, 1_000_000L, List.of(pool));
+
+    runBatch(batchSize, pool, 0.3, true, 100, 1_000_000L);
+    assertThat(batchSize.sizeInBytes()).isEqualTo(500_000L);
+    assertThat(logTester.logs()).containsExactly(
+      "Heap occupancy after a batch of 100 files (1000 KB, 10 KB per file on average): 30%, collection usage threshold exceeded. Next batch size: 500 KB.");
+    verify(pool).setCollectionUsageThreshold((long) (MAX_HEAP * AdaptiveBatchSize.HIGH_OCCUPANCY));
+    // the previous threshold is restored at the end of the batch
+    verify(pool).setCollectionUsageThreshold(42L);
+  }
+
+  @Test
+  void thresholds_are_restored_when_the_batch_does_not_complete() {
+    MemoryPoolMXBean pool = pool(MemoryType.HEAP, true);
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(1_000_000L, 1_000_000L, List.of(pool));
+
+    // nothing to restore before a batch
+    batchSize.restoreThresholds();
+    verify(pool, never()).setCollectionUsageThreshold(anyLong());
+
+    batchSize.startBatch();
+    batchSize.restoreThresholds();
+    batchSize.restoreThresholds();
+    verify(pool).setCollectionUsageThreshold((long) (MAX_HEAP * AdaptiveBatchSize.HIGH_OCCUPANCY));
+    verify(pool, times(1)).setCollectionUsageThreshold(42L);
+    assertThat(batchSize.sizeInBytes()).isEqualTo(1_000_000L);
+    assertThat(logTester.logs()).isEmpty();
+  }
+
+  @Test
+  void size_does_not_shrink_below_the_size_of_a_minimal_number_of_files() {
+    MemoryPoolMXBean pool = pool(MemoryType.HEAP, true);
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(300_000L, 1_000_000L, List.of(pool));
+
+    runBatch(batchSize, pool, 0.9, true, 10, 300_000L);
+    assertThat(batchSize.sizeInBytes()).isEqualTo(AdaptiveBatchSize.MIN_FILES_PER_BATCH * 30_000L);
+  }
+
+  @Test
+  void size_is_constant_without_monitored_heap_pools() {
+    MemoryPoolMXBean nonHeapPool = pool(MemoryType.NON_HEAP, true);
+    MemoryPoolMXBean unsupportedPool = pool(MemoryType.HEAP, false);
+    AdaptiveBatchSize batchSize = new AdaptiveBatchSize(100_000L, 1_000_000L, List.of(nonHeapPool, unsupportedPool));
+
+    batchSize.startBatch();
+    batchSize.endBatch(10, 100_000L);
+    assertThat(batchSize.sizeInBytes()).isEqualTo(100_000L);
+    assertThat(logTester.logs()).containsExactly("No heap memory pool can be monitored, the batch size will not be adapted.");
+  }
+
+  @Test
+  void initial_size_is_bounded_by_the_maximum_size() {
+    assertThat(new AdaptiveBatchSize(0L, 1_000L, List.of()).sizeInBytes()).isEqualTo(1L);
+    assertThat(new AdaptiveBatchSize(5_000L, 1_000L, List.of()).sizeInBytes()).isEqualTo(1_000L);
+  }
+
+  private static void runBatch(AdaptiveBatchSize batchSize, MemoryPoolMXBean pool, double occupancy, boolean thresholdExceeded, int fileCount,
+    long batchSizeInBytes) {
+    when(pool.getCollectionUsageThresholdCount()).thenReturn(1L);
+    batchSize.startBatch();
+    when(pool.getCollectionUsage()).thenReturn(new MemoryUsage(0L, (long) (MAX_HEAP * occupancy), MAX_HEAP, MAX_HEAP));
+    when(pool.getCollectionUsageThresholdCount()).thenReturn(thresholdExceeded ? 2L : 1L);
+    batchSize.endBatch(fileCount, batchSizeInBytes);
+  }
+
+  private static MemoryPoolMXBean pool(MemoryType type, boolean collectionUsageThresholdSupported) {
+    MemoryPoolMXBean pool = mock(MemoryPoolMXBean.class);
+    when(pool.getType()).thenReturn(type);
+    when(pool.isValid()).thenReturn(true);
+    when(pool.isCollectionUsageThresholdSupported()).thenReturn(collectionUsageThresholdSupported);
+    when(pool.getUsage()).thenReturn(new MemoryUsage(0L, 0L, MAX_HEAP, MAX_HEAP));
+    when(pool.getCollectionUsageThreshold()).thenReturn(42L);
+    return pool;
+  }
+
+}
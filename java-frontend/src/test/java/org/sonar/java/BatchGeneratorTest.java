@@ -125,4 +125,20 @@ class BatchGeneratorTest {
     assertThat(generator.hasNext()).isFalse();
     assertThat(generator.next()).isEmpty();
   }
+
+  @Test
+  void batch_generator_uses_the_updated_batch_size_for_the_next_batches() throws IOException {
+    File baseDir = temp.getRoot().getAbsoluteFile();
+    SensorContextTester sensorContext = SensorContextTester.create(baseDir);
+    sensorContext.setSettings(new MapSettings());
+    InputFile fileA = addFile(temp, "class A {}", sensorContext);
+    InputFile fileB = addFile(temp, "class B {}", sensorContext);
+    InputFile fileC = addFile(temp, "class C {}", sensorContext);
+    BatchGenerator generator = new BatchGenerator(Arrays.asList(fileA, fileB, fileC).iterator(), 0);
+    assertThat(generator.next()).containsExactly(fileA);
+    generator.setBatchSizeInBytes(Long.MAX_VALUE);
+    // fileB was kept in the buffer by the previous batch
+    assertThat(generator.next()).containsExactly(fileB, fileC);
+    assertThat(generator.hasNext()).isFalse();
+  }
 }
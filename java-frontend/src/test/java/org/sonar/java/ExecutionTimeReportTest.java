@@ -16,7 +16,7 @@
  */
 package org.sonar.java;
 
-import java.io.IOException;
+import java.io.File;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -50,11 +50,10 @@ class ExecutionTimeReportTest {
   InputFile mockEmptyInputFile(String filename) {
     InputFile inputFile = mock(InputFile.class);
     when(inputFile.toString()).thenReturn(filename);
-    try {
-      when(inputFile.contents()).thenReturn("ABCDEFGHIJKLMNOPQRSTUVWXYZABCDEFGHIJKLMNOPQRSTUVWXYZ");
-    } catch (IOException ignored) {
-      // Ignore the exception
-    }
+    File file = mock(File.class);
+    when(file.exists()).thenReturn(true);
+    when(file.length()).thenReturn(52L);
+    when(inputFile.file()).thenReturn(file);
     return inputFile;
   }
 
@@ -230,9 +229,9 @@ class ExecutionTimeReportTest {
   }
 
   @Test
-  void use_default_file_length_of_minus_1_when_contents_cannot_be_read() throws IOException {
+  void use_default_file_length_of_minus_1_when_file_does_not_exist() {
     InputFile inputFile = mockEmptyInputFile("default_size");
-    when(inputFile.contents()).thenThrow(IOException.class);
+    when(inputFile.file().exists()).thenReturn(false);
     report.start(inputFile);
     clock.addMilliseconds(50_000);
     report.end();
@@ -16,11 +16,16 @@
  */
 package org.sonar.java;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.junit.Rule;
@@ -51,11 +56,16 @@ import org.sonar.api.scan.issue.filter.FilterableIssue;
 import org.sonar.api.scan.issue.filter.IssueFilterChain;
 import org.sonar.api.testfixtures.log.LogTesterJUnit5;
 import org.sonar.api.utils.Version;
+import org.sonar.java.caching.AnalysisResultCache;
+import org.sonar.java.caching.ReplayableScanner;
+import org.sonar.java.ast.visitors.SubscriptionVisitor;
 import org.sonar.java.classpath.ClasspathForMain;
 import org.sonar.java.classpath.ClasspathForTest;
 import org.sonar.java.exceptions.ApiMismatchException;
 import org.sonar.java.filters.SonarJavaIssueFilter;
+import org.sonar.java.model.JSema;
 import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.telemetry.AnalysisTelemetry;
 import org.sonar.plugins.java.api.CheckRegistrar;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScanner;
@@ -63,13 +73,19 @@ import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaResourceLocator;
 import org.sonar.plugins.java.api.JavaVersion;
 import org.sonar.plugins.java.api.ModuleScannerContext;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.internal.EndOfAnalysis;
+import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.VariableTree;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -78,6 +94,7 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 import static org.sonar.java.InputFileUtils.addFile;
 
 @EnableRuleMigrationSupport
@@ -103,6 +120,8 @@ class JavaFrontendTest {
   private ClasspathForTest javaTestClasspath;
   private TestIssueFilter mainCodeIssueScannerAndFilter = new TestIssueFilter();
   private TestIssueFilter testCodeIssueScannerAndFilter = new TestIssueFilter();
+  private final List<JavaCheck> additionalMainChecks = new ArrayList<>();
+  private JavaResourceLocator javaResourceLocator = mock(JavaResourceLocator.class);
 
   private SonarComponents sonarComponents;
   private SensorContextTester sensorContext;
@@ -267,6 +286,95 @@ class JavaFrontendTest {
       );
   }
 
+  @Test
+  void analysis_results_of_unchanged_files_are_replayed_without_parsing() throws IOException {
+    javaResourceLocator = mock(JavaResourceLocator.class, withSettings().extraInterfaces(ReplayableScanner.class));
+    InputFile inputFile = scanTwiceWithReplayedAnalysisResults();
+
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(1);
+    assertThat(logTester.logs(Level.INFO)).contains(
+      "Server-side caching is enabled. The Java analyzer replayed the results of previous analyses for 1 out of 1 files. These files will not be parsed.");
+    verify((ReplayableScanner) javaResourceLocator).replay(any(), any());
+    assertThat(sensorContext.highlightingTypeAt(inputFile.key(), 1, 0)).isNotEmpty();
+  }
+
+  @Test
+  void analysis_results_of_unchanged_files_are_replayed_along_with_visitors_that_cannot_be_replayed() throws IOException {
+    scanTwiceWithReplayedAnalysisResults();
+
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(2);
+    assertThat(logTester.logs(Level.INFO)).contains(
+      "Server-side caching is enabled. The Java analyzer replayed the results of previous analyses for 0 out of 1 files. These files will not be parsed.",
+      "Optimized analysis for 1 of 1 files.");
+  }
+
+  private InputFile scanTwiceWithReplayedAnalysisResults() throws IOException {
+    Map<String, byte[]> firstCache = new HashMap<>();
+    MapSettings settings = new MapSettings().setProperty(AnalysisResultCache.REPLAY_ANALYSIS_RESULTS_KEY, true);
+    File baseDir = temp.getRoot().getAbsoluteFile();
+    sensorContext = SensorContextTester.create(baseDir);
+    sensorContext.setSettings(settings);
+    setCaches(sensorContext, new HashMap<>(), firstCache);
+    InputFile inputFile = scan(settings, SONARQUBE_RUNTIME, "class A {\n  int a; // NOSONAR\n  void foo() { if (a > 0) { a++; } }\n}").get(0);
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(1);
+    assertThat(firstCache.keySet()).anyMatch(key -> key.startsWith("java:analysisResult:"));
+    Integer complexity = sensorContext.<Integer>measure(inputFile.key(), "complexity").value();
+
+    sensorContext = SensorContextTester.create(baseDir);
+    sensorContext.setSettings(settings);
+    sensorContext.fileSystem().add(inputFile);
+    Map<String, byte[]> secondCache = new HashMap<>();
+    setCaches(sensorContext, firstCache, secondCache);
+    scan(settings, SONARQUBE_RUNTIME, List.of(inputFile));
+
+    assertThat(sensorContext.<Integer>measure(inputFile.key(), "complexity").value()).isEqualTo(complexity);
+    assertThat(secondCache).containsAllEntriesOf(firstCache);
+    return inputFile;
+  }
+
+  @Test
+  void analysis_results_of_files_referring_to_unknown_symbols_are_not_cached() throws IOException {
+    Map<String, byte[]> cache = new HashMap<>();
+    MapSettings settings = new MapSettings().setProperty(AnalysisResultCache.REPLAY_ANALYSIS_RESULTS_KEY, true);
+    sensorContext = SensorContextTester.create(temp.getRoot().getAbsoluteFile());
+    sensorContext.setSettings(settings);
+    setCaches(sensorContext, new HashMap<>(), cache);
+    scan(settings, SONARQUBE_RUNTIME, "class A extends Unknown {}");
+
+    assertThat(cache.keySet()).noneMatch(key -> key.startsWith("java:analysisResult:"));
+    assertThat(logTester.logs(Level.DEBUG)).anyMatch(log -> log.endsWith("cannot be replayed, it refers to unknown symbols."));
+  }
+
+  private static void setCaches(SensorContextTester context, Map<String, byte[]> previousEntries, Map<String, byte[]> nextEntries) {
+    ReadCache readCache = mock(ReadCache.class);
+    when(readCache.contains(any())).then(invocation -> previousEntries.containsKey(invocation.<String>getArgument(0)));
+    when(readCache.read(any())).then(invocation -> new ByteArrayInputStream(previousEntries.get(invocation.<String>getArgument(0))));
+    WriteCache writeCache = mock(WriteCache.class);
+    doAnswer(invocation -> nextEntries.put(invocation.getArgument(0), invocation.getArgument(1)))
+      .when(writeCache).write(any(), any(byte[].class));
+    doAnswer(invocation -> nextEntries.put(invocation.getArgument(0), previousEntries.get(invocation.<String>getArgument(0))))
+      .when(writeCache).copyFromPrevious(any());
+    context.setCacheEnabled(true);
+    context.setPreviousCache(readCache);
+    context.setNextCache(writeCache);
+  }
+
+  @Test
+  void metrics_and_highlighting_are_saved_when_the_file_exceeds_its_time_budget() throws IOException {
+    SlowCheck slowCheck = new SlowCheck();
+    additionalMainChecks.add(slowCheck);
+    MapSettings settings = new MapSettings().setProperty(TimeBudget.FILE_TIMEOUT_KEY, 1);
+    InputFile inputFile = scan(settings, SONARQUBE_RUNTIME, "class A {\n  int a;\n  void foo() { if (a > 0) { a++; } }\n}").get(0);
+
+    // the budget of the file may even be exceeded before the first token
+    assertThat(slowCheck.visitedTokens).isLessThanOrEqualTo(1);
+    assertThat(logTester.logs(Level.WARN)).anyMatch(log -> log.startsWith("Analysis of file '") &&
+      log.endsWith("' exceeded its time budget of 1 ms, the remaining checks are skipped on this file."));
+    assertThat(sensorContext.<Integer>measure(inputFile.key(), "ncloc").value()).isEqualTo(4);
+    assertThat(sensorContext.<Integer>measure(inputFile.key(), "complexity").value()).isEqualTo(2);
+    assertThat(sensorContext.highlightingTypeAt(inputFile.key(), 3, 15)).isNotEmpty();
+  }
+
   @Test
   void test_scan_logs_when_caching_is_enabled_and_cannot_skip_unchanged_files() throws ApiMismatchException {
     File baseDir = temp.getRoot().getAbsoluteFile();
@@ -429,6 +537,7 @@ class JavaFrontendTest {
     assertThat(frontend.isFileByFileEnabled()).isFalse();
     assertThat(frontend.analysisCancelled()).isFalse();
     assertThat(frontend.getBatchModeSizeInKB()).isEqualTo(-1L);
+    assertThat(frontend.getBatchModeParallelism()).isEqualTo(1);
   }
 
   @Test
@@ -524,6 +633,22 @@ class JavaFrontendTest {
     assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
   }
 
+  @Test
+  void telemetry_reports_the_parse_time_of_each_batch() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 0L)
+      .setProperty(AnalysisTelemetry.ACTIVATION_KEY, true);
+    scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B {\n  A a;\n}");
+    sonarComponents.analysisTelemetry().ifPresent(AnalysisTelemetry::stop);
+
+    String json = Files.readString(temp.getRoot().toPath().resolve(AnalysisTelemetry.DESTINATION_FILE));
+    assertThat(json)
+      .contains("\"ncloc\":1,", "\"ncloc\":3,")
+      .contains("\"batchParse\":{\"count\":2,")
+      // parsed as part of a batch, the parse time of the files is unknown
+      .doesNotContain("\"parseMicros\"");
+  }
+
   @Test
   void should_handle_analysis_cancellation() throws IOException {
     mainCodeIssueScannerAndFilter.isCancelled = true;
@@ -714,6 +839,29 @@ class JavaFrontendTest {
       .contains("Using ECJ batch to parse 2 Main java source files with batch size 0 KB.");
   }
 
+  @Test
+  void test_scan_as_batch_with_adaptive_batch_size() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 1)
+      .setProperty(SonarComponents.SONAR_ADAPTIVE_BATCH_SIZE_KEY, true);
+    scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B extends A {}", "class C extends B {}");
+    assertThat(sensorContext.allAnalysisErrors()).isEmpty();
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(3);
+    assertThat(logTester.logs(Level.INFO))
+      .contains("Using ECJ batch to parse 3 Main java source files with an adaptive batch size, starting at 1 KB.");
+  }
+
+  @Test
+  void test_scan_as_batch_with_parallel_parsing() throws IOException {
+    MapSettings settings = new MapSettings()
+      .setProperty(SonarComponents.SONAR_BATCH_SIZE_KEY, 1000)
+      .setProperty(SonarComponents.SONAR_BATCH_PARALLELISM_KEY, 2);
+    scan(settings, SONARQUBE_RUNTIME, "class A {}", "class B extends A {}", "class C extends B {}");
+    assertThat(sensorContext.allAnalysisErrors()).isEmpty();
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(3);
+    assertThat(mainCodeIssueScannerAndFilter.endOfAnalysisInvocationCount).isEqualTo(1);
+  }
+
   @Test
   void sonar_java_ignoreUnnamedModuleForSplitPackage_is_logged_at_debug_level_when_enabled() throws IOException {
     MapSettings settings = new MapSettings();
@@ -727,6 +875,36 @@ class JavaFrontendTest {
     assertThat(logTester.logs()).contains("The Java analyzer will ignore the unnamed module for split packages.");
   }
 
+  @Test
+  void files_are_parsed_without_bindings_when_no_active_rule_requires_semantics() throws IOException {
+    mainCodeIssueScannerAndFilter = new SyntaxOnlyIssueFilter();
+    javaResourceLocator = new DefaultJavaResourceLocator(mock(ClasspathForMain.class), mock(ClasspathForTest.class));
+    scan(SONARQUBE_RUNTIME, "import org.foo.A; class B { A a; }");
+    assertThat(logTester.logs(Level.INFO))
+      .contains("No active rule requires semantics, parsing 1 Main java source files without resolving their bindings.")
+      .noneMatch(log -> log.startsWith("Using ECJ batch"));
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(1);
+    JSema sema = (JSema) mainCodeIssueScannerAndFilter.scannerContext.getSemanticModel();
+    assertThat(sema.hasBindings()).isFalse();
+    VariableTree field = (VariableTree) ((ClassTree) mainCodeIssueScannerAndFilter.lastScannedTree.types().get(0)).members().get(0);
+    assertThat(field.type().symbolType().isUnknown()).isTrue();
+
+    sensorContext = null;
+    scan(SONARLINT_RUNTIME, "class C {}");
+    assertThat(logTester.logs(Level.INFO)).contains("No active rule requires semantics, the files are parsed without resolving their bindings.");
+    assertThat(mainCodeIssueScannerAndFilter.scanFileInvocationCount).isEqualTo(2);
+  }
+
+  @Test
+  void files_are_parsed_with_bindings_when_an_active_rule_requires_semantics() throws IOException {
+    javaResourceLocator = new DefaultJavaResourceLocator(mock(ClasspathForMain.class), mock(ClasspathForTest.class));
+    scan(SONARQUBE_RUNTIME, "class B {}");
+    assertThat(logTester.logs(Level.INFO))
+      .anyMatch(log -> log.startsWith("Using ECJ batch to parse 1 Main java source files"))
+      .noneMatch(log -> log.startsWith("No active rule requires semantics"));
+    assertThat(((JSema) mainCodeIssueScannerAndFilter.scannerContext.getSemanticModel()).hasBindings()).isTrue();
+  }
+
   private List<InputFile> scan(SonarRuntime sonarRuntime, String... codeList) throws IOException {
     return scan(new MapSettings(), sonarRuntime, codeList);
   }
@@ -766,18 +944,47 @@ class JavaFrontendTest {
     sonarComponents = new SonarComponents(fileLinesContextFactory, sensorContext.fileSystem(), javaClasspath, javaTestClasspath,
       mock(CheckFactory.class), mock(ActiveRules.class), checkRegistrars);
     sonarComponents.setSensorContext(sensorContext);
+    sonarComponents.setAnalysisTelemetry(AnalysisTelemetry.start(settings.asConfig(), temp.getRoot()));
+    sonarComponents.setTimeBudget(TimeBudget.start(settings.asConfig()));
     sonarComponents.mainChecks().add(mainCodeIssueScannerAndFilter);
+    sonarComponents.mainChecks().addAll(additionalMainChecks);
     sonarComponents.testChecks().add(testCodeIssueScannerAndFilter);
     JavaVersion javaVersion = settings.asConfig().get(JavaVersion.SOURCE_VERSION)
       .map(JavaVersionImpl::fromString)
       .orElse(new JavaVersionImpl());
-    JavaFrontend frontend = new JavaFrontend(javaVersion, sonarComponents, new Measurer(sensorContext, mock(NoSonarFilter.class)), mock(JavaResourceLocator.class),
+    JavaFrontend frontend = new JavaFrontend(javaVersion, sonarComponents, new Measurer(sensorContext, mock(NoSonarFilter.class)), javaResourceLocator,
       null, sonarComponents.mainChecks().toArray(new JavaCheck[0]));
     frontend.scan(inputFiles, Collections.emptyList(), Collections.emptyList());
 
     return inputFiles;
   }
 
+  /**
+   * Exceeds the budget of the file on its first token.
+   */
+  @org.sonar.check.Rule(key = "SLOW")
+  private static class SlowCheck extends SubscriptionVisitor {
+    private int visitedTokens = 0;
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return Collections.singletonList(Tree.Kind.TOKEN);
+    }
+
+    @Override
+    public void visitToken(SyntaxToken syntaxToken) {
+      visitedTokens++;
+      long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(5);
+      while (System.nanoTime() < end) {
+        // busy
+      }
+    }
+  }
+
+  @SyntaxOnly
+  private class SyntaxOnlyIssueFilter extends TestIssueFilter {
+  }
+
   private class TestIssueFilter implements JavaFileScanner, SonarJavaIssueFilter, EndOfAnalysis {
     CompilationUnitTree lastScannedTree = null;
     int scanFileInvocationCount = 0;
@@ -89,6 +89,7 @@ import org.sonar.plugins.java.api.caching.SonarLintCache;
 import org.sonarsource.sonarlint.core.plugin.commons.sonarapi.SonarLintRuntimeImpl;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.fail;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -801,6 +802,69 @@ class SonarComponentsTest {
     assertThat(sonarComponents.getBatchModeSizeInKB()).isEqualTo(-1L);
   }
 
+  @Test
+  void batch_parallelism_getter() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    // default value
+    assertThat(sonarComponents.getBatchModeParallelism()).isEqualTo(1);
+
+    settings.setProperty("sonar.java.experimental.batchModeParallelism", "0");
+    assertThat(sonarComponents.getBatchModeParallelism()).isEqualTo(1);
+
+    // capped by the number of available processors
+    settings.setProperty("sonar.java.experimental.batchModeParallelism", String.valueOf(Integer.MAX_VALUE));
+    assertThat(sonarComponents.getBatchModeParallelism()).isEqualTo(Runtime.getRuntime().availableProcessors());
+  }
+
+  @Test
+  void adaptive_batch_size_getters() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    // default value
+    assertThat(sonarComponents.isAdaptiveBatchModeSizeEnabled()).isFalse();
+
+    settings.setProperty("sonar.java.experimental.adaptiveBatchModeSize", "true");
+    assertThat(sonarComponents.isAdaptiveBatchModeSizeEnabled()).isTrue();
+
+    LongSupplier oldValue = SonarComponents.maxMemoryInBytesProvider;
+    SonarComponents.maxMemoryInBytesProvider = () -> 1_000_000_000L;
+    long maxAdaptiveBatchModeSizeInKB = sonarComponents.getMaxAdaptiveBatchModeSizeInKB();
+    SonarComponents.maxMemoryInBytesProvider = oldValue;
+    assertThat(maxAdaptiveBatchModeSizeInKB).isEqualTo(2_000L);
+  }
+
+  @Test
+  void performance_measure_activation() {
+    MapSettings settings = new MapSettings();
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(SensorContextTester.create(new File("")).setSettings(settings));
+
+    assertThat(sonarComponents.isPerformanceMeasureActive()).isFalse();
+
+    settings.setProperty("sonar.java.performance.measure", "false");
+    assertThat(sonarComponents.isPerformanceMeasureActive()).isFalse();
+
+    settings.setProperty("sonar.java.performance.measure", "true");
+    assertThat(sonarComponents.isPerformanceMeasureActive()).isTrue();
+  }
+
+  @Test
+  void analysis_warnings_are_reported_when_injected() {
+    AnalysisWarningsWrapper analysisWarnings = mock(AnalysisWarningsWrapper.class);
+    new SonarComponents(null, null, null, null, null, null, (ProjectDefinition) null, analysisWarnings).addAnalysisWarning("warning");
+    new SonarComponents(null, null, null, null, null, null, new CheckRegistrar[0], null, analysisWarnings).addAnalysisWarning("warning");
+    verify(analysisWarnings, times(2)).addUnique("warning");
+
+    // not injected in SonarLint context
+    SonarComponents sonarLintComponents = new SonarComponents(null, null, null, null, null, null);
+    assertThatNoException().isThrownBy(() -> sonarLintComponents.addAnalysisWarning("warning"));
+  }
+
   @ParameterizedTest
   @CsvSource({
     "50, 2",
@@ -1340,7 +1404,7 @@ class SonarComponentsTest {
       null,
       null,
       null,
-      null
+      (SonarLintCache) null
     );
 
     assertThat(sonarComponentsWithoutSonarLintCache.sonarLintCache()).isNull();
@@ -0,0 +1,116 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java;
+
+import org.junit.jupiter.api.Test;
+import org.sonar.api.config.internal.MapSettings;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeBudgetTest {
+
+  @Test
+  void budget_is_not_started_by_default() {
+    assertThat(TimeBudget.start(new MapSettings().asConfig())).isNull();
+    assertThat(TimeBudget.start(new MapSettings().setProperty(TimeBudget.CHECK_TIMEOUT_KEY, 0).asConfig())).isNull();
+  }
+
+  @Test
+  void budget_is_started_when_a_timeout_is_set() {
+    TimeBudget budget = TimeBudget.start(new MapSettings().setProperty(TimeBudget.FILE_TIMEOUT_KEY, 5_000).asConfig());
+    assertThat(budget).isNotNull();
+    budget.stop();
+    assertThat(budget.checkTimeoutMillis()).isZero();
+    assertThat(budget.fileTimeoutMillis()).isEqualTo(5_000);
+  }
+
+  @Test
+  void checkpoint_stops_the_running_check_once_its_deadline_is_passed() throws InterruptedException {
+    TimeBudget budget = new TimeBudget(1, 0);
+    try {
+      budget.startFile();
+      budget.startCheck(0L);
+      Thread.sleep(5);
+      budget.watch();
+      assertThatThrownBy(TimeBudget::checkpoint).isInstanceOf(TimeBudgetExceededException.class);
+      // a check catching the exception meets it again at its next checkpoint
+      assertThatThrownBy(TimeBudget::checkpoint).isInstanceOf(TimeBudgetExceededException.class);
+      assertThat(budget.endCheck()).isTrue();
+      // the next check has its own budget
+      budget.startCheck(0L);
+      assertThatNoException().isThrownBy(TimeBudget::checkpoint);
+      assertThat(budget.endCheck()).isFalse();
+    } finally {
+      budget.endFile();
+      budget.stop();
+    }
+  }
+
+  @Test
+  void checkpoint_stops_the_running_check_once_the_file_deadline_is_passed() throws InterruptedException {
+    TimeBudget budget = new TimeBudget(0, 1);
+    try {
+      assertThat(budget.isFileExceeded()).isFalse();
+      budget.startFile();
+      budget.startCheck(0L);
+      Thread.sleep(5);
+      budget.watch();
+      assertThat(budget.isFileExceeded()).isTrue();
+      assertThatThrownBy(TimeBudget::checkpoint).isInstanceOf(TimeBudgetExceededException.class);
+      assertThat(budget.endCheck()).isTrue();
+    } finally {
+      budget.endFile();
+      budget.stop();
+    }
+    assertThat(budget.isFileExceeded()).isFalse();
+  }
+
+  @Test
+  void checkpoint_does_not_stop_the_visitors_which_are_not_checks() throws InterruptedException {
+    TimeBudget budget = new TimeBudget(0, 1);
+    try {
+      budget.startFile();
+      Thread.sleep(5);
+      budget.watch();
+      assertThatNoException().isThrownBy(TimeBudget::checkpoint);
+    } finally {
+      budget.endFile();
+      budget.stop();
+    }
+  }
+
+  @Test
+  void time_already_spent_by_a_check_is_part_of_its_budget() {
+    TimeBudget budget = new TimeBudget(10, 0);
+    try {
+      assertThat(budget.isCheckExceeded(5_000_000L)).isFalse();
+      assertThat(budget.isCheckExceeded(10_000_001L)).isTrue();
+      budget.startFile();
+      budget.startCheck(20_000_000L);
+      budget.watch();
+      assertThatThrownBy(TimeBudget::checkpoint).isInstanceOf(TimeBudgetExceededException.class);
+    } finally {
+      budget.endFile();
+      budget.stop();
+    }
+    TimeBudget fileBudgetOnly = new TimeBudget(0, 10);
+    assertThat(fileBudgetOnly.isCheckExceeded(Long.MAX_VALUE)).isFalse();
+    fileBudgetOnly.stop();
+  }
+}
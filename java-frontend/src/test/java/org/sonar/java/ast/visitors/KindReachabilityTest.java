@@ -0,0 +1,157 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.ast.visitors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.model.JParserTestUtils;
+import org.sonar.java.model.JavaTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KindReachabilityTest {
+
+  private static final CompilationUnitTree TREE = JParserTestUtils.parse("""
+    import java.util.List;
+    import java.util.*;
+    import static java.util.Collections.emptyList;
+    import static java.util.Collections.*;
+
+    class A {
+      Object[] values = {1, 2L, 3.0f, 4.0, true, 'c', "s", \"""
+        text block
+        \""", null};
+
+      void f(List<String> list) {
+        var x = 1;
+        list.forEach(s -> {});
+        outer:
+        for (String s : list) {
+          if (s.isEmpty()) {
+            continue outer;
+          }
+          break;
+        };
+      }
+    }
+    """);
+
+  @Test
+  void descendants_of_the_listed_kinds_can_be_reached() {
+    List<Tree.Kind> visitedKinds = new ArrayList<>();
+    verifyDescendants(TREE, new ArrayList<>(), visitedKinds);
+    assertThat(visitedKinds).contains(Tree.Kind.IMPORT, Tree.Kind.INT_LITERAL, Tree.Kind.LONG_LITERAL, Tree.Kind.FLOAT_LITERAL,
+      Tree.Kind.DOUBLE_LITERAL, Tree.Kind.BOOLEAN_LITERAL, Tree.Kind.CHAR_LITERAL, Tree.Kind.STRING_LITERAL, Tree.Kind.TEXT_BLOCK,
+      Tree.Kind.NULL_LITERAL, Tree.Kind.VAR_TYPE, Tree.Kind.INFERED_TYPE, Tree.Kind.BREAK_STATEMENT, Tree.Kind.CONTINUE_STATEMENT,
+      Tree.Kind.EMPTY_STATEMENT);
+  }
+
+  private static void verifyDescendants(Tree tree, List<Tree.Kind> ancestors, List<Tree.Kind> visitedKinds) {
+    for (Tree.Kind ancestor : ancestors) {
+      assertThat(KindReachability.canContain(ancestor, tree.kind()))
+        .as(tree.kind() + " beneath " + ancestor)
+        .isTrue();
+    }
+    visitedKinds.add(tree.kind());
+    JavaTree javaTree = (JavaTree) tree;
+    if (!javaTree.isLeaf()) {
+      ancestors.add(tree.kind());
+      for (Tree child : javaTree.getChildren()) {
+        verifyDescendants(child, ancestors, visitedKinds);
+      }
+      ancestors.remove(ancestors.size() - 1);
+    }
+  }
+
+  @Test
+  void unlisted_kinds_can_contain_every_kind() {
+    assertThat(KindReachability.canContain(Tree.Kind.ANNOTATION, Tree.Kind.CLASS)).isTrue();
+    assertThat(KindReachability.canContain(Tree.Kind.IDENTIFIER, Tree.Kind.METHOD_INVOCATION)).isTrue();
+    assertThat(KindReachability.canContain(Tree.Kind.IMPORT, Tree.Kind.METHOD_INVOCATION)).isFalse();
+    assertThat(KindReachability.canContain(Tree.Kind.STRING_LITERAL, Tree.Kind.TRIVIA)).isTrue();
+    assertThat(KindReachability.canContain(Tree.Kind.TOKEN, Tree.Kind.TOKEN)).isFalse();
+  }
+
+  @Test
+  void children_are_skippable_when_none_of_their_kinds_is_subscribed() {
+    boolean[] skippable = KindReachability.skippableChildren(Collections.singletonList(Tree.Kind.METHOD_INVOCATION));
+    assertThat(skippable[Tree.Kind.IMPORT.ordinal()]).isTrue();
+    assertThat(skippable[Tree.Kind.STRING_LITERAL.ordinal()]).isTrue();
+    assertThat(skippable[Tree.Kind.BREAK_STATEMENT.ordinal()]).isTrue();
+    assertThat(skippable[Tree.Kind.CLASS.ordinal()]).isFalse();
+    assertThat(skippable[Tree.Kind.ANNOTATION.ordinal()]).isFalse();
+
+    skippable = KindReachability.skippableChildren(Arrays.asList(Tree.Kind.METHOD_INVOCATION, Tree.Kind.IDENTIFIER));
+    assertThat(skippable[Tree.Kind.IMPORT.ordinal()]).isFalse();
+    assertThat(skippable[Tree.Kind.BREAK_STATEMENT.ordinal()]).isFalse();
+    assertThat(skippable[Tree.Kind.STRING_LITERAL.ordinal()]).isTrue();
+  }
+
+  @Test
+  void no_children_are_skippable_when_tokens_or_trivia_are_subscribed() {
+    for (Tree.Kind subscribed : new Tree.Kind[] {Tree.Kind.TOKEN, Tree.Kind.TRIVIA}) {
+      boolean[] skippable = KindReachability.skippableChildren(Collections.singletonList(subscribed));
+      assertThat(skippable[Tree.Kind.IMPORT.ordinal()]).isFalse();
+      assertThat(skippable[Tree.Kind.INT_LITERAL.ordinal()]).isFalse();
+      assertThat(skippable[Tree.Kind.EMPTY_STATEMENT.ordinal()]).isFalse();
+    }
+  }
+
+  @Test
+  void subscription_visitors_visit_all_the_subscribed_nodes() {
+    for (Tree.Kind kind : new Tree.Kind[] {Tree.Kind.IDENTIFIER, Tree.Kind.MEMBER_SELECT, Tree.Kind.STRING_LITERAL, Tree.Kind.IMPORT}) {
+      KindCounter counter = new KindCounter(kind);
+      counter.scanTree(TREE);
+      assertThat(counter.count).as(kind.name()).isPositive().isEqualTo(count(TREE, kind));
+    }
+  }
+
+  private static int count(Tree tree, Tree.Kind kind) {
+    int count = tree.is(kind) ? 1 : 0;
+    JavaTree javaTree = (JavaTree) tree;
+    if (!javaTree.isLeaf()) {
+      for (Tree child : javaTree.getChildren()) {
+        count += count(child, kind);
+      }
+    }
+    return count;
+  }
+
+  private static class KindCounter extends SubscriptionVisitor {
+    private final Tree.Kind kind;
+    private int count = 0;
+
+    KindCounter(Tree.Kind kind) {
+      this.kind = kind;
+    }
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return Collections.singletonList(kind);
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      count++;
+    }
+  }
+}
@@ -0,0 +1,279 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.ast.visitors;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.model.JParserTestUtils;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MethodMetricsVisitorTest {
+
+  private static final String SOURCE = """
+    abstract class A {
+      abstract void noBody(int p);
+      int foo(int p, java.util.List<String> list) throws Exception {
+        Runnable r = () -> { if (p > 0) { while (p > 1) { } } };
+        Object o = new Object() {
+          @Override
+          public String toString() { for (String s : list) { if (s.isEmpty() && p > 2) { return s; } } return ""; }
+        };
+        class Local { void m(boolean b) { do { } while (b || !b); } }
+        if (list.stream().anyMatch(s -> { if (s == null) { return true; } return false; })) {
+          return 1;
+        } else if (p > 3) {
+          switch (p) {
+            case 4:
+              try (java.io.Closeable c = () -> { for (;;) { } }) {
+                return p > 5 ? 6 : 7;
+              } catch (RuntimeException e) {
+                synchronized (this) { return 8; }
+              } finally {
+                if (p > 9) { if (p > 10) { p++; } }
+              }
+            default:
+              return switch (p) { case 11 -> { if (p > 12) { yield 13; } yield 14; } default -> 15; };
+          }
+        } else {
+          for (int i = 0, j = 0; i < p; i++) { int k = j = i; }
+        }
+        return 0;
+      }
+    }
+    """;
+
+  @Test
+  void same_complexity_as_complexity_visitor() {
+    List<MethodTree> methods = methods(JParserTestUtils.parse(SOURCE));
+    assertThat(methods).hasSize(4);
+    methods.forEach(MethodMetricsVisitorTest::assertSameComplexity);
+
+    for (String file : List.of("Complexity.java", "CognitiveComplexity.java", "Methods.java", "Statements.java", "Java15SwitchExpression.java")) {
+      methods(JParserTestUtils.parse(new File("src/test/files/metrics", file))).forEach(MethodMetricsVisitorTest::assertSameComplexity);
+    }
+  }
+
+  @Test
+  void metrics_of_method() {
+    ClassTree classTree = (ClassTree) JParserTestUtils.parse(SOURCE).types().get(0);
+    MethodMetricsVisitor visitor = new MethodMetricsVisitor();
+
+    MethodMetricsVisitor.Result noBody = visitor.analyze((MethodTree) classTree.members().get(0));
+    assertThat(noBody.complexityNodes()).isEmpty();
+    assertThat(noBody.nestingLevel()).isZero();
+    assertThat(noBody.numberOfAccessedVariables()).isEqualTo(1);
+
+    MethodMetricsVisitor.Result foo = visitor.analyze((MethodTree) classTree.members().get(1));
+    assertThat(foo.complexityNodes()).extracting(t -> t.firstToken().text())
+      .containsExactly("foo", "if", "if", "case", "?", "if", "if", "case", "if", "for");
+    assertThat(foo.nestingLevel()).isEqualTo(4);
+    assertThat(foo.numberOfAccessedVariables()).isEqualTo(11);
+  }
+
+  @Test
+  void nesting_level_in_anonymous_and_local_classes() {
+    MethodTree method = firstMethod("""
+      class A {
+        Object foo() {
+          Runnable runnable = new Runnable() {
+            @Override
+            public void run() { if (true) { System.out.println("Hi."); } }
+          };
+          abstract class AbsAnonym {
+            abstract void absVoid();
+          }
+        }
+      }
+      """);
+    assertThat(nestingLevel(method)).isEqualTo(3);
+    var anonymousClass = (NewClassTree) ((VariableTree) method.block().body().get(0)).initializer();
+    assertThat(nestingLevel((MethodTree) anonymousClass.classBody().members().get(0))).isEqualTo(1);
+  }
+
+  @Test
+  void nesting_level_of_if_statements() {
+    assertThat(nestingLevel(firstMethod("""
+      class A {
+        Object foo() {
+          if (a) { return new Object(); }
+          else if (b) { return null; }
+          else {
+            if (c) { something(); }
+          }
+        }
+      }
+      """))).isEqualTo(2);
+    assertThat(nestingLevel(firstMethod("""
+      class A {
+        Object foo() {
+          if (a) { return new Object(); }
+          else {
+            if (c) { something(); }
+            else { if (d) { return null; } }
+          }
+        }
+      }
+      """))).isEqualTo(3);
+  }
+
+  @Test
+  void nesting_level_of_loops_and_lambdas() {
+    assertThat(nestingLevel(firstMethod("""
+      class A {
+        Object foo(java.util.List<Integer> list) {
+          while (a) {
+            do {
+              list.forEach(elem -> {
+                System.out.println(elem);
+              });
+            } while (list.size() > 10);
+          }
+        }
+      }
+      """))).isEqualTo(3);
+    assertThat(nestingLevel(firstMethod("""
+      class A {
+        Object foo(java.util.List<Integer> list) {
+          if (a) {
+            for (int i : new int[]{1, 2}) {
+              for (int x = 0; x < i; x++) {
+                System.out.println(elem2);
+              }
+            }
+            return new Object();
+          }
+        }
+      }
+      """))).isEqualTo(3);
+    assertThat(nestingLevel(firstMethod("""
+      class A {
+        Object foo(java.util.List<Integer> list, Stream<Object> objs) {
+          list.forEach(x -> {
+            objs.forEach(o -> {
+              System.out.println(o.toString());
+            });
+          });
+        }
+      }
+      """))).isEqualTo(2);
+  }
+
+  @Test
+  void nesting_level_of_switch_and_try_statements() {
+    assertThat(nestingLevel(firstMethod("""
+      class A {
+        String foo(int a) {
+          switch (a) {
+            case 0:
+              return "none";
+            case 1:
+              return "one";
+            case 2:
+              if (i == 2) { return null; } else { return null; }
+            default:
+              return "it's complicated";
+          }
+        }
+      }
+      """))).isEqualTo(2);
+    assertThat(nestingLevel(firstMethod("""
+      class A {
+        Object foo() {
+          try {
+            if (a) {
+              for (int i = 0; i < 3; i++) { if (i == 2) { return null; } }
+              return new Object();
+            }
+          } catch (Exception e) {
+          }
+        }
+      }
+      """))).isEqualTo(4);
+    assertThat(nestingLevel(firstMethod("""
+      abstract class A {
+        abstract Object foo();
+      }
+      """))).isZero();
+  }
+
+  @Test
+  void number_of_accessed_variables() {
+    assertThat(numberOfAccessedVariables(firstMethod("""
+      class A {
+        private Object foo() { }
+      }
+      """))).isZero();
+    assertThat(numberOfAccessedVariables(firstMethod("""
+      class A {
+        private Object foo(String v1) {
+          String v2 = null;
+          for (int v3 = 0; v3 < 2; v3++) { }
+        }
+      }
+      """))).isEqualTo(3);
+    // multiple accesses to the same variable only count once
+    assertThat(numberOfAccessedVariables(firstMethod("""
+      class A {
+        private Object foo(String v1) {
+          String v2 = null;
+          v2 = v1;
+          v1 = "another string";
+          v2 = null;
+        }
+      }
+      """))).isEqualTo(2);
+  }
+
+  private static MethodTree firstMethod(String source) {
+    return (MethodTree) ((ClassTree) JParserTestUtils.parse(source).types().get(0)).members().get(0);
+  }
+
+  private static int nestingLevel(MethodTree method) {
+    return new MethodMetricsVisitor().analyze(method).nestingLevel();
+  }
+
+  private static int numberOfAccessedVariables(MethodTree method) {
+    return new MethodMetricsVisitor().analyze(method).numberOfAccessedVariables();
+  }
+
+  private static void assertSameComplexity(MethodTree method) {
+    MethodMetricsVisitor.Result result = new MethodMetricsVisitor().analyze(method);
+    assertThat(result.complexityNodes()).as(method.simpleName().name()).containsExactlyElementsOf(new ComplexityVisitor().getNodes(method));
+  }
+
+  private static List<MethodTree> methods(CompilationUnitTree cut) {
+    List<MethodTree> methods = new ArrayList<>();
+    cut.accept(new BaseTreeVisitor() {
+      @Override
+      public void visitMethod(MethodTree tree) {
+        methods.add(tree);
+        super.visitMethod(tree);
+      }
+    });
+    return methods;
+  }
+
+}
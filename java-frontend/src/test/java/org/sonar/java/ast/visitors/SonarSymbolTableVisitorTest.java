@@ -38,6 +38,7 @@ import org.sonar.java.ast.JavaAstScanner;
 import org.sonar.java.classpath.ClasspathForMain;
 import org.sonar.java.classpath.ClasspathForTest;
 import org.sonar.java.model.VisitorsBridge;
+import org.sonar.plugins.java.api.JavaFileScanner;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -63,7 +64,10 @@ class SonarSymbolTableVisitorTest {
     File source = new File("src/test/files/highlighter/SonarSymTable.java");
     InputFile inputFile = TestUtils.inputFile(source);
 
-    JavaAstScanner.scanSingleFileForTests(inputFile, new VisitorsBridge(Collections.emptyList(), sonarComponents.getJavaClasspath(), sonarComponents));
+    // a visitor requiring semantics, without it the file would be parsed without bindings and there would be no symbol to highlight
+    JavaFileScanner semanticVisitor = context -> {
+    };
+    JavaAstScanner.scanSingleFileForTests(inputFile, new VisitorsBridge(Collections.singletonList(semanticVisitor), sonarComponents.getJavaClasspath(), sonarComponents));
     String componentKey = inputFile.key();
     verifyUsages(componentKey, 1, 17, reference(5,2), reference(9,10));
     // Example class declaration
@@ -0,0 +1,310 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.event.Level;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.api.batch.sensor.cache.ReadCache;
+import org.sonar.api.batch.sensor.cache.WriteCache;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.java.SonarComponents;
+import org.sonar.java.model.JParserTestUtils;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.testing.ThreadLocalLogTester;
+import org.sonar.plugins.java.api.JavaVersion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class AnalysisResultCacheTest {
+
+  @RegisterExtension
+  ThreadLocalLogTester logTester = new ThreadLocalLogTester().setLevel(Level.DEBUG);
+
+  @TempDir
+  Path baseDir;
+
+  private final JavaVersion javaVersion = new JavaVersionImpl(17);
+
+  @Test
+  void disabled_unless_replay_is_requested() {
+    SensorContextTester context = sensorContext(new InMemoryCache(Map.of()), new HashMap<>(), false);
+    SonarComponents sonarComponents = sonarComponents(context);
+    AnalysisResultCache cache = new AnalysisResultCache(sonarComponents, List.of(), javaVersion);
+
+    assertThat(AnalysisResultCache.isReplayEnabled(sonarComponents)).isFalse();
+    assertThat(AnalysisResultCache.isReplayEnabled(null)).isFalse();
+    assertThat(cache.isEnabled()).isFalse();
+    InputFile inputFile = addFile(context, "A.java", "class A {}");
+    cache.write(inputFile, new AnalysisResult(), Set.of());
+    cache.writePendingResults(List.of(new ProjectIndex()));
+    assertThat(cache.read(inputFile)).isEmpty();
+  }
+
+  @Test
+  void disabled_when_cache_is_disabled_or_in_sonarlint() {
+    SensorContextTester context = sensorContext(new InMemoryCache(Map.of()), new HashMap<>(), true);
+    context.setCacheEnabled(false);
+    assertThat(AnalysisResultCache.isReplayEnabled(sonarComponents(context))).isFalse();
+
+    context.setCacheEnabled(true);
+    SonarComponents sonarLintComponents = sonarComponents(context);
+    doReturn(true).when(sonarLintComponents).isSonarLintContext();
+    assertThat(AnalysisResultCache.isReplayEnabled(sonarLintComponents)).isFalse();
+    assertThat(AnalysisResultCache.isReplayEnabled(sonarComponents(context))).isTrue();
+  }
+
+  @Test
+  void result_of_unchanged_file_is_read_from_previous_analysis() {
+    Map<String, byte[]> firstAnalysis = analyze("class A {}", "class B {}", List.of());
+
+    Map<String, byte[]> nextCache = new HashMap<>();
+    SensorContextTester context = sensorContext(new InMemoryCache(firstAnalysis), nextCache, true);
+    InputFile a = addFile(context, "A.java", "class A {}");
+    InputFile b = addFile(context, "B.java", "class B {}");
+    AnalysisResultCache cache = new AnalysisResultCache(sonarComponents(context), List.of(), javaVersion);
+
+    assertThat(cache.read(a)).hasValueSatisfying(result -> assertThat(result.measures()).containsEntry("ncloc", 1));
+    cache.keep(a);
+    cache.keep(b);
+    // B has no result to keep
+    assertThat(nextCache).containsOnlyKeys(firstAnalysis.keySet());
+    assertThat(logTester.logs(Level.DEBUG)).anyMatch(log -> log.startsWith("Fingerprint of the analysis"));
+  }
+
+  @Test
+  void result_of_changed_file_is_not_read() {
+    Map<String, byte[]> firstAnalysis = new HashMap<>();
+    SensorContextTester context = sensorContext(new InMemoryCache(Map.of()), firstAnalysis, true);
+    InputFile jsp = jspFile("<p>v1</p>");
+    AnalysisResultCache firstCache = new AnalysisResultCache(sonarComponents(context), List.of(), javaVersion);
+    firstCache.write(jsp, new AnalysisResult(), Set.of());
+    assertThat(firstAnalysis).isEmpty();
+    firstCache.writePendingResults(List.of(new ProjectIndex()));
+
+    context = sensorContext(new InMemoryCache(firstAnalysis), new HashMap<>(), true);
+    AnalysisResultCache cache = new AnalysisResultCache(sonarComponents(context), List.of(), javaVersion);
+    assertThat(cache.read(jspFile("<p>v1</p>"))).isPresent();
+
+    context = sensorContext(new InMemoryCache(firstAnalysis), new HashMap<>(), true);
+    cache = new AnalysisResultCache(sonarComponents(context), List.of(), javaVersion);
+    assertThat(cache.read(jspFile("<p>v2</p>"))).isEmpty();
+  }
+
+  private InputFile jspFile(String content) {
+    return TestInputFileBuilder.create("", baseDir.toFile(), baseDir.resolve("page.jsp").toFile())
+      .setContents(content)
+      .build();
+  }
+
+  @Test
+  void results_are_invalidated_by_changes_to_their_dependencies_and_to_the_classpath(@TempDir Path classes) throws Exception {
+    Path lib = classes.resolve("Lib.class");
+    Files.writeString(lib, "v1");
+    Map<String, byte[]> firstAnalysis = analyze("class A extends B {}", "class B {}", List.of(classes.toFile()));
+
+    assertThat(readA(firstAnalysis, "class B {}", "class C {}", List.of(classes.toFile()))).isTrue();
+    // A does not depend on C
+    assertThat(readA(firstAnalysis, "class B {}", "class C { }", List.of(classes.toFile()))).isTrue();
+    assertThat(readA(firstAnalysis, "class B { }", "class C {}", List.of(classes.toFile()))).isFalse();
+    assertThat(readA(firstAnalysis, "class B {}", "class C {}", List.of())).isFalse();
+
+    // the content of the files of the classpath is not read, only their size and modification date
+    Files.writeString(lib, "v2");
+    Files.setLastModifiedTime(lib, FileTime.fromMillis(0));
+    Map<String, byte[]> analysisOfV2 = analyze("class A extends B {}", "class B {}", List.of(classes.toFile()));
+    Files.writeString(lib, "v3");
+    Files.setLastModifiedTime(lib, FileTime.fromMillis(0));
+    assertThat(readA(analysisOfV2, "class B {}", "class C {}", List.of(classes.toFile()))).isTrue();
+    Files.setLastModifiedTime(lib, FileTime.fromMillis(1_000));
+    assertThat(readA(analysisOfV2, "class B {}", "class C {}", List.of(classes.toFile()))).isFalse();
+    Files.writeString(lib, "v33");
+    Files.setLastModifiedTime(lib, FileTime.fromMillis(0));
+    assertThat(readA(analysisOfV2, "class B {}", "class C {}", List.of(classes.toFile()))).isFalse();
+    assertThat(readA(analysisOfV2, "class B {}", "class C {}", List.of(lib.toFile()))).isFalse();
+  }
+
+  @Test
+  void results_are_invalidated_when_a_dependency_is_removed() {
+    Map<String, byte[]> firstAnalysis = analyze("class A extends B {}", "class B {}", List.of());
+
+    SensorContextTester context = sensorContext(new InMemoryCache(firstAnalysis), new HashMap<>(), true);
+    InputFile a = addFile(context, "A.java", "class A extends B {}");
+    AnalysisResultCache cache = new AnalysisResultCache(sonarComponents(context), List.of(), javaVersion);
+    assertThat(cache.read(a)).isEmpty();
+  }
+
+  @Test
+  void dependencies_are_the_files_declaring_the_types_whatever_their_name() {
+    Map<String, byte[]> firstAnalysis = analyze("class A extends B {}", "class B {}\nclass D {}", List.of());
+
+    assertThat(readA(firstAnalysis, "class B {}\nclass D {}", "class C {}", List.of())).isTrue();
+    // A also depends on D, a secondary top-level type of B.java
+    assertThat(readA(firstAnalysis, "class B {}\nclass D { }", "class C {}", List.of())).isFalse();
+  }
+
+  @Test
+  void dependencies_are_resolved_through_the_indexes_of_other_files() {
+    Map<String, byte[]> nextCache = new HashMap<>();
+    SensorContextTester context = sensorContext(new InMemoryCache(Map.of()), nextCache, true);
+    InputFile a = addFile(context, "A.java", "class A extends B {}");
+    InputFile b = addFile(context, "B.java", "class B {}");
+    AnalysisResultCache cache = new AnalysisResultCache(sonarComponents(context), List.of(), javaVersion);
+    cache.write(a, new AnalysisResult(), Set.of("A", "B"));
+    ProjectIndex mainIndex = new ProjectIndex();
+    mainIndex.put(b, FileIndex.of(JParserTestUtils.parse("class B {}")));
+    cache.writePendingResults(List.of(new ProjectIndex(), mainIndex));
+
+    assertThat(readA(nextCache, "class B {}", "class C {}", List.of())).isTrue();
+    assertThat(readA(nextCache, "class B { }", "class C {}", List.of())).isFalse();
+  }
+
+  @Test
+  void unreadable_entries_are_ignored() {
+    Map<String, byte[]> firstAnalysis = analyze("class A extends B {}", "class B {}", List.of());
+    // the list of the dependencies is truncated
+    firstAnalysis.replaceAll((key, value) -> Arrays.copyOf(value, 10));
+
+    SensorContextTester context = sensorContext(new InMemoryCache(firstAnalysis), new HashMap<>(), true);
+    InputFile a = addFile(context, "A.java", "class A extends B {}");
+    addFile(context, "B.java", "class B {}");
+    AnalysisResultCache cache = new AnalysisResultCache(sonarComponents(context), List.of(), javaVersion);
+
+    assertThat(cache.read(a)).isEmpty();
+    assertThat(logTester.logs(Level.DEBUG)).anyMatch(log -> log.startsWith("Unable to read the result of the previous analysis of"));
+  }
+
+  private boolean readA(Map<String, byte[]> previousCache, String contentOfB, String contentOfC, List<File> classpath) {
+    SensorContextTester context = sensorContext(new InMemoryCache(previousCache), new HashMap<>(), true);
+    InputFile a = addFile(context, "A.java", "class A extends B {}");
+    addFile(context, "B.java", contentOfB);
+    addFile(context, "C.java", contentOfC);
+    return new AnalysisResultCache(sonarComponents(context), classpath, javaVersion).read(a).isPresent();
+  }
+
+  private Map<String, byte[]> analyze(String contentOfA, String contentOfB, List<File> classpath) {
+    Map<String, byte[]> nextCache = new HashMap<>();
+    SensorContextTester context = sensorContext(new InMemoryCache(Map.of()), nextCache, true);
+    InputFile a = addFile(context, "A.java", contentOfA);
+    addFile(context, "B.java", contentOfB);
+    addFile(context, "C.java", "class C {}");
+    AnalysisResultCache cache = new AnalysisResultCache(sonarComponents(context), classpath, javaVersion);
+    AnalysisResultRecorder recorder = new AnalysisResultRecorder(a, check -> true);
+    recorder.recordMeasure("ncloc", 1);
+    assertThat(cache.read(a)).isEmpty();
+    // A depends on itself, on the types it extends and on types which are not declared in the module
+    Set<String> dependencies = Set.of("A", "B", "D", "java.lang.Object");
+    cache.write(a, recorder.result(), dependencies);
+    cache.write(a, recorder.result(), dependencies);
+    assertThat(nextCache).isEmpty();
+    cache.writePendingResults(List.of(projectIndex(context)));
+    assertThat(nextCache).hasSize(1);
+    return nextCache;
+  }
+
+  private static ProjectIndex projectIndex(SensorContextTester context) {
+    ProjectIndex projectIndex = new ProjectIndex();
+    for (InputFile file : context.fileSystem().inputFiles()) {
+      try {
+        projectIndex.put(file, FileIndex.of(JParserTestUtils.parse(file.contents())));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return projectIndex;
+  }
+
+  private InputFile addFile(SensorContextTester context, String name, String content) {
+    InputFile inputFile = TestInputFileBuilder.create("", baseDir.toFile(), baseDir.resolve(name).toFile())
+      .setContents(content)
+      .setLanguage("java")
+      .build();
+    context.fileSystem().add(inputFile);
+    return inputFile;
+  }
+
+  private SensorContextTester sensorContext(ReadCache previousCache, Map<String, byte[]> nextCache, boolean replay) {
+    SensorContextTester context = SensorContextTester.create(baseDir);
+    context.setSettings(new MapSettings().setProperty(AnalysisResultCache.REPLAY_ANALYSIS_RESULTS_KEY, replay));
+    context.setCacheEnabled(true);
+    context.setPreviousCache(previousCache);
+    context.setNextCache(new InMemoryWriteCache(previousCache, nextCache));
+    return context;
+  }
+
+  private static SonarComponents sonarComponents(SensorContextTester context) {
+    SonarComponents sonarComponents = mock(SonarComponents.class);
+    doReturn(context).when(sonarComponents).context();
+    return sonarComponents;
+  }
+
+  private record InMemoryCache(Map<String, byte[]> entries) implements ReadCache {
+
+    @Override
+    public InputStream read(String key) {
+      return new ByteArrayInputStream(entries.get(key));
+    }
+
+    @Override
+    public boolean contains(String key) {
+      return entries.containsKey(key);
+    }
+  }
+
+  private record InMemoryWriteCache(ReadCache previousCache, Map<String, byte[]> entries) implements WriteCache {
+
+    @Override
+    public void write(String key, InputStream data) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void write(String key, byte[] data) {
+      if (entries.putIfAbsent(key, data) != null) {
+        throw new IllegalArgumentException("Same key cannot be written to multiple times (" + key + ")");
+      }
+    }
+
+    @Override
+    public void copyFromPrevious(String key) {
+      try (InputStream in = previousCache.read(key)) {
+        write(key, in.readAllBytes());
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
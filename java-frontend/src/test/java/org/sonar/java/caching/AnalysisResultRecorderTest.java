@@ -0,0 +1,176 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.DefaultInputFile;
+import org.sonar.api.batch.sensor.highlighting.NewHighlighting;
+import org.sonar.api.batch.sensor.highlighting.TypeOfText;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.batch.sensor.issue.Issue;
+import org.sonar.api.batch.sensor.symbol.NewSymbol;
+import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
+import org.sonar.api.measures.FileLinesContext;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.java.TestUtils;
+import org.sonar.java.caching.AnalysisResult.Location;
+import org.sonar.java.reporting.AnalyzerMessage;
+import org.sonar.plugins.java.api.JavaCheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalysisResultRecorderTest {
+
+  private static final JavaCheck REPLAYABLE_CHECK = new JavaCheck() {
+  };
+  private static final JavaCheck NON_REPLAYABLE_CHECK = new JavaCheck() {
+  };
+  private static final RuleKey RULE_KEY = RuleKey.of("java", "S42");
+
+  private final File file = new File("src/test/files/api/JavaFileScannerContext.java");
+  private final InputFile inputFile = TestUtils.inputFile(file.getAbsoluteFile().getAbsolutePath(), file, InputFile.Type.MAIN);
+  private final AnalysisResultRecorder recorder = new AnalysisResultRecorder(inputFile, check -> check == REPLAYABLE_CHECK);
+
+  @Test
+  void recorded_result_is_replayed_identically() throws IOException {
+    SensorContextTester analysisContext = SensorContextTester.create(file.getAbsoluteFile());
+    recorder.record(analysisContext.newHighlighting().onFile(inputFile))
+      .highlight(3, 0, 3, 5, TypeOfText.KEYWORD)
+      .highlight(((DefaultInputFile) inputFile).newRange(4, 2, 4, 5), TypeOfText.KEYWORD)
+      .save();
+    NewSymbolTable symbolTable = recorder.record(analysisContext.newSymbolTable().onFile(inputFile));
+    symbolTable.newSymbol(4, 6, 4, 7).newReference(5, 7, 5, 8);
+    symbolTable.newSymbol(((DefaultInputFile) inputFile).newRange(3, 6, 3, 7));
+    symbolTable.save();
+    recorder.recordIssue(REPLAYABLE_CHECK, RULE_KEY, inputFile, Location.of(new AnalyzerMessage.TextSpan(4, 2, 4, 5), "primary"), 2.0,
+      List.of(List.of(Location.of(new AnalyzerMessage.TextSpan(5), "line"), Location.of(null, "file"))), true);
+    recorder.recordIssue(REPLAYABLE_CHECK, RULE_KEY, inputFile, Location.of(null, "on file"), null, List.of(), false);
+    recorder.recordIssue(NON_REPLAYABLE_CHECK, RULE_KEY, inputFile, Location.of(null, "not replayed"), null, List.of(), false);
+    recorder.recordMeasure("ncloc", 4);
+    recorder.recordNoSonarLines(Set.of(2));
+    recorder.recordClassNames(List.of("A"));
+
+    AnalysisResult result = AnalysisResult.fromBytes(recorder.result().toBytes());
+
+    assertThat(recorder.isValid()).isTrue();
+    assertThat(result.issueCount()).isEqualTo(2);
+    assertThat(result.measures()).containsExactly(Map.entry("ncloc", 4));
+    assertThat(result.noSonarLines()).containsExactly(2);
+    assertThat(result.classNames()).containsExactly("A");
+
+    SensorContextTester replayContext = SensorContextTester.create(file.getAbsoluteFile());
+    result.replayIssues(replayContext, inputFile);
+    result.replayHighlighting(replayContext.newHighlighting().onFile(inputFile));
+    result.replaySymbolTable(replayContext.newSymbolTable().onFile(inputFile));
+
+    assertThat(replayContext.allIssues()).hasSize(2);
+    Issue issue = replayContext.allIssues().iterator().next();
+    assertThat(issue.ruleKey()).isEqualTo(RULE_KEY);
+    assertThat(issue.gap()).isEqualTo(2.0);
+    assertThat(issue.isQuickFixAvailable()).isTrue();
+    assertThat(issue.primaryLocation().message()).isEqualTo("primary");
+    assertThat(issue.primaryLocation().textRange()).isEqualTo(((DefaultInputFile) inputFile).newRange(4, 2, 4, 5));
+    assertThat(issue.flows()).hasSize(1);
+    assertThat(issue.flows().get(0).locations()).hasSize(2);
+    assertThat(issue.flows().get(0).locations().get(0).textRange().start().line()).isEqualTo(5);
+    assertThat(issue.flows().get(0).locations().get(1).textRange()).isNull();
+
+    String key = inputFile.key();
+    for (int line = 1; line <= 6; line++) {
+      for (int offset = 0; offset < 8; offset++) {
+        assertThat(replayContext.highlightingTypeAt(key, line, offset)).isEqualTo(analysisContext.highlightingTypeAt(key, line, offset));
+        assertThat(replayContext.referencesForSymbolAt(key, line, offset)).isEqualTo(analysisContext.referencesForSymbolAt(key, line, offset));
+      }
+    }
+    assertThat(replayContext.referencesForSymbolAt(key, 4, 6)).hasSize(1);
+  }
+
+  @Test
+  void line_values_are_recorded_and_delegated() throws IOException {
+    FileLinesContext fileLinesContext = mock(FileLinesContext.class);
+    FileLinesContext recording = recorder.record(fileLinesContext);
+    recording.setIntValue("ncloc_data", 3, 1);
+    recording.setStringValue("executable_lines_data", 4, "1");
+    recording.save();
+    verify(fileLinesContext).setIntValue("ncloc_data", 3, 1);
+    verify(fileLinesContext).setStringValue("executable_lines_data", 4, "1");
+    verify(fileLinesContext).save();
+
+    FileLinesContext replayed = mock(FileLinesContext.class);
+    AnalysisResult.fromBytes(recorder.result().toBytes()).replayLineValues(replayed);
+    verify(replayed).setIntValue("ncloc_data", 3, 1);
+    verify(replayed).setStringValue("executable_lines_data", 4, "1");
+    verify(replayed).save();
+  }
+
+  @Test
+  void issue_on_another_component_invalidates_the_recording() {
+    InputFile otherFile = mock(InputFile.class);
+    recorder.recordIssue(REPLAYABLE_CHECK, RULE_KEY, otherFile, Location.of(null, "message"), null, List.of(), false);
+    assertThat(recorder.isValid()).isFalse();
+    assertThat(recorder.result().issueCount()).isZero();
+  }
+
+  @Test
+  void issues_rejected_by_filters_are_dropped() {
+    recorder.recordIssue(REPLAYABLE_CHECK, RULE_KEY, inputFile, Location.of(new AnalyzerMessage.TextSpan(3), "kept"), null, List.of(), false);
+    recorder.recordIssue(REPLAYABLE_CHECK, RuleKey.of("java", "S43"), inputFile, Location.of(new AnalyzerMessage.TextSpan(4), "dropped"), null,
+      List.of(), false);
+
+    recorder.retainIssuesAcceptedBy((issue, chain) -> issue.ruleKey().equals(RULE_KEY) && issue.line() == 3 && inputFile.key().equals(issue.componentKey()));
+
+    assertThat(recorder.result().issueCount()).isEqualTo(1);
+  }
+
+  @Test
+  void unsupported_version_is_rejected() {
+    byte[] data = recorder.result().toBytes();
+    data[0] = (byte) 0xFF;
+    assertThrows(IOException.class, () -> AnalysisResult.fromBytes(data));
+  }
+
+  @Test
+  void wrappers_delegate() {
+    NewHighlighting highlighting = mock(NewHighlighting.class);
+    NewHighlighting recordingHighlighting = recorder.record(highlighting);
+    assertThat(recordingHighlighting.onFile(inputFile)).isSameAs(recordingHighlighting);
+    recordingHighlighting.save();
+    verify(highlighting).onFile(inputFile);
+    verify(highlighting).save();
+
+    NewSymbolTable symbolTable = mock(NewSymbolTable.class);
+    NewSymbol symbol = mock(NewSymbol.class);
+    when(symbolTable.newSymbol(any())).thenReturn(symbol);
+    NewSymbolTable recordingSymbolTable = recorder.record(symbolTable);
+    assertThat(recordingSymbolTable.onFile(inputFile)).isSameAs(recordingSymbolTable);
+    NewSymbol recordingSymbol = recordingSymbolTable.newSymbol(((DefaultInputFile) inputFile).newRange(3, 6, 3, 7));
+    assertThat(recordingSymbol.newReference(((DefaultInputFile) inputFile).newRange(4, 6, 4, 7))).isSameAs(recordingSymbol);
+    verify(symbol).newReference(any());
+    assertThat(recorder.result().symbols).hasSize(2);
+  }
+}
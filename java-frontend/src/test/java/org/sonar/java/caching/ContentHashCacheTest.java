@@ -63,7 +63,7 @@ class ContentHashCacheTest {
   @Test
   void hasSameHashCached_returns_false_when_content_hash_file_is_not_in_read_cache_with_proper_logging() {
     String[] messages = new String[]{
-      "Could not find key java:contentHash:MD5:" + inputFile.key() + " in the cache",
+      "Could not find key java:contentHash:MURMUR3_128:" + inputFile.key() + " in the cache",
       "Reading cache for the file " + inputFile.key(),
       "Writing to the cache for file " + inputFile.key()
     };
@@ -120,8 +120,8 @@ class ContentHashCacheTest {
     SensorContextTester sensorContext = SensorContextTester.create(file.getAbsoluteFile());
     sensorContext.setCacheEnabled(true);
     ReadCache readCache = mock(ReadCache.class);
-    when(readCache.read("java:contentHash:MD5:" + inputFile.key())).thenReturn(new ByteArrayInputStream("Dummy content hash".getBytes()));
-    when(readCache.contains("java:contentHash:MD5:" + inputFile.key())).thenReturn(true);
+    when(readCache.read("java:contentHash:MURMUR3_128:" + inputFile.key())).thenReturn(new ByteArrayInputStream("Dummy content hash".getBytes()));
+    when(readCache.contains("java:contentHash:MURMUR3_128:" + inputFile.key())).thenReturn(true);
     WriteCache writeCache = mock(WriteCache.class);
     sensorContext.setPreviousCache(readCache);
     sensorContext.setNextCache(writeCache);
@@ -143,8 +143,8 @@ class ContentHashCacheTest {
     // mocking static method requires mockito-inline, which currently breaks the tests.
     InputFile inputFile1 = mock(InputFile.class);
     when(inputFile1.key()).thenReturn("key");
-    when(readCache.read("java:contentHash:MD5:" + inputFile1.key())).thenReturn(new ByteArrayInputStream("string".getBytes()));
-    when(readCache.contains("java:contentHash:MD5:" + inputFile1.key())).thenReturn(true);
+    when(readCache.read("java:contentHash:MURMUR3_128:" + inputFile1.key())).thenReturn(new ByteArrayInputStream("string".getBytes()));
+    when(readCache.contains("java:contentHash:MURMUR3_128:" + inputFile1.key())).thenReturn(true);
     WriteCache writeCache = mock(WriteCache.class);
     sensorContext.setPreviousCache(readCache);
     sensorContext.setNextCache(writeCache);
@@ -177,7 +177,7 @@ class ContentHashCacheTest {
   @Test
   void writeToCache_returns_false_when_writing_to_cache_throws_exception_with_proper_logging() throws IOException,
     NoSuchAlgorithmException {
-    String message = "Tried to write multiple times to cache key java:contentHash:MD5:" + inputFile.key() + ". Ignoring writes after the " +
+    String message = "Tried to write multiple times to cache key java:contentHash:MURMUR3_128:" + inputFile.key() + ". Ignoring writes after the " +
       "first.";
     assertThat(writeToCache_returns_false_when_writing_to_cache_throws_exception(Level.TRACE)).contains(message);
     assertThat(writeToCache_returns_false_when_writing_to_cache_throws_exception(Level.WARN)).doesNotContain(message);
@@ -190,7 +190,7 @@ class ContentHashCacheTest {
     sensorContext.setCacheEnabled(true);
     WriteCache writeCache = mock(WriteCache.class);
     sensorContext.setNextCache(writeCache);
-    doThrow(new IllegalArgumentException()).when(writeCache).write("java:contentHash:MD5:" + inputFile.key(),
+    doThrow(new IllegalArgumentException()).when(writeCache).write("java:contentHash:MURMUR3_128:" + inputFile.key(),
       FileHashingUtils.inputFileContentHash(file.getPath()));
     ContentHashCache contentHashCache = new ContentHashCache(mockSonarComponents(sensorContext));
     Assertions.assertFalse(contentHashCache.writeToCache(inputFile));
@@ -239,7 +239,7 @@ class ContentHashCacheTest {
     SensorContextTester sensorContext = SensorContextTester.create(file.getAbsoluteFile());
     sensorContext.setCacheEnabled(isCacheEnabled);
     ReadCache readCache = mock(ReadCache.class);
-    when(readCache.read("java:contentHash:MD5:" + inputFile.key())).thenThrow(new IllegalArgumentException());
+    when(readCache.read("java:contentHash:MURMUR3_128:" + inputFile.key())).thenThrow(new IllegalArgumentException());
     WriteCache writeCache = mock(WriteCache.class);
     sensorContext.setPreviousCache(readCache);
     sensorContext.setNextCache(writeCache);
@@ -251,8 +251,8 @@ class ContentHashCacheTest {
     SensorContextTester sensorContext = SensorContextTester.create(file.getAbsoluteFile());
     sensorContext.setCacheEnabled(true);
     ReadCache readCache = mock(ReadCache.class);
-    when(readCache.read("java:contentHash:MD5:" + inputFile.key())).thenReturn(new ByteArrayInputStream(FileHashingUtils.inputFileContentHash(inputFile)));
-    when(readCache.contains("java:contentHash:MD5:" + inputFile.key())).thenReturn(true);
+    when(readCache.read("java:contentHash:MURMUR3_128:" + inputFile.key())).thenReturn(new ByteArrayInputStream(FileHashingUtils.inputFileContentHash(inputFile)));
+    when(readCache.contains("java:contentHash:MURMUR3_128:" + inputFile.key())).thenReturn(true);
     WriteCache writeCache = mock(WriteCache.class);
     sensorContext.setPreviousCache(readCache);
     sensorContext.setNextCache(writeCache);
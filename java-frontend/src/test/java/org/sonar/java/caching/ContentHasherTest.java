@@ -0,0 +1,63 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentHasherTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void hash_of_bytes_is_murmur3_128() {
+    Random random = new Random(42);
+    for (int length = 0; length < 100; length++) {
+      byte[] bytes = new byte[length];
+      random.nextBytes(bytes);
+      assertThat(ContentHasher.forCurrentThread().hash(bytes)).isEqualTo(Hashing.murmur3_128().hashBytes(bytes).asBytes());
+    }
+  }
+
+  @Test
+  void hash_of_file_is_hash_of_its_bytes() throws IOException {
+    Random random = new Random(42);
+    // sizes around the size of the buffer, which is not a multiple of the size of the read blocks
+    for (int length : new int[] {0, 1, 15, 17, 64 * 1024 - 1, 64 * 1024, 64 * 1024 + 7, 200_003}) {
+      byte[] bytes = new byte[length];
+      random.nextBytes(bytes);
+      Path file = Files.write(tempDir.resolve("file" + length), bytes);
+      assertThat(ContentHasher.forCurrentThread().hash(file)).isEqualTo(Hashing.murmur3_128().hashBytes(bytes).asBytes());
+    }
+  }
+
+  @Test
+  void one_hasher_per_thread() throws Exception {
+    ContentHasher hasher = ContentHasher.forCurrentThread();
+    assertThat(ContentHasher.forCurrentThread()).isSameAs(hasher);
+    assertThat(CompletableFuture.supplyAsync(ContentHasher::forCurrentThread).get()).isNotSameAs(hasher);
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.io.File;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.SonarComponents;
+import org.sonar.java.TestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContentHashesTest {
+
+  private final File file = new File("src/test/files/api/JavaFileScannerContext.java");
+
+  @Test
+  void files_are_hashed_once() throws IOException {
+    InputFile inputFile = spy(TestUtils.inputFile(file));
+    ContentHashes contentHashes = new ContentHashes();
+
+    byte[] hash = contentHashes.hash(inputFile);
+
+    assertThat(hash).isEqualTo(FileHashingUtils.inputFileContentHash(file.getPath()));
+    assertThat(contentHashes.hash(inputFile)).isSameAs(hash);
+    verify(inputFile, times(1)).path();
+  }
+
+  @Test
+  void files_which_are_not_on_disk_are_hashed_from_their_content() throws IOException {
+    InputFile inputFile = mock(InputFile.class);
+    when(inputFile.key()).thenReturn("key");
+    when(inputFile.contents()).thenReturn("class A {}");
+
+    assertThat(new ContentHashes().hash(inputFile)).hasSize(16);
+  }
+
+  @Test
+  void hashes_are_shared_by_the_analysis() {
+    SonarComponents sonarComponents = mock(SonarComponents.class);
+    ContentHashes contentHashes = new ContentHashes();
+    when(sonarComponents.contentHashes()).thenReturn(contentHashes);
+
+    assertThat(ContentHashes.of(sonarComponents)).isSameAs(contentHashes);
+    assertThat(ContentHashes.of(mock(SonarComponents.class))).isNotNull();
+    assertThat(ContentHashes.of(null)).isNotNull();
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.model.JParserTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileDependenciesTest {
+
+  private static final String SOURCE = """
+    package org.foo;
+
+    import java.util.Map;
+
+    class A extends B {
+      void m(Map.Entry<String, Integer>[] entries) {
+        class Local {}
+        loop:
+        for (Map.Entry<String, Integer> entry : entries) {
+          new Local();
+          continue loop;
+        }
+      }
+    }
+
+    class B {
+      static final Object LOCK = new Object();
+    }
+    """;
+
+  @Test
+  void dependencies_are_the_top_level_types_the_file_refers_to_and_their_supertypes() {
+    Set<String> dependencies = FileDependencies.of(JParserTestUtils.parse(SOURCE));
+
+    assertThat(dependencies)
+      // the types declared by the file, including their member and local types
+      .contains("org.foo.A", "org.foo.B")
+      // the types of the members of the file, member types being replaced by their top-level type
+      .contains("java.util.Map", "java.lang.String", "java.lang.Integer", "java.lang.Object")
+      // the supertypes of these types
+      .contains("java.lang.Comparable", "java.lang.Number", "java.io.Serializable", "java.lang.CharSequence")
+      .doesNotContain("org.foo.A$Local", "java.util.Map$Entry");
+  }
+
+  @Test
+  void dependencies_of_files_referring_to_unknown_symbols_are_unknown() {
+    assertThat(FileDependencies.of(JParserTestUtils.parse("""
+      class A {
+        void m() {
+          Unknown unknown = new Unknown();
+        }
+      }
+      """))).isNull();
+  }
+}
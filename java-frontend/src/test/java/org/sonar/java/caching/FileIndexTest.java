@@ -0,0 +1,131 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.model.JParserTestUtils;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileIndexTest {
+
+  private static final String SOURCE = """
+    package org.foo;
+
+    import java.io.Serializable;
+
+    @Scan(value = {"org.foo", "org.bar"}, name = "main", size = 2)
+    class A extends B implements Serializable, Unknown {
+      A(int i) {}
+      void m(String s) {}
+      static class Inner {}
+      interface Nested {}
+    }
+
+    class B {
+      void run() {
+        class Local {}
+      }
+    }
+
+    @interface Scan {
+      String[] value();
+      String name();
+      int size();
+    }
+    """;
+
+  @Test
+  void declarations_of_the_file_are_indexed() {
+    FileIndex fileIndex = FileIndex.of(JParserTestUtils.parse(SOURCE));
+
+    assertThat(fileIndex.packageName()).isEqualTo("org.foo");
+    assertThat(fileIndex.types())
+      .extracting(FileIndex.DeclaredType::fullyQualifiedName)
+      .containsExactly("org.foo.A", "org.foo.A$Inner", "org.foo.A$Nested", "org.foo.B", "org.foo.Scan");
+
+    FileIndex.DeclaredType a = fileIndex.types().get(0);
+    assertThat(a.kind()).isEqualTo(Tree.Kind.CLASS);
+    assertThat(a.superClass()).isEqualTo("org.foo.B");
+    // unknown interfaces are not indexed
+    assertThat(a.interfaces()).containsExactly("java.io.Serializable");
+    assertThat(a.methods()).containsExactly("<init>(I)V", "m(Ljava/lang/String;)V");
+    assertThat(a.isAnnotatedWith("org.foo.Scan")).isTrue();
+    assertThat(a.isAnnotatedWith("org.foo.B")).isFalse();
+    // only the values which are strings or arrays of strings are kept
+    assertThat(a.annotation("org.foo.Scan").values())
+      .isEqualTo(Map.of("value", List.of("org.foo", "org.bar"), "name", List.of("main")));
+
+    assertThat(fileIndex.types().get(2).kind()).isEqualTo(Tree.Kind.INTERFACE);
+    assertThat(fileIndex.types().get(2).superClass()).isEqualTo("java.lang.Object");
+    assertThat(fileIndex.types().get(3).annotations()).isEmpty();
+    assertThat(fileIndex.types().get(4).kind()).isEqualTo(Tree.Kind.ANNOTATION_TYPE);
+  }
+
+  @Test
+  void file_in_default_package() {
+    FileIndex fileIndex = FileIndex.of(JParserTestUtils.parse("class A {}"));
+    assertThat(fileIndex.packageName()).isEmpty();
+    assertThat(fileIndex.types()).extracting(FileIndex.DeclaredType::fullyQualifiedName).containsExactly("A");
+  }
+
+  @Test
+  void serialization_round_trip() throws IOException {
+    FileIndex fileIndex = FileIndex.of(JParserTestUtils.parse(SOURCE));
+
+    FileIndex restored = FileIndex.fromBytes(fileIndex.toBytes());
+
+    assertThat(restored.packageName()).isEqualTo(fileIndex.packageName());
+    assertThat(restored.types()).isEqualTo(fileIndex.types());
+  }
+
+  @Test
+  void empty_file_round_trip() throws IOException {
+    FileIndex restored = FileIndex.fromBytes(new FileIndex("", List.of()).toBytes());
+    assertThat(restored.packageName()).isEmpty();
+    assertThat(restored.types()).isEmpty();
+  }
+
+  @Test
+  void unreadable_data() {
+    byte[] data = FileIndex.of(JParserTestUtils.parse(SOURCE)).toBytes();
+
+    byte[] truncated = Arrays.copyOf(data, data.length - 3);
+    assertThatThrownBy(() -> FileIndex.fromBytes(truncated)).isInstanceOf(IOException.class);
+
+    byte[] otherVersion = data.clone();
+    otherVersion[3] = 42;
+    assertThatThrownBy(() -> FileIndex.fromBytes(otherVersion))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Unsupported format version 42");
+
+    // reference to a string which is not in the table
+    FileIndex fileIndex = new FileIndex("org.foo", List.of());
+    byte[] invalidReference = fileIndex.toBytes();
+    invalidReference[invalidReference.length - 2] = 7;
+    assertThatThrownBy(() -> FileIndex.fromBytes(invalidReference))
+      .isInstanceOf(IOException.class)
+      .hasMessage("Invalid entry");
+  }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.event.Level;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.java.testing.ThreadLocalLogTester;
+import org.sonar.plugins.java.api.caching.CacheContext;
+import org.sonar.plugins.java.api.caching.JavaReadCache;
+import org.sonar.plugins.java.api.caching.JavaWriteCache;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ProjectIndexCacheTest {
+
+  private static final String CACHE_KEY = "java:projectIndex:module:src/A.java";
+
+  @RegisterExtension
+  ThreadLocalLogTester logTester = new ThreadLocalLogTester().setLevel(Level.TRACE);
+
+  private final InputFile inputFile = TestInputFileBuilder.create("module", "src/A.java").build();
+  private final FileIndex fileIndex = new FileIndex("org.foo",
+    List.of(new FileIndex.DeclaredType("org.foo.A", Tree.Kind.CLASS, null, List.of(), List.of(), List.of("m()V"))));
+  private final JavaReadCache readCache = mock(JavaReadCache.class);
+  private final JavaWriteCache writeCache = mock(JavaWriteCache.class);
+
+  @Test
+  void entry_is_read_from_previous_analysis() {
+    doReturn(fileIndex.toBytes()).when(readCache).readBytes(CACHE_KEY);
+
+    assertThat(new ProjectIndexCache(cacheContext(true)).read(inputFile))
+      .hasValueSatisfying(entry -> assertThat(entry.types()).isEqualTo(fileIndex.types()));
+  }
+
+  @Test
+  void missing_entry() {
+    assertThat(new ProjectIndexCache(cacheContext(true)).read(inputFile)).isEmpty();
+  }
+
+  @Test
+  void unreadable_entry_is_ignored() {
+    doReturn(new byte[] {0, 0, 0, 1, 5}).when(readCache).readBytes(CACHE_KEY);
+    assertThat(new ProjectIndexCache(cacheContext(true)).read(inputFile)).isEmpty();
+
+    doThrow(new CacheReadException("Unable to read data for key " + CACHE_KEY, null)).when(readCache).readBytes(CACHE_KEY);
+    assertThat(new ProjectIndexCache(cacheContext(true)).read(inputFile)).isEmpty();
+
+    assertThat(logTester.logs(Level.DEBUG))
+      .hasSize(2)
+      .allMatch(log -> log.startsWith("Unable to read the index of " + inputFile + " stored by the previous analysis: "));
+  }
+
+  @Test
+  void entry_is_written() {
+    ProjectIndexCache cache = new ProjectIndexCache(cacheContext(true));
+    cache.write(inputFile, fileIndex);
+    verify(writeCache).write(CACHE_KEY, fileIndex.toBytes());
+
+    doThrow(new IllegalArgumentException()).when(writeCache).write(anyString(), any(byte[].class));
+    cache.write(inputFile, fileIndex);
+    assertThat(logTester.logs(Level.TRACE))
+      .contains("Tried to write multiple times to cache key '" + CACHE_KEY + "'. Ignoring writes after the first.");
+  }
+
+  @Test
+  void entry_is_kept_only_when_present() {
+    ProjectIndexCache cache = new ProjectIndexCache(cacheContext(true));
+    cache.keep(inputFile);
+    verify(writeCache, never()).copyFromPrevious(anyString());
+
+    doReturn(true).when(readCache).contains(CACHE_KEY);
+    cache.keep(inputFile);
+    verify(writeCache).copyFromPrevious(CACHE_KEY);
+
+    doThrow(new IllegalArgumentException()).when(writeCache).copyFromPrevious(CACHE_KEY);
+    cache.keep(inputFile);
+    assertThat(logTester.logs(Level.TRACE))
+      .contains("Tried to write multiple times to cache key '" + CACHE_KEY + "'. Ignoring writes after the first.");
+  }
+
+  @Test
+  void nothing_is_done_when_cache_is_disabled() {
+    ProjectIndexCache cache = new ProjectIndexCache(cacheContext(false));
+    assertThat(cache.read(inputFile)).isEmpty();
+    cache.write(inputFile, fileIndex);
+    cache.keep(inputFile);
+    verifyNoInteractions(readCache, writeCache);
+  }
+
+  private CacheContext cacheContext(boolean enabled) {
+    CacheContext cacheContext = mock(CacheContext.class);
+    doReturn(enabled).when(cacheContext).isCacheEnabled();
+    doReturn(readCache).when(cacheContext).getReadCache();
+    doReturn(writeCache).when(cacheContext).getWriteCache();
+    return cacheContext;
+  }
+
+}
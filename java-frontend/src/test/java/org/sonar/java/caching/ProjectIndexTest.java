@@ -0,0 +1,77 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.caching;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectIndexTest {
+
+  private static final FileIndex.Annotation COMPONENT = new FileIndex.Annotation("org.foo.Component", Map.of());
+
+  private final InputFile a = TestInputFileBuilder.create("module", "src/A.java").build();
+  private final InputFile b = TestInputFileBuilder.create("module", "src/B.java").build();
+
+  @Test
+  void queries() {
+    ProjectIndex projectIndex = new ProjectIndex();
+    assertThat(projectIndex.file(a)).isNull();
+    assertThat(projectIndex.types()).isEmpty();
+
+    FileIndex fileA = new FileIndex("org.foo", List.of(
+      type("org.foo.I", Tree.Kind.INTERFACE, null, List.of(), List.of()),
+      type("org.foo.A", Tree.Kind.CLASS, "java.lang.Object", List.of("org.foo.I"), List.of(COMPONENT))));
+    FileIndex fileB = new FileIndex("org.foo", List.of(
+      type("org.foo.B", Tree.Kind.CLASS, "org.foo.A", List.of(), List.of(COMPONENT))));
+    projectIndex.put(a, fileA);
+    projectIndex.put(b, fileB);
+
+    assertThat(projectIndex.file(a)).isSameAs(fileA);
+    assertThat(projectIndex.files()).containsOnlyKeys(a.key(), b.key());
+    assertThat(projectIndex.types()).extracting(FileIndex.DeclaredType::fullyQualifiedName)
+      .containsExactly("org.foo.I", "org.foo.A", "org.foo.B");
+    assertThat(projectIndex.type("org.foo.B")).hasValueSatisfying(type -> assertThat(type.superClass()).isEqualTo("org.foo.A"));
+    assertThat(projectIndex.type("org.foo.C")).isEmpty();
+    assertThat(projectIndex.directSubtypes("org.foo.I")).extracting(FileIndex.DeclaredType::fullyQualifiedName).containsExactly("org.foo.A");
+    assertThat(projectIndex.directSubtypes("org.foo.A")).extracting(FileIndex.DeclaredType::fullyQualifiedName).containsExactly("org.foo.B");
+    assertThat(projectIndex.directSubtypes("org.foo.B")).isEmpty();
+    assertThat(projectIndex.annotatedWith("org.foo.Component")).extracting(FileIndex.DeclaredType::fullyQualifiedName)
+      .containsExactly("org.foo.A", "org.foo.B");
+  }
+
+  @Test
+  void entry_of_reindexed_file_is_replaced() {
+    ProjectIndex projectIndex = new ProjectIndex();
+    projectIndex.put(a, new FileIndex("org.foo", List.of(type("org.foo.A", Tree.Kind.CLASS, null, List.of(), List.of()))));
+    projectIndex.put(a, new FileIndex("org.bar", List.of()));
+
+    assertThat(projectIndex.file(a).packageName()).isEqualTo("org.bar");
+    assertThat(projectIndex.types()).isEmpty();
+  }
+
+  private static FileIndex.DeclaredType type(String name, Tree.Kind kind, String superClass, List<String> interfaces,
+    List<FileIndex.Annotation> annotations) {
+    return new FileIndex.DeclaredType(name, kind, superClass, interfaces, annotations, List.of());
+  }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.cfg;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.model.JParserTestUtils;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BitVectorDataflowTest {
+
+  private static CFG buildCFG(String methodCode) {
+    CompilationUnitTree cut = JParserTestUtils.parse("class A { " + methodCode + " }");
+    MethodTree tree = ((MethodTree) ((ClassTree) cut.types().get(0)).members().get(0));
+    return (CFG) tree.cfg();
+  }
+
+  /**
+   * Each block generates a fact with its own id, and kills all others when {@code killOthers} is set.
+   */
+  private static BitVectorDataflow blockFlow(CFG cfg, BitVectorDataflow.Direction direction, boolean killOthers) {
+    int blockCount = cfg.reversedBlocks().size();
+    int words = BitVectorDataflow.words(blockCount);
+    long[][] gen = new long[blockCount][words];
+    long[][] kill = new long[blockCount][words];
+    for (int block = 0; block < blockCount; block++) {
+      gen[block][block / Long.SIZE] |= 1L << block;
+      for (int other = 0; killOthers && other < blockCount; other++) {
+        if (other != block) {
+          kill[block][other / Long.SIZE] |= 1L << other;
+        }
+      }
+    }
+    return BitVectorDataflow.solve(cfg, direction, gen, kill);
+  }
+
+  private static Set<Integer> ids(long[] set, int blockCount) {
+    return IntStream.range(0, blockCount).filter(id -> BitVectorDataflow.contains(set, id)).boxed().collect(Collectors.toSet());
+  }
+
+  private static Set<Integer> ids(Set<CFG.Block> blocks) {
+    return blocks.stream().map(CFG.Block::id).collect(Collectors.toSet());
+  }
+
+  @Test
+  void forward_problem_propagates_along_successors() {
+    CFG cfg = buildCFG("void foo(boolean b) { int x = 1; while (b) { if (x > 0) { x = 2; } else { foo(false); } } foo(true); }");
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    int blockCount = blocks.size();
+
+    BitVectorDataflow reaching = blockFlow(cfg, BitVectorDataflow.Direction.FORWARD, false);
+    assertThat(ids(reaching.in(cfg.entryBlock()), blockCount)).isEmpty();
+    assertThat(ids(reaching.out(cfg.entryBlock()), blockCount)).containsExactly(cfg.entryBlock().id());
+    // every block reaches the exit block
+    assertThat(ids(reaching.in(blocks.get(0)), blockCount)).hasSize(blockCount - 1);
+
+    BitVectorDataflow lastBlock = blockFlow(cfg, BitVectorDataflow.Direction.FORWARD, true);
+    for (CFG.Block block : blocks) {
+      assertThat(ids(lastBlock.out(block), blockCount)).containsExactly(block.id());
+      assertThat(ids(lastBlock.in(block), blockCount)).isEqualTo(ids(block.predecessors()));
+    }
+  }
+
+  @Test
+  void backward_problem_propagates_along_predecessors() {
+    CFG cfg = buildCFG("void foo(boolean b) { try { foo(b); } catch (RuntimeException e) { foo(!b); } }");
+    List<CFG.Block> blocks = cfg.reversedBlocks();
+    int blockCount = blocks.size();
+
+    BitVectorDataflow reachable = blockFlow(cfg, BitVectorDataflow.Direction.BACKWARD, false);
+    assertThat(ids(reachable.in(cfg.entryBlock()), blockCount)).hasSize(blockCount);
+    assertThat(ids(reachable.out(blocks.get(0)), blockCount)).isEmpty();
+
+    BitVectorDataflow nextBlock = blockFlow(cfg, BitVectorDataflow.Direction.BACKWARD, true);
+    for (CFG.Block block : blocks) {
+      Set<Integer> expectedOut = ids(block.successors());
+      expectedOut.addAll(ids(block.exceptions()));
+      assertThat(ids(nextBlock.out(block), blockCount)).isEqualTo(expectedOut);
+    }
+  }
+
+  @Test
+  void domain_as_set() {
+    BitVectorDataflow.Domain<String> domain = new BitVectorDataflow.Domain<>();
+    assertThat(domain.id("a")).isZero();
+    for (int i = 1; i < 70; i++) {
+      assertThat(domain.id("s" + i)).isEqualTo(i);
+    }
+    assertThat(domain.id("a")).isZero();
+    assertThat(domain.size()).isEqualTo(70);
+    assertThat(domain.get(69)).isEqualTo("s69");
+    assertThat(BitVectorDataflow.words(domain.size())).isEqualTo(2);
+    assertThat(BitVectorDataflow.words(64)).isEqualTo(1);
+
+    long[] bits = new long[2];
+    bits[0] = 1L | (1L << 3);
+    bits[1] = 1L << (69 - 64);
+    Set<String> set = domain.asSet(bits);
+    assertThat(set).containsExactly("a", "s3", "s69").hasSize(3);
+    assertThat(set.contains("s4")).isFalse();
+    assertThat(set.contains("unknown")).isFalse();
+    assertThat(BitVectorDataflow.contains(bits, 200)).isFalse();
+    assertThat(domain.asSet(new long[2])).isEmpty();
+    assertThat(domain.asSet(new long[0])).isEmpty();
+
+    Iterator<String> iterator = domain.asSet(new long[] {1L << 63}).iterator();
+    assertThat(iterator.next()).isEqualTo("s63");
+    assertThat(iterator.hasNext()).isFalse();
+    assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
+  }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.cfg;
+
+import org.junit.jupiter.api.Test;
+import org.sonar.java.model.JParserTestUtils;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.BlockTree;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ExpressionStatementTree;
+import org.sonar.plugins.java.api.tree.LambdaExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.TryStatementTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CFGCacheTest {
+
+  private static final CompilationUnitTree CUT = JParserTestUtils.parse("""
+    class A {
+      int field;
+      { field = 1; }
+      void foo(int a) {
+        try {
+          bar(() -> a);
+        } catch (Exception e) {
+          field = a;
+        }
+      }
+      void bar(java.util.function.IntSupplier s) { }
+    }
+    """);
+
+  private static final ClassTree CLASS_TREE = (ClassTree) CUT.types().get(0);
+  private static final MethodTree METHOD = (MethodTree) CLASS_TREE.members().get(2);
+  private static final TryStatementTree TRY = (TryStatementTree) METHOD.block().body().get(0);
+
+  @Test
+  void cfgs_are_shared() {
+    CFGCache cache = new CFGCache();
+    BlockTree initializer = (BlockTree) CLASS_TREE.members().get(1);
+    LambdaExpressionTree lambda = (LambdaExpressionTree) ((MethodInvocationTree) ((ExpressionStatementTree) TRY.block().body().get(0)).expression()).arguments().get(0);
+
+    assertThat(cache.cfg(METHOD)).isSameAs(METHOD.cfg()).isSameAs(cache.cfg(METHOD));
+    assertThat(cache.cfg(lambda)).isSameAs(lambda.cfg());
+    assertThat(cache.cfgOfBody(initializer)).isSameAs(cache.cfgOfBody(initializer));
+    assertThat(cache.cfg(TRY)).isSameAs(cache.cfg(TRY));
+    assertThat(cache.cfg(TRY.block())).isNotSameAs(cache.cfgOfBody(TRY.block()));
+  }
+
+  @Test
+  void cfg_built_without_enclosing_method_is_replaced_once_it_is_known() {
+    CFGCache cache = new CFGCache();
+    BlockTree catchBlock = TRY.catches().get(0).block();
+    Symbol.MethodSymbol methodSymbol = METHOD.symbol();
+
+    CFG withoutMethod = cache.cfgOfBody(catchBlock);
+    assertThat(withoutMethod.methodSymbol()).isNull();
+
+    CFG withMethod = cache.cfgOfBody(catchBlock, methodSymbol);
+    assertThat(withMethod).isNotSameAs(withoutMethod);
+    assertThat(withoutMethod.methodSymbol()).isNull();
+    assertThat(withMethod.methodSymbol()).isSameAs(methodSymbol);
+    assertThat(cache.cfgOfBody(catchBlock, methodSymbol)).isSameAs(withMethod);
+    assertThat(cache.cfgOfBody(catchBlock)).isSameAs(withMethod);
+  }
+
+  @Test
+  void live_variables_are_computed_once_per_cfg() {
+    CFGCache cache = new CFGCache();
+    CFG cfg = cache.cfg(METHOD);
+
+    LiveVariables liveVariables = cache.liveVariables(cfg);
+    LiveVariables liveVariablesWithFields = cache.liveVariablesWithFields(cfg);
+    assertThat(cache.liveVariables(cfg)).isSameAs(liveVariables);
+    assertThat(cache.liveVariablesWithFields(cfg)).isSameAs(liveVariablesWithFields).isNotSameAs(liveVariables);
+
+    CFG catchCfg = cache.cfgOfBody(TRY.catches().get(0).block(), METHOD.symbol());
+    assertThat(cache.liveVariables(catchCfg).getIn(catchCfg.entryBlock())).extracting(Symbol::name).containsExactly("a");
+    assertThat(cache.liveVariablesWithFields(catchCfg).getIn(catchCfg.entryBlock())).extracting(Symbol::name).containsExactly("a");
+  }
+
+}
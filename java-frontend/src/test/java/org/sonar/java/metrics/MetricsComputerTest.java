@@ -17,10 +17,16 @@
 package org.sonar.java.metrics;
 
 import org.junit.jupiter.api.Test;
+import org.sonar.java.ast.visitors.CognitiveComplexityVisitor;
+import org.sonar.java.ast.visitors.ComplexityVisitor;
+import org.sonar.java.ast.visitors.StatementVisitor;
 import org.sonar.java.model.JParserTestUtils;
+import org.sonar.plugins.java.api.tree.BlockTree;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -48,42 +54,146 @@ class MetricsComputerTest implements MetricsScannerContext {
     
     MethodTree methodTree = (MethodTree) ((ClassTree) cut.types().get(0)).members().get(0);
 
-    assertThat(mc.getMethodComplexityNodes()).isEmpty();
+    assertThat(mc.getMethodMetrics()).isEmpty();
     mc.getComplexityNodes(methodTree).size();
-    assertThat(mc.getMethodComplexityNodes()).containsKey(methodTree.hashCode());
+    assertThat(mc.getMethodMetrics()).containsOnlyKeys(methodTree);
+    mc.getNumberOfAccessedVariables(methodTree);
+    mc.getMethodNestingLevel(methodTree);
+    assertThat(mc.getMethodMetrics()).containsOnlyKeys(methodTree);
+
+    assertThat(mc.getCompilationUnitMetrics()).isEmpty();
+    mc.getComplexityNodes(cut);
+    assertThat(mc.getComplexityNodes()).isEmpty();
+    assertThat(mc.getCompilationUnitMetrics()).containsOnlyKeys(cut);
+    mc.getComplexityNodes(methodTree.block());
+    assertThat(mc.getComplexityNodes()).containsOnlyKeys(methodTree.block());
 
     assertThat(mc.getMethodComplexity()).isEmpty();
     mc.getMethodComplexity(methodTree);
-    assertThat(mc.getMethodComplexity()).containsKey(methodTree.hashCode());
-    
-    assertThat(mc.getMethodNumberOfAccessedVariables()).isEmpty();
-    mc.getNumberOfAccessedVariables(methodTree);
-    assertThat(mc.getMethodNumberOfAccessedVariables()).containsKey(methodTree.hashCode());
-    
-    assertThat(mc.getTreeLinesOfCode()).isEmpty();
+    assertThat(mc.getMethodComplexity()).containsKey(methodTree);
+
+    assertThat(mc.getFileMetrics()).isEmpty();
     mc.getLinesOfCode(methodTree);
-    assertThat(mc.getTreeLinesOfCode()).containsKey(methodTree.hashCode());
-    
-    assertThat(mc.getTreeNumberOfStatements()).isEmpty();
-    mc.getNumberOfStatements(methodTree);
-    assertThat(mc.getTreeNumberOfStatements()).containsKey(methodTree.hashCode());
-    
-    assertThat(mc.getTreeNumberOfCommentedLines()).isEmpty();
+    assertThat(mc.getFileMetrics()).containsOnlyKeys(cut);
     mc.getNumberOfCommentedLines(cut);
-    assertThat(mc.getTreeNumberOfCommentedLines()).containsKey(cut.hashCode());
-    
-    assertThat(mc.getTreeNoSonarLines()).isEmpty();
     mc.getNoSonarLines(cut);
-    assertThat(mc.getTreeNoSonarLines()).containsKey(cut.hashCode());
+    assertThat(mc.getFileMetrics()).containsOnlyKeys(cut);
     
-    assertThat(mc.getCompilationUnityComplexity()).isEmpty();
+    assertThat(mc.getTreeNumberOfStatements()).isEmpty();
+    mc.getNumberOfStatements(methodTree);
+    assertThat(mc.getTreeNumberOfStatements()).containsKey(methodTree);
+    mc.getNumberOfStatements(cut);
     mc.getCompilationUnitComplexity(cut);
-    assertThat(mc.getCompilationUnityComplexity()).containsKey(cut.hashCode());
-    
-    assertThat(mc.getMethodNestingLevel()).isEmpty();
-    mc.getMethodNestingLevel(methodTree);
-    assertThat(mc.getMethodNestingLevel()).containsKey(methodTree.hashCode());
-    
+    assertThat(mc.getTreeNumberOfStatements()).containsOnlyKeys(methodTree);
+    assertThat(mc.getCompilationUnitMetrics()).containsOnlyKeys(cut);
+  }
+
+  @Test
+  void method_metrics_are_computed_in_one_walk() {
+    CompilationUnitTree cut = JParserTestUtils.parse("""
+      class A {
+        int foo(int p, boolean b) {
+          int local = 0;
+          if (b && p > 0) {
+            for (int i = 0; i < p; i++) {
+              local += i;
+            }
+          }
+          return b ? local : 0;
+        }
+        void bar() {
+          while (true) { }
+        }
+      }
+      """);
+    ClassTree classTree = (ClassTree) cut.types().get(0);
+    MethodTree foo = (MethodTree) classTree.members().get(0);
+    MethodTree bar = (MethodTree) classTree.members().get(1);
+
+    assertThat(mc.getComplexityNodes(foo)).extracting(t -> t.firstToken().text()).containsExactly("foo", "if", "&&", "for", "?");
+    assertThat(mc.getMethodNestingLevel(foo)).isEqualTo(2);
+    assertThat(mc.getNumberOfAccessedVariables(foo)).isEqualTo(4);
+    assertThat(mc.getComplexityNodes(bar)).extracting(t -> t.firstToken().text()).containsExactly("bar", "while");
+    // each method keeps its own result
+    assertThat(mc.getComplexityNodes(foo)).hasSize(5);
+    assertThat(mc.getComplexityNodes(cut)).hasSize(7);
+    assertThat(mc.getComplexityNodes(foo)).hasSize(5);
   }
-  
+
+  @Test
+  void compilation_unit_metrics_are_computed_in_one_walk() {
+    CompilationUnitTree cut = JParserTestUtils.parse("""
+      class A {
+        static { if (b) { x(); } }
+        int foo(int p, boolean b) {
+          int i = 0, j;
+          for (i = 0, j = 1; i < p && b; i++) {
+            Runnable r = () -> { if (b || p > 1) { x(); } };
+          }
+          Object o = new Object() {
+            { while (b) { } }
+            void bar() { try { x(); } catch (Exception e) { if (b) { return; } } }
+          };
+          switch (p) { case 1: break; default: return b ? 1 : 0; }
+          return 0;
+        }
+        abstract void qix();
+      }
+      """);
+    ClassTree classTree = (ClassTree) cut.types().get(0);
+    MethodTree foo = (MethodTree) classTree.members().get(1);
+    MethodTree bar = (MethodTree) ((NewClassTree) ((VariableTree) foo.block().body().get(3)).initializer()).classBody().members().get(1);
+
+    assertThat(mc.getComplexityNodes(cut)).containsExactlyElementsOf(new ComplexityVisitor().getNodes(cut));
+    assertThat(mc.getNumberOfStatements(cut)).isEqualTo(new StatementVisitor().numberOfStatements(cut));
+    assertThat(mc.getCompilationUnitComplexity(cut)).isEqualTo(CognitiveComplexityVisitor.compilationUnitComplexity(cut)).isEqualTo(18);
+    CognitiveComplexityVisitor.Result fooComplexity = mc.getMethodComplexity(foo);
+    assertThat(fooComplexity.complexity).isEqualTo(CognitiveComplexityVisitor.methodComplexity(foo).complexity).isEqualTo(16);
+    assertThat(fooComplexity.locations).extracting(location -> location.msg + " " + location.syntaxNode.firstToken().text()).containsExactly(
+      "+1 for", "+1 &&", "+3 (incl 2 for nesting) if", "+1 ||", "+2 (incl 1 for nesting) while", "+2 (incl 1 for nesting) catch",
+      "+3 (incl 2 for nesting) if", "+1 switch", "+2 (incl 1 for nesting) ?");
+    assertThat(mc.getMethodComplexity(bar)).isSameAs(CognitiveComplexityVisitor.Result.empty());
+    assertThat(mc.getMethodComplexity((MethodTree) classTree.members().get(2))).isSameAs(CognitiveComplexityVisitor.Result.empty());
+  }
+
+  @Test
+  void lines_of_code_of_any_tree_of_the_file() {
+    CompilationUnitTree cut = JParserTestUtils.parse("""
+      // comment
+      class A { // NOSONAR
+        int a,
+          b = 1;
+        int[] c, d
+          [];
+
+        void foo() {
+          /*
+           * comment
+           */
+          bar(
+            1);
+        }
+        String text = \"""
+          multi-line
+          text block
+          \""";
+      }
+      """);
+    ClassTree classTree = (ClassTree) cut.types().get(0);
+    VariableTree b = (VariableTree) classTree.members().get(1);
+    VariableTree d = (VariableTree) classTree.members().get(3);
+    MethodTree foo = (MethodTree) classTree.members().get(4);
+    BlockTree fooBody = foo.block();
+
+    assertThat(mc.getLinesOfCode(cut)).isEqualTo(12);
+    assertThat(mc.getLinesOfCode(classTree)).isEqualTo(12);
+    assertThat(mc.getLinesOfCode(foo)).isEqualTo(4);
+    assertThat(mc.getLinesOfCode(fooBody.body().get(0))).isEqualTo(2);
+    assertThat(mc.getLinesOfCode(b)).isEqualTo(2);
+    assertThat(mc.getLinesOfCode(d)).isEqualTo(2);
+    assertThat(mc.getLinesOfCode(d.type())).isEqualTo(2);
+    assertThat(mc.getNumberOfCommentedLines(cut)).isEqualTo(1);
+    assertThat(mc.getNoSonarLines(cut)).containsExactly(2);
+  }
+
 }
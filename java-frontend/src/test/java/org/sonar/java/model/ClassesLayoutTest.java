@@ -38,11 +38,14 @@ class ClassesLayoutTest {
   private static final Layouter X86_64 = new HotSpotLayouter(new Model64(), JDK_VERSION);
   private static final Layouter X86_64_COOPS = new HotSpotLayouter(new Model64_COOPS_CCPS(), JDK_VERSION);
 
+  /**
+   * A token keeps its line and column rather than a range, which would take 72 more bytes with its two positions.
+   */
   @Test
   void token() {
     assertAll(
       () -> assertThat(instanceSize(InternalSyntaxToken.class, X86_64)).isEqualTo(72),
-      () -> assertThat(instanceSize(InternalSyntaxToken.class, X86_64_COOPS)).isEqualTo(40)
+      () -> assertThat(instanceSize(InternalSyntaxToken.class, X86_64_COOPS)).isEqualTo(48)
     );
   }
 
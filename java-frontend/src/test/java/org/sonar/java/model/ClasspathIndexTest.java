@@ -0,0 +1,161 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jdt.internal.compiler.batch.ClasspathDirectory;
+import org.eclipse.jdt.internal.compiler.batch.ClasspathJar;
+import org.eclipse.jdt.internal.compiler.batch.FileSystem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ClasspathIndexTest {
+
+  private static final File PROJECT_JAR = new File("src/test/files/other/project.jar");
+  private static final File CLASSES = new File("target/test-classes");
+
+  @TempDir
+  Path temp;
+
+  @Test
+  void entries_are_shared_between_classpaths() {
+    try (ClasspathIndex index = new ClasspathIndex()) {
+      List<FileSystem.Classpath> main = index.entries(List.of(PROJECT_JAR), false);
+      List<FileSystem.Classpath> test = index.entries(List.of(CLASSES, PROJECT_JAR), false);
+
+      assertThat(main).hasSize(1);
+      assertThat(main.get(0)).isInstanceOf(ClasspathJar.class);
+      assertThat(test).hasSize(2);
+      assertThat(test.get(0)).isInstanceOf(ClasspathDirectory.class);
+      assertThat(test.get(1)).isSameAs(main.get(0));
+      assertThat(index.sharedEntriesCount()).isEqualTo(2);
+    }
+  }
+
+  @Test
+  void jars_are_initialized_before_being_shared() {
+    try (ClasspathIndex index = new ClasspathIndex()) {
+      FileSystem.Classpath jar = index.entries(List.of(PROJECT_JAR), false).get(0);
+      assertThat(jar.isPackage("org/foo", null)).isTrue();
+      assertThat(jar.isPackage("org/bar", null)).isFalse();
+      assertThat(jar.findClass("A.class".toCharArray(), "org/foo", null, "org/foo/A.class")).isNotNull();
+    }
+  }
+
+  @Test
+  void running_vm_bootclasspath_is_not_shared() {
+    try (ClasspathIndex index = new ClasspathIndex()) {
+      List<FileSystem.Classpath> first = index.entries(List.of(), true);
+      List<FileSystem.Classpath> second = index.entries(List.of(), true);
+
+      assertThat(first).isNotEmpty();
+      assertThat(second).hasSameSizeAs(first);
+      assertThat(second.get(0)).isNotSameAs(first.get(0));
+      assertThat(index.sharedEntriesCount()).isZero();
+    }
+  }
+
+  @Test
+  void only_entries_which_are_not_shared_are_released() {
+    try (ClasspathIndex index = new ClasspathIndex()) {
+      FileSystem.Classpath jar = index.entries(List.of(PROJECT_JAR), false).get(0);
+      FileSystem.Classpath notShared = mock(FileSystem.Classpath.class);
+
+      index.release(List.of(jar, notShared));
+
+      verify(notShared).reset();
+      assertThat(jar.findClass("A.class".toCharArray(), "org/foo", null, "org/foo/A.class")).isNotNull();
+    }
+  }
+
+  @Test
+  void shared_jars_can_be_read_concurrently() throws Exception {
+    try (ClasspathIndex index = new ClasspathIndex()) {
+      FileSystem.Classpath jar = index.entries(List.of(PROJECT_JAR), false).get(0);
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+        List<Future<Boolean>> lookups = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+          lookups.add(executor.submit(() -> {
+            boolean found = true;
+            for (int j = 0; j < 100; j++) {
+              found &= jar.isPackage("org/foo", null) && jar.findClass("A.class".toCharArray(), "org/foo", null, "org/foo/A.class") != null;
+            }
+            return found;
+          }));
+        }
+        for (Future<Boolean> lookup : lookups) {
+          assertThat(lookup.get(10, TimeUnit.SECONDS)).isTrue();
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  @Test
+  void missing_elements_are_ignored() {
+    try (ClasspathIndex index = new ClasspathIndex()) {
+      assertThat(index.entries(List.of(new File("unknown.jar")), false)).isEmpty();
+    }
+  }
+
+  @Test
+  void invalid_elements_are_rejected() {
+    try (ClasspathIndex index = new ClasspathIndex()) {
+      List<File> classpath = List.of(new File("invalid.jar["));
+      assertThatThrownBy(() -> index.entries(classpath, false))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("invalid environment settings");
+    }
+  }
+
+  @Test
+  void closing_releases_the_jars() throws IOException {
+    Path jar = temp.resolve("project.jar");
+    Files.copy(PROJECT_JAR.toPath(), jar);
+    ClasspathIndex index = new ClasspathIndex();
+    FileSystem.Classpath entry = index.entries(List.of(jar.toFile()), false).get(0);
+
+    index.close();
+
+    assertThat(index.sharedEntriesCount()).isZero();
+    Files.delete(jar);
+    assertThat(jar).doesNotExist();
+
+    Files.copy(PROJECT_JAR.toPath(), jar);
+    FileSystem.Classpath reloaded = index.entries(List.of(jar.toFile()), false).get(0);
+    assertThat(reloaded).isNotSameAs(entry);
+    assertThat(reloaded.isPackage("org/foo", null)).isTrue();
+    index.close();
+  }
+
+}
@@ -21,6 +21,7 @@ import java.util.Collections;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.java.SonarComponents;
 import org.sonar.java.regex.RegexCheck;
 import org.sonar.java.regex.RegexParserTestUtils;
 import org.sonar.java.reporting.AnalyzerMessage;
@@ -291,6 +292,18 @@ class DefaultJavaFileScannerContextTest extends DefaultInputFileScannerContextTe
     assertThat(ctx.sourceMap()).isEmpty();
   }
 
+  @Test
+  void regex_verdicts_are_shared_by_the_files_of_the_analysis() {
+    SonarComponents components = new SonarComponents(null, null, null, null, null, null);
+    DefaultJavaFileScannerContext ctx = new DefaultJavaFileScannerContext(compilationUnitTree, JAVA_INPUT_FILE, null, components, new JavaVersionImpl(), true, false);
+    assertThat(ctx.regexVerdicts()).isSameAs(components.regexVerdicts());
+
+    ctx = new DefaultJavaFileScannerContext(compilationUnitTree, JAVA_INPUT_FILE, null, null, new JavaVersionImpl(), true, false);
+    assertThat(ctx.regexVerdicts())
+      .isNotSameAs(components.regexVerdicts())
+      .isSameAs(ctx.regexVerdicts());
+  }
+
   @Test
   void test_new_issue_return_a_builder() {
     assertThat(context.newIssue()).isInstanceOf(FluentReporting.JavaIssueBuilder.class);
@@ -17,9 +17,11 @@
 package org.sonar.java.model;
 
 import java.util.Collections;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.sonar.plugins.java.api.location.Range;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -56,6 +58,16 @@ class InternalSyntaxTokenTest {
       .isEqualTo(Range.at(10,8,13, 4));
   }
 
+  @Test
+  void tokens_without_comments_share_an_empty_trivia_list() {
+    JavaTree.CompilationUnitTreeImpl tree = (JavaTree.CompilationUnitTreeImpl) JParserTestUtils.parse("class A { // comment\n int i; }");
+    List<SyntaxToken> tokens = tree.allTokens();
+    assertThat(tokens.get(0).trivias()).isEmpty();
+    assertThat(tokens.get(1).trivias()).isSameAs(tokens.get(0).trivias());
+    assertThat(tokens.get(3).text()).isEqualTo("int");
+    assertThat(tokens.get(3).trivias()).extracting(SyntaxTrivia::comment).containsExactly("// comment");
+  }
+
   private static InternalSyntaxToken token(int line, int column, String value) {
     int columnOffset = column - 1;
     return new InternalSyntaxToken(line, columnOffset, value, Collections.emptyList(), false);
@@ -16,19 +16,44 @@
  */
 package org.sonar.java.model;
 
+import com.sonar.sslr.api.RecognitionException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.event.Level;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.AnalysisProgress;
+import org.sonar.java.TestUtils;
 import org.sonar.java.testing.ThreadLocalLogTester;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.sonar.java.model.JParserConfig.shouldEnablePreviewFlag;
 
 class JParserConfigTest {
   @RegisterExtension
   public ThreadLocalLogTester logTester = new ThreadLocalLogTester().setLevel(Level.INFO);
 
+  @TempDir
+  Path temp;
+
   @Test
   void should_enable_preview() {
     assertThat(shouldEnablePreviewFlag(new JavaVersionImpl())).isFalse();
@@ -55,4 +80,243 @@ class JParserConfigTest {
     JParserConfig.Mode.BATCH.create(new JavaVersionImpl(17), Collections.emptyList(), true);
     assertThat(logTester.logs()).containsExactly("The Java analyzer will ignore the unnamed module for split packages.");
   }
+
+  @Test
+  void parallel_batch_is_only_created_when_parallelism_is_greater_than_one() {
+    assertThat(JParserConfig.createParallelBatch(new JavaVersionImpl(17), Collections.emptyList(), false, 1))
+      .isInstanceOf(JParserConfig.Batch.class);
+    assertThat(JParserConfig.createParallelBatch(new JavaVersionImpl(17), Collections.emptyList(), false, 4))
+      .isInstanceOf(JParserConfig.ParallelBatch.class);
+    assertThat(logTester.logs()).isEmpty();
+    JParserConfig.createParallelBatch(new JavaVersionImpl(17), Collections.emptyList(), true, 4);
+    assertThat(logTester.logs()).containsExactly("The Java analyzer will ignore the unnamed module for split packages.");
+  }
+
+  @Test
+  void parallel_batch_splits_files_in_contiguous_slices() {
+    List<InputFile> inputFiles = metricsFiles();
+
+    assertThat(JParserConfig.ParallelBatch.split(inputFiles, 1)).containsExactly(inputFiles);
+    assertThat(JParserConfig.ParallelBatch.split(List.of(), 3)).isEmpty();
+
+    List<List<InputFile>> slices = JParserConfig.ParallelBatch.split(inputFiles, 2);
+    assertThat(slices).hasSize(2);
+    assertThat(slices.stream().flatMap(List::stream).toList()).containsExactlyElementsOf(inputFiles);
+
+    slices = JParserConfig.ParallelBatch.split(inputFiles, 10);
+    assertThat(slices).hasSize(inputFiles.size());
+    assertThat(slices.stream().flatMap(List::stream).toList()).containsExactlyElementsOf(inputFiles);
+  }
+
+  @Test
+  void parallel_batch_analyzes_files_on_the_calling_thread_in_a_deterministic_order() {
+    List<InputFile> inputFiles = metricsFiles();
+    List<List<InputFile>> slices = JParserConfig.ParallelBatch.split(inputFiles, 2);
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < slices.get(0).size() || i < slices.get(1).size(); i++) {
+      for (List<InputFile> slice : slices) {
+        if (i < slice.size()) {
+          expected.add(slice.get(i).filename());
+        }
+      }
+    }
+
+    Thread callingThread = Thread.currentThread();
+    List<String> analyzed = new ArrayList<>();
+    new JParserConfig.ParallelBatch(new JavaVersionImpl(17), Collections.emptyList(), false, 2, new ClasspathIndex())
+      .parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()), (inputFile, result) -> {
+        assertThat(Thread.currentThread()).isSameAs(callingThread);
+        try {
+          assertThat(result.get().types().get(0)).isInstanceOf(ClassTree.class);
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+        analyzed.add(inputFile.filename());
+      });
+
+    assertThat(analyzed).containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  void parallel_batch_stops_workers_when_analysis_fails() {
+    List<InputFile> inputFiles = metricsFiles();
+    JParserConfig config = new JParserConfig.ParallelBatch(new JavaVersionImpl(17), Collections.emptyList(), false, 3, new ClasspathIndex());
+    AnalysisProgress analysisProgress = new AnalysisProgress(inputFiles.size());
+    assertThatThrownBy(() -> config.parse(inputFiles, () -> false, analysisProgress, (inputFile, result) -> {
+      throw new IllegalStateException("Boom!");
+    })).isInstanceOf(IllegalStateException.class)
+      .hasMessage("Boom!");
+  }
+
+  @Test
+  void parallel_batch_propagates_cancellation() {
+    List<InputFile> inputFiles = metricsFiles();
+    AtomicBoolean isCanceled = new AtomicBoolean(false);
+    JParserConfig config = new JParserConfig.ParallelBatch(new JavaVersionImpl(17), Collections.emptyList(), false, 2, new ClasspathIndex());
+    AnalysisProgress analysisProgress = new AnalysisProgress(inputFiles.size());
+    assertThatThrownBy(() -> config.parse(inputFiles, isCanceled::get, analysisProgress, (inputFile, result) -> isCanceled.set(true)))
+      .isInstanceOf(OperationCanceledException.class);
+  }
+
+  @Test
+  void batches_resolve_bindings_against_the_entries_of_a_shared_index() throws IOException {
+    List<InputFile> inputFiles = new ArrayList<>();
+    for (String name : List.of("B", "C")) {
+      Path source = temp.resolve(name + ".java");
+      Files.writeString(source, "import org.foo.A;\nclass " + name + " {\n  int m(A a) {\n    return a.foo(true);\n  }\n}\n");
+      inputFiles.add(TestUtils.inputFile(source.toFile()));
+    }
+    List<File> classpath = List.of(new File("src/test/files/other/project.jar"));
+    List<String> parameterTypes = new ArrayList<>();
+    try (ClasspathIndex index = new ClasspathIndex()) {
+      for (int parallelism : new int[] {1, 2}) {
+        JParserConfig.createParallelBatch(new JavaVersionImpl(17), classpath, false, parallelism, index)
+          .parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()), (inputFile, result) -> parameterTypes.add(firstParameterType(result)));
+      }
+      assertThat(index.sharedEntriesCount()).isEqualTo(1);
+    }
+    assertThat(parameterTypes).containsExactly("org.foo.A", "org.foo.A", "org.foo.A", "org.foo.A");
+  }
+
+  @Test
+  void batches_release_the_entries_of_their_own_index() throws IOException {
+    Path source = temp.resolve("B.java");
+    Files.writeString(source, "class B {}");
+    List<InputFile> inputFiles = List.of(TestUtils.inputFile(source.toFile()));
+    List<File> classpath = List.of(new File("src/test/files/other/project.jar"));
+    List<JParserConfig> configs = List.of(
+      JParserConfig.Mode.BATCH.create(new JavaVersionImpl(17), classpath),
+      JParserConfig.createParallelBatch(new JavaVersionImpl(17), classpath, false, 1),
+      JParserConfig.createParallelBatch(new JavaVersionImpl(17), classpath, false, 2));
+    for (JParserConfig config : configs) {
+      List<Integer> sharedEntriesCounts = new ArrayList<>();
+      config.parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()),
+        (inputFile, result) -> sharedEntriesCounts.add(config.classpathIndex.sharedEntriesCount()));
+      assertThat(sharedEntriesCounts).containsExactly(1);
+      assertThat(config.classpathIndex.sharedEntriesCount()).isZero();
+    }
+
+    try (ClasspathIndex index = new ClasspathIndex()) {
+      JParserConfig.createParallelBatch(new JavaVersionImpl(17), classpath, false, 2, index)
+        .parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()), (inputFile, result) -> {});
+      // the index of the caller is left open for the next batches
+      assertThat(index.sharedEntriesCount()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void file_by_file_resolves_bindings_against_entries_shared_by_all_files() throws IOException {
+    List<InputFile> inputFiles = new ArrayList<>();
+    for (String name : List.of("B", "C")) {
+      Path source = temp.resolve(name + ".java");
+      Files.writeString(source, "import org.foo.A;\nclass " + name + " {\n  int m(A a) {\n    return a.foo(true);\n  }\n}\n");
+      inputFiles.add(TestUtils.inputFile(source.toFile()));
+    }
+    List<File> classpath = List.of(new File("src/test/files/other/project.jar"));
+    JParserConfig config = JParserConfig.Mode.FILE_BY_FILE.create(new JavaVersionImpl(17), classpath);
+    List<String> parameterTypes = new ArrayList<>();
+    List<Integer> sharedEntriesCounts = new ArrayList<>();
+    config.parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()), (inputFile, result) -> {
+      parameterTypes.add(firstParameterType(result));
+      sharedEntriesCounts.add(config.classpathIndex.sharedEntriesCount());
+    });
+    assertThat(parameterTypes).containsExactly("org.foo.A", "org.foo.A");
+    assertThat(sharedEntriesCounts).containsExactly(1, 1);
+    assertThat(config.classpathIndex.sharedEntriesCount()).isZero();
+  }
+
+  @Test
+  void file_by_file_releases_the_environment_of_each_file() {
+    List<InputFile> inputFiles = metricsFiles().subList(0, 2);
+    ClasspathIndex index = spy(new ClasspathIndex());
+    AtomicInteger releases = new AtomicInteger();
+    doAnswer(invocation -> {
+      releases.incrementAndGet();
+      return invocation.callRealMethod();
+    }).when(index).release(any());
+    List<File> classpath = List.of(new File("src/test/files/other/project.jar"));
+    List<Integer> releasesBeforeAnalysis = new ArrayList<>();
+    new JParserConfig.FileByFile(new JavaVersionImpl(17), classpath, false, index, false)
+      .parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()), (inputFile, result) -> releasesBeforeAnalysis.add(releases.get()));
+
+    // the environment of a file is released once the file has been analyzed
+    assertThat(releasesBeforeAnalysis).containsExactly(0, 1);
+    assertThat(releases).hasValue(2);
+    // the index of the caller is left open
+    verify(index, never()).close();
+    assertThat(index.sharedEntriesCount()).isEqualTo(1);
+    index.close();
+  }
+
+  @Test
+  void file_by_file_reports_invalid_classpath_for_every_file() {
+    List<InputFile> inputFiles = metricsFiles().subList(0, 2);
+    JParserConfig config = JParserConfig.Mode.FILE_BY_FILE.create(new JavaVersionImpl(17), List.of(new File("unknownFile")));
+    List<Exception> exceptions = new ArrayList<>();
+    config.parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()), (inputFile, result) -> {
+      try {
+        result.get();
+      } catch (Exception e) {
+        exceptions.add(e);
+      }
+    });
+    assertThat(exceptions)
+      .hasSize(2)
+      .allSatisfy(e -> assertThat(e).isInstanceOf(RecognitionException.class).hasMessage("ECJ: Unable to parse file."));
+  }
+
+  @Test
+  void syntax_only_parses_files_without_resolving_bindings() throws Exception {
+    Path source = temp.resolve("B.java");
+    Files.writeString(source, "import org.foo.A;\nclass B {\n  int m(A a) {\n    return a.foo(true);\n  }\n}\n");
+    List<InputFile> inputFiles = List.of(TestUtils.inputFile(source.toFile()));
+    JParserConfig config = JParserConfig.createSyntaxOnly(new JavaVersionImpl(17));
+    assertThat(config.astParser()).isNotNull();
+    List<JParserConfig.Result> results = new ArrayList<>();
+    config.parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()), (inputFile, result) -> results.add(result));
+    assertThat(results).hasSize(1);
+    JParserConfig.Result result = results.get(0);
+    assertThat(firstParameterType(result)).isEqualTo("!Unknown!");
+    JSema sema = result.get().sema;
+    assertThat(sema.hasBindings()).isFalse();
+    assertThat(sema.getClassType("java.lang.String").isUnknown()).isTrue();
+    assertThat(sema.resolvePackageAnnotations("org.foo")).isEmpty();
+    assertThat(sema.undefinedTypes()).isEmpty();
+    // there is no name environment to clean
+    result.cleanEnvironment();
+  }
+
+  @Test
+  void syntax_only_reports_syntax_errors() throws IOException {
+    Path source = temp.resolve("B.java");
+    Files.writeString(source, "class B {\n  void m( {\n}\n");
+    List<InputFile> inputFiles = List.of(TestUtils.inputFile(source.toFile()));
+    List<Exception> exceptions = new ArrayList<>();
+    JParserConfig.createSyntaxOnly(new JavaVersionImpl(17)).parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()), (inputFile, result) -> {
+      try {
+        result.get();
+      } catch (Exception e) {
+        exceptions.add(e);
+      }
+    });
+    assertThat(exceptions).singleElement().isInstanceOf(RecognitionException.class);
+  }
+
+  private static String firstParameterType(JParserConfig.Result result) {
+    try {
+      MethodTree method = (MethodTree) ((ClassTree) result.get().types().get(0)).members().get(0);
+      return method.parameters().get(0).symbol().type().fullyQualifiedName();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static List<InputFile> metricsFiles() {
+    return List.of(
+      TestUtils.inputFile("src/test/files/metrics/Classes.java"),
+      TestUtils.inputFile("src/test/files/metrics/Methods.java"),
+      TestUtils.inputFile("src/test/files/metrics/Statements.java"),
+      TestUtils.inputFile("src/test/files/metrics/Complexity.java"),
+      TestUtils.inputFile("src/test/files/metrics/ClassNames.java"));
+  }
 }
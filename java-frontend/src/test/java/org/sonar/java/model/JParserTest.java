@@ -39,14 +39,14 @@ import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
 import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
 import org.eclipse.jdt.internal.compiler.parser.TerminalToken;
-import org.eclipse.jdt.internal.formatter.Token;
-import org.eclipse.jdt.internal.formatter.TokenManager;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
 import org.junit.jupiter.api.io.TempDir;
@@ -93,11 +93,11 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 import static org.sonar.java.model.JParser.convertTokenTypeToCommentKind;
-import static org.sonar.java.model.JParser.isComment;
 import static org.sonar.java.model.JParserConfig.MAXIMUM_SUPPORTED_JAVA_VERSION;
 import static org.sonar.java.model.JParserConfig.Mode.BATCH;
 import static org.sonar.java.model.JParserConfig.Mode.FILE_BY_FILE;
@@ -516,12 +516,12 @@ class JParserTest {
     astParser.setUnitName(unitName);
     astParser.setSource(source.toCharArray());
     CompilationUnit compilationUnit = (CompilationUnit) astParser.createAST(null);
-    TokenManager tokenManager = JParser.createTokenManager(version, unitName, source);
+    TokenStore tokens = TokenStore.lex(version, unitName, source);
 
-    assertThat(JParser.firstIndexIn(tokenManager, compilationUnit, TerminalToken.TokenNameIdentifier, TerminalToken.TokenNameLBRACE)).isEqualTo(1);
-    assertThat(JParser.firstIndexIn(tokenManager, compilationUnit, TerminalToken.TokenNameLBRACE, TerminalToken.TokenNameIdentifier)).isEqualTo(1);
-    assertThat(JParser.firstIndexIn(tokenManager, compilationUnit, TerminalToken.TokenNameRBRACE, TerminalToken.TokenNameLBRACE)).isEqualTo(2);
-    assertThatThrownBy(() -> JParser.firstIndexIn(tokenManager, compilationUnit, TerminalToken.TokenNamebreak, TerminalToken.TokenNameconst))
+    assertThat(JParser.firstIndexIn(tokens, compilationUnit, TerminalToken.TokenNameIdentifier, TerminalToken.TokenNameLBRACE)).isEqualTo(1);
+    assertThat(JParser.firstIndexIn(tokens, compilationUnit, TerminalToken.TokenNameLBRACE, TerminalToken.TokenNameIdentifier)).isEqualTo(1);
+    assertThat(JParser.firstIndexIn(tokens, compilationUnit, TerminalToken.TokenNameRBRACE, TerminalToken.TokenNameLBRACE)).isEqualTo(2);
+    assertThatThrownBy(() -> JParser.firstIndexIn(tokens, compilationUnit, TerminalToken.TokenNamebreak, TerminalToken.TokenNameconst))
       .isInstanceOf(IllegalStateException.class)
       .hasMessage("Failed to find token TokenNamebreak or TokenNameconst in the tokens of a org.eclipse.jdt.core.dom.CompilationUnit");
   }
@@ -542,46 +542,34 @@ class JParserTest {
         void foo() {}
       }
       """;
-    TokenManager tokens = JParser.createTokenManager(version, unitName, source);
+    TokenStore tokens = TokenStore.lex(version, unitName, source);
 
     assertThat(tokens.size()).isEqualTo(15);
 
-    Token token0 = tokens.get(0);
-    assertThat(token0.toString(source)).isEqualTo("class");
-    assertThat(token0.isComment()).isFalse();
-    assertThat(isComment(token0)).isFalse();
-    assertThatThrownBy(() -> convertTokenTypeToCommentKind(token0))
+    assertThat(tokens.text(0)).isEqualTo("class");
+    assertThat(tokens.isComment(0)).isFalse();
+    assertThatThrownBy(() -> convertTokenTypeToCommentKind(tokens.type(0)))
       .isInstanceOf(IllegalStateException.class)
       .hasMessage("Unexpected value: TokenNameclass");
 
-    Token token3 = tokens.get(3);
-    assertThat(token3.toString(source)).isEqualTo("// line comment");
-    assertThat(token3.isComment()).isTrue();
-    assertThat(isComment(token3)).isTrue();
-    assertThat(convertTokenTypeToCommentKind(token3)).isEqualTo(CommentKind.LINE);
+    assertThat(tokens.text(3)).isEqualTo("// line comment");
+    assertThat(tokens.isComment(3)).isTrue();
+    assertThat(convertTokenTypeToCommentKind(tokens.type(3))).isEqualTo(CommentKind.LINE);
 
-    Token token4 = tokens.get(4);
-    assertThat(token4.toString(source)).isEqualTo("/* block comment */");
-    assertThat(token4.isComment()).isTrue();
-    assertThat(isComment(token4)).isTrue();
-    assertThat(convertTokenTypeToCommentKind(token4)).isEqualTo(CommentKind.BLOCK);
+    assertThat(tokens.text(4)).isEqualTo("/* block comment */");
+    assertThat(tokens.isComment(4)).isTrue();
+    assertThat(convertTokenTypeToCommentKind(tokens.type(4))).isEqualTo(CommentKind.BLOCK);
 
-    Token token5 = tokens.get(5);
-    assertThat(token5.toString(source)).isEqualTo("/// markdown comment 1\n  /// markdown comment 2");
-    assertThat(token5.isComment()).isFalse(); // JDT issue https://github.com/eclipse-jdt/eclipse.jdt.core/issues/3914
-    assertThat(isComment(token5)).isTrue();
-    assertThat(convertTokenTypeToCommentKind(token5)).isEqualTo(CommentKind.MARKDOWN);
+    assertThat(tokens.text(5)).isEqualTo("/// markdown comment 1\n  /// markdown comment 2");
+    assertThat(tokens.isComment(5)).isTrue();
+    assertThat(convertTokenTypeToCommentKind(tokens.type(5))).isEqualTo(CommentKind.MARKDOWN);
 
-    Token token6 = tokens.get(6);
-    assertThat(token6.toString(source)).isEqualTo("/**\n    * javadoc comment\n    */");
-    assertThat(token6.isComment()).isTrue();
-    assertThat(isComment(token6)).isTrue();
-    assertThat(convertTokenTypeToCommentKind(token6)).isEqualTo(CommentKind.JAVADOC);
+    assertThat(tokens.text(6)).isEqualTo("/**\n    * javadoc comment\n    */");
+    assertThat(tokens.isComment(6)).isTrue();
+    assertThat(convertTokenTypeToCommentKind(tokens.type(6))).isEqualTo(CommentKind.JAVADOC);
 
-    Token token7 = tokens.get(7);
-    assertThat(token7.toString(source)).isEqualTo("void");
-    assertThat(token7.isComment()).isFalse();
-    assertThat(isComment(token7)).isFalse();
+    assertThat(tokens.text(7)).isEqualTo("void");
+    assertThat(tokens.isComment(7)).isFalse();
   }
 
   @Test
@@ -702,7 +690,8 @@ class JParserTest {
     BiConsumer<InputFile, JParserConfig.Result> doNothingAction = (inputFile, result) -> {};
     JParserConfig config = spy(JParserConfig.Mode.BATCH
       .create(MAXIMUM_SUPPORTED_JAVA_VERSION, List.of(), false));
-    // Return a lazy ASTParser that do nothing to ensure that we have not analyzed files
+    // Parse nothing in batch mode and return a lazy ASTParser that do nothing to ensure that we have not analyzed files
+    doNothing().when(config).createASTs(any(), any(), any(), any());
     when(config.astParser()).thenReturn(mock(ASTParser.class));
 
     config.parse(inputFiles, () -> false, new AnalysisProgress(inputFiles.size()), doNothingAction);
@@ -823,15 +812,15 @@ class JParserTest {
     Deque<RuntimeException> exceptions = new LinkedList<>();
 
     public BatchWithException() {
-      super(MAXIMUM_SUPPORTED_JAVA_VERSION, DEFAULT_CLASSPATH, false);
+      super(MAXIMUM_SUPPORTED_JAVA_VERSION, DEFAULT_CLASSPATH, false, new ClasspathIndex());
     }
 
     @Override
-    public ASTParser astParser() {
+    void createASTs(String[] sourceFilePaths, String[] encodings, FileASTRequestor requestor, IProgressMonitor monitor) {
       if (!exceptions.isEmpty()) {
         throw exceptions.pop();
       }
-      return super.astParser();
+      super.createASTs(sourceFilePaths, encodings, requestor, monitor);
     }
 
   }
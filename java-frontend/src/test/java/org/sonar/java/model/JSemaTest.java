@@ -73,6 +73,24 @@ class JSemaTest {
       .hasSize(1);
   }
 
+  @Test
+  void subtype_results_are_cached() {
+    SubtypeCache subtypeCache = new SubtypeCache();
+    JSema cachingSema = new JSema(ast, subtypeCache);
+    JType list = cachingSema.type(Objects.requireNonNull(cachingSema.resolveType("java.util.ArrayList")));
+
+    assertThat(list.isSubtypeOf("java.util.List")).isTrue();
+    assertThat(list.isSubtypeOf("java.util.List")).isTrue();
+    assertThat(list.isSubtypeOf("java.util.Map")).isFalse();
+    assertThat(subtypeCache.size()).isEqualTo(2);
+
+    JSema otherSema = new JSema(ast, subtypeCache);
+    JType otherList = otherSema.type(Objects.requireNonNull(otherSema.resolveType("java.util.ArrayList")));
+    assertThat(otherList.isSubtypeOf("java.util.List")).isTrue();
+    assertThat(subtypeCache.size()).isEqualTo(2);
+  }
+
+  private AST ast;
   private JSema sema;
 
   @BeforeEach
@@ -89,7 +107,7 @@ class JSemaTest {
     astParser.setResolveBindings(true);
     astParser.setUnitName("File.java");
     astParser.setSource("".toCharArray());
-    AST ast = astParser.createAST(null).getAST();
+    ast = astParser.createAST(null).getAST();
     sema = new JSema(ast);
   }
 
@@ -16,16 +16,22 @@
  */
 package org.sonar.java.model;
 
+import java.util.List;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.sonar.plugins.java.api.location.Range;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.SyntaxTrivia;
+import org.sonar.plugins.java.api.tree.VariableTree;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.sonar.java.model.LineUtils.endColumnOffset;
 import static org.sonar.java.model.LineUtils.endLine;
 import static org.sonar.java.model.LineUtils.splitLines;
+import static org.sonar.java.model.LineUtils.startColumnOffset;
 import static org.sonar.java.model.LineUtils.startLine;
 
 class LineUtilsTest {
@@ -101,4 +107,34 @@ class LineUtilsTest {
     assertThat(endLine(trivia)).isEqualTo(6);
   }
 
+  @Test
+  void columns_and_lines_of_tokens_match_their_range() {
+    CompilationUnitTree textBlock = JParserTestUtils.parse("""
+      class A {
+        String s = \"""
+          text
+          \""";
+      }""");
+    ClassTree classTree = (ClassTree) textBlock.types().get(0);
+    SyntaxToken text = ((VariableTree) classTree.members().get(0)).initializer().firstToken();
+    SyntaxToken equal = ((VariableTree) classTree.members().get(0)).equalToken();
+    for (SyntaxToken token : List.of(text, equal, classTree.openBraceToken(), mockOf(text), mockOf(equal))) {
+      assertThat(startLine(token)).isEqualTo(token.range().start().line());
+      assertThat(startColumnOffset(token)).isEqualTo(token.range().start().columnOffset());
+      assertThat(endLine(token)).isEqualTo(token.range().end().line());
+      assertThat(endColumnOffset(token)).isEqualTo(token.range().end().columnOffset());
+    }
+    assertThat(endLine(text)).isEqualTo(4);
+    assertThat(endColumnOffset(text)).isEqualTo(7);
+    assertThat(startColumnOffset(equal)).isEqualTo(11);
+    assertThat(endColumnOffset(equal)).isEqualTo(12);
+  }
+
+  private static SyntaxToken mockOf(SyntaxToken token) {
+    SyntaxToken mock = Mockito.mock(SyntaxToken.class);
+    Range range = token.range();
+    Mockito.when(mock.range()).thenReturn(range);
+    return mock;
+  }
+
 }
@@ -238,6 +238,44 @@ class SyntacticEquivalenceTest {
     assertThat(SyntacticEquivalence.areSemanticallyEquivalent(f2Body, f1Body)).isFalse();
   }
 
+  @Test
+  void structural_hash() {
+    CompilationUnitTree compilationUnitTree = compilationUnitTree(
+      "class A{" +
+        "  void f1() { foo(a, 1); bar(); }" +
+        "  void f2() { foo(a, 1); bar(); }" +
+        "  void f3() { foo(b, 1); bar(); }" +
+        "  void f4() { bar(); foo(a, 1); }" +
+        "  void f5() { foo(a, 1); bar(); }" +
+        "  void f6() { foo(b, 1); bar(); }" +
+        "  void f7() { var x = 1; }" +
+        "}");
+    List<MethodTree> methods = ((ClassTree) compilationUnitTree.types().get(0)).members().stream()
+      .map(MethodTree.class::cast)
+      .toList();
+    JavaTree f1 = (JavaTree) methods.get(0).block();
+    JavaTree f2 = (JavaTree) methods.get(1).block();
+    JavaTree f3 = (JavaTree) methods.get(2).block();
+    JavaTree f4 = (JavaTree) methods.get(3).block();
+
+    assertThat(f1.structuralHash())
+      .isEqualTo(f1.structuralHash())
+      .isEqualTo(f2.structuralHash())
+      .isNotEqualTo(f3.structuralHash())
+      .isNotEqualTo(f4.structuralHash());
+    assertThat(SyntacticEquivalence.structuralHash(Arrays.asList(f1, null)))
+      .isEqualTo(SyntacticEquivalence.structuralHash(Arrays.asList(f2, null)))
+      .isNotEqualTo(SyntacticEquivalence.structuralHash(Collections.singletonList(f2)));
+    assertThat(((JavaTree) methods.get(6).block().body().get(0)).structuralHash()).isNotZero();
+    assertThat(new JavaTree.NotImplementedTreeImpl().structuralHash()).isNotZero();
+
+    assertThat(SyntacticEquivalence.groupByStructuralHash(methods, method -> method.block().body()))
+      .extracting(group -> group.stream().map(method -> method.simpleName().name()).toList())
+      .containsExactly(
+        Arrays.asList("f1", "f2", "f5"),
+        Arrays.asList("f3", "f6"));
+  }
+
   private void assertAreEquivalent(String statement1, String statement2) {
     assertAreEquivalent(Collections.singletonList(statement1), Collections.singletonList(statement2));
   }
@@ -259,7 +297,13 @@ class SyntacticEquivalenceTest {
       "void method2(){ " + String.join(";", statement2) + ";} }");
     ClassTree classTree = ((ClassTree) compilationUnitTree.types().get(0));
     assertThat(classTree.members()).hasSize(2);
-    return assertThat(SyntacticEquivalence.areEquivalent(((MethodTree) classTree.members().get(0)).block().body(), ((MethodTree) classTree.members().get(1)).block().body()));
+    List<StatementTree> body1 = ((MethodTree) classTree.members().get(0)).block().body();
+    List<StatementTree> body2 = ((MethodTree) classTree.members().get(1)).block().body();
+    boolean equivalent = SyntacticEquivalence.areEquivalent(body1, body2);
+    if (equivalent) {
+      assertThat(SyntacticEquivalence.structuralHash(body1)).isEqualTo(SyntacticEquivalence.structuralHash(body2));
+    }
+    return assertThat(equivalent);
   }
 
   private CompilationUnitTree compilationUnitTree(String code) {
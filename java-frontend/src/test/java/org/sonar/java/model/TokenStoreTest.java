@@ -0,0 +1,214 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import org.eclipse.jdt.core.compiler.InvalidInputException;
+import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
+import org.eclipse.jdt.internal.compiler.parser.Scanner;
+import org.eclipse.jdt.internal.compiler.parser.TerminalToken;
+import org.eclipse.jdt.internal.formatter.DefaultCodeFormatterOptions;
+import org.eclipse.jdt.internal.formatter.Token;
+import org.eclipse.jdt.internal.formatter.TokenManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenStoreTest {
+
+  private static final String VERSION = JParserConfig.MAXIMUM_SUPPORTED_JAVA_VERSION.effectiveJavaVersionAsString();
+
+  private static final TerminalToken[] SEARCHED_TOKENS = {
+    TokenStore.ANY_TOKEN,
+    TerminalToken.TokenNameIdentifier,
+    TerminalToken.TokenNameSEMICOLON,
+    TerminalToken.TokenNameLBRACE,
+    TerminalToken.TokenNameRBRACE,
+    TerminalToken.TokenNameLPAREN,
+    TerminalToken.TokenNameRPAREN,
+    TerminalToken.TokenNameEOF
+  };
+
+  @Test
+  void tokens_of_simple_class() {
+    TokenStore tokens = TokenStore.lex(VERSION, "A.java", "class A { int _ = 42; } // end\n");
+    List<String> texts = new ArrayList<>();
+    for (int i = 0; i < tokens.size(); i++) {
+      String text = tokens.type(i) == TerminalToken.TokenNameEOF ? "" : tokens.text(i);
+      texts.add(tokens.type(i) + ":" + tokens.start(i) + "-" + tokens.end(i) + ":" + text);
+    }
+    assertThat(texts).containsExactly(
+      "TokenNameclass:0-4:class",
+      "TokenNameIdentifier:6-6:A",
+      "TokenNameLBRACE:8-8:{",
+      "TokenNameint:10-12:int",
+      "TokenNameUNDERSCORE:14-14:_",
+      "TokenNameEQUAL:16-16:=",
+      "TokenNameIntegerLiteral:18-19:42",
+      "TokenNameSEMICOLON:20-20:;",
+      "TokenNameRBRACE:22-22:}",
+      "TokenNameCOMMENT_LINE:24-29:// end",
+      "TokenNameEOF:31-31:");
+    // the unnamed variable is found when looking for an identifier
+    assertThat(tokens.findIndex(13, TerminalToken.TokenNameIdentifier, true)).isEqualTo(4);
+  }
+
+  @Test
+  void tokens_of_the_same_text_share_their_text() {
+    TokenStore tokens = TokenStore.lex(VERSION, "A.java", "class A { A a = new A(\"s\" + \"s\"); }");
+    TokenStore other = TokenStore.lex(VERSION, "B.java", "class B { B b = new B(); }");
+    // identifiers and literals are shared within the compilation unit
+    assertThat(tokens.text(1)).isEqualTo("A").isSameAs(tokens.text(3)).isSameAs(tokens.text(7));
+    assertThat(tokens.text(9)).isEqualTo("\"s\"").isSameAs(tokens.text(11));
+    assertThat(tokens.text(4)).isEqualTo("a");
+    // keywords, operators and separators are shared between compilation units
+    assertThat(tokens.text(0)).isEqualTo("class").isSameAs(other.text(0));
+    assertThat(tokens.text(5)).isEqualTo("=").isSameAs(other.text(5));
+  }
+
+  @Test
+  void tokens_spelled_with_unicode_escapes_keep_their_text() {
+    TokenStore tokens = TokenStore.lex(VERSION, "A.java", "class A { \\u0069nt i; int j; }");
+    assertThat(tokens.type(3)).isEqualTo(TerminalToken.TokenNameint);
+    assertThat(tokens.text(3)).isEqualTo("\\u0069nt");
+    assertThat(tokens.type(6)).isEqualTo(TerminalToken.TokenNameint);
+    assertThat(tokens.text(6)).isEqualTo("int");
+  }
+
+  @Test
+  void texts_of_large_compilation_units_are_shared() {
+    StringBuilder source = new StringBuilder("class A {");
+    for (int i = 0; i < 100; i++) {
+      source.append(" int f").append(i).append(';');
+    }
+    source.append(" int f0a = f0 + f99; }");
+    TokenStore tokens = TokenStore.lex(VERSION, "A.java", source.toString());
+    List<String> identifiers = new ArrayList<>();
+    for (int i = 0; i < tokens.size(); i++) {
+      if (tokens.type(i) == TerminalToken.TokenNameIdentifier) {
+        identifiers.add(tokens.text(i));
+      }
+    }
+    // the table of texts grows while keeping the texts already shared
+    assertThat(identifiers).hasSize(104);
+    assertThat(identifiers.get(101)).isEqualTo("f0a");
+    assertThat(identifiers.get(102)).isEqualTo("f0").isSameAs(identifiers.get(1));
+    assertThat(identifiers.get(103)).isEqualTo("f99").isSameAs(identifiers.get(100));
+  }
+
+  @Test
+  void restricted_keywords_are_found_from_identifiers() {
+    TokenStore tokens = TokenStore.lex(VERSION, "module-info.java", "open module a { requires transitive b; }");
+    assertThat(tokens.findIndex(0, TerminalToken.TokenNamerequires, true)).isEqualTo(4);
+    assertThat(tokens.findIndex(0, TerminalToken.TokenNametransitive, true)).isEqualTo(5);
+  }
+
+  @Test
+  void access_out_of_bounds() {
+    TokenStore tokens = TokenStore.lex(VERSION, "A.java", "");
+    assertThat(tokens.size()).isEqualTo(1);
+    assertThat(tokens.type(0)).isEqualTo(TerminalToken.TokenNameEOF);
+    assertThatThrownBy(() -> tokens.type(1))
+      .isInstanceOf(IndexOutOfBoundsException.class)
+      .hasMessage("Index 1 out of bounds for length 1");
+    assertThatThrownBy(() -> tokens.start(-1))
+      .isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  void capacity_grows_with_number_of_tokens() {
+    StringBuilder source = new StringBuilder("class A {");
+    for (int i = 0; i < 1_000; i++) {
+      source.append(";");
+    }
+    source.append("}");
+    TokenStore tokens = TokenStore.lex(VERSION, "A.java", source.toString());
+    assertThat(tokens.size()).isEqualTo(1_005);
+    assertThat(tokens.type(1_003)).isEqualTo(TerminalToken.TokenNameRBRACE);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+    "src/test/files/metrics/Comments.java",
+    "src/test/files/metrics/Complexity.java",
+    "src/test/files/metrics/TextBlock.java",
+    "src/test/files/metrics/Statements.java"
+  })
+  void same_tokens_and_lookups_as_ecj_token_manager(String path) throws IOException {
+    String source = Files.readString(Path.of(path), StandardCharsets.UTF_8);
+    TokenManager tokenManager = ecjTokenManager(source);
+    TokenStore tokens = TokenStore.lex(VERSION, "A.java", source);
+
+    assertThat(tokens.size()).isEqualTo(tokenManager.size());
+    for (int i = 0; i < tokens.size(); i++) {
+      Token token = tokenManager.get(i);
+      assertThat(tokens.type(i)).isEqualTo(token.tokenType);
+      assertThat(tokens.start(i)).isEqualTo(token.originalStart);
+      assertThat(tokens.end(i)).isEqualTo(token.originalEnd);
+    }
+    for (int position = 0; position < source.length(); position++) {
+      for (TerminalToken tokenType : SEARCHED_TOKENS) {
+        assertThat(findIndex(tokens, position, tokenType, true)).isEqualTo(findIndex(tokenManager, position, tokenType, true));
+        assertThat(findIndex(tokens, position, tokenType, false)).isEqualTo(findIndex(tokenManager, position, tokenType, false));
+      }
+    }
+  }
+
+  private static int findIndex(TokenStore tokens, int position, TerminalToken tokenType, boolean forward) {
+    try {
+      return tokens.findIndex(position, tokenType, forward);
+    } catch (IndexOutOfBoundsException e) {
+      return Integer.MIN_VALUE;
+    }
+  }
+
+  private static int findIndex(TokenManager tokenManager, int position, TerminalToken tokenType, boolean forward) {
+    try {
+      return tokenManager.findIndex(position, tokenType, forward);
+    } catch (IndexOutOfBoundsException e) {
+      return Integer.MIN_VALUE;
+    }
+  }
+
+  private static TokenManager ecjTokenManager(String source) {
+    List<Token> tokens = new ArrayList<>();
+    Scanner scanner = new Scanner(true, false, false, CompilerOptions.versionToJdkLevel(VERSION), null, null, false);
+    scanner.setSource(source.toCharArray());
+    while (true) {
+      try {
+        TerminalToken tokenType = scanner.getNextToken();
+        tokens.add(Token.fromCurrent(scanner, tokenType));
+        if (tokenType == TerminalToken.TokenNameEOF) {
+          break;
+        }
+      } catch (InvalidInputException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return new TokenManager(tokens, source, new DefaultCodeFormatterOptions(new HashMap<>()));
+  }
+
+}
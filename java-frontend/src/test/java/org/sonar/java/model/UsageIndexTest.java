@@ -0,0 +1,129 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.java.api.location.Position;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ExpressionStatementTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UsageIndexTest {
+
+  private static final String SOURCE = """
+    class C {
+      int f;
+      void m(int p) {
+        int a = 0;
+        a = 1;
+        (a) += p;
+        foo(a);
+        a++;
+        f = a = 2;
+      }
+      void foo(int i) {
+        i = 0;
+      }
+    }
+    """;
+
+  @Test
+  void assignments_are_classified_once() {
+    MethodTree method = method(0);
+    Symbol a = ((VariableTree) statement(method, 0)).symbol();
+    UsageIndex index = UsageIndex.of(a);
+
+    assertThat(index).isSameAs(UsageIndex.of(a));
+    assertThat(index.usages()).hasSize(5);
+    assertThat(index.assignments())
+      .containsExactly(
+        assignment(statement(method, 1)),
+        assignment(statement(method, 2)),
+        (AssignmentExpressionTree) assignment(statement(method, 5)).expression());
+  }
+
+  @Test
+  void closest_assignment_before() {
+    MethodTree method = method(0);
+    UsageIndex index = UsageIndex.of(((VariableTree) statement(method, 0)).symbol());
+
+    assertThat(index.closestAssignmentBefore(Position.startOf(statement(method, 1)))).isNull();
+    assertThat(index.closestAssignmentBefore(Position.endOf(statement(method, 1)))).isSameAs(assignment(statement(method, 1)));
+    assertThat(index.closestAssignmentBefore(Position.startOf(statement(method, 3)))).isSameAs(assignment(statement(method, 2)));
+    assertThat(index.closestAssignmentBefore(Position.at(100, 1))).isSameAs(index.assignments().get(2));
+  }
+
+  @Test
+  void usages_within_tree() {
+    MethodTree method = method(0);
+    UsageIndex index = UsageIndex.of(((VariableTree) statement(method, 0)).symbol());
+
+    assertThat(index.usagesWithin(method)).isEqualTo(index.usages());
+    assertThat(index.usagesWithin(statement(method, 0))).isEmpty();
+    assertThat(index.usagesWithin(statement(method, 2))).containsExactly(index.usages().get(1));
+    assertThat(index.usagesWithin(statement(method, 5))).containsExactly(index.usages().get(4));
+    assertThat(index.usagesWithin(method(1))).isEmpty();
+  }
+
+  @Test
+  void symbols_outside_of_the_semantic() {
+    MethodTree method = method(0);
+    List<IdentifierTree> usages = ((VariableTree) statement(method, 0)).symbol().usages();
+    List<IdentifierTree> reversed = new ArrayList<>(usages);
+    Collections.reverse(reversed);
+    Symbol symbol = mock(Symbol.class);
+    when(symbol.usages()).thenReturn(reversed);
+
+    UsageIndex index = UsageIndex.of(symbol);
+    assertThat(index).isNotSameAs(UsageIndex.of(symbol));
+    assertThat(index.usages()).containsExactlyElementsOf(usages);
+    assertThat(index.assignments()).containsExactlyElementsOf(UsageIndex.of(usages.get(0).symbol()).assignments());
+
+    UsageIndex rootPackage = UsageIndex.of(Symbol.ROOT_PACKAGE);
+    assertThat(rootPackage.usages()).isEmpty();
+    assertThat(rootPackage.closestAssignmentBefore(Position.at(1, 1))).isNull();
+    assertThat(rootPackage.usagesWithin(method)).isEmpty();
+  }
+
+  private static MethodTree method(int index) {
+    CompilationUnitTree cu = JParserTestUtils.parse(SOURCE);
+    return (MethodTree) ((ClassTree) cu.types().get(0)).members().get(index + 1);
+  }
+
+  private static StatementTree statement(MethodTree method, int index) {
+    return method.block().body().get(index);
+  }
+
+  private static AssignmentExpressionTree assignment(Tree statement) {
+    return (AssignmentExpressionTree) ((ExpressionStatementTree) statement).expression();
+  }
+
+}
@@ -17,6 +17,8 @@
 package org.sonar.java.model;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -24,25 +26,36 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import org.assertj.core.api.Fail;
+import org.eclipse.jdt.core.dom.ASTParser;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.event.Level;
+import org.sonar.api.batch.bootstrap.ProjectDefinition;
 import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.sensor.SensorContext;
 import org.sonar.api.batch.sensor.internal.SensorContextTester;
 import org.sonar.api.config.internal.MapSettings;
 import org.sonar.java.AnalysisException;
+import org.sonar.java.AnalysisProgress;
+import org.sonar.java.AnalysisWarningsWrapper;
 import org.sonar.java.CheckFailureException;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.TestUtils;
+import org.sonar.java.TimeBudget;
 import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.caching.FileIndex;
+import org.sonar.java.caching.ProjectIndex;
+import org.sonar.java.caching.ProjectIndexConsumer;
 import org.sonar.java.checks.EndOfAnalysisVisitor;
 import org.sonar.java.checks.VisitorThatCanBeSkipped;
 import org.sonar.java.exceptions.ApiMismatchException;
 import org.sonar.java.notchecks.VisitorNotInChecksPackage;
+import org.sonar.java.telemetry.AnalysisTelemetry;
 import org.sonar.java.testing.ThreadLocalLogTester;
 import org.sonar.plugins.java.api.DependencyVersionAware;
 import org.sonar.plugins.java.api.InputFileScannerContext;
@@ -52,10 +65,14 @@ import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaVersion;
 import org.sonar.plugins.java.api.JavaVersionAwareVisitor;
 import org.sonar.plugins.java.api.ModuleScannerContext;
+import org.sonar.plugins.java.api.SyntaxOnly;
 import org.sonar.plugins.java.api.Version;
 import org.sonar.plugins.java.api.caching.CacheContext;
+import org.sonar.plugins.java.api.caching.JavaWriteCache;
 import org.sonar.plugins.java.api.internal.EndOfAnalysis;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
 import org.sonar.plugins.java.api.tree.SyntaxToken;
 import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.plugins.java.api.tree.Tree;
@@ -64,6 +81,7 @@ import org.sonar.plugins.java.api.tree.Tree.Kind;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -71,6 +89,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 class VisitorsBridgeTest {
 
@@ -216,6 +235,47 @@ class VisitorsBridgeTest {
     verify(specificSonarComponents, never()).symbolizableFor(any());
   }
 
+  @Test
+  void should_not_create_symbol_table_without_bindings() {
+    SonarComponents specificSonarComponents = mock(SonarComponents.class);
+    VisitorsBridge bridge = new VisitorsBridge(Collections.emptySet(), Collections.emptyList(), specificSonarComponents);
+    bridge.setCurrentFile(TestUtils.emptyInputFile("A.java"));
+    String source = "class A { int f; int m() { return f; } }";
+    ASTParser astParser = JParserConfig.createSyntaxOnly(new JavaVersionImpl()).astParser();
+    bridge.visitFile(JParser.convert("17", "A.java", source, JParser.createAST(astParser, "A.java", source)), false);
+    verify(specificSonarComponents, never()).symbolizableFor(any());
+  }
+
+  @Test
+  void semantics_are_required_unless_all_the_visitors_are_syntax_only() {
+    @SyntaxOnly
+    class SyntaxOnlyRule implements JavaFileScanner {
+      @Override
+      public void scanFile(JavaFileScannerContext context) {
+        //empty implementation
+      }
+    }
+    class SemanticRule implements JavaFileScanner {
+      @Override
+      public void scanFile(JavaFileScannerContext context) {
+        //empty implementation
+      }
+    }
+    class SemanticRuleForJava15 extends SemanticRule implements JavaVersionAwareVisitor {
+      @Override
+      public boolean isCompatibleWithJavaVersion(JavaVersion version) {
+        return version.isJava15Compatible();
+      }
+    }
+    assertThat(new VisitorsBridge(List.of(), Collections.emptyList(), null).requiresSemantics()).isFalse();
+    assertThat(new VisitorsBridge(List.of(new SyntaxOnlyRule()), Collections.emptyList(), null).requiresSemantics()).isFalse();
+    assertThat(new VisitorsBridge(List.of(new SyntaxOnlyRule(), new SemanticRule()), Collections.emptyList(), null).requiresSemantics()).isTrue();
+
+    List<JavaFileScanner> visitors = List.of(new SyntaxOnlyRule(), new SemanticRuleForJava15());
+    assertThat(new VisitorsBridge(visitors, Collections.emptyList(), null, new JavaVersionImpl(8)).requiresSemantics()).isFalse();
+    assertThat(new VisitorsBridge(visitors, Collections.emptyList(), null, new JavaVersionImpl(16)).requiresSemantics()).isTrue();
+  }
+
   @Test
   void filter_scanner_by_java_version() {
     List<String> trace = new ArrayList<>();
@@ -386,24 +446,234 @@ class VisitorsBridgeTest {
     );
 
     verify(skippableVisitor, times(1)).nodesToVisit();
-    verify(endOfAnalysisVisitor, never()).nodesToVisit();
+    verify(endOfAnalysisVisitor, times(2)).nodesToVisit();
     verify(unskippableVisitor, times(2)).nodesToVisit();
     verify(incompatibleVisitor, never()).nodesToVisit();
 
     visitorsBridge.visitFile(null, true);
 
     verify(skippableVisitor, never()).visitNode(any());
-    verify(endOfAnalysisVisitor, times(1)).scanFile(any());
+    verify(endOfAnalysisVisitor, times(1)).visitNode(any());
     verify(unskippableVisitor, times(1)).visitNode(any());
     verify(incompatibleVisitor, never()).visitNode(any());
 
     visitorsBridge.visitFile(null, false);
     verify(skippableVisitor, times(1)).visitNode(any());
-    verify(endOfAnalysisVisitor, times(2)).scanFile(any());
+    verify(endOfAnalysisVisitor, times(2)).visitNode(any());
     verify(unskippableVisitor, times(2)).visitNode(any());
     verify(incompatibleVisitor, never()).visitNode(any());
   }
 
+  @Test
+  void subscription_visitors_share_a_single_tree_traversal() {
+    CountingVisitor first = new CountingVisitor();
+    CountingVisitor second = new CountingVisitor();
+    JFS_ThrowingNPEJavaFileScanner privateWalker = new JFS_ThrowingNPEJavaFileScanner();
+
+    VisitorsBridge visitorsBridge = visitorsBridge(Arrays.asList(first, new IV1_ThrowingNPEVisitingClass(), privateWalker, second), false);
+    assertThat(logTester.logs(Level.DEBUG))
+      .contains("3 subscription visitors share a single tree traversal, 1 scanners walk the tree on their own: ["
+        + JFS_ThrowingNPEJavaFileScanner.class.getName() + "]");
+
+    visitorsBridge.visitFile(COMPILATION_UNIT_TREE, false);
+    // failing issuable visitors and scanners do not prevent other subscription visitors from completing the file
+    assertThat(first.visitedClasses).isEqualTo(1);
+    assertThat(first.leftFiles).isEqualTo(1);
+    assertThat(second.visitedClasses).isEqualTo(1);
+    assertThat(second.leftFiles).isEqualTo(1);
+  }
+
+  @Test
+  void subscription_visitors_are_notified_when_performance_is_measured() {
+    SensorContextTester sensorContextTester = SensorContextTester.create(new File(""));
+    sensorContextTester.setSettings(new MapSettings().setProperty(SonarComponents.PERFORMANCE_MEASURE_ACTIVATION_KEY, true));
+    sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(sensorContextTester);
+    CountingVisitor visitor = new CountingVisitor();
+
+    VisitorsBridge visitorsBridge = new VisitorsBridge(Collections.singletonList(visitor), new ArrayList<>(), sonarComponents);
+    visitorsBridge.setCurrentFile(INPUT_FILE);
+    visitorsBridge.visitFile(COMPILATION_UNIT_TREE, false);
+
+    assertThat(visitor.visitedClasses).isEqualTo(1);
+    assertThat(visitor.leftFiles).isEqualTo(1);
+  }
+
+  @Test
+  void subtrees_which_can_not_contain_subscribed_kinds_are_skipped(@TempDir Path workDir) throws IOException {
+    MapSettings settings = new MapSettings().setProperty(AnalysisTelemetry.ACTIVATION_KEY, true);
+    SensorContextTester sensorContextTester = SensorContextTester.create(new File(""));
+    sensorContextTester.setSettings(settings);
+    sonarComponents = new SonarComponents(null, null, null, null, null, null);
+    sonarComponents.setSensorContext(sensorContextTester);
+    AnalysisTelemetry telemetry = AnalysisTelemetry.start(settings.asConfig(), workDir.toFile());
+    sonarComponents.setAnalysisTelemetry(telemetry);
+    CountingVisitor visitor = new CountingVisitor();
+    File file = workDir.resolve("A.java").toFile();
+    Files.writeString(file.toPath(), "import java.util.List;\nclass A { String s = \"a\"; int i = 1; }");
+    InputFile inputFile = TestUtils.inputFile(file);
+
+    VisitorsBridge visitorsBridge = new VisitorsBridge(Collections.singletonList(visitor), new ArrayList<>(), sonarComponents);
+    visitorsBridge.setCurrentFile(inputFile);
+    telemetry.startFile(inputFile, 0, 0);
+    visitorsBridge.visitFile(JParserTestUtils.parse(file), false);
+    telemetry.stop();
+
+    assertThat(visitor.visitedClasses).isEqualTo(1);
+    // the import and the two literals
+    assertThat(Files.readString(workDir.resolve(AnalysisTelemetry.DESTINATION_FILE)))
+      .contains("\"ncloc\":2,")
+      .contains("\"skippedSubtrees\":3}\n]")
+      .endsWith(",\"skippedSubtrees\":3}\n");
+  }
+
+  @Test
+  void checks_exceeding_their_time_budget_are_aborted_on_the_current_file() {
+    AnalysisWarningsWrapper analysisWarnings = mock(AnalysisWarningsWrapper.class);
+    SlowScanner slowScanner = new SlowScanner();
+    SlowTreeVisitor slowTreeVisitor = new SlowTreeVisitor();
+    SlowVisitor slowVisitor = new SlowVisitor();
+    CountingVisitor countingVisitor = new CountingVisitor();
+    VisitorsBridge visitorsBridge = visitorsBridgeWithTimeBudget(Arrays.asList(slowScanner, slowTreeVisitor, slowVisitor, countingVisitor),
+      TimeBudget.CHECK_TIMEOUT_KEY, analysisWarnings);
+    visitorsBridge.visitFile(COMPILATION_UNIT_TREE, false);
+
+    // a scanner not walking a tree is reported once it returns, a tree visitor is stopped in the middle of the file, a subscription
+    // visitor is not called anymore, and the other checks complete the file
+    assertThat(slowScanner.scannedFiles).isEqualTo(1);
+    assertThat(slowTreeVisitor.visitedIdentifiers).isEqualTo(1);
+    assertThat(slowVisitor.visitedTokens).isEqualTo(1);
+    assertThat(countingVisitor.visitedClasses).isEqualTo(1);
+    assertThat(countingVisitor.leftFiles).isEqualTo(1);
+    assertThat(logTester.logs(Level.WARN))
+      .hasSize(3)
+      .anyMatch(log -> log.startsWith("Check " + SlowScanner.class.getName() + " exceeded its time budget of 1 ms on file"))
+      .anyMatch(log -> log.startsWith("Check " + SlowTreeVisitor.class.getName() + " exceeded its time budget of 1 ms on file"))
+      .anyMatch(log -> log.startsWith("Check " + SlowVisitor.class.getName() + " exceeded its time budget of 1 ms on file"));
+    verify(analysisWarnings, times(3)).addUnique("Some checks exceeded the time budget set by 'sonar.java.checkTimeoutMs' on some files " +
+      "and were stopped when possible, their issues on these files may be missing. See the analysis logs for details.");
+  }
+
+  @Test
+  void remaining_checks_are_skipped_when_the_file_exceeds_its_time_budget() {
+    AnalysisWarningsWrapper analysisWarnings = mock(AnalysisWarningsWrapper.class);
+    SlowScanner slowScanner = new SlowScanner();
+    CountingCheck countingCheck = new CountingCheck();
+    CountingVisitor countingVisitor = new CountingVisitor();
+    VisitorsBridge visitorsBridge = visitorsBridgeWithTimeBudget(Arrays.asList(slowScanner, countingCheck, countingVisitor),
+      TimeBudget.FILE_TIMEOUT_KEY, analysisWarnings);
+    visitorsBridge.visitFile(COMPILATION_UNIT_TREE, false);
+
+    // the visitors which are not checks still walk the whole file
+    assertThat(slowScanner.scannedFiles).isEqualTo(1);
+    assertThat(countingCheck.visitedClasses).isZero();
+    assertThat(countingCheck.leftFiles).isZero();
+    assertThat(countingVisitor.visitedClasses).isEqualTo(1);
+    assertThat(countingVisitor.leftFiles).isEqualTo(1);
+    assertThat(logTester.logs(Level.WARN)).containsExactly(
+      "Analysis of file '" + INPUT_FILE + "' exceeded its time budget of 1 ms, the remaining checks are skipped on this file.");
+    verify(analysisWarnings).addUnique("The analysis of some files exceeded the time budget set by 'sonar.java.fileTimeoutMs', " +
+      "some checks were skipped on these files. See the analysis logs for details.");
+  }
+
+  @Test
+  void subscription_visitor_scanning_a_file_on_its_own_does_not_leave_the_file() {
+    CountingVisitor visitor = new CountingVisitor();
+    JavaFileScannerContext context = mock(JavaFileScannerContext.class);
+    doReturn(COMPILATION_UNIT_TREE).when(context).getTree();
+
+    visitor.scanFile(context);
+    // as for issuable visitors, only the shared traversal of the VisitorsBridge leaves the file
+    assertThat(visitor.visitedClasses).isEqualTo(1);
+    assertThat(visitor.leftFiles).isZero();
+  }
+
+  @Test
+  void canShareTreeTraversal() {
+    assertThat(VisitorsBridge.canShareTreeTraversal(new CountingVisitor())).isTrue();
+    assertThat(VisitorsBridge.canShareTreeTraversal(new IV1_ThrowingNPEVisitingClass())).isTrue();
+    assertThat(VisitorsBridge.canShareTreeTraversal(new SubscriptionVisitor() {
+      @Override
+      public List<Kind> nodesToVisit() {
+        return Collections.emptyList();
+      }
+
+      @Override
+      public void scanFile(JavaFileScannerContext context) {
+        // walks the tree on its own
+      }
+    })).isFalse();
+  }
+
+  @Test
+  void declarations_of_the_analyzed_files_are_indexed_for_the_end_of_analysis(@TempDir Path workDir) throws IOException {
+    ProjectIndexCheck check = new ProjectIndexCheck();
+    VisitorsBridge visitorsBridge = new VisitorsBridge(Collections.singletonList(check), Collections.emptyList(), null);
+    File file = workDir.resolve("A.java").toFile();
+    Files.writeString(file.toPath(), "package org.foo;\nclass A implements Runnable { public void run() {} }");
+    InputFile inputFile = TestUtils.inputFile(file);
+
+    visitorsBridge.setCurrentFile(inputFile);
+    visitorsBridge.visitFile(JParserTestUtils.parse(file), false);
+    visitorsBridge.endOfAnalysis();
+
+    assertThat(check.projectIndex.file(inputFile)).isNotNull();
+    assertThat(check.projectIndex.directSubtypes("java.lang.Runnable"))
+      .extracting(FileIndex.DeclaredType::fullyQualifiedName)
+      .containsExactly("org.foo.A");
+  }
+
+  @Test
+  void files_are_not_indexed_without_scanner_consuming_the_index(@TempDir Path workDir) throws IOException {
+    var check = new DefaultEndOfAnalysisCheck();
+    VisitorsBridge visitorsBridge = new VisitorsBridge(Collections.singletonList(check), Collections.emptyList(), null);
+    CacheContext cacheContext = mock(CacheContext.class);
+    visitorsBridge.setCacheContext(cacheContext);
+    File file = workDir.resolve("A.java").toFile();
+    Files.writeString(file.toPath(), "package org.foo;\nclass A {}");
+    InputFile inputFile = TestUtils.inputFile(file);
+
+    visitorsBridge.setCurrentFile(inputFile);
+    visitorsBridge.visitFile(JParserTestUtils.parse(file), false);
+
+    verifyNoInteractions(cacheContext);
+  }
+
+  @Test
+  void only_files_parsed_with_bindings_are_indexed_in_the_cache(@TempDir Path workDir) throws Exception {
+    ProjectIndexCheck check = new ProjectIndexCheck();
+    VisitorsBridge visitorsBridge = new VisitorsBridge(Collections.singletonList(check), Collections.emptyList(), null);
+    CacheContext cacheContext = mock(CacheContext.class);
+    JavaWriteCache writeCache = mock(JavaWriteCache.class);
+    doReturn(true).when(cacheContext).isCacheEnabled();
+    doReturn(writeCache).when(cacheContext).getWriteCache();
+    visitorsBridge.setCacheContext(cacheContext);
+    File a = workDir.resolve("A.java").toFile();
+    Files.writeString(a.toPath(), "package org.foo;\nclass A {}");
+    File b = workDir.resolve("B.java").toFile();
+    Files.writeString(b.toPath(), "package org.foo;\nclass B {}");
+    InputFile inputFileA = TestUtils.inputFile(a);
+    InputFile inputFileB = TestUtils.inputFile(b);
+
+    visitorsBridge.setCurrentFile(inputFileA);
+    visitorsBridge.visitFile(JParserTestUtils.parse(a), false);
+    visitorsBridge.setCurrentFile(inputFileB);
+    visitorsBridge.visitFile(parseWithoutBindings(inputFileB), false);
+    visitorsBridge.endOfAnalysis();
+
+    verify(writeCache).write(eq("java:projectIndex:" + inputFileA.key()), any(byte[].class));
+    verify(writeCache, never()).write(eq("java:projectIndex:" + inputFileB.key()), any(byte[].class));
+    // the incomplete entry is still available to the current analysis
+    assertThat(check.projectIndex.file(inputFileB)).isNotNull();
+  }
+
+  private static Tree parseWithoutBindings(InputFile inputFile) throws Exception {
+    List<JParserConfig.Result> results = new ArrayList<>();
+    JParserConfig.createSyntaxOnly(new JavaVersionImpl(17))
+      .parse(List.of(inputFile), () -> false, new AnalysisProgress(1), (file, result) -> results.add(result));
+    return results.get(0).get();
+  }
+
   @Test
   void endOfAnalysis_logs_nothing_when_no_file_has_been_analyzed() {
     VisitorsBridge visitorsBridge = new VisitorsBridge(
@@ -613,6 +883,19 @@ class VisitorsBridgeTest {
     }
   }
 
+  private VisitorsBridge visitorsBridgeWithTimeBudget(List<JavaFileScanner> visitors, String timeoutKey, AnalysisWarningsWrapper analysisWarnings) {
+    MapSettings settings = new MapSettings().setProperty(timeoutKey, 1);
+    SensorContextTester sensorContextTester = SensorContextTester.create(new File(""));
+    sensorContextTester.setSettings(settings);
+    sonarComponents = new SonarComponents(null, null, null, null, null, null, (ProjectDefinition) null, analysisWarnings);
+    sonarComponents.setSensorContext(sensorContextTester);
+    sonarComponents.setTimeBudget(TimeBudget.start(settings.asConfig()));
+
+    VisitorsBridge visitorsBridge = new VisitorsBridge(visitors, new ArrayList<>(), sonarComponents);
+    visitorsBridge.setCurrentFile(INPUT_FILE);
+    return visitorsBridge;
+  }
+
   private static String ruleKeyFromErrorLog(String errorLog) {
     String newString = errorLog.substring("Unable to run check class ".length(), errorLog.indexOf(" on file"));
     return newString.substring(newString.lastIndexOf("$") + 1);
@@ -643,6 +926,92 @@ class VisitorsBridgeTest {
     }
   }
 
+  private static class CountingVisitor extends SubscriptionVisitor {
+    int visitedClasses = 0;
+    int leftFiles = 0;
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return Collections.singletonList(Tree.Kind.CLASS);
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      visitedClasses++;
+    }
+
+    @Override
+    public void leaveFile(JavaFileScannerContext context) {
+      leftFiles++;
+    }
+  }
+
+  @org.sonar.check.Rule(key = "COUNTING")
+  private static class CountingCheck extends CountingVisitor {
+  }
+
+  /**
+   * Exceeds its budget, and the budget of the file, on its single call.
+   */
+  @org.sonar.check.Rule(key = "SLOW_SCANNER")
+  private static class SlowScanner implements JavaFileScanner {
+    private int scannedFiles = 0;
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      scannedFiles++;
+      long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(5);
+      while (System.nanoTime() < end) {
+        // busy
+      }
+    }
+  }
+
+  /**
+   * Exceeds its budget on the first identifier, and is stopped before the next one by the checkpoint of its traversal.
+   */
+  @org.sonar.check.Rule(key = "SLOW_TREE_VISITOR")
+  private static class SlowTreeVisitor extends BaseTreeVisitor implements JavaFileScanner {
+    private int visitedIdentifiers = 0;
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      scan(context.getTree());
+    }
+
+    @Override
+    public void visitIdentifier(IdentifierTree tree) {
+      visitedIdentifiers++;
+      // long enough for the watchdog to notice it
+      long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+      while (System.nanoTime() < end) {
+        // busy
+      }
+    }
+  }
+
+  /**
+   * Exceeds its budget on the first token, and is stopped before the next one.
+   */
+  @org.sonar.check.Rule(key = "SLOW")
+  private static class SlowVisitor extends SubscriptionVisitor {
+    private int visitedTokens = 0;
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return Collections.singletonList(Tree.Kind.TOKEN);
+    }
+
+    @Override
+    public void visitToken(SyntaxToken syntaxToken) {
+      visitedTokens++;
+      long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(5);
+      while (System.nanoTime() < end) {
+        // busy
+      }
+    }
+  }
+
   @org.sonar.check.Rule(key = "SV1")
   private static class SV1_ThrowingNPEVisitingClass extends SubscriptionVisitor {
     @Override
@@ -741,6 +1110,20 @@ class VisitorsBridgeTest {
     }
   }
 
+  private static class ProjectIndexCheck implements EndOfAnalysis, ProjectIndexConsumer {
+    private ProjectIndex projectIndex;
+
+    @Override
+    public void endOfAnalysis(ModuleScannerContext context) {
+      projectIndex = ((DefaultModuleScannerContext) context).projectIndex();
+    }
+
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+      // only the end of analysis is of interest
+    }
+  }
+
   private static class DefaultEndOfAnalysisCheck implements EndOfAnalysis, JavaFileScanner {
 
     @Override
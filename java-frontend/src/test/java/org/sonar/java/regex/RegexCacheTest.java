@@ -17,6 +17,7 @@
 package org.sonar.java.regex;
 
 import java.util.List;
+import java.util.regex.Pattern;
 import org.junit.jupiter.api.Test;
 import org.sonar.java.model.JParserTestUtils;
 import org.sonar.plugins.java.api.tree.ClassTree;
@@ -57,6 +58,25 @@ class RegexCacheTest {
     assertThat(resultForS1).isSameAs(cache.getRegexForLiterals(new FlagSet(), s1));
   }
 
+  @Test
+  void different_result_if_different_flags_are_provided() {
+    CompilationUnitTree cut = JParserTestUtils.parse("""
+        class A {
+          String s0 = "abc";
+        }
+        """);
+    ClassTree a = (ClassTree) cut.types().get(0);
+    LiteralTree s0 = (LiteralTree) ((VariableTree) a.members().get(0)).initializer();
+
+    RegexCache cache = new RegexCache();
+    RegexParseResult withoutFlags = cache.getRegexForLiterals(new FlagSet(), s0);
+    RegexParseResult caseInsensitive = cache.getRegexForLiterals(new FlagSet(Pattern.CASE_INSENSITIVE), s0);
+
+    assertThat(caseInsensitive).isNotSameAs(withoutFlags);
+    assertThat(caseInsensitive.getInitialFlags().contains(Pattern.CASE_INSENSITIVE)).isTrue();
+    assertThat(cache.getRegexForLiterals(new FlagSet(), s0)).isSameAs(withoutFlags);
+  }
+
   @Test
   void same_result_if_same_trees_are_provided() {
     CompilationUnitTree cut = JParserTestUtils.parse("""
@@ -0,0 +1,99 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.regex;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+import org.sonar.java.model.JParserTestUtils;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+import org.sonarsource.analyzer.commons.regex.RegexParseResult;
+import org.sonarsource.analyzer.commons.regex.ast.FlagSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegexVerdictCacheTest {
+
+  private static final RegexCheck CHECK = new RegexCheck() {
+  };
+  private static final RegexCheck OTHER_CHECK = new RegexCheck() {
+  };
+
+  @Test
+  void verdicts_are_shared_by_regexes_with_the_same_text_and_flags() {
+    List<LiteralTree> literals = literals("""
+      class A {
+        String s0 = "[a-z]+@[a-z]+";
+        String s1 = "[a-z]+@[a-z]+";
+        String s2 = "[a-z]+";
+      }
+      """);
+    // as if the first two literals were in different files
+    RegexParseResult regex = new RegexCache().getRegexForLiterals(new FlagSet(), literals.get(0));
+    RegexParseResult sameRegex = new RegexCache().getRegexForLiterals(new FlagSet(), literals.get(1));
+    RegexParseResult otherRegex = new RegexCache().getRegexForLiterals(new FlagSet(), literals.get(2));
+    RegexParseResult otherFlags = new RegexCache().getRegexForLiterals(new FlagSet(Pattern.CASE_INSENSITIVE), literals.get(0));
+
+    RegexVerdictCache cache = new RegexVerdictCache();
+    AtomicInteger computations = new AtomicInteger();
+    assertThat(cache.computeIfAbsent(CHECK, regex, null, computations::incrementAndGet)).isEqualTo(1);
+    assertThat(cache.computeIfAbsent(CHECK, sameRegex, null, computations::incrementAndGet)).isEqualTo(1);
+    assertThat(cache.computeIfAbsent(CHECK, otherRegex, null, computations::incrementAndGet)).isEqualTo(2);
+    assertThat(cache.computeIfAbsent(CHECK, otherFlags, null, computations::incrementAndGet)).isEqualTo(3);
+    assertThat(cache.computeIfAbsent(CHECK, regex, "variant", computations::incrementAndGet)).isEqualTo(4);
+    assertThat(cache.computeIfAbsent(OTHER_CHECK, regex, null, computations::incrementAndGet)).isEqualTo(5);
+    assertThat(cache.computeIfAbsent(CHECK, sameRegex, "variant", computations::incrementAndGet)).isEqualTo(4);
+    assertThat(cache.size()).isEqualTo(5);
+  }
+
+  @Test
+  void least_recently_used_verdicts_are_evicted() {
+    List<LiteralTree> literals = literals("""
+      class A {
+        String s0 = "a";
+        String s1 = "b";
+        String s2 = "c";
+      }
+      """);
+    RegexCache regexCache = new RegexCache();
+    RegexParseResult a = regexCache.getRegexForLiterals(new FlagSet(), literals.get(0));
+    RegexParseResult b = regexCache.getRegexForLiterals(new FlagSet(), literals.get(1));
+    RegexParseResult c = regexCache.getRegexForLiterals(new FlagSet(), literals.get(2));
+
+    RegexVerdictCache cache = new RegexVerdictCache(2);
+    cache.computeIfAbsent(CHECK, a, null, () -> "a");
+    cache.computeIfAbsent(CHECK, b, null, () -> "b");
+    // "a" is used again, "b" becomes the least recently used verdict
+    cache.computeIfAbsent(CHECK, a, null, () -> "recomputed");
+    cache.computeIfAbsent(CHECK, c, null, () -> "c");
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.computeIfAbsent(CHECK, a, null, () -> "recomputed")).isEqualTo("a");
+    assertThat(cache.computeIfAbsent(CHECK, b, null, () -> "recomputed")).isEqualTo("recomputed");
+  }
+
+  private static List<LiteralTree> literals(String code) {
+    CompilationUnitTree cut = JParserTestUtils.parse(code);
+    return ((ClassTree) cut.types().get(0)).members().stream()
+      .map(member -> (LiteralTree) ((VariableTree) member).initializer())
+      .toList();
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.java.TestUtils;
+import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.model.JParserTestUtils;
+import org.sonar.java.model.VisitorsBridge;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisRecordingTest {
+
+  private static final File FILE = new File("src/test/files/model/SimpleClass.java");
+
+  @TempDir
+  Path workDir;
+
+  @Test
+  void recording_is_not_activated_by_default() {
+    assertThat(AnalysisRecording.start(new MapSettings().asConfig(), workDir.toFile())).isNull();
+  }
+
+  @Test
+  void recording_is_not_started_without_destination() {
+    MapSettings settings = new MapSettings().setProperty(AnalysisRecording.ACTIVATION_KEY, true);
+    assertThat(AnalysisRecording.start(settings.asConfig(), null)).isNull();
+  }
+
+  @Test
+  void phases_and_checks_are_recorded() throws IOException {
+    MapSettings settings = new MapSettings().setProperty(AnalysisRecording.ACTIVATION_KEY, true);
+    AnalysisRecording recording = AnalysisRecording.start(settings.asConfig(), workDir.toFile());
+    assertThat(recording).isNotNull();
+
+    ClassVisitor visitor = new ClassVisitor();
+    VisitorsBridge visitorsBridge = new VisitorsBridge(visitor);
+    visitorsBridge.setCurrentFile(TestUtils.inputFile(FILE));
+    visitorsBridge.visitFile(JParserTestUtils.parse(FILE), false);
+    visitorsBridge.endOfAnalysis();
+    recording.stop();
+
+    Path destination = workDir.resolve(AnalysisRecording.DESTINATION_FILE);
+    Map<String, List<RecordedEvent>> eventsByType = RecordingFile.readAllEvents(destination).stream()
+      .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+    assertThat(eventsByType).containsKeys("org.sonar.java.Parse", "org.sonar.java.Convert", "org.sonar.java.SymbolTable", "org.sonar.java.Check");
+
+    RecordedEvent check = eventsByType.get("org.sonar.java.Check").stream()
+      .filter(event -> "ClassVisitor".equals(event.getString("check")))
+      .findFirst()
+      .orElseThrow();
+    assertThat(check.getString("file")).endsWith("SimpleClass.java");
+    // setContext, visitNode, leaveNode and leaveFile
+    assertThat(check.getInt("calls")).isEqualTo(4);
+    assertThat(check.getLong("time")).isPositive();
+    // the time of the subscription visitors is only reported by visitor, not a second time for the runner dispatching them
+    assertThat(eventsByType.get("org.sonar.java.Check"))
+      .extracting(event -> event.getString("check"))
+      .doesNotContain("SubscriptionVisitorsRunner");
+  }
+
+  private static class ClassVisitor extends SubscriptionVisitor {
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return Collections.singletonList(Tree.Kind.CLASS);
+    }
+  }
+}
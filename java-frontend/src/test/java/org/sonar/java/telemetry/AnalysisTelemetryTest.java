@@ -0,0 +1,108 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.java.TestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalysisTelemetryTest {
+
+  private static final InputFile INPUT_FILE = TestUtils.inputFile(new File("src/test/files/model/SimpleClass.java"));
+
+  @TempDir
+  Path workDir;
+
+  @Test
+  void telemetry_is_not_activated_by_default() {
+    assertThat(AnalysisTelemetry.start(new MapSettings().asConfig(), workDir.toFile())).isNull();
+  }
+
+  @Test
+  void telemetry_is_not_started_without_destination() {
+    MapSettings settings = new MapSettings().setProperty(AnalysisTelemetry.ACTIVATION_KEY, true);
+    assertThat(AnalysisTelemetry.start(settings.asConfig(), null)).isNull();
+  }
+
+  @Test
+  void files_and_histograms_are_written() throws IOException {
+    MapSettings settings = new MapSettings().setProperty(AnalysisTelemetry.ACTIVATION_KEY, true);
+    AnalysisTelemetry telemetry = AnalysisTelemetry.start(settings.asConfig(), workDir.toFile());
+    assertThat(telemetry).isNotNull();
+
+    telemetry.startFile(INPUT_FILE, 3_000_000, 2_000_000);
+    telemetry.symbolTable(1_000_000);
+    for (int i = 1; i <= AnalysisTelemetry.TOP_CHECKS + 2; i++) {
+      telemetry.check(new CheckNumber(i), i * 1_000L);
+    }
+    telemetry.checks(40_000);
+    telemetry.skippedSubtrees(12);
+    telemetry.linesOfCode(42);
+    telemetry.endFile();
+    // parsed as part of a batch, which could not be parsed
+    telemetry.startFile(INPUT_FILE, -1, 1_000);
+    telemetry.batch(5_000_000);
+    telemetry.stop();
+
+    String json = Files.readString(workDir.resolve(AnalysisTelemetry.DESTINATION_FILE), StandardCharsets.UTF_8);
+    assertThat(json)
+      .startsWith("{\"files\":[\n{\"file\":\"" + INPUT_FILE + "\",\"bytes\":" + INPUT_FILE.file().length() + ",\"totalMicros\":")
+      .contains(",\"ncloc\":42,\"parseMicros\":3000,\"convertMicros\":2000,\"symbolTableMicros\":1000,\"checksMicros\":40,\"slowestChecks\":["
+        + "{\"check\":\"CheckNumber\",\"micros\":7},{\"check\":\"CheckNumber\",\"micros\":6},{\"check\":\"CheckNumber\",\"micros\":5},"
+        + "{\"check\":\"CheckNumber\",\"micros\":4},{\"check\":\"CheckNumber\",\"micros\":3}],\"skippedSubtrees\":12}")
+      .doesNotContain("\"parseMicros\":-1", "\"ncloc\":-1")
+      .containsOnlyOnce("\"ncloc\":")
+      .contains(",\"convertMicros\":1,\"symbolTableMicros\":0,\"checksMicros\":0,\"slowestChecks\":[],\"skippedSubtrees\":0}\n],\"histograms\":{")
+      .contains("\"parse\":{\"count\":1,\"sumMicros\":3000,")
+      .contains("\"convert\":{\"count\":2,\"sumMicros\":2001,")
+      .contains("\"batchParse\":{\"count\":1,\"sumMicros\":5000,")
+      .endsWith("},\"skippedSubtrees\":12}\n");
+    assertThat(json.split("\"file\":", -1)).hasSize(3);
+  }
+
+  @Test
+  void timeouts_are_written() throws IOException {
+    MapSettings settings = new MapSettings().setProperty(AnalysisTelemetry.ACTIVATION_KEY, true);
+    AnalysisTelemetry telemetry = AnalysisTelemetry.start(settings.asConfig(), workDir.toFile());
+    assertThat(telemetry).isNotNull();
+
+    telemetry.startFile(INPUT_FILE, 1_000, 1_000);
+    telemetry.checkTimedOut(new CheckNumber(1));
+    telemetry.checkTimedOut(new CheckNumber(2));
+    telemetry.fileTimedOut();
+    telemetry.endFile();
+    telemetry.startFile(INPUT_FILE, 1_000, 1_000);
+    telemetry.stop();
+
+    String json = Files.readString(workDir.resolve(AnalysisTelemetry.DESTINATION_FILE), StandardCharsets.UTF_8);
+    assertThat(json)
+      .contains("\"slowestChecks\":[],\"skippedSubtrees\":0,\"timedOutChecks\":[\"CheckNumber\",\"CheckNumber\"],\"fileTimedOut\":true}")
+      .contains("\"slowestChecks\":[],\"skippedSubtrees\":0}\n]");
+  }
+
+  private record CheckNumber(int number) {
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2025 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the Sonar Source-Available License Version 1, as published by SonarSource SA.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the Sonar Source-Available License for more details.
+ *
+ * You should have received a copy of the Sonar Source-Available License
+ * along with this program; if not, see https://sonarsource.com/license/ssal/
+ */
+package org.sonar.java.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HistogramTest {
+
+  @Test
+  void empty_histogram() {
+    Histogram histogram = new Histogram();
+    assertThat(histogram.count()).isZero();
+    assertThat(histogram.percentile(50)).isZero();
+    assertThat(histogram.max()).isZero();
+  }
+
+  @Test
+  void percentiles_have_a_bounded_relative_error() {
+    Histogram histogram = new Histogram();
+    for (long value = 1; value <= 10_000; value++) {
+      histogram.record(value);
+    }
+    histogram.record(-1);
+    assertThat(histogram.count()).isEqualTo(10_000);
+    assertThat(histogram.sum()).isEqualTo(50_005_000L);
+    assertThat(histogram.max()).isEqualTo(10_000);
+    assertThat(histogram.percentile(50)).isBetween(5_000L, 5_000L + 5_000L / 8);
+    assertThat(histogram.percentile(99)).isBetween(9_900L, 10_000L);
+    assertThat(histogram.percentile(100)).isEqualTo(10_000);
+  }
+
+  @Test
+  void buckets_cover_all_values() {
+    long previousUpperBound = -1;
+    for (int index = 0; index <= Histogram.index(Long.MAX_VALUE); index++) {
+      long upperBound = Histogram.upperBound(index);
+      assertThat(Histogram.index(previousUpperBound + 1)).isEqualTo(index);
+      assertThat(Histogram.index(upperBound)).isEqualTo(index);
+      previousUpperBound = upperBound;
+    }
+    assertThat(previousUpperBound).isEqualTo(Long.MAX_VALUE);
+  }
+}
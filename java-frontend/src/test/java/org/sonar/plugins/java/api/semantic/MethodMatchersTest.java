@@ -244,6 +244,40 @@ class MethodMatchersTest {
     assertThat(findMatchesOnSymbol(source, MethodMatchers.none())).isEmpty();
   }
 
+  @Test
+  void test_or_indexed_by_names() {
+    String source = "" +
+      /* 01 */ "package pkg;\n" +
+      /* 02 */ "class A { \n" +
+      /* 03 */ "  A() { this(1); }\n" +
+      /* 04 */ "  A(int x) { }\n" +
+      /* 05 */ "  void f(int x) { }\n" +
+      /* 06 */ "  void g(int x) { }\n" +
+      /* 07 */ "  void h(int x) { }\n" +
+      /* 08 */ "  void main() {\n" +
+      /* 09 */ "    f(1);\n" +
+      /* 10 */ "    g(1);\n" +
+      /* 11 */ "    h(1);\n" +
+      /* 12 */ "    unknown(1);\n" +
+      /* 13 */ "  }\n" +
+      /* 14 */ "} \n";
+
+    MethodMatchers constructor = MethodMatchers.create().ofTypes("pkg.A").constructor().addParametersMatcher("int").build();
+    MethodMatchers f = MethodMatchers.create().ofTypes("pkg.A").names("f").addParametersMatcher("int").build();
+    MethodMatchers fOrG = MethodMatchers.create().ofTypes("pkg.A").name(name -> name.equals("f") || name.equals("g")).addParametersMatcher("int").build();
+    MethodMatchers gOrH = MethodMatchers.create().ofTypes("pkg.A").names("g", "h").addParametersMatcher("int").build();
+    MethodMatchers anyName = MethodMatchers.create().ofTypes("pkg.A").anyName().addParametersMatcher("int").build();
+    MethodMatchers anyMethod = MethodMatchers.create().ofAnyType().names(ANY).withAnyParameters().build();
+
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(constructor, f))).containsExactly(3, 4, 5, 9);
+    assertThat(findMatchesOnSymbol(source, MethodMatchers.or(constructor, f))).containsExactly(3, 4, 5, 9);
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(fOrG, MethodMatchers.none()))).containsExactly(5, 6, 9, 10);
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(MethodMatchers.or(constructor, gOrH), MethodMatchers.or(f)))).containsExactly(3, 4, 5, 6, 7, 9, 10, 11);
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(f, anyName))).containsExactly(3, 4, 5, 6, 7, 9, 10, 11);
+    assertThat(findMatchesOnTree(source, MethodMatchers.or(f, anyMethod))).containsExactly(3, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+    assertThat(findMatchesOnSymbol(source, MethodMatchers.or(f, anyMethod))).containsExactly(3, 3, 4, 5, 6, 7, 8, 9, 10, 11);
+  }
+
   @Test
   void test_inheritance() {
     String source = "" +
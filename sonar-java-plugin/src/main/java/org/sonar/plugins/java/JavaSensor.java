@@ -41,10 +41,13 @@ import org.sonar.java.GeneratedCheckList;
 import org.sonar.java.JavaFrontend;
 import org.sonar.java.Measurer;
 import org.sonar.java.SonarComponents;
+import org.sonar.java.TimeBudget;
 import org.sonar.java.filters.PostAnalysisIssueFilter;
 import org.sonar.java.jsp.Jasper;
 import org.sonar.java.model.GeneratedFile;
 import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.java.telemetry.AnalysisRecording;
+import org.sonar.java.telemetry.AnalysisTelemetry;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaResourceLocator;
 import org.sonar.plugins.java.api.JavaVersion;
@@ -58,7 +61,6 @@ public class JavaSensor implements Sensor {
 
   private static final Logger LOG = LoggerFactory.getLogger(JavaSensor.class);
 
-  private static final String PERFORMANCE_MEASURE_ACTIVATION_PROPERTY = "sonar.java.performance.measure";
   private static final String PERFORMANCE_MEASURE_FILE_PATH_PROPERTY = "sonar.java.performance.measure.path";
   private static final String PERFORMANCE_MEASURE_DESTINATION_FILE = "sonar.java.performance.measure.json";
 
@@ -98,9 +100,14 @@ public class JavaSensor implements Sensor {
   @Override
   public void execute(SensorContext context) {
     PerformanceMeasure.Duration sensorDuration = createPerformanceMeasureReport(context);
+    AnalysisRecording recording = AnalysisRecording.start(context.config(), context.fileSystem().workDir());
+    AnalysisTelemetry telemetry = AnalysisTelemetry.start(context.config(), context.fileSystem().workDir());
+    TimeBudget timeBudget = TimeBudget.start(context.config());
 
     sonarComponents.setSensorContext(context);
     sonarComponents.setCheckFilter(createCheckFilter(sonarComponents.isAutoScanCheckFiltering()));
+    sonarComponents.setAnalysisTelemetry(telemetry);
+    sonarComponents.setTimeBudget(timeBudget);
 
     Measurer measurer = new Measurer(context, noSonarFilter);
 
@@ -109,7 +116,19 @@ public class JavaSensor implements Sensor {
 
     JavaFrontend frontend = new JavaFrontend(javaVersion, sonarComponents, measurer, javaResourceLocator, postAnalysisIssueFilter,
       sonarComponents.mainChecks().toArray(new JavaCheck[0]));
-    frontend.scan(getSourceFiles(), getTestFiles(), runJasper(context));
+    try {
+      frontend.scan(getSourceFiles(), getTestFiles(), runJasper(context));
+    } finally {
+      if (recording != null) {
+        recording.stop();
+      }
+      if (telemetry != null) {
+        telemetry.stop();
+      }
+      if (timeBudget != null) {
+        timeBudget.stop();
+      }
+    }
 
     sensorDuration.stop();
   }
@@ -134,7 +153,7 @@ public class JavaSensor implements Sensor {
 
   private static PerformanceMeasure.Duration createPerformanceMeasureReport(SensorContext context) {
     return PerformanceMeasure.reportBuilder()
-      .activate(context.config().get(PERFORMANCE_MEASURE_ACTIVATION_PROPERTY).filter("true"::equals).isPresent())
+      .activate(context.config().get(SonarComponents.PERFORMANCE_MEASURE_ACTIVATION_KEY).filter("true"::equals).isPresent())
       .toFile(context.config().get(PERFORMANCE_MEASURE_FILE_PATH_PROPERTY)
         .filter(path -> !path.isEmpty())
         .orElseGet(() -> Optional.ofNullable(context.fileSystem().workDir())
@@ -111,7 +111,7 @@ class JavaSensorTest {
   @Test
   void test_issues_creation_on_main_file() throws IOException {
     // Expected issues : the number of methods violating BadMethodName rule. Currently, 18 tests.
-    testIssueCreation(InputFile.Type.MAIN, 15);
+    testIssueCreation(InputFile.Type.MAIN, 17);
   }
 
   @Test
@@ -306,6 +306,27 @@ class JavaSensorTest {
     assertThat(new String(Files.readAllBytes(defaultPerformanceFile), UTF_8)).contains("\"JavaSensor\"");
   }
 
+  @Test
+  void jfr_recording_should_be_written_in_work_dir() throws IOException {
+    MapSettings settings = new MapSettings();
+    settings.setProperty("sonar.java.performance.jfr", "true");
+    Path workDir = tmp.newFolder().toPath();
+    executeJavaSensorForPerformanceMeasure(settings, workDir);
+    assertThat(workDir.resolve("sonar.java.performance.jfr")).exists();
+    assertThat(workDir.resolve("sonar.java.performance.measure.json")).doesNotExist();
+  }
+
+  @Test
+  void telemetry_should_be_written_in_work_dir() throws IOException {
+    MapSettings settings = new MapSettings();
+    settings.setProperty("sonar.java.performance.telemetry", "true");
+    Path workDir = tmp.newFolder().toPath();
+    executeJavaSensorForPerformanceMeasure(settings, workDir);
+    Path telemetryFile = workDir.resolve("sonar.java.performance.telemetry.json");
+    assertThat(telemetryFile).exists();
+    assertThat(new String(Files.readAllBytes(telemetryFile), UTF_8)).startsWith("{\"files\":[").contains("\"histograms\":{");
+  }
+
   /*@Test
   void test_java_version_automatically_accepts_enablePreview_flag_when_maximum_version() throws IOException {
     MapSettings settings = new MapSettings();
@@ -443,7 +464,7 @@ class JavaSensorTest {
     CheckFactory specificCheckFactory = new CheckFactory(activeRulesBuilder.build());
 
     SonarComponents components = new SonarComponents(fileLinesContextFactory, fs,
-      javaClasspath, javaTestClasspath, specificCheckFactory, context.activeRules(), checkRegistrars, null, null);
+      javaClasspath, javaTestClasspath, specificCheckFactory, context.activeRules(), checkRegistrars);
 
     JavaSensor jss = new JavaSensor(components, fs, resourceLocator, context.config(), mock(NoSonarFilter.class), null);
     jss.execute(context);